@@ -1,35 +1,227 @@
-package Houserent_system_YEproject03;
-
-import Houserent_system_YEproject03.view.HouseView;
-
-/**
- *【App層】
- *本クラスはアプリケーションの「エントリーポイント」の責務のみを担う。
- *起動ロジックを簡潔に保ち、実際の画面制御は HouseView クラスに委譲している。この設計により、プログラムの「起動」と「実行ロジック」を明確に分離している。
- *
- *【設計意図】
- *·アプリケーションのエントリーポイント
- *·UI層を起動し、プログラムの実行を開始する
- *
- * 【責務範囲】
- *·プログラムの起動を制御する
- *·プログラムライフサイクルの起点となる
- *
- *【設計上の取捨】
- *·View を直接インスタンス化している。構造はシンプルだが目的は明確である
- *
- *@author ye888000
- *@version 1.0
- *@since 2026-02-11
- */
-
-public class HouseRentApp{
-    public static void main(String[] args){
-        new HouseView().MainMenu();
-        //メイン処理終了後に終了メッセージを出力し、プログラムのライフサイクルが終了したことを明確にするためのものである。
-        System.out.println("=====あなたは賃貸住宅システムを終了しました====");
-    }
-}
-
-
-
+package HouseRentSystem_YEproject03;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.http.HouseHttpServer;
+import HouseRentSystem_YEproject03.persistence.HousePersistence;
+import HouseRentSystem_YEproject03.replication.HouseReplica;
+import HouseRentSystem_YEproject03.replication.HouseReplicationServer;
+import HouseRentSystem_YEproject03.script.HouseScriptRunner;
+import HouseRentSystem_YEproject03.script.ScriptResult;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService;
+import HouseRentSystem_YEproject03.transfer.HouseExporter;
+import HouseRentSystem_YEproject03.transfer.HouseImporter;
+import HouseRentSystem_YEproject03.transfer.TransferResult;
+import HouseRentSystem_YEproject03.view.HouseView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ *【App層】
+ *本クラスはアプリケーションの「エントリーポイント」の責務のみを担う。
+ *起動ロジックを簡潔に保ち、実際の画面制御は HouseView クラスに委譲している。この設計により、プログラムの「起動」と「実行ロジック」を明確に分離している。
+ *
+ *【設計意図】
+ *·アプリケーションのエントリーポイント
+ *·UI層を起動し、プログラムの実行を開始する
+ *·保存済みのデータを復元してからViewへ渡し、終了時にはスナップショットを作成して次回の起動を速くする
+ *
+ * 【責務範囲】
+ *·プログラムの起動を制御する
+ *·プログラムライフサイクルの起点となる
+ *·データ保存先（第1引数、省略時は house-data）の決定
+ *·一括取り込み・書き出しの起動（import ファイル [保存先] ／ export ファイル [保存先]）。画面は表示せず、処理件数と毎秒の件数を出力して終了する
+ *·コマンドスクリプトの実行（script ファイル [保存先]）。ファイルに「-」を指定すると標準入力から読む
+ *·HTTP/JSONサーバーの起動（serve [ポート番号] [保存先] [複製用のポート番号] [区画数]）。停止（Ctrl+C）時にスナップショットを作成する。
+ * 複製用のポート番号を指定した場合は複製元となり、接続してきたレプリカへ変更を送る（複製せずに区画数だけを指定する場合は「-」とする）
+ * 区画数に2以上を指定した場合は、区ごとに区画を分けたPartitionedHouseServiceを使用する
+ *·読み取り専用のレプリカの起動（replica 複製元のホスト:ポート番号 [ポート番号]）。複製元の内容をHTTP/JSONで参照できる。保存データは持たない
+ *·画面操作時とサーバー起動時に、統計情報（HouseMetrics）をJMXへ登録する
+ *
+ *【設計上の取捨】
+ *·View を直接インスタンス化している。構造はシンプルだが目的は明確である
+ *·初期データ（jack）は保存データが空の場合のみ登録する。再起動のたびに同じ物件が重複して登録されるのを防ぐため
+ *
+ *@author ye888000
+ *@version 1.3
+ *@since 2026-02-11
+ */
+
+public class HouseRentApp{
+    public static void main(String[] args){
+        if (args.length>0&&"serve".equals(args[0])){
+            serve(args);
+            return;
+        }
+        if (args.length>1&&"replica".equals(args[0])){
+            replica(args);
+            return;
+        }
+        boolean transfer=args.length>=2&&("import".equals(args[0])||"export".equals(args[0])||"script".equals(args[0]));
+        int dataArg=transfer?2:0;
+        Path dataDir=Paths.get(args.length>dataArg?args[dataArg]:"house-data");
+        HouseService houseService=new HouseService(10,false);
+        HousePersistence persistence;
+        try{
+            //一括取り込みとスクリプトの実行では1件ごとのfsyncを待たず、最後のスナップショットでまとめて確定させる。
+            boolean syncOnCommit=!(transfer&&("import".equals(args[0])||"script".equals(args[0])));
+            persistence=HousePersistence.open(dataDir,houseService,syncOnCommit,HousePersistence.DEFAULT_SNAPSHOT_INTERVAL);
+        }catch (IOException e){
+            System.out.println("保存データの読み込みに失敗しました: "+e.getMessage());
+            return;
+        }
+        reportSkippedSnapshots(persistence);
+        if (transfer){
+            transfer(args[0],Paths.get(args[1]),houseService,persistence);
+            return;
+        }
+        if (houseService.size()==0&&houseService.idCounter()==0){
+            houseService.add(new House(0,"jack","020554588","墨田区",72000, "未賃貸"));
+        }
+        houseService.metrics().register("console");
+
+        new HouseView(houseService).MainMenu();
+
+        //終了時にスナップショットを作成し、次回の起動ではジャーナルの再適用を最小限にする。
+        try{
+            persistence.snapshot();
+            persistence.close();
+        }catch (IOException e){
+            System.out.println("保存データの書き込みに失敗しました: "+e.getMessage());
+        }
+        //メイン処理終了後に終了メッセージを出力し、プログラムのライフサイクルが終了したことを明確にするためのものである。
+        System.out.println("=====あなたは賃貸住宅システムを終了しました====");
+    }
+
+    //·複数の要求から同時に呼ばれるため、スレッドセーフなConcurrentHouseServiceを使用する。
+    //·プロセスの終了時（Ctrl+Cなど）にサーバーを止め、スナップショットを作成してから保存データを閉じる。
+    //·第4引数（複製用のポート番号）を指定した場合は、HouseReplicationServerを起動して複製元となる。「-」の場合は複製しない。
+    //·第5引数（区画数）に2以上を指定した場合は、区ごとに分けたPartitionedHouseServiceを使用する。異なる区画への書き込みは、保存データ（と複製）への記録も含めて並行して進む。
+    private static void serve(String[] args){
+        int port=args.length>1?Integer.parseInt(args[1]):8080;
+        Path dataDir=Paths.get(args.length>2?args[2]:"house-data");
+        boolean replicate=args.length>3&&!"-".equals(args[3]);
+        int shardCount=args.length>4?Integer.parseInt(args[4]):1;
+        HouseService houseService=shardCount>1?new PartitionedHouseService(PartitionedHouseService.Partitioning.WARD,shardCount,10,false)
+                :new ConcurrentHouseService(10,false);
+        try{
+            HousePersistence persistence=HousePersistence.open(dataDir,houseService);
+            reportSkippedSnapshots(persistence);
+            HouseHttpServer server=new HouseHttpServer(houseService,new InetSocketAddress(port));
+            HouseReplicationServer replication=replicate?new HouseReplicationServer(houseService,new InetSocketAddress(Integer.parseInt(args[3]))):null;
+            houseService.metrics().register("http");
+            Runtime.getRuntime().addShutdownHook(new Thread(()->{
+                server.close();
+                try{
+                    if (replication!=null){
+                        replication.close();
+                    }
+                }catch (IOException e){
+                    System.out.println("レプリカとの接続を閉じられませんでした: "+e.getMessage());
+                }
+                try{
+                    persistence.snapshot();
+                    persistence.close();
+                }catch (IOException e){
+                    System.out.println("保存データの書き込みに失敗しました: "+e.getMessage());
+                }
+            },"house-shutdown"));
+            server.start();
+            if (replication!=null){
+                replication.start();
+                System.out.println("ポート "+replication.port()+" でレプリカの接続を待ち受けています。");
+            }
+            System.out.println("http://localhost:"+server.port()+"/houses で待ち受けています（"+houseService.size()+"件、"
+                    +(shardCount>1?shardCount+"区画、":"")+(server.usesVirtualThreads()?"仮想スレッド":"スレッドプール")+"）。Ctrl+Cで終了します。");
+        }catch (IOException e){
+            System.out.println("サーバーの起動に失敗しました: "+e.getMessage());
+        }
+    }
+
+    //·複製元から受け取った内容を、読み取り専用のHTTP/JSONサーバーで提供する。内容は複製元が持つため、保存データは作らない。
+    private static void replica(String[] args){
+        String target=args[1];
+        int separator=target.lastIndexOf(':');
+        if (separator<0){
+            System.out.println("複製元は ホスト:ポート番号 の形式で指定してください: "+target);
+            return;
+        }
+        int port=args.length>2?Integer.parseInt(args[2]):8081;
+        HouseReplica replica=new HouseReplica(new InetSocketAddress(target.substring(0,separator),Integer.parseInt(target.substring(separator+1))),10);
+        try{
+            HouseHttpServer server=new HouseHttpServer(replica.service(),new InetSocketAddress(port));
+            replica.service().metrics().register("replica");
+            Runtime.getRuntime().addShutdownHook(new Thread(()->{
+                server.close();
+                try{
+                    replica.close();
+                }catch (IOException e){
+                    System.out.println("複製元との接続を閉じられませんでした: "+e.getMessage());
+                }
+            },"house-shutdown"));
+            replica.start();
+            server.start();
+            System.out.println("http://localhost:"+server.port()+"/houses で待ち受けています（"+target+" のレプリカ、読み取り専用）。Ctrl+Cで終了します。");
+        }catch (IOException e){
+            System.out.println("サーバーの起動に失敗しました: "+e.getMessage());
+        }
+    }
+
+    //·破損していたスナップショットを通知する。1つ前のスナップショットとジャーナルから復元済みのため、起動は続ける。
+    private static void reportSkippedSnapshots(HousePersistence persistence){
+        for (Path path:persistence.skippedSnapshots()){
+            System.out.println("スナップショットが破損しているため読み飛ばしました: "+path);
+        }
+    }
+
+    //·一括取り込み・書き出しを行う。取り込み後はスナップショットを作成し、次回の起動でジャーナルを再適用しなくて済むようにする。
+    //·取り込み中・スクリプト実行中の記録は書き込み専用スレッドに任せ、変更した内容はスナップショットの書き込み（fsync）完了で確定する。
+    private static void transfer(String command,Path file,HouseService houseService,HousePersistence persistence){
+        try{
+            TransferResult result;
+            if ("script".equals(command)){
+                runScript(file,houseService);
+                persistence.snapshot();
+                return;
+            }
+            if ("import".equals(command)){
+                result=new HouseImporter(houseService).importFile(file);
+                persistence.snapshot();
+            }else{
+                result=HouseExporter.export(houseService,file);
+            }
+            System.out.println(("import".equals(command)?"取り込み: ":"書き出し: ")+result);
+            for (String error:result.errors()){
+                System.out.println("  "+error);
+            }
+        }catch (IOException e){
+            System.out.println(file+" の処理に失敗しました: "+e.getMessage());
+        }finally{
+            try{
+                persistence.close();
+            }catch (IOException e){
+                System.out.println("保存データの書き込みに失敗しました: "+e.getMessage());
+            }
+        }
+    }
+
+    //·スクリプトの実行結果（find・list）は標準出力へ、実行件数とエラー内容は最後にまとめて出力する。
+    private static void runScript(Path file,HouseService houseService) throws IOException{
+        boolean stdin="-".equals(file.toString());
+        try (InputStream in=stdin?System.in:Files.newInputStream(file)){
+            ScriptResult result=new HouseScriptRunner(houseService,new OutputStreamWriter(System.out,Charset.defaultCharset())).run(in);
+            System.out.println("スクリプト: "+result);
+            for (String message:result.messages()){
+                System.out.println("  "+message);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package HouseRentSystem_YEproject03.codec;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *【Codec層】
+ *House1件を、可変長整数と長さ付きUTF-8文字列による詰めたバイト列（レコード）へ変換し、ByteBufferへ直接読み書きするクラス。
+ *
+ *【設計意図】
+ *·スナップショット・一括書き出し・ネットワーク転送で同じ形式を使い、形式の食い違いと変換処理の重複を無くす。
+ *·中間のbyte[]やストリームを介さず、呼び出し側のByteBuffer（ヒープ・ダイレクト・メモリマップのいずれも可）へ直接書き込み、直接読み出す。
+ *·読み込み側は、HouseRecord（フライウェイト）で物件を生成せずに各項目を参照できる。decodeもHouseRecordを通して行うため、解析処理は1つだけである。
+ *
+ *【レコード形式】
+ *·[ID:varint][版番号:varint][家賃:zigzag varint][状態:byte][氏名][電話][住所]
+ *·varintは7ビットずつ下位から並べ、続きがあるバイトの最上位ビットを1とする形式（Protocol Buffersと同じ）。家賃は負の値も短く表せるようzigzag符号化する。
+ *·状態は 0=未賃貸、1=賃貸中、2=null、3=その他（直後に文字列が続く）の1バイトとする。
+ *·文字列は[UTF-8のバイト数+1:varint][UTF-8]とし、0はnullを表す。
+ *·数値を先頭にまとめているため、HouseRecordはID・家賃・状態を文字列の長さを読まずに参照できる。
+ *
+ *【設計上の取捨】
+ *·典型的な物件（ID・家賃が3バイト以内、氏名・住所が数文字）は30～40バイトとなり、DataOutput.writeUTFと固定長intによる形式（HouseRecordIO、約58バイト）より2～3割短い。
+ *·レコード自体には全体の長さを持たない。長さが必要な場合はmeasure()で各項目の長さを読んで求める。
+ *·書き込み先の残りが足りない場合はBufferOverflowExceptionを送出し、書き込み位置は変えない（途中まで書いた内容は残るが、位置より後ろである）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public final class HouseCodec{
+    static final byte VACANT_CODE=0;
+    static final byte RENTED_CODE=1;
+    static final byte NULL_CODE=2;
+    static final byte OTHER_CODE=3;
+    static final String VACANT="未賃貸";
+    static final String RENTED="賃貸中";
+
+    private HouseCodec(){
+    }
+
+    //·houseのレコードのバイト数を返す。
+    public static int encodedSize(House house){
+        int size=varintSize(house.getId())+varintSize(house.getVersion())+varintSize(zigzag(house.getRent()))+1;
+        if (stateCode(house.getState())==OTHER_CODE){
+            size+=stringSize(house.getState());
+        }
+        return size+stringSize(house.getName())+stringSize(house.getPhone())+stringSize(house.getAddress());
+    }
+
+    //·houseのレコードをoutの現在位置へ書き込み、位置を進める。残りが足りない場合は何も書かずにBufferOverflowExceptionを送出する。
+    public static void encode(House house,ByteBuffer out){
+        //·先にバイト数を求めると文字列のUTF-8の長さを2回数えることになるため、書き込んでみて足りなければ位置を戻す。
+        int start=out.position();
+        try{
+            putVarint(out,house.getId());
+            putVarint(out,house.getVersion());
+            putVarint(out,zigzag(house.getRent()));
+            byte state=stateCode(house.getState());
+            out.put(state);
+            if (state==OTHER_CODE){
+                putString(out,house.getState());
+            }
+            putString(out,house.getName());
+            putString(out,house.getPhone());
+            putString(out,house.getAddress());
+        }catch (BufferOverflowException e){
+            out.position(start);
+            throw e;
+        }
+    }
+
+    //·inの現在位置からレコードを1件読み込み、位置をレコードの直後へ進める。
+    //·レコードが途中で途切れている場合はIndexOutOfBoundsException、形式が正しくない場合はIllegalArgumentExceptionを送出する。
+    public static House decode(ByteBuffer in){
+        HouseRecord record=new HouseRecord().wrap(in,in.position());
+        House house=record.toHouse();
+        in.position(record.end());
+        return house;
+    }
+
+    //·offsetから始まるレコードのバイト数を返す。limitまでにレコードが収まっていない場合は-1を返す。
+    //·ストリームから読み込んだ途中のデータについて、1件分が揃っているかを判定するために使う。
+    public static int measure(ByteBuffer in,int offset,int limit){
+        int p=offset;
+        for (int i=0;i<3;i++){
+            p=skipVarint(in,p,limit);
+            if (p<0){
+                return -1;
+            }
+        }
+        if (p>=limit){
+            return -1;
+        }
+        int strings=in.get(p++)==OTHER_CODE?4:3;
+        for (int i=0;i<strings;i++){
+            if (p>=limit){
+                return -1;
+            }
+            long header=readVarint(in,p,limit);
+            if (header<0){
+                return -1;
+            }
+            p+=(int)(header>>>32)+Math.max((int)header-1,0);
+            if (p>limit||p<0){
+                return -1;
+            }
+        }
+        return p-offset;
+    }
+
+    static byte stateCode(String state){
+        if (state==null){
+            return NULL_CODE;
+        }
+        if (VACANT.equals(state)){
+            return VACANT_CODE;
+        }
+        return RENTED.equals(state)?RENTED_CODE:OTHER_CODE;
+    }
+
+    //·indexから可変長整数を読み、上位32ビットにバイト数、下位32ビットに値を入れて返す。limitまでに終わらない場合は-1を返す。
+    static long readVarint(ByteBuffer in,int index,int limit){
+        int value=0;
+        for (int i=0;i<5;i++){
+            if (index+i>=limit){
+                return -1;
+            }
+            byte b=in.get(index+i);
+            value|=(b&0x7F)<<(7*i);
+            if (b>=0){
+                return ((long)(i+1)<<32)|(value&0xFFFFFFFFL);
+            }
+        }
+        throw new IllegalArgumentException("可変長整数が5バイトを超えています: 位置 "+index);
+    }
+
+    static int unzigzag(int value){
+        return (value>>>1)^-(value&1);
+    }
+
+    //·lengthバイトのUTF-8を文字列にする。ヒープ上のバッファは配列から直接変換し、それ以外は1回だけbyte[]へ写してから変換する。
+    static String getString(ByteBuffer in,int index,int length){
+        if (in.hasArray()){
+            return new String(in.array(),in.arrayOffset()+index,length,StandardCharsets.UTF_8);
+        }
+        byte[] bytes=new byte[length];
+        in.get(index,bytes);
+        return new String(bytes,StandardCharsets.UTF_8);
+    }
+
+    private static int skipVarint(ByteBuffer in,int index,int limit){
+        long header=readVarint(in,index,limit);
+        return header<0?-1:index+(int)(header>>>32);
+    }
+
+    private static int zigzag(int value){
+        return (value<<1)^(value>>31);
+    }
+
+    private static int varintSize(int value){
+        return value==0?1:(38-Integer.numberOfLeadingZeros(value))/7;
+    }
+
+    private static void putVarint(ByteBuffer out,int value){
+        while ((value&~0x7F)!=0){
+            out.put((byte)((value&0x7F)|0x80));
+            value>>>=7;
+        }
+        out.put((byte)value);
+    }
+
+    private static int stringSize(String value){
+        if (value==null){
+            return 1;
+        }
+        int length=utf8Length(value);
+        return varintSize(length+1)+length;
+    }
+
+    //·文字を1文字ずつUTF-8へ変換して直接書き込む。対になっていないサロゲートは「?」とする（String.getBytesと同じ）。
+    private static void putString(ByteBuffer out,String value){
+        if (value==null){
+            out.put((byte)0);
+            return;
+        }
+        putVarint(out,utf8Length(value)+1);
+        int n=value.length();
+        for (int i=0;i<n;i++){
+            char c=value.charAt(i);
+            if (c<0x80){
+                out.put((byte)c);
+            }else if (c<0x800){
+                out.put((byte)(0xC0|(c>>6)));
+                out.put((byte)(0x80|(c&0x3F)));
+            }else if (Character.isHighSurrogate(c)&&i+1<n&&Character.isLowSurrogate(value.charAt(i+1))){
+                int cp=Character.toCodePoint(c,value.charAt(++i));
+                out.put((byte)(0xF0|(cp>>18)));
+                out.put((byte)(0x80|((cp>>12)&0x3F)));
+                out.put((byte)(0x80|((cp>>6)&0x3F)));
+                out.put((byte)(0x80|(cp&0x3F)));
+            }else if (Character.isSurrogate(c)){
+                out.put((byte)'?');
+            }else{
+                out.put((byte)(0xE0|(c>>12)));
+                out.put((byte)(0x80|((c>>6)&0x3F)));
+                out.put((byte)(0x80|(c&0x3F)));
+            }
+        }
+    }
+
+    private static int utf8Length(String value){
+        int n=value.length();
+        int length=0;
+        for (int i=0;i<n;i++){
+            char c=value.charAt(i);
+            if (c<0x80){
+                length++;
+            }else if (c<0x800){
+                length+=2;
+            }else if (Character.isHighSurrogate(c)&&i+1<n&&Character.isLowSurrogate(value.charAt(i+1))){
+                length+=4;
+                i++;
+            }else if (Character.isSurrogate(c)){
+                length++;
+            }else{
+                length+=3;
+            }
+        }
+        return length;
+    }
+}
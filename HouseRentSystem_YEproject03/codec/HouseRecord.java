@@ -0,0 +1,194 @@
+package HouseRentSystem_YEproject03.codec;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *【Codec層・フライウェイト】
+ *ByteBuffer上のレコード（HouseCodecの形式）1件を、Houseを生成せずに参照するためのビュー。
+ *
+ *【設計意図】
+ *·スナップショットやネットワークから受け取った大量のレコードのうち、条件に合うものだけを物件にしたい場合、全件をHouseと文字列にすると不要なオブジェクトが大量に生成される。
+ *·wrap()では数値の項目と各文字列の位置だけを読み取り、文字列は参照された時点で初めて生成する。
+ * 1つのインスタンスを次のレコードへwrap()し直して使い回すことで、走査中のオブジェクト生成を無くせる。
+ *
+ *【設計上の取捨】
+ *·バッファの位置（position）は変更せず、すべて絶対位置で読む。同じバッファを複数のビューで同時に参照できる。
+ *·バッファの内容がwrap()の後に書き換えられた場合の結果は保証しない。
+ *·addressStartsWith()は住所をUTF-8のまま比較するため、区の絞り込みなどを文字列を生成せずに行える。
+ *·スレッドセーフではない。スレッドごとに別のインスタンスを使う。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public final class HouseRecord{
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+    private int id;
+    private int version;
+    private int rent;
+    private byte stateCode;
+    //各文字列の本体の開始位置と、UTF-8のバイト数（nullの場合は-1）
+    private int stateAt;
+    private int stateLength;
+    private int nameAt;
+    private int nameLength;
+    private int phoneAt;
+    private int phoneLength;
+    private int addressAt;
+    private int addressLength;
+
+    //·bufferのoffsetから始まるレコードを参照する。レコードはbufferのlimitまでに収まっている必要がある。
+    //·途中で途切れている場合はIndexOutOfBoundsException、形式が正しくない場合はIllegalArgumentExceptionを送出する。
+    public HouseRecord wrap(ByteBuffer buffer,int offset){
+        this.buffer=buffer;
+        this.start=offset;
+        int limit=buffer.limit();
+        int p=offset;
+        long header=varint(p,limit);
+        id=(int)header;
+        p+=(int)(header>>>32);
+        header=varint(p,limit);
+        version=(int)header;
+        p+=(int)(header>>>32);
+        header=varint(p,limit);
+        rent=HouseCodec.unzigzag((int)header);
+        p+=(int)(header>>>32);
+        stateCode=buffer.get(p++);
+        if (stateCode<HouseCodec.VACANT_CODE||stateCode>HouseCodec.OTHER_CODE){
+            throw new IllegalArgumentException("状態の符号が正しくありません: "+stateCode);
+        }
+        stateAt=-1;
+        stateLength=-1;
+        if (stateCode==HouseCodec.OTHER_CODE){
+            p=string(p,limit);
+            stateLength=lastLength;
+            stateAt=lastAt;
+        }
+        p=string(p,limit);
+        nameAt=lastAt;
+        nameLength=lastLength;
+        p=string(p,limit);
+        phoneAt=lastAt;
+        phoneLength=lastLength;
+        p=string(p,limit);
+        addressAt=lastAt;
+        addressLength=lastLength;
+        end=p;
+        return this;
+    }
+
+    public int id(){
+        return id;
+    }
+
+    public int version(){
+        return version;
+    }
+
+    public int rent(){
+        return rent;
+    }
+
+    //状態が「未賃貸」かどうかを返す。
+    public boolean isVacant(){
+        return stateCode==HouseCodec.VACANT_CODE;
+    }
+
+    //·状態を返す。「未賃貸」「賃貸中」は共通の文字列インスタンスを返し、新しい文字列を生成しない。
+    public String state(){
+        if (stateCode==HouseCodec.VACANT_CODE){
+            return HouseCodec.VACANT;
+        }
+        if (stateCode==HouseCodec.RENTED_CODE){
+            return HouseCodec.RENTED;
+        }
+        return text(stateAt,stateLength);
+    }
+
+    public String name(){
+        return text(nameAt,nameLength);
+    }
+
+    public String phone(){
+        return text(phoneAt,phoneLength);
+    }
+
+    public String address(){
+        return text(addressAt,addressLength);
+    }
+
+    //·住所がprefix（UTF-8のバイト列）で始まるかを、文字列を生成せずに判定する。
+    public boolean addressStartsWith(byte[] prefix){
+        if (addressLength<prefix.length){
+            return false;
+        }
+        for (int i=0;i<prefix.length;i++){
+            if (buffer.get(addressAt+i)!=prefix[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //·住所がprefixで始まるかを判定する。判定ごとにprefixをUTF-8へ変換するため、繰り返し判定する場合はbyte[]版を使う。
+    public boolean addressStartsWith(String prefix){
+        return addressStartsWith(prefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //レコードの先頭位置
+    public int start(){
+        return start;
+    }
+
+    //レコードの直後の位置。次のレコードの先頭である。
+    public int end(){
+        return end;
+    }
+
+    //レコードのバイト数
+    public int length(){
+        return end-start;
+    }
+
+    //参照しているレコードからHouseを生成する。
+    public House toHouse(){
+        return new House(id,name(),phone(),address(),rent,state(),version);
+    }
+
+    //直前に読んだ文字列の本体の位置とバイト数。
+    private int lastAt;
+    private int lastLength;
+
+    private int string(int p,int limit){
+        long header=varint(p,limit);
+        p+=(int)(header>>>32);
+        int length=(int)header-1;
+        lastAt=p;
+        lastLength=length;
+        if (length<0){
+            return p;
+        }
+        if (length>limit-p){
+            throw new IndexOutOfBoundsException("レコードが途中で途切れています: 位置 "+p);
+        }
+        return p+length;
+    }
+
+    private long varint(int p,int limit){
+        long header=HouseCodec.readVarint(buffer,p,limit);
+        if (header<0){
+            throw new IndexOutOfBoundsException("レコードが途中で途切れています: 位置 "+p);
+        }
+        return header;
+    }
+
+    private String text(int at,int length){
+        return length<0?null:HouseCodec.getString(buffer,at,length);
+    }
+}
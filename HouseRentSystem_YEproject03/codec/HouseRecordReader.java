@@ -0,0 +1,150 @@
+package HouseRentSystem_YEproject03.codec;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ *【Codec層】
+ *チャネルから読み込んだバイト列を1つのByteBufferに溜め、HouseCodecのレコードを順に取り出すクラス。
+ *
+ *【設計意図】
+ *·HouseRecordWriterで書き込んだ内容を、書き込み先の種類（ファイルまたはソケット）に関係なく同じ処理で読み込む。
+ *·next(HouseRecord)は、バッファ上のレコードをフライウェイトで参照させるだけで、物件も文字列も生成しない。
+ * 条件に合うレコードだけをtoHouse()で物件にすることで、読み飛ばすレコードのためのオブジェクト生成を無くせる。
+ *
+ *【設計上の取捨】
+ *·レコードが揃っているかはHouseCodec.measure()で判定し、揃っていない場合は未読の部分をバッファの先頭へ詰めてから続きを読み込む。
+ * バッファより大きいレコードの場合は、バッファを広げる。
+ *·CRC32を指定した場合は、読み終えた部分を先頭へ詰める直前と、checksum()の呼び出し時にまとめて計算する。
+ *·チャネルは閉じない。閉じるのは呼び出し側の責務とする。
+ *·スレッドセーフではない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseRecordReader{
+    private final ReadableByteChannel channel;
+    private final CRC32 crc;
+    private ByteBuffer buffer;
+    //チェックサムをまだ計算していない部分の先頭位置
+    private int checked;
+    private boolean eof;
+
+    //·crcがnullの場合はチェックサムを計算しない。
+    public HouseRecordReader(ReadableByteChannel channel,CRC32 crc){
+        this(channel,crc,ByteBuffer.allocateDirect(HouseRecordWriter.BUFFER_SIZE));
+    }
+
+    public HouseRecordReader(ReadableByteChannel channel,CRC32 crc,ByteBuffer buffer){
+        this.channel=channel;
+        this.crc=crc;
+        this.buffer=buffer;
+        buffer.clear().flip();
+    }
+
+    public int readInt() throws IOException{
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException{
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    //·次のレコードを物件にして返す。データの終わりに達した場合はnullを返す。
+    //·レコードの途中でデータが終わっている場合はEOFExceptionを送出する。
+    public House read() throws IOException{
+        int size=nextSize();
+        if (size<0){
+            return null;
+        }
+        return HouseCodec.decode(buffer);
+    }
+
+    //·次のレコードをrecordに参照させ、trueを返す。データの終わりに達した場合はfalseを返す。
+    //·recordが参照できるのは、次にこのReaderのメソッドを呼び出すまでである。
+    public boolean next(HouseRecord record) throws IOException{
+        int size=nextSize();
+        if (size<0){
+            return false;
+        }
+        record.wrap(buffer,buffer.position());
+        buffer.position(record.end());
+        return true;
+    }
+
+    //·これまでに読み込んだ内容（現在の読み込み位置まで）に対するチェックサムを返す。
+    public long checksum(){
+        digest();
+        return crc.getValue();
+    }
+
+    //·次のレコードのバイト数を返す。レコードが揃うまで続きを読み込み、データの終わりに達した場合は-1を返す。
+    private int nextSize() throws IOException{
+        while (true){
+            int size=HouseCodec.measure(buffer,buffer.position(),buffer.limit());
+            if (size>=0){
+                return size;
+            }
+            if (!fill()){
+                if (buffer.hasRemaining()){
+                    throw new EOFException("レコードの途中でデータが終わっています");
+                }
+                return -1;
+            }
+        }
+    }
+
+    private void require(int size) throws IOException{
+        while (buffer.remaining()<size){
+            if (!fill()){
+                throw new EOFException();
+            }
+        }
+    }
+
+    //·未読の部分をバッファの先頭へ詰め、続きを読み込む。データの終わりに達して何も読めなかった場合はfalseを返す。
+    private boolean fill() throws IOException{
+        if (eof){
+            return false;
+        }
+        digest();
+        if (buffer.position()==0&&buffer.limit()==buffer.capacity()){
+            ByteBuffer larger=buffer.isDirect()?ByteBuffer.allocateDirect(buffer.capacity()<<1):ByteBuffer.allocate(buffer.capacity()<<1);
+            larger.put(buffer);
+            buffer=larger;
+        }else{
+            buffer.compact();
+        }
+        checked=0;
+        int read;
+        try{
+            read=channel.read(buffer);
+        }finally{
+            buffer.flip();
+        }
+        if (read<0){
+            eof=true;
+            return false;
+        }
+        return true;
+    }
+
+    private void digest(){
+        if (crc==null||buffer.position()==checked){
+            return;
+        }
+        ByteBuffer done=buffer.duplicate();
+        done.limit(buffer.position()).position(checked);
+        crc.update(done);
+        checked=buffer.position();
+    }
+}
@@ -0,0 +1,108 @@
+package HouseRentSystem_YEproject03.codec;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ *【Codec層】
+ *HouseCodecのレコードを、1つのByteBufferへ直接書き溜めてからチャネルへまとめて書き込むクラス。
+ *
+ *【設計意図】
+ *·スナップショット・一括書き出し・ネットワーク転送で、書き込み先（ファイルまたはソケット）だけを変えて同じ処理を使う。
+ *·DataOutputStreamとBufferedOutputStreamを重ねる場合と異なり、レコードはバッファへ直接符号化され、途中のコピーは発生しない。
+ *·CRC32を指定した場合は、チャネルへ書き込む直前のバッファに対してまとめて計算する。
+ *
+ *【設計上の取捨】
+ *·バッファの残りが足りずにレコードを書けなかった場合は、バッファを書き出してから同じレコードを書き直す。
+ * レコードはバッファの中で途切れることがなく、バッファより大きいレコードの場合はバッファを広げる。
+ *·チャネルは閉じない。閉じるのは呼び出し側の責務とする。
+ *·スレッドセーフではない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseRecordWriter implements Flushable{
+    //既定のバッファのバイト数
+    public static final int BUFFER_SIZE=1<<16;
+
+    private final WritableByteChannel channel;
+    private final CRC32 crc;
+    private ByteBuffer buffer;
+    private long records;
+
+    //·crcがnullの場合はチェックサムを計算しない。
+    public HouseRecordWriter(WritableByteChannel channel,CRC32 crc){
+        this(channel,crc,ByteBuffer.allocateDirect(BUFFER_SIZE));
+    }
+
+    public HouseRecordWriter(WritableByteChannel channel,CRC32 crc,ByteBuffer buffer){
+        this.channel=channel;
+        this.crc=crc;
+        this.buffer=buffer;
+        buffer.clear();
+    }
+
+    public void writeInt(int value) throws IOException{
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException{
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    //·まずバッファの残りへ直接書き込み、足りなかった場合だけ書き出してから書き直す。
+    public void write(House house) throws IOException{
+        try{
+            HouseCodec.encode(house,buffer);
+        }catch (BufferOverflowException e){
+            ensure(HouseCodec.encodedSize(house));
+            HouseCodec.encode(house,buffer);
+        }
+        records++;
+    }
+
+    public void write(House[] houses) throws IOException{
+        for (House house:houses){
+            write(house);
+        }
+    }
+
+    //これまでに書き込んだレコードの件数
+    public long records(){
+        return records;
+    }
+
+    //·バッファの内容をチャネルへ書き込む。チェックサムはこの時点までに書き込んだ内容に対する値となる。
+    @Override
+    public void flush() throws IOException{
+        buffer.flip();
+        if (crc!=null){
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //·size バイト書き込める空きを確保する。
+    private void ensure(int size) throws IOException{
+        if (buffer.remaining()>=size){
+            return;
+        }
+        flush();
+        if (buffer.capacity()<size){
+            buffer=buffer.isDirect()?ByteBuffer.allocateDirect(size):ByteBuffer.allocate(size);
+        }
+    }
+}
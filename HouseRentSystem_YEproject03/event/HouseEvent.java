@@ -0,0 +1,73 @@
+package HouseRentSystem_YEproject03.event;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+/**
+ *【Event層】
+ *HouseEventBusが購読者へ渡す、物件の変更1件分の内容。
+ *
+ *【設計意図】
+ *·追加・削除・更新を種類（Type）で区別し、変更前と変更後の物件、および全購読者に共通の通し番号を持たせる。
+ * 通し番号が飛んでいれば、その間の変更を受け取れなかった（読み落とした）ことが分かる。
+ *
+ *【設計上の取捨】
+ *·変更のたびにオブジェクトを生成しないよう、購読者ごとにまとめて受け取る件数分のインスタンスを最初に確保し、値を入れ替えて使い回す。
+ * そのため、HouseEventHandler.onEvents()から戻った後は内容が変わる。保持したい場合は必要な値（物件など）を取り出して保持する。
+ *·物件自体はServiceが変更のたびに新しく作る（コピーオンライト）ため、取り出した物件を後から参照しても内容は変わらない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public final class HouseEvent{
+    public enum Type{
+        ADD,
+        DELETE,
+        UPDATE
+    }
+
+    private long sequence;
+    private Type type;
+    private House before;
+    private House after;
+
+    HouseEvent(){
+    }
+
+    void set(long sequence,Type type,House before,House after){
+        this.sequence=sequence;
+        this.type=type;
+        this.before=before;
+        this.after=after;
+    }
+
+    //全購読者に共通の通し番号（0から始まる）
+    public long sequence(){
+        return sequence;
+    }
+
+    public Type type(){
+        return type;
+    }
+
+    //変更前の物件。追加の場合はnullである。
+    public House before(){
+        return before;
+    }
+
+    //変更後の物件。削除の場合はnullである。
+    public House after(){
+        return after;
+    }
+
+    //·変更後の物件、削除の場合は削除された物件を返す。
+    public House house(){
+        return after!=null?after:before;
+    }
+
+    @Override
+    public String toString(){
+        return sequence+" "+type+" "+house();
+    }
+}
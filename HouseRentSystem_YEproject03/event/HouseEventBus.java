@@ -0,0 +1,404 @@
+package HouseRentSystem_YEproject03.event;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.event.HouseEvent.Type;
+import HouseRentSystem_YEproject03.service.HouseChangeListener;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *【Event層】
+ *HouseServiceの変更通知（HouseChangeListener）を、事前に確保した環状バッファへ書き込み、購読者ごとのスレッドから非同期に配送するクラス。
+ *
+ *【設計意図】
+ *·HouseChangeListenerは変更を行ったスレッド上で同期的に呼ばれるため、遅い処理（外部の検索索引への送信など）を登録すると、書き込みそのものが遅くなる。
+ *·このクラスをリスナーとして登録すると、変更は環状バッファの1区画へ書き込まれるだけで終わり、購読者の処理は別スレッドで行われる。
+ *·環状バッファは全購読者で共有し、購読者はそれぞれ自分の読み込み位置を持つ。変更1件の書き込みはオブジェクトを生成せず、購読者の数にも関係しない。
+ *·購読者はたまっている変更を最大件数までまとめて（バッチで）受け取る。
+ *
+ *【バッファが一杯の場合（Overflow）】
+ *·DROP（既定）：書き込み側は待たずに古い区画を上書きする。追いつけなかった購読者は、上書きされた分を読み落とし、件数がonDropped()で通知される。
+ * 書き込み側が購読者の処理を待つことはない。
+ *·BLOCK：その購読者が区画を読み終えるまで、書き込み側が待つ。変更を1件も落とせない購読者（監査ログなど）のためのものであり、
+ * 購読者の処理が遅いと、書き込み（およびServiceのロックを待つ他の操作）も同じだけ遅くなる。
+ *
+ *【設計上の取捨】
+ *·書き込み側は複数のスレッドになり得る（PartitionedHouseServiceは区画ごとの書き込みロックのもとで、区画ごとに並行して通知する）。
+ * 通し番号はAtomicLongで割り当て、区画へ書き込んだ後、前の番号が公開されるのを待ってから通し番号の順に公開する。
+ * 番号の割り当てから公開までは数回の書き込みだけであり、待つのは前の番号の書き込み側がその間に止まった場合に限られる。
+ * 同じ物件の変更は同じロックのもとで通知されるため、物件ごとの変更の順序は通し番号の順と一致する。
+ *·DROPの購読者が読んでいる最中に区画が上書きされる場合があるため、区画ごとの通し番号を内容の前後で読み比べる（シーケンスロック）。
+ * 番号が一致しない場合、その区画は読み落としとして扱う。
+ *·購読者のスレッドは変更が無い間しばらく空回りした後に眠る。書き込み側は、眠っている購読者がいる場合だけ起こす（unpark）。
+ *·BLOCKの購読者のonEvents()の中から、同じServiceへ書き込んではならない。書き込み側がServiceのロックを持ったまま購読者を待つため、互いに待ち続けることになる。
+ *·区画は配送後もしばらく物件への参照を保持するため、容量×2件分の物件はガベージコレクションされるのが遅れる。
+ *
+ *【使い方】
+ *·HouseEventBus bus=new HouseEventBus(1<<16); service.addListener(bus); bus.subscribe("索引",handler);
+ *·終了時はservice.removeListener(bus)の後にbus.close()を呼ぶ。close()はそれまでに書き込まれた変更を配送し終えてから戻る。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseEventBus implements HouseChangeListener,AutoCloseable{
+    public enum Overflow{
+        DROP,
+        BLOCK
+    }
+
+    //購読者が1回に受け取る既定の最大件数
+    public static final int DEFAULT_BATCH=256;
+    //眠る前（または待つ前）に空回りする回数
+    private static final int SPINS=200;
+    //眠る時間の上限。起こし損ねた場合でも、この時間が経てば新しい変更を確認する。
+    private static final long PARK_NANOS=TimeUnit.MILLISECONDS.toNanos(1);
+    //区画へ書き込み中であることを表す通し番号
+    private static final long WRITING=-1;
+    private static final Type[] TYPES=Type.values();
+
+    private final int capacity;
+    private final int mask;
+    //区画ごとの通し番号と内容。内容は通し番号を介して公開する。
+    private final AtomicLongArray sequences;
+    private final byte[] types;
+    private final House[] befores;
+    private final House[] afters;
+    //次に割り当てる通し番号
+    private final AtomicLong next=new AtomicLong();
+    //書き込み済みの最後の通し番号。この番号までの区画はすべて書き込み済みである。
+    private volatile long published=-1;
+    //BLOCKの購読者を待った時間の合計
+    private final AtomicLong waitNanos=new AtomicLong();
+    private volatile Subscription[] subscriptions=new Subscription[0];
+    private volatile boolean closed;
+
+    //·capacityは区画の数であり、2のべき乗に切り上げる。
+    public HouseEventBus(int capacity){
+        if (capacity<1||capacity>1<<30){
+            throw new IllegalArgumentException("容量は1～2^30で指定してください: "+capacity);
+        }
+        this.capacity=capacity==1?1:Integer.highestOneBit(capacity-1)<<1;
+        this.mask=this.capacity-1;
+        sequences=new AtomicLongArray(this.capacity);
+        for (int i=0;i<this.capacity;i++){
+            sequences.set(i,WRITING);
+        }
+        types=new byte[this.capacity];
+        befores=new House[this.capacity];
+        afters=new House[this.capacity];
+    }
+
+    public Subscription subscribe(String name,HouseEventHandler handler){
+        return subscribe(name,handler,DEFAULT_BATCH,Overflow.DROP);
+    }
+
+    //·購読者を登録し、専用のスレッドで配送を始める。登録した時点より後の変更から受け取る。
+    public synchronized Subscription subscribe(String name,HouseEventHandler handler,int maxBatch,Overflow overflow){
+        if (closed){
+            throw new IllegalStateException("HouseEventBusは終了しています");
+        }
+        if (maxBatch<1){
+            throw new IllegalArgumentException("最大件数は1以上で指定してください: "+maxBatch);
+        }
+        Subscription subscription=new Subscription(name,handler,maxBatch,overflow,published+1);
+        Subscription[] next=Arrays.copyOf(subscriptions,subscriptions.length+1);
+        next[subscriptions.length]=subscription;
+        subscriptions=next;
+        subscription.thread.start();
+        return subscription;
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    //これまでに書き込んだ変更の件数
+    public long published(){
+        return published+1;
+    }
+
+    //BLOCKの購読者を待った時間の合計（ナノ秒）
+    public long waitNanos(){
+        return waitNanos.get();
+    }
+
+    @Override
+    public void onAdd(House house){
+        publish(Type.ADD,null,house);
+    }
+
+    @Override
+    public void onDelete(House house){
+        publish(Type.DELETE,house,null);
+    }
+
+    @Override
+    public void onUpdate(House before,House after){
+        publish(Type.UPDATE,before,after);
+    }
+
+    //·書き込まれた変更をすべて配送し終えてから、購読者のスレッドを終了する。以降の変更は無視する。
+    @Override
+    public void close(){
+        Subscription[] current;
+        synchronized (this){
+            closed=true;
+            current=subscriptions;
+        }
+        for (Subscription subscription:current){
+            subscription.stop();
+        }
+    }
+
+    //·区画へ変更を書き込んで通し番号を公開し、割り当てた通し番号を返す（終了後は書き込まずに-1を返す）。
+    //·通し番号ごとに付随する情報（書き込んだ時刻など）を記録する呼び出し元のために公開している。
+    public long publish(Type type,House before,House after){
+        if (closed){
+            return -1;
+        }
+        long seq=next.getAndIncrement();
+        Subscription[] current=subscriptions;
+        int i=(int)seq&mask;
+        if (seq>=capacity){
+            awaitBlocking(seq-capacity,current);
+            //·1周前の同じ区画の書き込みが終わるまで待つ。区画数を超える書き込み側が同時に書き込んでいる場合だけ待つことになる。
+            for (int spins=0;sequences.getAcquire(i)!=seq-capacity;spins++){
+                pause(spins);
+            }
+        }
+        //·内容を書き換える前に「書き込み中」とし、読み込み側が書き換え途中の内容を正しいものとして扱わないようにする。
+        sequences.setOpaque(i,WRITING);
+        VarHandle.storeStoreFence();
+        types[i]=(byte)type.ordinal();
+        befores[i]=before;
+        afters[i]=after;
+        sequences.setRelease(i,seq);
+        //·購読者はpublishedまでの区画を読むため、前の番号が公開されてから公開する。
+        for (int spins=0;published!=seq-1;spins++){
+            pause(spins);
+        }
+        published=seq;
+        for (Subscription subscription:current){
+            if (subscription.sleeping){
+                subscription.sleeping=false;
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+        return seq;
+    }
+
+    //·BLOCKの購読者が、通し番号wrapの区画を読み終えるまで待つ。
+    private void awaitBlocking(long wrap,Subscription[] current){
+        long start=0;
+        for (Subscription subscription:current){
+            int spins=0;
+            while (subscription.overflow==Overflow.BLOCK&&subscription.cursor<=wrap&&subscription.running()){
+                if (start==0){
+                    start=System.nanoTime();
+                }
+                if (++spins<SPINS){
+                    Thread.onSpinWait();
+                }else{
+                    LockSupport.parkNanos(PARK_NANOS/100);
+                }
+            }
+        }
+        if (start!=0){
+            waitNanos.addAndGet(System.nanoTime()-start);
+        }
+    }
+
+    //·他の書き込み側を待つ間の1回分。しばらく空回りした後は、他のスレッド（待っている相手）へ実行を譲る。
+    private static void pause(int spins){
+        if (spins<SPINS){
+            Thread.onSpinWait();
+        }else{
+            Thread.yield();
+        }
+    }
+
+    //·購読の登録を解除する。
+    private synchronized void remove(Subscription subscription){
+        Subscription[] current=subscriptions;
+        for (int i=0;i<current.length;i++){
+            if (current[i]==subscription){
+                Subscription[] next=new Subscription[current.length-1];
+                System.arraycopy(current,0,next,0,i);
+                System.arraycopy(current,i+1,next,i,next.length-i);
+                subscriptions=next;
+                return;
+            }
+        }
+    }
+
+    /**
+     *【Event層】
+     *1つの購読者の配送状態。専用のスレッドで環状バッファを読み進め、HouseEventHandlerへ渡す。
+     */
+    public final class Subscription implements AutoCloseable{
+        private final String name;
+        private final HouseEventHandler handler;
+        private final int maxBatch;
+        private final Overflow overflow;
+        private final HouseEvent[] batch;
+        private final Thread thread;
+        //次に読む通し番号
+        private volatile long cursor;
+        private volatile boolean sleeping;
+        private volatile boolean cancelled;
+        private volatile long delivered;
+        private volatile long dropped;
+        private volatile long failures;
+
+        private Subscription(String name,HouseEventHandler handler,int maxBatch,Overflow overflow,long cursor){
+            this.name=name;
+            this.handler=handler;
+            this.maxBatch=Math.min(maxBatch,capacity);
+            this.overflow=overflow;
+            this.cursor=cursor;
+            batch=new HouseEvent[this.maxBatch];
+            for (int i=0;i<batch.length;i++){
+                batch[i]=new HouseEvent();
+            }
+            thread=new Thread(this::run,"house-event-"+name);
+            thread.setDaemon(true);
+        }
+
+        public String name(){
+            return name;
+        }
+
+        public Overflow overflow(){
+            return overflow;
+        }
+
+        //配送した変更の件数
+        public long delivered(){
+            return delivered;
+        }
+
+        //読み落とした変更の件数
+        public long dropped(){
+            return dropped;
+        }
+
+        //onEvents()が例外を送出した回数
+        public long failures(){
+            return failures;
+        }
+
+        //書き込まれたがまだ配送していない変更の件数
+        public long lag(){
+            return Math.max(0,published+1-cursor);
+        }
+
+        //·購読を解除する。処理中のまとまりを配送し終えてから戻り、残りの変更は配送しない。
+        @Override
+        public void close(){
+            remove(this);
+            cancelled=true;
+            stop();
+        }
+
+        private boolean running(){
+            return !cancelled&&thread.isAlive();
+        }
+
+        private void stop(){
+            LockSupport.unpark(thread);
+            if (thread==Thread.currentThread()){
+                return;
+            }
+            boolean interrupted=false;
+            while (thread.isAlive()){
+                try{
+                    thread.join();
+                }catch (InterruptedException e){
+                    interrupted=true;
+                }
+            }
+            if (interrupted){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run(){
+            long position=cursor;
+            int idle=0;
+            while (!cancelled){
+                long available=published;
+                if (available<position){
+                    if (closed){
+                        return;
+                    }
+                    if (++idle<SPINS){
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    //·眠ることを先に公開してから変更の有無を確かめ直す。書き込み側は公開した後にsleepingを読むため、どちらかが必ず相手に気付く。
+                    sleeping=true;
+                    if (published<position&&!closed&&!cancelled){
+                        LockSupport.parkNanos(this,PARK_NANOS);
+                    }
+                    sleeping=false;
+                    continue;
+                }
+                idle=0;
+                if (available-position>=capacity){
+                    //·書き込み側に追い越された。上書きされた区画を読み飛ばす（BLOCKの購読者では起こらない）。
+                    long lost=available-capacity+1-position;
+                    position+=lost;
+                    cursor=position;
+                    dropped+=lost;
+                    notifyDropped(lost);
+                }
+                int count=read(position,(int)Math.min(available-position+1,maxBatch));
+                if (count==0){
+                    //読んでいる間に上書きされた。次の周回で読み落としとして扱う。
+                    continue;
+                }
+                try{
+                    handler.onEvents(batch,count);
+                }catch (RuntimeException e){
+                    failures++;
+                }
+                position+=count;
+                cursor=position;
+                delivered+=count;
+            }
+        }
+
+        //·positionから最大max件をbatchへ写し、写した件数を返す。上書きされた区画に達した場合はそこまでとする。
+        private int read(long position,int max){
+            for (int n=0;n<max;n++){
+                long seq=position+n;
+                int i=(int)seq&mask;
+                long before=sequences.getAcquire(i);
+                byte type=types[i];
+                House previous=befores[i];
+                House current=afters[i];
+                VarHandle.loadLoadFence();
+                if (before!=seq||sequences.getOpaque(i)!=seq){
+                    return n;
+                }
+                batch[n].set(seq,TYPES[type],previous,current);
+            }
+            return max;
+        }
+
+        private void notifyDropped(long lost){
+            try{
+                handler.onDropped(lost);
+            }catch (RuntimeException e){
+                failures++;
+            }
+        }
+    }
+}
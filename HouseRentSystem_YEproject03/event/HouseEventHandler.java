@@ -0,0 +1,28 @@
+package HouseRentSystem_YEproject03.event;
+
+/**
+ *【Event層】
+ *HouseEventBusから物件の変更をまとめて受け取るためのインターフェース。
+ *
+ *【設計意図】
+ *·検索索引・キャッシュ・監査ログなど、変更に追従する処理を、変更を行ったスレッドとは別の購読者ごとのスレッドで実行する。
+ *·たまっている変更を最大件数までまとめて渡すため、書き込み先への出力などを1回にまとめられる。
+ *
+ *【設計上の取捨】
+ *·onEvents()は購読者ごとに1つのスレッドから順に呼ばれる。同じ購読者の呼び出しが並行することはない。
+ *·onEvents()が例外を送出した場合、そのまとまりは処理済みとして扱い、次の変更から配送を続ける（失敗の回数はSubscriptionで参照できる）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public interface HouseEventHandler{
+    //·events[0]～events[count-1]に、通し番号の順に変更が入っている。配列と各要素は呼び出しから戻った後に再利用される。
+    void onEvents(HouseEvent[] events,int count);
+
+    //·処理が追いつかず、count件の変更を読み落とした場合に呼ばれる（Overflow.DROPの購読者だけ）。
+    //·キャッシュであれば全体を破棄する、索引であれば作り直すなど、読み落としからの回復はこのメソッドで行う。
+    default void onDropped(long count){
+    }
+}
@@ -0,0 +1,421 @@
+package HouseRentSystem_YEproject03.http;
+
+import HouseRentSystem_YEproject03.codec.HouseCodec;
+import HouseRentSystem_YEproject03.codec.HouseRecordWriter;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseChanges;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.UpdateResult;
+import HouseRentSystem_YEproject03.utils.Utility;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *【HTTP層】
+ *HouseServiceの操作をHTTP/JSONで提供するサーバー。JDK標準のHttpServerを使用する。
+ *
+ *【設計意図】
+ *·これまでの画面はコンソールのメニューだけで、Webの画面から物件を照会することができなかった。
+ *·要求ごとに1つのスレッドを割り当て、各処理はHouseServiceを呼ぶだけの単純な同期処理として書く。
+ * 仮想スレッドが使えるJDK（21以降）では要求ごとに仮想スレッドを使い、使えない場合は固定数のスレッドプールで処理する。
+ *·応答のJSONはJsonWriterで物件ごとに書き出し、一覧を1つの文字列に組み立てることはしない。
+ *
+ *【API】
+ *·GET    /houses/{id}                 物件を1件返す。存在しない場合は404。
+ *·GET    /houses?after={id}&limit={n} IDがafterより大きい物件をID順に最大n件返す（キーセット方式）。nextは次のページのafterに指定する値。
+ *·GET    /houses?q={語}&limit={n}     住所または所有者名に語を含む物件を一致度の高い順に最大n件返す（nextは常にnull）。
+ *                                     一覧の2つは、Acceptにapplication/x-house-recordsを指定するとHouseCodecのレコードを並べた本文で返す。
+ *                                     nextはX-Next-Afterヘッダー（無い場合は空）で返す。
+ *·POST   /houses                      本文の{"name","phone","address","rent","state"}で物件を追加し、201と追加した物件を返す。
+ *·PUT    /houses/{id}                 本文で指定した項目だけを修正する（指定しない項目は現在の値のまま）。
+ *                                     本文に"version"（GETで得た版番号）を指定した場合、その版から変わっていれば修正せずに409を返す。
+ *·DELETE /houses/{id}                 物件を削除し、204を返す。存在しない場合は404。
+ *·入力値はUtilityと同じ規則で検証し、誤りがある場合は400と{"error":内容}を返す。
+ *·読み取り専用のService（ReplicaHouseService）を渡した場合、POST・PUT・DELETEには405と{"error":内容}を返す。
+ *
+ *【設計上の取捨】
+ *·HttpServerは応答ヘッダーと本文を別々に書き込むため、Nagleアルゴリズムと遅延ACKが重なると1要求ごとに約40ms待たされる。
+ * 起動時にTCP_NODELAY（sun.net.httpserver.nodelay）を有効にしている。起動オプションで明示した場合はその指定を優先する。
+ *·複数の要求が同時にHouseServiceを呼ぶため、ConcurrentHouseServiceを渡すことを前提とする。
+ *·"version"を指定しない修正は、指定した項目だけを最新の版へ当てはめ直すため、同じ物件への同時の修正で他の項目の変更を失うことはない。
+ * 同じ項目への同時の修正は後から行われた方が優先される。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseHttpServer implements Closeable{
+    private static final String PREFIX="/houses";
+    private static final int DEFAULT_PAGE=50;
+    private static final int MAX_PAGE=1000;
+    //受け付ける要求本文の最大バイト数
+    private static final int MAX_BODY=16*1024;
+    //HouseCodecのレコードを並べた本文の種類
+    public static final String RECORDS_TYPE="application/x-house-records";
+
+    static{
+        //HttpServerの設定は最初のサーバー生成時に読み込まれるため、生成より前に指定する。
+        if (System.getProperty("sun.net.httpserver.nodelay")==null){
+            System.setProperty("sun.net.httpserver.nodelay","true");
+        }
+    }
+
+    private final HouseService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public HouseHttpServer(HouseService service,InetSocketAddress address) throws IOException{
+        this.service=service;
+        this.server=HttpServer.create(address,1024);
+        ExecutorService virtual=virtualThreadExecutor();
+        this.virtualThreads=virtual!=null;
+        this.executor=virtual!=null?virtual:Executors.newFixedThreadPool(Math.max(32,Runtime.getRuntime().availableProcessors()*16),daemonThreads());
+        server.setExecutor(executor);
+        server.createContext(PREFIX,this::handle);
+    }
+
+    public void start(){
+        server.start();
+    }
+
+    //待ち受けているポート番号（0を指定して起動した場合の実際の番号を知るために使う）
+    public int port(){
+        return server.getAddress().getPort();
+    }
+
+    //要求を仮想スレッドで処理している場合はtrue
+    public boolean usesVirtualThreads(){
+        return virtualThreads;
+    }
+
+    //·処理中の要求の完了を最大1秒待ってから停止する。
+    @Override
+    public void close(){
+        server.stop(1);
+        executor.shutdown();
+        try{
+            executor.awaitTermination(5,TimeUnit.SECONDS);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException{
+        try{
+            String path=exchange.getRequestURI().getPath();
+            String method=exchange.getRequestMethod();
+            if (path.equals(PREFIX)||path.equals(PREFIX+"/")){
+                if ("GET".equals(method)){
+                    list(exchange);
+                }else if ("POST".equals(method)){
+                    add(exchange);
+                }else{
+                    notAllowed(exchange,"GET, POST");
+                }
+                return;
+            }
+            int id=parseId(path.substring(PREFIX.length()+1));
+            if (id<0){
+                error(exchange,404,"存在しないパスです: "+path);
+            }else if ("GET".equals(method)){
+                find(exchange,id);
+            }else if ("PUT".equals(method)){
+                update(exchange,id);
+            }else if ("DELETE".equals(method)){
+                delete(exchange,id);
+            }else{
+                notAllowed(exchange,"GET, PUT, DELETE");
+            }
+        }catch (IllegalArgumentException e){
+            error(exchange,400,e.getMessage());
+        }catch (UnsupportedOperationException e){
+            error(exchange,405,e.getMessage());
+        }catch (RuntimeException e){
+            error(exchange,500,"サーバー内部でエラーが発生しました: "+e);
+        }finally{
+            exchange.close();
+        }
+    }
+
+    private void find(HttpExchange exchange,int id) throws IOException{
+        House house=service.findById(id);
+        if (house==null){
+            error(exchange,404,"物件が見つかりません: "+id);
+            return;
+        }
+        try (JsonResponse response=new JsonResponse(exchange,200)){
+            response.json.house(house);
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException{
+        String query=exchange.getRequestURI().getRawQuery();
+        int after=0;
+        int limit=DEFAULT_PAGE;
+        String keyword=null;
+        if (query!=null){
+            for (String pair:query.split("&")){
+                int eq=pair.indexOf('=');
+                String name=eq<0?pair:pair.substring(0,eq);
+                String value=eq<0?"":URLDecoder.decode(pair.substring(eq+1),StandardCharsets.UTF_8);
+                if ("after".equals(name)){
+                    after=Utility.parseInt(value);
+                }else if ("q".equals(name)){
+                    keyword=value;
+                }else if ("limit".equals(name)){
+                    limit=Utility.parseInt(value);
+                    if (limit<1||limit>MAX_PAGE){
+                        throw new IllegalArgumentException("limitは1～"+MAX_PAGE+"で指定してください");
+                    }
+                }
+            }
+        }
+        //キーワード検索の結果は順位順であり、IDによる続きのページは存在しない。
+        House[] page=keyword!=null?service.search(keyword,limit):service.pageAfter(after,limit);
+        String accept=exchange.getRequestHeaders().getFirst("Accept");
+        if (accept!=null&&accept.contains(RECORDS_TYPE)){
+            String next=keyword==null&&page.length==limit?Integer.toString(page[page.length-1].getId()):"";
+            sendRecords(exchange,page,next);
+            return;
+        }
+        try (JsonResponse response=new JsonResponse(exchange,200)){
+            JsonWriter json=response.json;
+            json.beginObject().name("items").beginArray();
+            for (House house:page){
+                json.house(house);
+            }
+            json.endArray().name("next");
+            if (keyword==null&&page.length==limit){
+                json.value(page[page.length-1].getId());
+            }else{
+                json.nullValue();
+            }
+            json.endObject();
+        }
+    }
+
+    //·レコード形式で一覧を返す。本文の長さを先に求めて送り、レコードは応答の出力先へ直接符号化する。
+    private static void sendRecords(HttpExchange exchange,House[] page,String next) throws IOException{
+        long length=0;
+        for (House house:page){
+            length+=HouseCodec.encodedSize(house);
+        }
+        exchange.getResponseHeaders().set("Content-Type",RECORDS_TYPE);
+        exchange.getResponseHeaders().set("X-Next-After",next);
+        exchange.sendResponseHeaders(200,length==0?-1:length);
+        try (OutputStream body=exchange.getResponseBody()){
+            HouseRecordWriter out=new HouseRecordWriter(Channels.newChannel(body),null,ByteBuffer.allocate(8192));
+            out.write(page);
+            out.flush();
+        }
+    }
+
+    private void add(HttpExchange exchange) throws IOException{
+        Map<String,String> fields=JsonObjectReader.parse(body(exchange));
+        House house=new House(0,
+                text(fields,"name",null,Utility.NAME_LIMIT),
+                text(fields,"phone",null,Utility.PHONE_LIMIT),
+                text(fields,"address",null,Utility.ADDRESS_LIMIT),
+                Utility.checkRent(number(fields,"rent",null)),
+                text(fields,"state",null,Utility.STATE_LIMIT));
+        house=service.add(house);
+        awaitCommitted();
+        exchange.getResponseHeaders().set("Location",PREFIX+"/"+house.getId());
+        try (JsonResponse response=new JsonResponse(exchange,201)){
+            response.json.house(house);
+        }
+    }
+
+    //·メニューの修正と同じく、指定の無い項目は現在の値を使い、住所は修正時の上限で検証する。
+    //·版番号の指定が無い場合は、版の競合が起きても指定した項目を最新の版へ当てはめ直して再試行する。
+    private void update(HttpExchange exchange,int id) throws IOException{
+        Map<String,String> fields=JsonObjectReader.parse(body(exchange));
+        HouseChanges changes=new HouseChanges();
+        if (fields.containsKey("name")){
+            changes.name(text(fields,"name",null,Utility.NAME_LIMIT));
+        }
+        if (fields.containsKey("phone")){
+            changes.phone(text(fields,"phone",null,Utility.PHONE_LIMIT));
+        }
+        if (fields.containsKey("address")){
+            changes.address(text(fields,"address",null,Utility.ADDRESS_UPDATE_LIMIT));
+        }
+        if (fields.containsKey("rent")){
+            changes.rent(Utility.checkRent(number(fields,"rent",null)));
+        }
+        if (fields.containsKey("state")){
+            changes.state(text(fields,"state",null,Utility.STATE_LIMIT));
+        }
+        boolean versioned=fields.containsKey("version");
+        int expected=versioned?number(fields,"version",null):0;
+        UpdateResult result;
+        do{
+            House house=service.findById(id);
+            if (house==null){
+                error(exchange,404,"物件が見つかりません: "+id);
+                return;
+            }
+            result=service.update(id,versioned?expected:house.getVersion(),changes);
+        }while (result==UpdateResult.CONFLICT&&!versioned);
+        if (result==UpdateResult.NOT_FOUND){
+            error(exchange,404,"物件が見つかりません: "+id);
+            return;
+        }
+        if (result==UpdateResult.CONFLICT){
+            error(exchange,409,"物件は他の操作で修正されています（版 "+expected+" → "+versionOf(id)+"）");
+            return;
+        }
+        awaitCommitted();
+        House updated=service.findById(id);
+        if (updated==null){
+            error(exchange,404,"物件が見つかりません: "+id);
+            return;
+        }
+        try (JsonResponse response=new JsonResponse(exchange,200)){
+            response.json.house(updated);
+        }
+    }
+
+    private int versionOf(int id){
+        House house=service.findById(id);
+        return house==null?-1:house.getVersion();
+    }
+
+    private void delete(HttpExchange exchange,int id) throws IOException{
+        if (service.del(id)){
+            awaitCommitted();
+            exchange.sendResponseHeaders(204,-1);
+        }else{
+            error(exchange,404,"物件が見つかりません: "+id);
+        }
+    }
+
+    //·変更の確定（保存データのfsync）は、Serviceのロックを解放した後のここで待つ。失敗した場合は500を返す。
+    private void awaitCommitted(){
+        try{
+            service.awaitCommitted();
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //·項目が無い場合は現在の値（追加時はnull）を使う。追加時に必須の項目が無い場合は誤りとする。
+    private static String text(Map<String,String> fields,String name,String current,int limit){
+        String value=fields.get(name);
+        if (value==null){
+            if (current==null){
+                throw new IllegalArgumentException(name+"を指定してください");
+            }
+            return current;
+        }
+        if (!Utility.isValidLength(value,limit)){
+            throw new IllegalArgumentException(name+"は1～"+limit+"文字で指定してください");
+        }
+        return value;
+    }
+
+    private static int number(Map<String,String> fields,String name,Integer current){
+        String value=fields.get(name);
+        if (value==null){
+            if (current==null){
+                throw new IllegalArgumentException(name+"を指定してください");
+            }
+            return current;
+        }
+        return Utility.parseInt(value);
+    }
+
+    private static String body(HttpExchange exchange) throws IOException{
+        try (InputStream in=exchange.getRequestBody()){
+            byte[] bytes=in.readNBytes(MAX_BODY+1);
+            if (bytes.length>MAX_BODY){
+                throw new IllegalArgumentException("要求本文が大きすぎます（"+MAX_BODY+"バイトまで）");
+            }
+            return new String(bytes,StandardCharsets.UTF_8);
+        }
+    }
+
+    //IDとして解釈できない場合は-1を返す。
+    private static int parseId(String text){
+        if (text.isEmpty()||text.length()>Utility.NUMBER_LIMIT){
+            return -1;
+        }
+        for (int i=0;i<text.length();i++){
+            if (text.charAt(i)<'0'||text.charAt(i)>'9'){
+                return -1;
+            }
+        }
+        long id=Long.parseLong(text);
+        return id>Integer.MAX_VALUE?-1:(int)id;
+    }
+
+    private static void notAllowed(HttpExchange exchange,String allow) throws IOException{
+        exchange.getResponseHeaders().set("Allow",allow);
+        error(exchange,405,"このパスでは "+allow+" のみ使用できます");
+    }
+
+    private static void error(HttpExchange exchange,int status,String message) throws IOException{
+        try (JsonResponse response=new JsonResponse(exchange,status)){
+            response.json.beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    //·Executors.newVirtualThreadPerTaskExecutor()が存在するJDKではそれを返し、存在しない場合はnullを返す。
+    //·JDK 17でもコンパイル・実行できるよう、リフレクションで呼び出している。
+    private static ExecutorService virtualThreadExecutor(){
+        try{
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }catch (ReflectiveOperationException e){
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(){
+        AtomicInteger sequence=new AtomicInteger();
+        return task->{
+            Thread thread=new Thread(task,"house-http-"+sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    //·応答ヘッダーを送り、本文をJSONとして書き込むための補助クラス。本文は長さを決めずに（チャンク形式で）送る。
+    private static final class JsonResponse implements AutoCloseable{
+        final JsonWriter json;
+        private final Writer writer;
+
+        JsonResponse(HttpExchange exchange,int status) throws IOException{
+            exchange.getResponseHeaders().set("Content-Type","application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status,0);
+            writer=new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),StandardCharsets.UTF_8),8192);
+            json=new JsonWriter(writer);
+        }
+
+        @Override
+        public void close() throws IOException{
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package HouseRentSystem_YEproject03.http;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *【HTTP層・JSON】
+ *要求本文の、入れ子を持たないJSONオブジェクト（{"name":"jack","rent":72000}のような形）を読み取るクラス。
+ *
+ *【設計意図】
+ *·物件の追加・修正で受け取る本文は、文字列と数値の項目を並べただけのオブジェクトである。汎用のJSONライブラリは使わず、この形に限って読み取る。
+ *·値はすべて文字列として返し、数値の検証はUtilityと同じ規則で呼び出し側が行う。nullは項目が無いものとして扱う。
+ *
+ *【設計上の取捨】
+ *·入れ子のオブジェクト・配列は受け付けず、IllegalArgumentExceptionを送出する（HTTPの応答では400になる）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class JsonObjectReader{
+    private final String text;
+    private int position;
+
+    private JsonObjectReader(String text){
+        this.text=text;
+    }
+
+    public static Map<String,String> parse(String text){
+        return new JsonObjectReader(text).object();
+    }
+
+    private Map<String,String> object(){
+        Map<String,String> result=new HashMap<>();
+        skipSpace();
+        expect('{');
+        skipSpace();
+        if (peek()=='}'){
+            position++;
+            return end(result);
+        }
+        while (true){
+            skipSpace();
+            String name=string();
+            skipSpace();
+            expect(':');
+            skipSpace();
+            String value=value();
+            if (value!=null){
+                result.put(name,value);
+            }
+            skipSpace();
+            char c=next();
+            if (c=='}'){
+                return end(result);
+            }
+            if (c!=','){
+                throw error("カンマまたは}が必要です");
+            }
+        }
+    }
+
+    private Map<String,String> end(Map<String,String> result){
+        skipSpace();
+        if (position<text.length()){
+            throw error("オブジェクトの後に余分な文字があります");
+        }
+        return result;
+    }
+
+    private String value(){
+        char c=peek();
+        if (c=='"'){
+            return string();
+        }
+        if (c=='-'||(c>='0'&&c<='9')){
+            int start=position;
+            while (position<text.length()&&"+-0123456789.eE".indexOf(text.charAt(position))>=0){
+                position++;
+            }
+            return text.substring(start,position);
+        }
+        if (text.startsWith("null",position)){
+            position+=4;
+            return null;
+        }
+        if (text.startsWith("true",position)){
+            position+=4;
+            return "true";
+        }
+        if (text.startsWith("false",position)){
+            position+=5;
+            return "false";
+        }
+        throw error("文字列・数値・true・false・null以外の値は指定できません");
+    }
+
+    private String string(){
+        expect('"');
+        StringBuilder sb=null;
+        int start=position;
+        while (true){
+            if (position>=text.length()){
+                throw error("文字列が閉じられていません");
+            }
+            char c=text.charAt(position++);
+            if (c=='"'){
+                return sb==null?text.substring(start,position-1):sb.toString();
+            }
+            if (c=='\\'){
+                if (sb==null){
+                    sb=new StringBuilder().append(text,start,position-1);
+                }
+                sb.append(escape());
+            }else if (sb!=null){
+                sb.append(c);
+            }
+        }
+    }
+
+    private char escape(){
+        char c=next();
+        switch (c){
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (position+4>text.length()){
+                    throw error("\\uの後には4桁の16進数が必要です");
+                }
+                try{
+                    char u=(char)Integer.parseInt(text.substring(position,position+4),16);
+                    position+=4;
+                    return u;
+                }catch (NumberFormatException e){
+                    throw error("\\uの後には4桁の16進数が必要です");
+                }
+            default:
+                throw error("不正なエスケープです: \\"+c);
+        }
+    }
+
+    private void skipSpace(){
+        while (position<text.length()){
+            char c=text.charAt(position);
+            if (c!=' '&&c!='\t'&&c!='\n'&&c!='\r'){
+                return;
+            }
+            position++;
+        }
+    }
+
+    private char peek(){
+        if (position>=text.length()){
+            throw error("JSONが途中で終わっています");
+        }
+        return text.charAt(position);
+    }
+
+    private char next(){
+        char c=peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char c){
+        if (next()!=c){
+            throw error(c+"が必要です");
+        }
+    }
+
+    private IllegalArgumentException error(String message){
+        return new IllegalArgumentException("JSONの形式が不正です（"+position+"文字目）: "+message);
+    }
+}
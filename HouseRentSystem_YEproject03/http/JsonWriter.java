@@ -0,0 +1,170 @@
+package HouseRentSystem_YEproject03.http;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ *【HTTP層・JSON】
+ *JSONを先頭から順に出力先へ書き込むクラス。
+ *
+ *【設計意図】
+ *·一覧の応答を1つの文字列として組み立ててから送るのではなく、物件ごとに出力先へ書き込む。応答の大きさに関係なく、使用するメモリは一定である。
+ *·値の区切り（カンマ）は入れ子の深さごとの「最初の要素かどうか」で判定し、呼び出し側は値の順に書くだけでよい。
+ *·文字列のエスケープはRFC 8259に従い、二重引用符・バックスラッシュ・制御文字だけを置き換える。
+ *
+ *【設計上の取捨】
+ *·出力の整合（beginとendの対応など）は検査しない。呼び出し側のコードで対応が明らかな使い方に限っている。
+ *·スレッドセーフではない。1つの応答ごとに1つのインスタンスを使う。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class JsonWriter{
+    private static final char[] HEX="0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    //入れ子の深さごとに、まだ要素を書いていなければtrue
+    private boolean[] first=new boolean[8];
+    private int depth;
+    //直前に名前を書いた場合はtrue（値の前にカンマを書かない）
+    private boolean afterName;
+
+    public JsonWriter(Writer out){
+        this.out=out;
+    }
+
+    public JsonWriter beginObject() throws IOException{
+        open('{');
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException{
+        depth--;
+        out.write('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException{
+        open('[');
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException{
+        depth--;
+        out.write(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) throws IOException{
+        separator();
+        string(name);
+        out.write(':');
+        afterName=true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException{
+        separator();
+        if (value==null){
+            out.write("null");
+        }else{
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException{
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException{
+        separator();
+        out.write("null");
+        return this;
+    }
+
+    //·物件1件をオブジェクトとして書き込む。項目名はHouseのgetterに合わせる。
+    public JsonWriter house(House house) throws IOException{
+        return beginObject()
+                .name("id").value(house.getId())
+                .name("name").value(house.getName())
+                .name("phone").value(house.getPhone())
+                .name("address").value(house.getAddress())
+                .name("rent").value(house.getRent())
+                .name("state").value(house.getState())
+                .name("version").value(house.getVersion())
+                .endObject();
+    }
+
+    public void flush() throws IOException{
+        out.flush();
+    }
+
+    private void open(char c) throws IOException{
+        separator();
+        out.write(c);
+        if (++depth==first.length){
+            first=Arrays.copyOf(first,depth<<1);
+        }
+        first[depth]=true;
+    }
+
+    //·同じ深さの2つ目以降の要素の前にカンマを書く。名前の直後の値には書かない。
+    private void separator() throws IOException{
+        if (afterName){
+            afterName=false;
+            return;
+        }
+        if (depth>0){
+            if (first[depth]){
+                first[depth]=false;
+            }else{
+                out.write(',');
+            }
+        }
+    }
+
+    private void string(String s) throws IOException{
+        out.write('"');
+        int start=0;
+        int length=s.length();
+        for (int i=0;i<length;i++){
+            char c=s.charAt(i);
+            if (c!='"'&&c!='\\'&&c>=0x20){
+                continue;
+            }
+            out.write(s,start,i-start);
+            switch (c){
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX[c>>4]);
+                    out.write(HEX[c&0xF]);
+            }
+            start=i+1;
+        }
+        out.write(s,start,length-start);
+        out.write('"');
+    }
+}
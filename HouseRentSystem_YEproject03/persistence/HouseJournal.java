@@ -0,0 +1,396 @@
+package HouseRentSystem_YEproject03.persistence;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ *【Persistence層・ジャーナル】
+ *物件の追加・削除・更新を、発生順に追記専用のファイルへ記録する操作ログ。
+ *
+ *【設計意図】
+ *·ファイルの末尾へ追記するだけの形式とし、既存データを書き換えないことで、書き込み途中で停止しても過去の記録が壊れないようにする。
+ *·fsyncは1件ごとではなく、書き込み専用スレッドがたまった記録をまとめて1回で行う（グループコミット）。fsync中に届いた記録は次の1回にまとめられる。
+ *
+ *【責務範囲】
+ *·記録への通し番号（seq）の付与と、メモリ上のバッファへの追記。
+ *·書き込み専用スレッドによるファイルへの書き出しとfsync。
+ *·指定した番号までの記録が確実にディスクへ書かれるまでの待機。
+ *·スナップショット作成時のファイル切り替え（セグメントの分割）と、再起動時の記録の再適用。
+ *
+ *【ファイル形式】
+ *·ファイル名は journal-<最初の通し番号>.log とし、名前順が記録順と一致するようにしている。
+ *·1件の記録は [本体の長さ:int][CRC32:int][本体] の形式。本体は [種別:byte][通し番号:long][物件ID:int][物件データ（追加・更新時のみ）]。
+ *·CRCが一致しない記録、または途中で途切れた記録に到達した時点で、それ以降は書き込み途中で停止した残骸とみなして切り捨てる。
+ *
+ *【設計上の取捨】
+ *·更新記録には変更後の全項目を書き込む。差分ではなく全項目とすることで、同じ記録を何度再適用しても結果が変わらないようにしている。
+ *·バッファは2つを交互に使用し、書き出し中も追記を止めないようにしている。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseJournal implements Closeable{
+    static final byte OP_ADD=1;
+    static final byte OP_DELETE=2;
+    static final byte OP_UPDATE=3;
+
+    private static final String PREFIX="journal-";
+    private static final String SUFFIX=".log";
+    //これを超える長さの記録は壊れているとみなす。
+    private static final int MAX_RECORD=1<<16;
+
+    private final Path dir;
+    private final Object lock=new Object();
+    private final Thread flusher;
+    //1件分の本体を組み立てるための再利用バッファ。
+    private final Buffer record=new Buffer(256);
+    private final DataOutputStream recordOut=new DataOutputStream(record);
+    private final CRC32 crc=new CRC32();
+
+    private FileChannel channel;
+    //追記先のバッファと、書き出し用に待機しているバッファ。
+    private Buffer active=new Buffer(1<<16);
+    private Buffer spare=new Buffer(1<<16);
+    //次に割り当てる通し番号。
+    private long nextSeq;
+    //ディスクへの書き込みとfsyncが完了した最後の通し番号。
+    private long durableSeq;
+    private boolean closed;
+    private IOException failure;
+
+    //·firstSeqから始まる新しいセグメントを作成して追記を開始する。
+    public HouseJournal(Path dir,long firstSeq) throws IOException{
+        this.dir=dir;
+        Files.createDirectories(dir);
+        this.nextSeq=firstSeq;
+        this.durableSeq=firstSeq-1;
+        this.channel=openSegment(firstSeq);
+        flusher=new Thread(this::flushLoop,"house-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    //追加を記録し、割り当てた通し番号を返す。
+    public long appendAdd(House house){
+        return append(OP_ADD,house.getId(),house);
+    }
+
+    //削除を記録し、割り当てた通し番号を返す。
+    public long appendDelete(int id){
+        return append(OP_DELETE,id,null);
+    }
+
+    //更新（変更後の全項目）を記録し、割り当てた通し番号を返す。
+    public long appendUpdate(House house){
+        return append(OP_UPDATE,house.getId(),house);
+    }
+
+    //最後に割り当てた通し番号を返す。
+    public long lastSeq(){
+        synchronized (lock){
+            return nextSeq-1;
+        }
+    }
+
+    //·指定した通し番号までの記録がディスクへ書き込まれるまで待機する。
+    //·複数のスレッドが同時に待機している場合も、1回のfsyncでまとめて解放される。
+    public void awaitDurable(long seq) throws IOException{
+        synchronized (lock){
+            while (durableSeq<seq){
+                if (failure!=null){
+                    throw failure;
+                }
+                if (closed){
+                    throw new IOException("ジャーナルは既に閉じられています");
+                }
+                try{
+                    lock.wait();
+                }catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    throw new IOException("ジャーナルの書き込み待機中に割り込まれました",e);
+                }
+            }
+        }
+    }
+
+    //·待機中に他のスレッドが追記する可能性があるため、毎回最新の通し番号と比較する。
+    //·ロックを保持したまま戻るため、戻った時点で書き込み専用スレッドは処理中のバッファを持っていない。
+    private void awaitAllDurable() throws IOException{
+        while (durableSeq<nextSeq-1){
+            awaitDurable(nextSeq-1);
+        }
+    }
+
+    //·現在までの記録をすべて書き出してから、次の通し番号で始まる新しいセグメントへ切り替える。
+    //·スナップショット作成時に呼び出し、スナップショットに含まれる記録と含まれない記録を別ファイルに分ける。
+    //·切り替え後の最初の通し番号を返す。
+    public long rotate() throws IOException{
+        synchronized (lock){
+            awaitAllDurable();
+            channel.close();
+            channel=openSegment(nextSeq);
+            return nextSeq;
+        }
+    }
+
+    //·指定した通し番号より前から始まるセグメントのうち、次のセグメントもその番号以下で始まるもの（＝すべての記録がスナップショットに含まれるもの）を削除する。
+    public void deleteSegmentsUpTo(long seq) throws IOException{
+        List<Long> starts=listSegments(dir);
+        for (int i=0;i+1<starts.size();i++){
+            if (starts.get(i+1)<=seq+1){
+                Files.deleteIfExists(segmentPath(dir,starts.get(i)));
+            }
+        }
+    }
+
+    //残りの記録をすべて書き出してから書き込み専用スレッドを停止する。
+    @Override
+    public void close() throws IOException{
+        synchronized (lock){
+            if (closed){
+                return;
+            }
+            awaitAllDurable();
+            closed=true;
+            lock.notifyAll();
+        }
+        try{
+            flusher.join();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    //·afterSeqより後の記録をすべてserviceへ再適用し、最後に適用した通し番号を返す（1件も無い場合はafterSeq）。
+    //·途中で壊れた記録を見つけた場合は、その位置でファイルを切り詰めて以降を破棄する。
+    //·最初のセグメントがafterSeqの直後より後から始まる場合は、間の記録が失われているため、復元せずにIOExceptionを投げる。
+    public static long replay(Path dir,long afterSeq,HouseService service) throws IOException{
+        long last=afterSeq;
+        if (!Files.isDirectory(dir)){
+            return last;
+        }
+        List<Long> starts=listSegments(dir);
+        if (!starts.isEmpty()&&starts.get(0)>afterSeq+1){
+            throw new IOException("通し番号"+(afterSeq+1)+"から"+(starts.get(0)-1)+"までのジャーナルがありません: "+segmentPath(dir,starts.get(0)));
+        }
+        for (long start:starts){
+            Path path=segmentPath(dir,start);
+            long valid=0;
+            boolean torn=false;
+            try (FileChannel in=FileChannel.open(path,StandardOpenOption.READ);
+                 DataInputStream data=new DataInputStream(new BufferedInputStream(Channels.newInputStream(in),1<<16))){
+                byte[] body=new byte[256];
+                CRC32 check=new CRC32();
+                for (; ;){
+                    int length;
+                    try{
+                        length=data.readInt();
+                    }catch (EOFException e){
+                        break;
+                    }
+                    if (length<=0||length>MAX_RECORD){
+                        torn=true;
+                        break;
+                    }
+                    if (body.length<length){
+                        body=new byte[Math.max(length,body.length*2)];
+                    }
+                    int expected;
+                    try{
+                        expected=data.readInt();
+                        data.readFully(body,0,length);
+                    }catch (EOFException e){
+                        torn=true;
+                        break;
+                    }
+                    check.reset();
+                    check.update(body,0,length);
+                    if ((int)check.getValue()!=expected){
+                        torn=true;
+                        break;
+                    }
+                    valid+=8+length;
+                    long seq=apply(body,length,afterSeq,service);
+                    if (seq>last){
+                        last=seq;
+                    }
+                }
+            }
+            if (torn){
+                try (FileChannel out=FileChannel.open(path,StandardOpenOption.WRITE)){
+                    out.truncate(valid);
+                    out.force(true);
+                }
+            }
+        }
+        return last;
+    }
+
+    //1件の記録を解釈してserviceへ適用し、その通し番号を返す。afterSeq以下の記録は読み飛ばす。
+    private static long apply(byte[] body,int length,long afterSeq,HouseService service) throws IOException{
+        DataInputStream in=new DataInputStream(new ByteArrayInputStream(body,0,length));
+        byte op=in.readByte();
+        long seq=in.readLong();
+        int id=in.readInt();
+        if (seq<=afterSeq){
+            return seq;
+        }
+        switch (op){
+            case OP_ADD:
+            case OP_UPDATE:
+                service.restore(HouseRecordIO.read(in));
+                break;
+            case OP_DELETE:
+                service.del(id);
+                service.advanceIdCounter(id);
+                break;
+            default:
+                throw new IOException("不明な記録種別です: "+op);
+        }
+        return seq;
+    }
+
+    private long append(byte op,int id,House house){
+        synchronized (lock){
+            if (failure!=null){
+                throw new UncheckedIOException(failure);
+            }
+            if (closed){
+                throw new IllegalStateException("ジャーナルは既に閉じられています");
+            }
+            long seq=nextSeq++;
+            try{
+                record.reset();
+                recordOut.writeByte(op);
+                recordOut.writeLong(seq);
+                recordOut.writeInt(id);
+                if (house!=null){
+                    HouseRecordIO.write(recordOut,house);
+                }
+                crc.reset();
+                crc.update(record.array(),0,record.size());
+                active.writeInt(record.size());
+                active.writeInt((int)crc.getValue());
+                active.write(record.array(),0,record.size());
+            }catch (IOException e){
+                //メモリ上のバッファへの書き込みであり、通常は発生しない。
+                throw new UncheckedIOException(e);
+            }
+            lock.notifyAll();
+            return seq;
+        }
+    }
+
+    //·書き込み専用スレッドの処理。たまった記録をバッファごと受け取り、1回の書き出しと1回のfsyncで永続化する。
+    private void flushLoop(){
+        for (; ;){
+            Buffer batch;
+            long batchEnd;
+            FileChannel target;
+            synchronized (lock){
+                while (active.size()==0&&!closed){
+                    try{
+                        lock.wait();
+                    }catch (InterruptedException e){
+                        return;
+                    }
+                }
+                if (active.size()==0){
+                    return;
+                }
+                batch=active;
+                active=spare;
+                spare=batch;
+                batchEnd=nextSeq-1;
+                target=channel;
+            }
+            try{
+                ByteBuffer bytes=ByteBuffer.wrap(batch.array(),0,batch.size());
+                while (bytes.hasRemaining()){
+                    target.write(bytes);
+                }
+                target.force(false);
+            }catch (IOException e){
+                synchronized (lock){
+                    failure=e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock){
+                batch.reset();
+                durableSeq=batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException{
+        FileChannel created=FileChannel.open(segmentPath(dir,firstSeq),
+                StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING);
+        created.position(0);
+        return created;
+    }
+
+    private static Path segmentPath(Path dir,long firstSeq){
+        return dir.resolve(String.format("%s%020d%s",PREFIX,firstSeq,SUFFIX));
+    }
+
+    //ディレクトリ内のセグメントの開始番号を昇順で返す。
+    static List<Long> listSegments(Path dir) throws IOException{
+        List<Long> starts=new ArrayList<>();
+        try (DirectoryStream<Path> files=Files.newDirectoryStream(dir,PREFIX+"*"+SUFFIX)){
+            for (Path file:files){
+                String name=file.getFileName().toString();
+                try{
+                    starts.add(Long.parseLong(name.substring(PREFIX.length(),name.length()-SUFFIX.length())));
+                }catch (NumberFormatException e){
+                    //命名規則に合わないファイルは無視する。
+                }
+            }
+        }
+        Collections.sort(starts);
+        return starts;
+    }
+
+    //内部配列を直接参照できるByteArrayOutputStream。書き出し時のコピーを避けるために使用する。
+    private static final class Buffer extends ByteArrayOutputStream{
+        private final DataOutputStream data=new DataOutputStream(this);
+
+        Buffer(int size){
+            super(size);
+        }
+
+        byte[] array(){
+            return buf;
+        }
+
+        void writeInt(int v) throws IOException{
+            data.writeInt(v);
+        }
+    }
+}
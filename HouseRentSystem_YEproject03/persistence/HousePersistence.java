@@ -0,0 +1,299 @@
+package HouseRentSystem_YEproject03.persistence;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseChangeListener;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *【Persistence層】
+ *ジャーナルとスナップショットを組み合わせ、HouseServiceの内容をプログラム終了後も保持するためのクラス。
+ *
+ *【設計意図】
+ *·HouseServiceの変更通知を受け取り、追加・削除・更新をジャーナルへ記録する。Service本体は保存方式を意識しない。
+ *·再起動時は「最新のスナップショットを読み込む → それ以降のジャーナルだけを再適用する」の2段階で復元する。
+ *
+ *【責務範囲】
+ *·起動時の復元（open）。
+ *·変更のジャーナルへの記録と、必要に応じたfsync完了待ち。
+ *·一定件数ごとのスナップショット作成と、不要になった古いファイルの削除。
+ *·起動時に読み飛ばした（破損していた）スナップショットの記録。表示は呼び出し元が行う。
+ *·復元にかかった時間の記録。
+ *
+ *【設計上の取捨】
+ *·スナップショットは全物件を配列に写し、ファイルへの書き出しは別スレッドで行う。写す処理は、1スレッドから使うHouseServiceでは呼び出し元スレッドで、
+ * スレッドセーフなHouseService（ConcurrentHouseServiceなど）では書き出し用のスレッドで行う。
+ * 全物件の複製・採番済みIDの読み取り・ジャーナルの切り替えは、HouseService.exclusiveのもとで（変更を止めて）行う。
+ * 複製とジャーナルの切り替えの間に変更が入ると、その変更はスナップショットにも含まれず、通し番号がスナップショット以下のため再適用でも読み飛ばされ、再起動後に失われるためである。
+ * 写すのは格納データから切り離した物件（listDetached）とする。ColumnarHouseStorageのビューを渡すと、書き出し中の更新で値が変わり、ある時点の内容にならないため。
+ * 書き出し中に物件が更新されても、その更新はスナップショットより後のジャーナルに残っており、再適用すれば同じ結果になるため問題ない。
+ *·変更の通知は複数のスレッドから呼ばれるため、書き出し中のスナップショット（pendingSnapshot）はsnapshotLockのもとで読み書きし、最後のスナップショットの通し番号はvolatileとする。
+ *·syncOnCommitがtrueの場合、変更を行ったスレッドはHouseService.awaitCommittedでfsync完了まで待機する。コンソール操作のように1件ずつ確定させたい場合に使用する。
+ * 変更通知の中ではServiceのロックを保持しているため、通知の中では通し番号を控えるだけにし、待機はロックを解放した後で行う。
+ * これにより、fsync中に他のスレッドが行った変更も次の1回のfsyncにまとめられる（グループコミット）。
+ * falseの場合は書き込み専用スレッドに任せ、大量登録時の速度を優先する。
+ *·新しいスナップショットは書き込み後に読み直して確認し、確認できてから「1つ前のスナップショットより古いファイル」だけを削除する。
+ * 最新のスナップショットが後から読めなくなっても、1つ前のスナップショットとそれ以降のジャーナルから復元できる。
+ * その分、ディスク上にはスナップショット2つ分とその間のジャーナルが残る。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HousePersistence implements HouseChangeListener,Closeable{
+    //既定では100万件の変更ごとにスナップショットを作成する。
+    public static final long DEFAULT_SNAPSHOT_INTERVAL=1_000_000L;
+
+    private final Path dir;
+    private final HouseService service;
+    private final boolean syncOnCommit;
+    private final long snapshotInterval;
+    private final HouseJournal journal;
+    private final ExecutorService snapshotWriter;
+    //pendingSnapshotの確認と作成の開始を1スレッドずつ行うためのロック。
+    private final ReentrantLock snapshotLock=new ReentrantLock();
+    private Future<?> pendingSnapshot;
+    //最後に作成を始めたスナップショットの通し番号。変更の通知で毎回読むため、ロックを取らずに読めるようvolatileとする。
+    private volatile long lastSnapshotSeq;
+    //確認済みの最新のスナップショットの通し番号。次のスナップショットを確認するまで、これ以降のファイルは削除しない。snapshotWriterのスレッドだけが読み書きする。
+    private long retainedSnapshotSeq;
+    private final List<Path> skippedSnapshots;
+    //syncOnCommitがtrueの場合に、各スレッドが最後に記録した通し番号。awaitCommittedでこの番号までのfsyncを待つ。
+    private final ThreadLocal<long[]> committedSeq=ThreadLocal.withInitial(()->new long[1]);
+
+    //復元にかかった時間（ナノ秒）と再適用したジャーナルの件数。
+    private final long snapshotLoadNanos;
+    private final long replayNanos;
+    private final long replayedRecords;
+
+    private HousePersistence(Path dir,HouseService service,boolean syncOnCommit,long snapshotInterval,
+                             long snapshotSeq,long lastSeq,List<Path> skippedSnapshots,long snapshotLoadNanos,long replayNanos) throws IOException{
+        this.dir=dir;
+        this.service=service;
+        this.syncOnCommit=syncOnCommit;
+        this.snapshotInterval=snapshotInterval;
+        this.lastSnapshotSeq=snapshotSeq;
+        this.retainedSnapshotSeq=snapshotSeq;
+        this.skippedSnapshots=Collections.unmodifiableList(skippedSnapshots);
+        this.snapshotLoadNanos=snapshotLoadNanos;
+        this.replayNanos=replayNanos;
+        this.replayedRecords=lastSeq-snapshotSeq;
+        this.journal=new HouseJournal(dir,lastSeq+1);
+        this.snapshotWriter=Executors.newSingleThreadExecutor(r->{
+            Thread thread=new Thread(r,"house-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //既定の設定（変更ごとにfsync、100万件ごとにスナップショット）で開く。
+    public static HousePersistence open(Path dir,HouseService service) throws IOException{
+        return open(dir,service,true,DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    //·dirに保存されたデータをserviceへ復元し、以降の変更を記録する状態にする。
+    //·serviceは空の状態（初期データなし）で渡す必要がある。
+    //·スナップショットとジャーナルの間の記録が失われている場合は、一部が欠けた状態で起動しないようIOExceptionを投げる。
+    public static HousePersistence open(Path dir,HouseService service,boolean syncOnCommit,long snapshotInterval) throws IOException{
+        long start=System.nanoTime();
+        List<Path> skipped=new ArrayList<>();
+        long snapshotSeq=HouseSnapshot.loadLatest(dir,service,skipped);
+        long loaded=System.nanoTime();
+        long lastSeq=HouseJournal.replay(dir,snapshotSeq,service);
+        long replayed=System.nanoTime();
+        HousePersistence persistence=new HousePersistence(dir,service,syncOnCommit,snapshotInterval,
+                snapshotSeq,lastSeq,skipped,loaded-start,replayed-loaded);
+        service.addListener(persistence);
+        return persistence;
+    }
+
+    @Override
+    public void onAdd(House house){
+        committed(journal.appendAdd(house));
+    }
+
+    @Override
+    public void onDelete(House house){
+        committed(journal.appendDelete(house.getId()));
+    }
+
+    @Override
+    public void onUpdate(House before,House after){
+        committed(journal.appendUpdate(after));
+    }
+
+    //·呼び出したスレッドが記録した変更のfsync完了まで待機する。syncOnCommitがfalseの場合は待機しない。
+    @Override
+    public void awaitCommitted() throws IOException{
+        if (syncOnCommit){
+            long seq=committedSeq.get()[0];
+            if (seq>0){
+                journal.awaitDurable(seq);
+            }
+        }
+    }
+
+    //·現在の状態のスナップショットを作成し、書き込みが完了するまで待機する。
+    public void snapshot() throws IOException{
+        Future<?> future;
+        snapshotLock.lock();
+        try{
+            if (pendingSnapshot!=null&&!pendingSnapshot.isDone()){
+                await(pendingSnapshot);
+            }
+            future=startSnapshot();
+        }finally{
+            snapshotLock.unlock();
+        }
+        await(future);
+    }
+
+    //·ジャーナルへの記録がすべてディスクに書き込まれるまで待機する。
+    public void flush() throws IOException{
+        journal.awaitDurable(journal.lastSeq());
+    }
+
+    //·書き込み中のスナップショットとジャーナルの完了を待ち、ファイルを閉じる。
+    @Override
+    public void close() throws IOException{
+        service.removeListener(this);
+        Future<?> pending;
+        snapshotLock.lock();
+        try{
+            pending=pendingSnapshot;
+        }finally{
+            snapshotLock.unlock();
+        }
+        try{
+            if (pending!=null){
+                await(pending);
+            }
+        }finally{
+            snapshotWriter.shutdown();
+            journal.close();
+        }
+    }
+
+    public long snapshotLoadNanos(){
+        return snapshotLoadNanos;
+    }
+
+    public long replayNanos(){
+        return replayNanos;
+    }
+
+    public long replayedRecords(){
+        return replayedRecords;
+    }
+
+    //起動時に破損していたため読み飛ばしたスナップショット（新しい順）。
+    public List<Path> skippedSnapshots(){
+        return skippedSnapshots;
+    }
+
+    //·書き出し中のスナップショットがある間は、次のスナップショットを始めない。
+    //·別のスレッドがスナップショットを始めている最中（snapshotLockを取れない場合）は待たずに戻る。
+    // そのスレッドが変更を止めるのを、通知中の（Serviceのロックを保持している）自スレッドが妨げ、互いに待ち続けることになるためである。
+    private void committed(long seq){
+        if (syncOnCommit){
+            committedSeq.get()[0]=seq;
+        }
+        if (seq-lastSnapshotSeq<snapshotInterval||!snapshotLock.tryLock()){
+            return;
+        }
+        try{
+            if (seq-lastSnapshotSeq>=snapshotInterval&&(pendingSnapshot==null||pendingSnapshot.isDone())){
+                lastSnapshotSeq=seq;
+                startSnapshot();
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }finally{
+            snapshotLock.unlock();
+        }
+    }
+
+    //·変更を止めた状態で全物件の複製とジャーナルの位置を確定させ、書き出しは別スレッドで行う。snapshotLockのもとで呼ぶ。
+    //·スレッドセーフなServiceでは、複製もsnapshotWriterのスレッドで行う。変更の通知の中から呼ばれた場合、通知中のスレッドはServiceのロックを保持しており、
+    // その場で変更を止めようとすると自分自身（または同じロックを待つ他のスレッド）を待つことになるためである。
+    //·1スレッドからの利用を前提とするServiceでは、他のスレッドから読むことができないため、呼び出し元スレッドで複製する。
+    private Future<?> startSnapshot() throws IOException{
+        if (service.isThreadSafe()){
+            pendingSnapshot=snapshotWriter.submit(()->write(service.exclusive(this::capture)));
+            return pendingSnapshot;
+        }
+        Capture capture;
+        try{
+            capture=service.exclusive(this::capture);
+        }catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+        pendingSnapshot=snapshotWriter.submit(()->write(capture));
+        return pendingSnapshot;
+    }
+
+    //·HouseService.exclusiveのもとで呼ぶ。ジャーナルを切り替え、切り替え前の最後の通し番号を、複製した全物件に反映済みの番号とする。
+    private Capture capture(){
+        try{
+            long seq=journal.rotate()-1;
+            lastSnapshotSeq=seq;
+            return new Capture(seq,service.idCounter(),service.listDetached());
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //·snapshotWriterのスレッドで書き出して読み直し、確認できてから1つ前より古いファイルを削除する。
+    private void write(Capture capture){
+        try{
+            HouseSnapshot.write(dir,capture.seq,capture.idCounter,capture.houses);
+            HouseSnapshot.verify(dir,capture.seq);
+            HouseSnapshot.deleteOlderThan(dir,retainedSnapshotSeq);
+            journal.deleteSegmentsUpTo(retainedSnapshotSeq);
+            retainedSnapshotSeq=capture.seq;
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException{
+        try{
+            future.get();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("スナップショットの書き込み待機中に割り込まれました",e);
+        }catch (ExecutionException e){
+            Throwable cause=e.getCause();
+            if (cause instanceof UncheckedIOException){
+                throw ((UncheckedIOException)cause).getCause();
+            }
+            throw new IOException("スナップショットの書き込みに失敗しました",cause);
+        }
+    }
+
+    //スナップショットに書き出す内容（反映済みの通し番号・採番済みID・全物件）。
+    private static final class Capture{
+        final long seq;
+        final int idCounter;
+        final House[] houses;
+
+        Capture(long seq,int idCounter,House[] houses){
+            this.seq=seq;
+            this.idCounter=idCounter;
+            this.houses=houses;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package HouseRentSystem_YEproject03.persistence;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ *【Persistence層・共通】
+ *ジャーナルで使用する、House1件分の読み書き処理。
+ *
+ *【設計意図】
+ *·同じ項目順・同じ形式で読み書きする処理を1か所に集約し、書き込み側と再適用側で形式が食い違わないようにする。
+ *·スナップショットはHouseCodecのレコード形式で書き込むため、本クラスは使用しない。
+ *
+ *【設計上の取捨】
+ *·文字列はDataOutput.writeUTFで書き込む。入力長は最大でも十数文字であり、長さ上限（65535バイト）を超えることはない。
+ *·状態は「未賃貸」「賃貸中」のどちらかがほとんどのため、読み込み時は同じ文字列インスタンスを再利用し、復元後のメモリ使用量を抑えている。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+final class HouseRecordIO{
+    private static final String VACANT="未賃貸";
+    private static final String RENTED="賃貸中";
+
+    private HouseRecordIO(){
+    }
+
+    static void write(DataOutput out,House house) throws IOException{
+        out.writeInt(house.getId());
+        out.writeUTF(nonNull(house.getName()));
+        out.writeUTF(nonNull(house.getPhone()));
+        out.writeUTF(nonNull(house.getAddress()));
+        out.writeInt(house.getRent());
+        out.writeUTF(nonNull(house.getState()));
+    }
+
+    static House read(DataInput in) throws IOException{
+        int id=in.readInt();
+        String name=in.readUTF();
+        String phone=in.readUTF();
+        String address=in.readUTF();
+        int rent=in.readInt();
+        String state=canonicalState(in.readUTF());
+        return new House(id,name,phone,address,rent,state);
+    }
+
+    private static String canonicalState(String state){
+        if (VACANT.equals(state)){
+            return VACANT;
+        }
+        if (RENTED.equals(state)){
+            return RENTED;
+        }
+        return state;
+    }
+
+    private static String nonNull(String value){
+        return value==null?"":value;
+    }
+}
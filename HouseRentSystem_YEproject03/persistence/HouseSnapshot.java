@@ -0,0 +1,208 @@
+package HouseRentSystem_YEproject03.persistence;
+
+import HouseRentSystem_YEproject03.codec.HouseRecordReader;
+import HouseRentSystem_YEproject03.codec.HouseRecordWriter;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ *【Persistence層・スナップショット】
+ *ある時点の全物件を1つのファイルへまとめて書き出し、再起動時に読み込むためのクラス。
+ *
+ *【設計意図】
+ *·ジャーナルだけでは再起動のたびに全履歴を再適用する必要があり、運用期間に比例して起動が遅くなる。
+ *·定期的に「現在の状態」だけを詰めて保存しておくことで、再起動時は最新のスナップショットと、それ以降のジャーナルだけを読めばよくなる。
+ *
+ *【ファイル形式】
+ *·ファイル名は snapshot-<含まれる最後の通し番号>.bin。
+ *·[識別子:int][形式番号:int][通し番号:long][採番済みID:int][件数:int][物件データ×件数][CRC32:long]。
+ *·物件データはHouseCodecのレコード（版番号を含む）とする。形式番号が異なるファイルは読み込まない。
+ *
+ *【設計上の取捨】
+ *·一時ファイルへ書き込んでfsyncした後に名前を変更するため、書き込み途中で停止しても不完全なスナップショットが読まれることはない。
+ *·CRCが一致しないファイルは読み飛ばし、1つ前のスナップショットを使用する。HousePersistenceは、新しいスナップショットを読み直して確認できるまで
+ * 1つ前のスナップショットとそれ以降のジャーナルを削除しないため、読み飛ばしても変更は失われない。
+ *·読み飛ばしたファイルは呼び出し元へ返し、利用者への通知は呼び出し元に任せる。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public final class HouseSnapshot{
+    private static final int MAGIC=0x48525331;//"HRS1"
+    private static final int FORMAT=2;
+    private static final String PREFIX="snapshot-";
+    private static final String SUFFIX=".bin";
+
+    private HouseSnapshot(){
+    }
+
+    //·housesをseq時点のスナップショットとして書き出す。
+    public static void write(Path dir,long seq,int idCounter,House[] houses) throws IOException{
+        Files.createDirectories(dir);
+        Path target=snapshotPath(dir,seq);
+        Path temp=dir.resolve(target.getFileName()+".tmp");
+        CRC32 crc=new CRC32();
+        try (FileChannel channel=FileChannel.open(temp,StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)){
+            HouseRecordWriter out=new HouseRecordWriter(channel,crc);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(seq);
+            out.writeInt(idCounter);
+            out.writeInt(houses.length);
+            out.write(houses);
+            out.flush();
+            //CRC自体はチェックサムの対象外とするため、書き込み済みの内容のチェックサムを求めた後に直接書き込む。
+            ByteBuffer tail=ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).flip();
+            while (tail.hasRemaining()){
+                channel.write(tail);
+            }
+            channel.force(true);
+        }
+        Files.move(temp,target,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //·書き出したスナップショットを読み直し、ヘッダーと末尾のCRCが一致することを確認する。一致しない場合はIOExceptionを投げる。
+    //·物件は復元せず、チェックサムの計算だけを行う。
+    public static void verify(Path dir,long seq) throws IOException{
+        Path path=snapshotPath(dir,seq);
+        CRC32 crc=new CRC32();
+        try (FileChannel channel=FileChannel.open(path,StandardOpenOption.READ)){
+            long body=channel.size()-Long.BYTES;
+            ByteBuffer header=ByteBuffer.allocate(Integer.BYTES*2+Long.BYTES);
+            if (body<header.capacity()){
+                throw new IOException("スナップショットが途中で途切れています: "+path);
+            }
+            readFully(channel,header,0);
+            if (header.getInt(0)!=MAGIC||header.getInt(Integer.BYTES)!=FORMAT||header.getLong(Integer.BYTES*2)!=seq){
+                throw new IOException("スナップショットのヘッダーが一致しません: "+path);
+            }
+            ByteBuffer buffer=ByteBuffer.allocate(1<<16);
+            for (long position=0;position<body;position+=buffer.limit()){
+                buffer.clear().limit((int)Math.min(buffer.capacity(),body-position));
+                readFully(channel,buffer,position);
+                buffer.flip();
+                crc.update(buffer);
+            }
+            ByteBuffer tail=ByteBuffer.allocate(Long.BYTES);
+            readFully(channel,tail,body);
+            if (tail.getLong(0)!=crc.getValue()){
+                throw new IOException("スナップショットのCRCが一致しません: "+path);
+            }
+        }
+    }
+
+    //·最新の正常なスナップショットをserviceへ読み込み、その通し番号を返す。スナップショットが無い場合は0を返す。
+    //·破損していて読み飛ばしたファイルはskippedへ追加する。
+    public static long loadLatest(Path dir,HouseService service,List<Path> skipped) throws IOException{
+        List<Long> seqs=listSnapshots(dir);
+        for (int i=seqs.size()-1;i>=0;i--){
+            long seq=seqs.get(i);
+            if (load(snapshotPath(dir,seq),service)){
+                return seq;
+            }
+            skipped.add(snapshotPath(dir,seq));
+        }
+        return 0;
+    }
+
+    //指定した通し番号より古いスナップショットを削除する。
+    public static void deleteOlderThan(Path dir,long seq) throws IOException{
+        for (long s:listSnapshots(dir)){
+            if (s<seq){
+                Files.deleteIfExists(snapshotPath(dir,s));
+            }
+        }
+    }
+
+    //·いったん配列へ読み込み、末尾のCRCが一致した場合のみserviceへ反映する。
+    //·読み込み途中で破損が分かった場合に、Serviceが中途半端な状態にならないようにするため。
+    private static boolean load(Path path,HouseService service) throws IOException{
+        CRC32 crc=new CRC32();
+        House[] houses;
+        int idCounter;
+        try (FileChannel channel=FileChannel.open(path,StandardOpenOption.READ)){
+            HouseRecordReader in=new HouseRecordReader(channel,crc);
+            if (in.readInt()!=MAGIC){
+                return false;
+            }
+            if (in.readInt()!=FORMAT){
+                return false;
+            }
+            in.readLong();
+            idCounter=in.readInt();
+            int count=in.readInt();
+            if (count<0){
+                return false;
+            }
+            houses=new House[count];
+            for (int i=0;i<count;i++){
+                houses[i]=in.read();
+                if (houses[i]==null){
+                    return false;
+                }
+            }
+            long actual=in.checksum();
+            if (in.readLong()!=actual){
+                return false;
+            }
+        }catch (EOFException|IllegalArgumentException|IndexOutOfBoundsException e){
+            return false;
+        }
+        apply(service,houses,idCounter);
+        return true;
+    }
+
+    private static void apply(HouseService service,House[] houses,int idCounter){
+        for (House house:houses){
+            service.restore(house);
+        }
+        service.advanceIdCounter(idCounter);
+    }
+
+    private static void readFully(FileChannel channel,ByteBuffer buffer,long position) throws IOException{
+        while (buffer.hasRemaining()){
+            if (channel.read(buffer,position+buffer.position())<0){
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static Path snapshotPath(Path dir,long seq){
+        return dir.resolve(String.format("%s%020d%s",PREFIX,seq,SUFFIX));
+    }
+
+    private static List<Long> listSnapshots(Path dir) throws IOException{
+        List<Long> seqs=new ArrayList<>();
+        if (!Files.isDirectory(dir)){
+            return seqs;
+        }
+        try (DirectoryStream<Path> files=Files.newDirectoryStream(dir,PREFIX+"*"+SUFFIX)){
+            for (Path file:files){
+                String name=file.getFileName().toString();
+                try{
+                    seqs.add(Long.parseLong(name.substring(PREFIX.length(),name.length()-SUFFIX.length())));
+                }catch (NumberFormatException e){
+                    //命名規則に合わないファイルは無視する。
+                }
+            }
+        }
+        Collections.sort(seqs);
+        return seqs;
+    }
+}
@@ -0,0 +1,215 @@
+package HouseRentSystem_YEproject03.replication;
+
+import HouseRentSystem_YEproject03.codec.HouseRecordReader;
+import HouseRentSystem_YEproject03.codec.HouseRecordWriter;
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ *【Replication層・レプリカ】
+ *複製元（HouseReplicationServer）へ接続し、送られてくる変更を読み取り専用のHouseService（ReplicaHouseService）へ反映するクラス。
+ *
+ *【設計意図】
+ *·接続するとまず全物件のスナップショットを受け取り、以降は変更を受け取った順に反映する。
+ *·接続が切れた場合（複製元の停止・再起動など）は一定時間ごとに再接続し、スナップショットから同期し直す。
+ * その間もservice()の参照は止めず、最後に反映した内容を返し続ける。
+ *·複製元が書き込んだ変更のうち、まだ反映していない件数をlag()で参照できる（複製元から最後に受け取った通し番号との差）。
+ *
+ *【設計上の取捨】
+ *·受信と反映は1つのスレッドで行う。反映はServiceの書き込みロックを変更1件ごとに取るため、参照が反映を長く待たされることはない。
+ *·受信した物件はそのままServiceへ格納する。複製元と同じく、物件は変更のたびに新しいオブジェクトへ差し替えられる。
+ *
+ *【使い方】
+ *·HouseReplica replica=new HouseReplica(new InetSocketAddress("localhost",7070),10_000); replica.start();
+ * 以降はreplica.service()を参照に使う。終了時はreplica.close()を呼ぶ。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseReplica implements Closeable{
+    //接続が切れてから再接続するまでの待ち時間
+    private static final long RETRY_MILLIS=500;
+
+    private final InetSocketAddress primary;
+    private final ReplicaHouseService service;
+    private final Thread thread;
+    private final Object progress=new Object();
+    private volatile SocketChannel channel;
+    private volatile boolean closed;
+    private volatile boolean connected;
+    //反映済みの最後の通し番号。ここまでの変更はすべてserviceに反映されている。
+    private volatile long applied=-1;
+    //複製元で最後に書き込まれた通し番号（最後に受け取ったSYNCの時点）
+    private volatile long primarySeq=-1;
+    private volatile long snapshots;
+    private volatile long events;
+
+    //·sizeは物件の初期容量。
+    public HouseReplica(InetSocketAddress primary,int size){
+        this.primary=primary;
+        this.service=new ReplicaHouseService(size);
+        this.thread=new Thread(this::run,"house-replica");
+        thread.setDaemon(true);
+    }
+
+    public void start(){
+        thread.start();
+    }
+
+    //複製された物件を参照するための読み取り専用のService
+    public ReplicaHouseService service(){
+        return service;
+    }
+
+    //複製元と接続中であればtrue
+    public boolean isConnected(){
+        return connected;
+    }
+
+    //反映済みの最後の通し番号（まだ無い場合は-1）
+    public long applied(){
+        return applied;
+    }
+
+    //複製元で書き込まれたが、まだ反映していない変更の件数
+    public long lag(){
+        return Math.max(0,primarySeq-applied);
+    }
+
+    //受け取ったスナップショットの数
+    public long snapshots(){
+        return snapshots;
+    }
+
+    //反映した変更の件数（スナップショットを除く）
+    public long events(){
+        return events;
+    }
+
+    //·通し番号seqまでを反映するか、timeoutMillisが経過するまで待機する。反映した場合はtrueを返す。
+    public boolean awaitApplied(long seq,long timeoutMillis) throws InterruptedException{
+        long deadline=System.currentTimeMillis()+timeoutMillis;
+        synchronized (progress){
+            while (applied<seq){
+                long remaining=deadline-System.currentTimeMillis();
+                if (remaining<=0){
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    //·接続を閉じ、受信用のスレッドの終了を待つ。serviceはそのまま参照できる。
+    @Override
+    public void close() throws IOException{
+        closed=true;
+        SocketChannel current=channel;
+        if (current!=null){
+            current.close();
+        }
+        thread.interrupt();
+        try{
+            thread.join();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(){
+        while (!closed){
+            try (SocketChannel opened=SocketChannel.open()){
+                channel=opened;
+                if (closed){
+                    return;
+                }
+                opened.connect(primary);
+                opened.setOption(StandardSocketOptions.TCP_NODELAY,true);
+                receive(opened);
+            }catch (IOException|RuntimeException e){
+                //·受信した内容を解釈できない場合も、接続し直してスナップショットから同期し直す。
+                if (closed){
+                    return;
+                }
+                if (connected){
+                    System.out.println("複製元との接続が切れました（"+RETRY_MILLIS+"ms後に再接続します）: "+e.getMessage());
+                }
+            }finally{
+                connected=false;
+            }
+            try{
+                Thread.sleep(RETRY_MILLIS);
+            }catch (InterruptedException e){
+                return;
+            }
+        }
+    }
+
+    private void receive(SocketChannel channel) throws IOException{
+        HouseRecordReader in=new HouseRecordReader(channel,null);
+        HouseRecordWriter out=new HouseRecordWriter(channel,null,ByteBuffer.allocate(Long.BYTES));
+        if (in.readInt()!=HouseReplicationServer.MAGIC){
+            throw new IOException("複製元の応答が正しくありません: "+primary);
+        }
+        connected=true;
+        long last=applied;
+        while (true){
+            int type=in.readInt();
+            if (type==HouseReplicationServer.PUT){
+                in.readLong();
+                service.put(record(in));
+                events++;
+            }else if (type==HouseReplicationServer.DELETE){
+                in.readLong();
+                service.remove(in.readInt());
+                events++;
+            }else if (type==HouseReplicationServer.SYNC){
+                long seq=in.readLong();
+                primarySeq=in.readLong();
+                last=Math.max(last,seq);
+                advance(last);
+                out.writeLong(seq);
+                out.flush();
+            }else if (type==HouseReplicationServer.SNAPSHOT){
+                long seq=in.readLong();
+                int idCounter=in.readInt();
+                int count=in.readInt();
+                House[] houses=new House[count];
+                for (int i=0;i<count;i++){
+                    houses[i]=record(in);
+                }
+                service.resync(houses,idCounter);
+                snapshots++;
+                //·再接続した複製元は通し番号を0から数え直すため、スナップショットの番号は前の値より小さいことがある。
+                last=seq;
+            }else{
+                throw new IOException("不明な種別を受け取りました: "+type);
+            }
+        }
+    }
+
+    private static House record(HouseRecordReader in) throws IOException{
+        House house=in.read();
+        if (house==null){
+            throw new EOFException("物件の途中で接続が切れました");
+        }
+        return house;
+    }
+
+    private void advance(long seq){
+        synchronized (progress){
+            applied=seq;
+            progress.notifyAll();
+        }
+    }
+}
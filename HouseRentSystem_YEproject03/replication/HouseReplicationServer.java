@@ -0,0 +1,350 @@
+package HouseRentSystem_YEproject03.replication;
+
+import HouseRentSystem_YEproject03.codec.HouseRecordReader;
+import HouseRentSystem_YEproject03.codec.HouseRecordWriter;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.event.HouseEvent;
+import HouseRentSystem_YEproject03.event.HouseEvent.Type;
+import HouseRentSystem_YEproject03.event.HouseEventBus;
+import HouseRentSystem_YEproject03.event.HouseEventBus.Overflow;
+import HouseRentSystem_YEproject03.event.HouseEventBus.Subscription;
+import HouseRentSystem_YEproject03.event.HouseEventHandler;
+import HouseRentSystem_YEproject03.service.HouseChangeListener;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *【Replication層・複製元】
+ *HouseServiceの変更（追加・削除・更新）を発生順にTCPで送り出し、他のプロセスのレプリカ（HouseReplica）へ複製するサーバー。
+ *
+ *【設計意図】
+ *·HouseRentAppのプロセスはそれぞれ独立したHouseServiceを持つため、参照用のノードを増やしても内容が共有されなかった。
+ * 1つのプロセスを複製元とし、そこで行われた変更を順にレプリカへ送ることで、参照を複数のプロセスへ分散できるようにする。
+ *·変更はHouseEventBusを経由して、レプリカごとのスレッドから送る。書き込み側は環状バッファへ書き込むだけで、ネットワークを待たない。
+ *
+ *【通信手順】
+ *·接続直後に[識別子:int]を送り、続けて現在の全物件をスナップショットとして送る。その後は変更をまとまりごとに送る。
+ *·複製元→レプリカ（[種別:int]に続けて以下を送る。物件はHouseCodecのレコード）：
+ * SNAPSHOT [反映済みの通し番号:long][採番済みID:int][件数:int][物件×件数]／PUT（追加・更新）[通し番号:long][物件]／
+ * DELETE [通し番号:long][ID:int]／SYNC（まとまりの終わり）[まとまりの最後の通し番号:long][複製元の最後の通し番号:long]
+ *·スナップショットの後にもSYNCを送る。レプリカ→複製元：SYNCまでを反映するたびに、その通し番号[long]を返す（ACK）。
+ *
+ *【遅延の計測】
+ *·変更を環状バッファへ書き込んだ時刻を通し番号ごとに記録しておき、ACKを受け取った時点との差を遅延として記録する（lag()）。
+ * 時刻はすべて複製元のプロセスで測るため、プロセス間の時計のずれは影響しない。
+ *·ACKはまとまりの最後の変更についての値であり、ネットワークの往復時間の半分を含む。
+ *
+ *【設計上の取捨】
+ *·レプリカの購読はOverflow.DROPとし、遅いレプリカや停止したレプリカが書き込みを遅くしないようにする。
+ * 追いつけずに変更を読み落とした場合は、その時点の全物件をスナップショットとして送り直す（onDropped）。
+ *·スナップショットは全物件の参照を取得する間だけServiceを読み、取得より前に書き込まれた変更はすべて含まれる。
+ * そのため、取得の直前に読んだ通し番号までの変更は、スナップショットの後には送らない。
+ * 取得と並行して書き込まれた変更はスナップショットにも含まれ得るが、レプリカは版番号が古い変更を無視するため、結果は変わらない。
+ *·変更の履歴は環状バッファの分しか保持しないため、再接続したレプリカは常にスナップショットから同期し直す。
+ *·スナップショットの作成と送信はレプリカごとのスレッドで行い、全物件の参照を並行して読むため、ConcurrentHouseServiceなどスレッドセーフな実装を渡す。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseReplicationServer implements HouseChangeListener,Closeable{
+    static final int MAGIC=0x48525231;//"HRR1"
+    static final int SNAPSHOT=1;
+    static final int PUT=2;
+    static final int DELETE=3;
+    static final int SYNC=4;
+    public static final int DEFAULT_CAPACITY=1<<16;
+
+    private final HouseService service;
+    private final HouseEventBus bus;
+    //通し番号ごとの、変更を書き込んだ時刻（System.nanoTime()）と、その時刻を記録した通し番号
+    private final AtomicLongArray publishTimes;
+    private final AtomicLongArray publishSeqs;
+    private final int mask;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final List<Connection> connections=new CopyOnWriteArrayList<>();
+    private final LatencyHistogram lag=new LatencyHistogram();
+    private volatile boolean closed;
+
+    public HouseReplicationServer(HouseService service,InetSocketAddress address) throws IOException{
+        this(service,address,DEFAULT_CAPACITY);
+    }
+
+    //·capacityは送信待ちにできる変更の件数（2の累乗に切り上げる）。これを超えて遅れたレプリカにはスナップショットを送り直す。
+    public HouseReplicationServer(HouseService service,InetSocketAddress address,int capacity) throws IOException{
+        this.service=service;
+        this.bus=new HouseEventBus(capacity);
+        this.publishTimes=new AtomicLongArray(bus.capacity());
+        this.publishSeqs=new AtomicLongArray(bus.capacity());
+        for (int i=0;i<bus.capacity();i++){
+            publishSeqs.set(i,-1);
+        }
+        this.mask=bus.capacity()-1;
+        this.server=ServerSocketChannel.open().bind(address);
+        this.acceptor=new Thread(this::acceptLoop,"house-replication-acceptor");
+        acceptor.setDaemon(true);
+    }
+
+    //·変更の通知を受け取り始め、レプリカの接続を受け付ける。
+    public void start(){
+        service.addListener(this);
+        acceptor.start();
+    }
+
+    //待ち受けているポート番号（0を指定して起動した場合の実際の番号を知るために使う）
+    public int port(){
+        return server.socket().getLocalPort();
+    }
+
+    //これまでに送り出した変更の件数
+    public long published(){
+        return bus.published();
+    }
+
+    //接続中のレプリカ
+    public List<Connection> connections(){
+        return List.copyOf(connections);
+    }
+
+    //変更を書き込んでから、レプリカが反映を知らせてくるまでの時間の分布（全レプリカ分）
+    public LatencyHistogram lag(){
+        return lag;
+    }
+
+    @Override
+    public void onAdd(House house){
+        long now=System.nanoTime();
+        stamp(bus.publish(Type.ADD,null,house),now);
+    }
+
+    @Override
+    public void onDelete(House house){
+        long now=System.nanoTime();
+        stamp(bus.publish(Type.DELETE,house,null),now);
+    }
+
+    @Override
+    public void onUpdate(House before,House after){
+        long now=System.nanoTime();
+        stamp(bus.publish(Type.UPDATE,before,after),now);
+    }
+
+    //·通知を止め、全レプリカとの接続を閉じる。レプリカは再接続を試み続けるため、複製元を起動し直せば同期し直す。
+    @Override
+    public void close() throws IOException{
+        closed=true;
+        service.removeListener(this);
+        server.close();
+        for (Connection connection:connections){
+            connection.fail();
+        }
+        bus.close();
+    }
+
+    //·リスナーは複数の区画から並行して呼ばれ得るため、割り当てられた通し番号は書き込んだ後に受け取る。時刻は書き込む前に測ったものを記録する。
+    //·時刻を記録するより先にACKが届いた場合に古い時刻を使わないよう、時刻の後に通し番号を記録し、ACK側で照合する。
+    private void stamp(long seq,long time){
+        if (seq>=0){
+            int i=(int)seq&mask;
+            publishTimes.setRelease(i,time);
+            publishSeqs.setRelease(i,seq);
+        }
+    }
+
+    private void acceptLoop(){
+        while (!closed){
+            SocketChannel channel;
+            try{
+                channel=server.accept();
+            }catch (ClosedChannelException e){
+                return;
+            }catch (IOException e){
+                System.out.println("レプリカの接続の受け付けに失敗しました: "+e.getMessage());
+                continue;
+            }
+            Connection connection=null;
+            try{
+                channel.setOption(StandardSocketOptions.TCP_NODELAY,true);
+                connection=new Connection(channel);
+                connections.add(connection);
+                connection.open();
+            }catch (IOException e){
+                System.out.println("レプリカへの送信を開始できませんでした: "+e.getMessage());
+                if (connection!=null){
+                    connection.fail();
+                }else{
+                    try{
+                        channel.close();
+                    }catch (IOException ignored){
+                        //既に閉じられている。
+                    }
+                }
+            }
+        }
+    }
+
+    //·接続中のレプリカ1つ分。HouseEventBusの購読者として、受け取った変更をまとまりごとに送る。
+    public final class Connection implements HouseEventHandler{
+        private final SocketChannel channel;
+        private final String name;
+        private final HouseRecordWriter out;
+        private final AtomicBoolean failed=new AtomicBoolean();
+        private volatile Subscription subscription;
+        private Thread ackReader;
+        private volatile long acknowledged=-1;
+        private volatile long snapshots;
+        //最後に送ったスナップショットの通し番号。これ以下の変更は送らない。また、この番号のACKは変更を書き込んだ時刻と関係が無いため、遅延に数えない。
+        private volatile long snapshotSeq=-1;
+
+        private Connection(SocketChannel channel) throws IOException{
+            this.channel=channel;
+            this.name=String.valueOf(channel.getRemoteAddress());
+            this.out=new HouseRecordWriter(channel,null);
+        }
+
+        public String name(){
+            return name;
+        }
+
+        //レプリカが反映を知らせてきた最後の通し番号（まだ無い場合は-1）
+        public long acknowledged(){
+            return acknowledged;
+        }
+
+        //まだ反映を知らされていない変更の件数
+        public long pending(){
+            return Math.max(0,bus.published()-1-acknowledged);
+        }
+
+        //送ったスナップショットの数（接続時の1回と、読み落としによる送り直しの回数）
+        public long snapshots(){
+            return snapshots;
+        }
+
+        //読み落として、スナップショットで補った変更の件数
+        public long dropped(){
+            return subscription.dropped();
+        }
+
+        //·購読を始めてから全物件を送る。購読者のスレッドは、スナップショットを送り終えるまでonEvents()で待つ。
+        private synchronized void open() throws IOException{
+            subscription=bus.subscribe("replica-"+name,this,HouseEventBus.DEFAULT_BATCH,Overflow.DROP);
+            out.writeInt(MAGIC);
+            sendSnapshot();
+            ackReader=new Thread(this::readAcks,"house-replication-ack-"+name);
+            ackReader.setDaemon(true);
+            ackReader.start();
+        }
+
+        @Override
+        //·スナップショットに含まれる変更（通し番号がsnapshotSeq以下）は送らない。古い変更を当て直すと、
+        // 削除済みの物件が一時的に戻るなど、反映済みと知らせた後のレプリカの内容が複製元と食い違うためである。
+        public synchronized void onEvents(HouseEvent[] events,int count){
+            if (failed.get()||events[count-1].sequence()<=snapshotSeq){
+                return;
+            }
+            try{
+                for (int i=0;i<count;i++){
+                    HouseEvent event=events[i];
+                    if (event.sequence()<=snapshotSeq){
+                        continue;
+                    }
+                    if (event.type()==HouseEvent.Type.DELETE){
+                        out.writeInt(DELETE);
+                        out.writeLong(event.sequence());
+                        out.writeInt(event.before().getId());
+                    }else{
+                        out.writeInt(PUT);
+                        out.writeLong(event.sequence());
+                        out.write(event.after());
+                    }
+                }
+                out.writeInt(SYNC);
+                out.writeLong(events[count-1].sequence());
+                out.writeLong(bus.published()-1);
+                out.flush();
+            }catch (IOException e){
+                fail();
+            }
+        }
+
+        @Override
+        public synchronized void onDropped(long count){
+            if (failed.get()){
+                return;
+            }
+            try{
+                sendSnapshot();
+            }catch (IOException e){
+                fail();
+            }
+        }
+
+        //·通し番号を先に読んでから全物件を取得する。その番号までの変更は、取得した物件にすべて反映されている。
+        //·続けてSYNCを送り、変更が無い間もレプリカが同期し終えたことをACKで知らせてくるようにする。
+        private void sendSnapshot() throws IOException{
+            long included=bus.published()-1;
+            House[] houses=service.listDetached();
+            out.writeInt(SNAPSHOT);
+            out.writeLong(included);
+            out.writeInt(service.idCounter());
+            out.writeInt(houses.length);
+            out.write(houses);
+            out.writeInt(SYNC);
+            out.writeLong(included);
+            out.writeLong(included);
+            out.flush();
+            snapshotSeq=included;
+            snapshots++;
+        }
+
+        //·ACKの通し番号の変更を書き込んだ時刻から遅延を求める。時刻の記録がまだ無い場合と、既に上書きされている場合は数えない。
+        private void readAcks(){
+            HouseRecordReader in=new HouseRecordReader(channel,null,ByteBuffer.allocate(256));
+            try{
+                while (true){
+                    long seq=in.readLong();
+                    long now=System.nanoTime();
+                    int i=(int)seq&mask;
+                    if (seq!=snapshotSeq&&publishSeqs.getAcquire(i)==seq&&bus.published()-1-seq<mask){
+                        lag.record(now-publishTimes.getAcquire(i));
+                    }
+                    acknowledged=seq;
+                }
+            }catch (IOException e){
+                fail();
+            }
+        }
+
+        //·接続を閉じて購読を解除する。何度呼ばれても1回だけ処理する。
+        private void fail(){
+            if (!failed.compareAndSet(false,true)){
+                return;
+            }
+            connections.remove(this);
+            try{
+                channel.close();
+            }catch (IOException ignored){
+                //閉じる際の失敗は無視する。
+            }
+            if (subscription!=null){
+                subscription.close();
+            }
+        }
+    }
+}
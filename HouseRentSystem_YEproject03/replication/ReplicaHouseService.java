@@ -0,0 +1,92 @@
+package HouseRentSystem_YEproject03.replication;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseChanges;
+import HouseRentSystem_YEproject03.service.UpdateResult;
+
+import java.util.BitSet;
+
+/**
+ *【Replication層】
+ *複製元から受け取った変更だけを反映する、読み取り専用のHouseService。HouseReplicaが作成する。
+ *
+ *【設計意図】
+ *·参照（findById・list・find・searchなど）はConcurrentHouseServiceと同じく複数のスレッドから並行して行える。
+ * HTTPサーバーなどにそのまま渡し、読み取り専用のノードとして使う。
+ *·追加・削除・更新・復元を呼ぶとUnsupportedOperationExceptionを送出する。変更は複製元で行う。
+ *·複製元の変更は、IDと版番号を変えずに反映する（HouseService.replicate()）。レプリカで読んだ版番号を指定して、複製元で楽観的排他の更新を行える。
+ *
+ *【設計上の取捨】
+ *·スナップショットによる同期（resync）は、物件を1件ずつ版番号に関係なく置き換えた後に、スナップショットに無い物件を削除する。
+ * 同期中に参照した場合、新旧の内容が混ざった一覧を返すことがある。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ReplicaHouseService extends ConcurrentHouseService{
+    ReplicaHouseService(int size){
+        super(size,false);
+    }
+
+    @Override
+    public House add(House newHouses){
+        throw readOnly();
+    }
+
+    @Override
+    public void addAll(House[] newHouses){
+        throw readOnly();
+    }
+
+    @Override
+    public boolean del(int delId){
+        throw readOnly();
+    }
+
+    @Override
+    public boolean update(int id,String name,String phone,String address,int rent,String state){
+        throw readOnly();
+    }
+
+    @Override
+    public UpdateResult update(int id,int expectedVersion,HouseChanges changes){
+        throw readOnly();
+    }
+
+    @Override
+    public void restore(House house){
+        throw readOnly();
+    }
+
+    //複製元で追加・更新された物件を反映する。反映済みの版より古い変更は無視する。
+    void put(House house){
+        super.replicate(house,false);
+    }
+
+    //複製元で削除された物件を削除する。
+    void remove(int id){
+        super.del(id);
+    }
+
+    //·スナップショットの内容に合わせる。スナップショットの物件は版番号に関係なくそのまま置き換え、含まれない物件（切断中に削除された物件など）は削除する。
+    void resync(House[] houses,int idCounter){
+        BitSet ids=new BitSet();
+        for (House house:houses){
+            super.replicate(house,true);
+            ids.set(house.getId());
+        }
+        for (House house:list()){
+            if (!ids.get(house.getId())){
+                remove(house.getId());
+            }
+        }
+        advanceIdCounter(idCounter);
+    }
+
+    private static UnsupportedOperationException readOnly(){
+        return new UnsupportedOperationException("レプリカは読み取り専用です。変更は複製元で行ってください");
+    }
+}
@@ -0,0 +1,244 @@
+package HouseRentSystem_YEproject03.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ *【Script層】
+ *コマンドスクリプトを1行ずつ読み、空白で区切られた語（トークン）に分けるクラス。
+ *
+ *【設計意図】
+ *·数百万行のスクリプトを読むことを前提に、行や語ごとの一時オブジェクトを作らない。
+ * 入力は64KBの文字バッファへまとめて読み込み、1行を作業用の文字配列へ写したうえで、各語の開始・終了位置だけを記録する。
+ *·コマンド名の比較（equalsTo）と数値の解析（parseInt）は文字配列を直接参照して行い、文字列を作るのは物件へ格納する値（string）だけである。
+ *
+ *【書式】
+ *·語は空白またはタブで区切る。空白を含む値は二重引用符で囲み、引用符の中では「\"」「\\」を使える。
+ *·空行と、#で始まる行は読み飛ばす。
+ *
+ *【設計上の取捨】
+ *·スレッドセーフではない。取得した語の位置は次のnext()を呼ぶまでのみ有効である。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class CommandTokenizer{
+    private final Reader in;
+    private final char[] buffer=new char[1<<16];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private char[] line=new char[256];
+    private int lineLength;
+    private long lineNumber;
+    private int[] starts=new int[8];
+    private int[] ends=new int[8];
+    private int count;
+    private boolean malformed;
+
+    public CommandTokenizer(InputStream in){
+        this(new InputStreamReader(in,StandardCharsets.UTF_8));
+    }
+
+    public CommandTokenizer(Reader in){
+        this.in=in;
+    }
+
+    //·次のコマンド行へ進む。空行とコメント行は読み飛ばす。入力の終わりではfalseを返す。
+    public boolean next() throws IOException{
+        while (readLine()){
+            tokenize();
+            if (count>0||malformed){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //現在の行の行番号（1から数える）
+    public long lineNumber(){
+        return lineNumber;
+    }
+
+    //現在の行の語の数
+    public int count(){
+        return count;
+    }
+
+    //二重引用符が閉じられていない場合はtrueを返す。
+    public boolean isMalformed(){
+        return malformed;
+    }
+
+    //·i番目の語がtextと一致するかを、文字列を作らずに判定する。
+    public boolean equalsTo(int i,String text){
+        int start=starts[i];
+        int length=ends[i]-start;
+        if (length!=text.length()){
+            return false;
+        }
+        for (int k=0;k<length;k++){
+            if (line[start+k]!=text.charAt(k)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //i番目の語の文字数
+    public int length(int i){
+        return ends[i]-starts[i];
+    }
+
+    public String string(int i){
+        return new String(line,starts[i],ends[i]-starts[i]);
+    }
+
+    //·i番目の語を整数として解析する。Utility.parseIntと同じく、1～10文字の整数のみを受け付ける。
+    //·規則に合わない場合はNumberFormatExceptionを送出する。
+    public int parseInt(int i){
+        int start=starts[i];
+        int end=ends[i];
+        int length=end-start;
+        if (length<1||length>10){
+            throw new NumberFormatException("数値は1～10文字で入力してください: "+string(i));
+        }
+        boolean negative=line[start]=='-';
+        int k=negative||line[start]=='+'?start+1:start;
+        if (k==end){
+            throw new NumberFormatException("数値ではありません: "+string(i));
+        }
+        long value=0;
+        for (;k<end;k++){
+            int digit=line[k]-'0';
+            if (digit<0||digit>9){
+                throw new NumberFormatException("数値ではありません: "+string(i));
+            }
+            value=value*10+digit;
+        }
+        value=negative?-value:value;
+        if (value<Integer.MIN_VALUE||value>Integer.MAX_VALUE){
+            throw new NumberFormatException("数値が大きすぎます: "+string(i));
+        }
+        return (int)value;
+    }
+
+    //·次の改行までを作業用の文字配列へ写す。入力の終わりではfalseを返す。
+    private boolean readLine() throws IOException{
+        lineLength=0;
+        boolean any=false;
+        while (true){
+            if (position==limit){
+                if (eof||!fill()){
+                    if (any){
+                        lineNumber++;
+                        if (lineLength>0&&line[lineLength-1]=='\r'){
+                            lineLength--;
+                        }
+                    }
+                    return any;
+                }
+            }
+            any=true;
+            int start=position;
+            while (position<limit&&buffer[position]!='\n'){
+                position++;
+            }
+            append(start,position-start);
+            if (position<limit){
+                position++;
+                lineNumber++;
+                if (lineLength>0&&line[lineLength-1]=='\r'){
+                    lineLength--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException{
+        int n=in.read(buffer,0,buffer.length);
+        if (n<=0){
+            eof=true;
+            return false;
+        }
+        position=0;
+        limit=n;
+        return true;
+    }
+
+    private void append(int start,int length){
+        if (lineLength+length>line.length){
+            line=Arrays.copyOf(line,Math.max(lineLength+length,line.length<<1));
+        }
+        System.arraycopy(buffer,start,line,lineLength,length);
+        lineLength+=length;
+    }
+
+    //·行を語に分ける。引用符で囲まれた語は、同じ配列の中でその場で引用符と「\」を取り除く。
+    private void tokenize(){
+        count=0;
+        malformed=false;
+        int i=0;
+        int n=lineLength;
+        while (i<n&&isSpace(line[i])){
+            i++;
+        }
+        if (i<n&&line[i]=='#'){
+            return;
+        }
+        while (i<n){
+            int start;
+            int end;
+            if (line[i]=='"'){
+                start=++i;
+                int write=i;
+                while (true){
+                    if (i>=n){
+                        malformed=true;
+                        return;
+                    }
+                    char c=line[i++];
+                    if (c=='"'){
+                        break;
+                    }
+                    if (c=='\\'&&i<n){
+                        c=line[i++];
+                    }
+                    line[write++]=c;
+                }
+                end=write;
+            }else{
+                start=i;
+                while (i<n&&!isSpace(line[i])){
+                    i++;
+                }
+                end=i;
+            }
+            add(start,end);
+            while (i<n&&isSpace(line[i])){
+                i++;
+            }
+        }
+    }
+
+    private void add(int start,int end){
+        if (count==starts.length){
+            starts=Arrays.copyOf(starts,count<<1);
+            ends=Arrays.copyOf(ends,count<<1);
+        }
+        starts[count]=start;
+        ends[count++]=end;
+    }
+
+    private static boolean isSpace(char c){
+        return c==' '||c=='\t';
+    }
+}
@@ -0,0 +1,183 @@
+package HouseRentSystem_YEproject03.script;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.utils.Utility;
+import HouseRentSystem_YEproject03.view.HouseRenderer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *【Script層】
+ *コマンドスクリプトを読み、確認の問い合わせなしでHouseServiceへ順に実行するクラス。
+ *
+ *【設計意図】
+ *·HouseViewのメニューは人が1件ずつ入力することを前提としており、記録した大量の操作の再実行（負荷試験）や夜間の一括保守には使えなかった。
+ *·本クラスはメニューと同じ操作（追加・検索・削除・修正・一覧）を1行1コマンドで受け付ける。入力値はUtilityと同じ規則で検証する。
+ *
+ *【コマンド】
+ *·add 氏名 電話 住所 家賃 状態
+ *·find ID
+ *·del ID                       （確認は行わない）
+ *·update ID 氏名 電話 住所 家賃 状態   （「-」を指定した項目は現在の値のまま。メニューの修正で空入力した場合と同じ）
+ *·list [件数]
+ *
+ *【設計上の取捨】
+ *·書式・検証の誤りがある行は実行せずに読み飛ばし、件数と先頭からMAX_ERRORS件の内容を結果として返す。
+ *·find・listの結果はHouseRendererで出力先へまとめて書き込む。出力先にnullを指定すると出力を捨てる（負荷試験用）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseScriptRunner{
+    //結果に保持するエラー内容の最大件数
+    public static final int MAX_ERRORS=100;
+    //listで1回に取得する件数
+    private static final int PAGE_SIZE=256;
+    //updateで現在の値を保持することを表す指定
+    private static final String KEEP="-";
+
+    private final HouseService service;
+    private final HouseRenderer renderer;
+
+    private long errors;
+    private long notFound;
+    private final List<String> messages=new ArrayList<>();
+
+    public HouseScriptRunner(HouseService service,Writer out){
+        this.service=service;
+        this.renderer=out==null?null:new HouseRenderer(out,HouseRenderer.Format.TABLE);
+    }
+
+    public ScriptResult run(InputStream in) throws IOException{
+        return run(new CommandTokenizer(in));
+    }
+
+    public ScriptResult run(CommandTokenizer tokenizer) throws IOException{
+        long start=System.nanoTime();
+        long commands=0;
+        errors=0;
+        notFound=0;
+        messages.clear();
+        while (tokenizer.next()){
+            commands++;
+            try{
+                execute(tokenizer);
+            }catch (IllegalArgumentException e){
+                //NumberFormatExceptionもここで受け取る。
+                error(tokenizer,e.getMessage());
+            }
+        }
+        if (renderer!=null){
+            renderer.flush();
+        }
+        return new ScriptResult(commands,errors,notFound,new ArrayList<>(messages),System.nanoTime()-start);
+    }
+
+    private void execute(CommandTokenizer t){
+        if (t.isMalformed()){
+            error(t,"二重引用符が閉じられていません");
+        }else if (t.equalsTo(0,"add")){
+            expect(t,6);
+            String name=text(t,1,Utility.NAME_LIMIT,"氏名");
+            String phone=text(t,2,Utility.PHONE_LIMIT,"電話");
+            String address=text(t,3,Utility.ADDRESS_LIMIT,"住所");
+            int rent=Utility.checkRent(t.parseInt(4));
+            String state=text(t,5,Utility.STATE_LIMIT,"状態");
+            service.add(new House(0,name,phone,address,rent,state));
+        }else if (t.equalsTo(0,"find")){
+            expect(t,2);
+            House house=service.findById(t.parseInt(1));
+            if (house==null){
+                notFound++;
+                print("該当する物件はありません: "+t.string(1));
+            }else if (renderer!=null){
+                renderer.row(house);
+            }
+        }else if (t.equalsTo(0,"del")){
+            expect(t,2);
+            if (!service.del(t.parseInt(1))){
+                notFound++;
+            }
+        }else if (t.equalsTo(0,"update")){
+            expect(t,7);
+            update(t);
+        }else if (t.equalsTo(0,"list")){
+            if (t.count()>2){
+                throw new IllegalArgumentException("listの引数が多すぎます");
+            }
+            list(t.count()==2?t.parseInt(1):Integer.MAX_VALUE);
+        }else{
+            error(t,"不明なコマンドです: "+t.string(0));
+        }
+    }
+
+    //·メニューの修正と同じく、「-」の項目は現在の値を使う。住所は修正時の上限（18文字）で検証する。
+    private void update(CommandTokenizer t){
+        int id=t.parseInt(1);
+        House house=service.findById(id);
+        if (house==null){
+            notFound++;
+            return;
+        }
+        String name=t.equalsTo(2,KEEP)?house.getName():text(t,2,Utility.NAME_LIMIT,"氏名");
+        String phone=t.equalsTo(3,KEEP)?house.getPhone():text(t,3,Utility.PHONE_LIMIT,"電話");
+        String address=t.equalsTo(4,KEEP)?house.getAddress():text(t,4,Utility.ADDRESS_UPDATE_LIMIT,"住所");
+        int rent=t.equalsTo(5,KEEP)?house.getRent():Utility.checkRent(t.parseInt(5));
+        String state=t.equalsTo(6,KEEP)?house.getState():text(t,6,Utility.STATE_LIMIT,"状態");
+        if (!service.update(id,name,phone,address,rent,state)){
+            notFound++;
+        }
+    }
+
+    private void list(int limit){
+        if (renderer==null){
+            return;
+        }
+        int lastId=0;
+        int remaining=limit;
+        House[] page;
+        do{
+            page=service.pageAfter(lastId,Math.min(PAGE_SIZE,remaining));
+            renderer.rows(page);
+            remaining-=page.length;
+            if (page.length>0){
+                lastId=page[page.length-1].getId();
+            }
+        }while (page.length==PAGE_SIZE&&remaining>0);
+    }
+
+    private static void expect(CommandTokenizer t,int count){
+        if (t.count()!=count){
+            throw new IllegalArgumentException(t.string(0)+"の項目数が不正です（"+(count-1)+"項目必要です）");
+        }
+    }
+
+    //·Utility.readStringと同じ規則（1文字以上limit文字以下）で検証してから文字列にする。
+    private static String text(CommandTokenizer t,int i,int limit,String label){
+        int length=t.length(i);
+        if (length<1||length>limit){
+            throw new IllegalArgumentException(label+"は1～"+limit+"文字で入力してください");
+        }
+        return t.string(i);
+    }
+
+    private void print(String text){
+        if (renderer!=null){
+            renderer.line(text);
+        }
+    }
+
+    private void error(CommandTokenizer t,String message){
+        errors++;
+        if (messages.size()<MAX_ERRORS){
+            messages.add("行"+t.lineNumber()+": "+message);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package HouseRentSystem_YEproject03.script;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *【Script層】
+ *コマンドスクリプトの実行結果（実行件数・エラー件数・該当なし件数・所要時間）を表すクラス。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ScriptResult{
+    private final long commands;
+    private final long errors;
+    private final long notFound;
+    private final List<String> messages;
+    private final long elapsedNanos;
+
+    ScriptResult(long commands,long errors,long notFound,List<String> messages,long elapsedNanos){
+        this.commands=commands;
+        this.errors=errors;
+        this.notFound=notFound;
+        this.messages=Collections.unmodifiableList(messages);
+        this.elapsedNanos=elapsedNanos;
+    }
+
+    //実行したコマンドの件数（エラーの行を含む）
+    public long commands(){
+        return commands;
+    }
+
+    //書式や検証の誤りで実行しなかった行数
+    public long errors(){
+        return errors;
+    }
+
+    //find・del・updateで指定した物件が存在しなかった件数
+    public long notFound(){
+        return notFound;
+    }
+
+    //エラー内容（先頭から最大HouseScriptRunner.MAX_ERRORS件）
+    public List<String> messages(){
+        return messages;
+    }
+
+    public long elapsedNanos(){
+        return elapsedNanos;
+    }
+
+    public double commandsPerSecond(){
+        return elapsedNanos==0?0:commands*1_000_000_000.0/elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%,d件（エラー %,d件、該当なし %,d件）、%,d ms、%,.0f 件/秒",commands,errors,notFound,elapsedNanos/1_000_000,commandsPerSecond());
+    }
+}
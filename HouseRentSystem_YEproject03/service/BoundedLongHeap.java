@@ -0,0 +1,85 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+
+/**
+ *【Service層・索引】
+ *与えられたlong値のうち、小さい方から最大k件だけを保持するヒープ（上位k件の選択）。
+ *
+ *【設計意図】
+ *·「家賃の安い未賃貸物件20件」のように、条件に合う候補の一部だけが必要な場合に、候補全体を並べ替えずに済ませる。
+ *·保持している値のうち最大のものを根に置く最大ヒープとし、根より小さい値が来た場合だけ根と入れ替える。
+ * 候補m件からk件を選ぶ処理はO(m log k)、使用するメモリはk件分で済む。
+ *
+ *【設計上の取捨】
+ *·値はHouseIndexの家賃索引と同じ「家賃を上位32ビット、IDを下位32ビット」としたキー、またはIDそのものを想定している。
+ * 大きい方からk件を選ぶ場合は、呼び出し側でビット反転（~key）した値を渡す。
+ *·ボクシングを避けるため、PriorityQueue<Long>ではなくlong配列で実装している。
+ *·スレッドセーフではない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class BoundedLongHeap{
+    private final int capacity;
+    private long[] heap;
+    private int size;
+
+    //·capacityは保持する最大件数である。0以下の場合は何も保持しない。
+    public BoundedLongHeap(int capacity){
+        this.capacity=Math.max(capacity,0);
+        this.heap=new long[Math.min(this.capacity,1024)];
+    }
+
+    //·値を候補に加える。k件に達している場合は、保持している最大値より小さい値だけを残す。
+    public void offer(long value){
+        if (size<capacity){
+            if (size==heap.length){
+                heap=Arrays.copyOf(heap,(int)Math.min(capacity,(long)size<<1));
+            }
+            int i=size++;
+            while (i>0){
+                int parent=(i-1)>>>1;
+                if (heap[parent]>=value){
+                    break;
+                }
+                heap[i]=heap[parent];
+                i=parent;
+            }
+            heap[i]=value;
+        }else if (capacity>0&&value<heap[0]){
+            siftDown(value);
+        }
+    }
+
+    public int size(){
+        return size;
+    }
+
+    //保持している値を昇順に並べた配列を返す。
+    public long[] toSortedArray(){
+        long[] result=Arrays.copyOf(heap,size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    //根をvalueで置き換え、最大ヒープの条件を満たす位置まで下げる。
+    private void siftDown(long value){
+        int i=0;
+        int half=size>>>1;
+        while (i<half){
+            int child=(i<<1)+1;
+            if (child+1<size&&heap[child+1]>heap[child]){
+                child++;
+            }
+            if (heap[child]<=value){
+                break;
+            }
+            heap[i]=heap[child];
+            i=child;
+        }
+        heap[i]=value;
+    }
+}
@@ -0,0 +1,389 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ *【Service層・格納方式】
+ *物件を1件ずつのオブジェクトではなく、項目ごとの配列（列）に分けて保持する格納方式。
+ *
+ *【設計意図】
+ *·物件1件ごとにHouseオブジェクトと4つの文字列を持つと、数百万件規模ではオブジェクトのヘッダと重複した文字列がメモリの大半を占める。
+ *·IDと家賃と版番号はint配列、状態はbyte配列、家主名・電話番号・住所は辞書（StringDictionary）のコードをint配列で保持し、1件あたりのメモリ使用量を抑える。
+ *
+ *【責務範囲】
+ *·各列の配列の管理と自動拡張。
+ *·ID→スロットの索引による一定時間の検索・削除。
+ *·外部へはHouseのサブクラスである軽量な読み取り専用のビューを渡し、getterで列の値を直接読めるようにする。
+ *
+ *【設計上の取捨】
+ *·状態は「未賃貸」「賃貸中」のほぼ2種類であるため、辞書のコードを1バイトで保持する。種類数は255までとする。
+ *·ビューは物件IDとスロット番号の手がかり、作成時点の版番号だけを持つ。詰め直しでスロットが移動していた場合は、索引から引き直して同じ物件を指し続ける。
+ *·版番号だけは作成時点の値を返す。取得したビューの版を期待値として更新すると、その間に別の更新があった場合は競合として検出される。
+ *·墓標はID列の0で表す。詰め直しの方針はObjectHouseStorageと同じである。
+ *·詰め直しは新しい列の配列へ書き出す。走査中のSpliteratorは古いID列を参照し続けるため、順序が崩れない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ColumnarHouseStorage implements HouseStorage{
+    private static final int MIN_COMPACT_TOMBSTONES=64;
+    //状態コードの上限（byteの-1はnullを表すため255種類まで）。
+    private static final int MAX_STATES=255;
+
+    private int[] ids;
+    private int[] rents;
+    private byte[] states;
+    private int[] names;
+    private int[] phones;
+    private int[] addresses;
+    private int[] versions;
+
+    private final StringDictionary nameDictionary=new StringDictionary();
+    private final StringDictionary phoneDictionary=new StringDictionary();
+    private final StringDictionary addressDictionary=new StringDictionary();
+    private final StringDictionary stateDictionary=new StringDictionary();
+
+    private int slotNums=0;
+    private int houseNums=0;
+    private int tombstones=0;
+    private final IdIndex index;
+
+    public ColumnarHouseStorage(int size){
+        int capacity=Math.max(size,1);
+        ids=new int[capacity];
+        rents=new int[capacity];
+        states=new byte[capacity];
+        names=new int[capacity];
+        phones=new int[capacity];
+        addresses=new int[capacity];
+        versions=new int[capacity];
+        index=new IdIndex(capacity);
+    }
+
+    @Override
+    public House get(int id){
+        int slot=index.get(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        return new ColumnarHouse(this,id,slot);
+    }
+
+    @Override
+    public void insert(House house){
+        if (slotNums==ids.length){
+            if (tombstones>0&&tombstones>=(slotNums>>3)){
+                compact();
+            }else{
+                grow();
+            }
+        }
+        int slot=slotNums++;
+        ids[slot]=house.getId();
+        write(slot,house);
+        index.put(house.getId(),slot);
+        houseNums++;
+    }
+
+    //削除した物件の値は、列から切り離した通常のHouseとして返す。
+    @Override
+    public House remove(int id){
+        int slot=index.remove(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        House removed=materialize(slot);
+        ids[slot]=0;
+        houseNums--;
+        tombstones++;
+        while (slotNums>0&&ids[slotNums-1]==0){
+            slotNums--;
+            tombstones--;
+        }
+        if (tombstones>=MIN_COMPACT_TOMBSTONES&&tombstones>(slotNums>>2)){
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void replace(House house){
+        int slot=index.get(house.getId());
+        if (slot!=IdIndex.NOT_FOUND){
+            write(slot,house);
+        }
+    }
+
+    //·列形式では値を複数の列へ書き込むため、読み取りと同時に行われると書き換え途中の値が見える。排他制御は呼び出し側の責務とする。
+    @Override
+    public boolean replaceIfVersion(int expectedVersion,House house){
+        int slot=index.get(house.getId());
+        if (slot==IdIndex.NOT_FOUND||versions[slot]!=expectedVersion){
+            return false;
+        }
+        write(slot,house);
+        return true;
+    }
+
+    @Override
+    public int size(){
+        return houseNums;
+    }
+
+    @Override
+    public int tombstones(){
+        return tombstones;
+    }
+
+    //·各列を同じ順序で新しい配列へ詰める。移動した物件のみ索引を更新する。
+    @Override
+    public void compact(){
+        if (tombstones==0){
+            return;
+        }
+        int capacity=ids.length;
+        int[] newIds=new int[capacity];
+        int[] newRents=new int[capacity];
+        byte[] newStates=new byte[capacity];
+        int[] newNames=new int[capacity];
+        int[] newPhones=new int[capacity];
+        int[] newAddresses=new int[capacity];
+        int[] newVersions=new int[capacity];
+        int to=0;
+        for (int from=0;from<slotNums;from++){
+            int id=ids[from];
+            if (id==0){
+                continue;
+            }
+            if (to!=from){
+                index.put(id,to);
+            }
+            newIds[to]=id;
+            newRents[to]=rents[from];
+            newStates[to]=states[from];
+            newNames[to]=names[from];
+            newPhones[to]=phones[from];
+            newAddresses[to]=addresses[from];
+            newVersions[to]=versions[from];
+            to++;
+        }
+        ids=newIds;
+        rents=newRents;
+        states=newStates;
+        names=newNames;
+        phones=newPhones;
+        addresses=newAddresses;
+        versions=newVersions;
+        slotNums=to;
+        tombstones=0;
+    }
+
+    @Override
+    public int slotCount(){
+        return slotNums;
+    }
+
+    @Override
+    public int capacity(){
+        return ids.length;
+    }
+
+    @Override
+    public House at(int slot){
+        int id=ids[slot];
+        return id==0?null:new ColumnarHouse(this,id,slot);
+    }
+
+    @Override
+    public House detachedAt(int slot){
+        return ids[slot]==0?null:materialize(slot);
+    }
+
+    @Override
+    public int slotOf(int id){
+        return index.get(id);
+    }
+
+    //作成時点のID列と使用済みスロット数を取り込み、各物件はビューとして渡す。
+    @Override
+    public Spliterator<House> spliterator(int fromSlot){
+        return new ColumnSpliterator(this,ids,Math.max(fromSlot,0),slotNums);
+    }
+
+    //辞書に登録されている文字列の種類数（家主名・電話番号・住所・状態の合計）を返す。
+    public int dictionarySize(){
+        return nameDictionary.size()+phoneDictionary.size()+addressDictionary.size()+stateDictionary.size();
+    }
+
+    private void write(int slot,House house){
+        rents[slot]=house.getRent();
+        states[slot]=encodeState(house.getState());
+        names[slot]=nameDictionary.encode(house.getName());
+        phones[slot]=phoneDictionary.encode(house.getPhone());
+        addresses[slot]=addressDictionary.encode(house.getAddress());
+        versions[slot]=house.getVersion();
+    }
+
+    private House materialize(int slot){
+        return new House(ids[slot],nameDictionary.decode(names[slot]),phoneDictionary.decode(phones[slot]),
+                addressDictionary.decode(addresses[slot]),rents[slot],decodeState(states[slot]),versions[slot]);
+    }
+
+    private byte encodeState(String state){
+        int code=stateDictionary.encode(state);
+        if (code>=MAX_STATES){
+            throw new IllegalStateException("状態の種類が多すぎます（上限"+MAX_STATES+"種類）: "+state);
+        }
+        return (byte)code;
+    }
+
+    private String decodeState(byte code){
+        return code==-1?null:stateDictionary.decode(code&0xFF);
+    }
+
+    //·IDに対応するスロットを返す。hintが現在も同じ物件を指していればそのまま使い、詰め直しで移動していれば索引から引き直す。
+    private int resolve(int id,int hint){
+        if (hint<slotNums&&ids[hint]==id){
+            return hint;
+        }
+        return index.get(id);
+    }
+
+    private void grow(){
+        int newLength=ids.length<<1;
+        if (newLength<0){
+            newLength=Integer.MAX_VALUE-8;
+        }
+        ids=Arrays.copyOf(ids,newLength);
+        rents=Arrays.copyOf(rents,newLength);
+        states=Arrays.copyOf(states,newLength);
+        names=Arrays.copyOf(names,newLength);
+        phones=Arrays.copyOf(phones,newLength);
+        addresses=Arrays.copyOf(addresses,newLength);
+        versions=Arrays.copyOf(versions,newLength);
+    }
+
+    //·ID列の指定範囲を走査し、墓標（ID=0）を読み飛ばしてビューを渡すSpliterator。
+    private static final class ColumnSpliterator implements Spliterator<House>{
+        private static final int MIN_SPLIT=1<<10;
+
+        private final ColumnarHouseStorage storage;
+        private final int[] ids;
+        private int index;
+        private final int fence;
+
+        ColumnSpliterator(ColumnarHouseStorage storage,int[] ids,int index,int fence){
+            this.storage=storage;
+            this.ids=ids;
+            this.index=index;
+            this.fence=fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super House> action){
+            while (index<fence){
+                int slot=index++;
+                int id=ids[slot];
+                if (id!=0){
+                    action.accept(new ColumnarHouse(storage,id,slot));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<House> trySplit(){
+            int low=index;
+            int mid=(low+fence)>>>1;
+            if (mid-low<MIN_SPLIT){
+                return null;
+            }
+            index=mid;
+            return new ColumnSpliterator(storage,ids,low,mid);
+        }
+
+        @Override
+        public long estimateSize(){
+            return fence-index;
+        }
+
+        @Override
+        public int characteristics(){
+            return ORDERED|NONNULL;
+        }
+    }
+
+    //·列の値を直接読み取るHouseの読み取り専用ビュー。自身ではIDとスロット番号の手がかり、作成時点の版番号しか持たない。
+    //·削除済みの物件を指している場合、getterはnull（家賃は0）を返す。
+    private static final class ColumnarHouse extends House{
+        private final ColumnarHouseStorage storage;
+        private final int id;
+        private final int version;
+        private int slot;
+
+        ColumnarHouse(ColumnarHouseStorage storage,int id,int slot){
+            super(id,null,null,null,0,null);
+            this.storage=storage;
+            this.id=id;
+            this.slot=slot;
+            this.version=storage.versions[slot];
+        }
+
+        private int slot(){
+            int resolved=storage.resolve(id,slot);
+            if (resolved!=IdIndex.NOT_FOUND){
+                slot=resolved;
+            }
+            return resolved;
+        }
+
+        @Override
+        public int getId(){
+            return id;
+        }
+
+        @Override
+        public String getName(){
+            int s=slot();
+            return s==IdIndex.NOT_FOUND?null:storage.nameDictionary.decode(storage.names[s]);
+        }
+
+        @Override
+        public String getPhone(){
+            int s=slot();
+            return s==IdIndex.NOT_FOUND?null:storage.phoneDictionary.decode(storage.phones[s]);
+        }
+
+        @Override
+        public String getAddress(){
+            int s=slot();
+            return s==IdIndex.NOT_FOUND?null:storage.addressDictionary.decode(storage.addresses[s]);
+        }
+
+        @Override
+        public int getRent(){
+            int s=slot();
+            return s==IdIndex.NOT_FOUND?0:storage.rents[s];
+        }
+
+        @Override
+        public String getState(){
+            int s=slot();
+            return s==IdIndex.NOT_FOUND?null:storage.decodeState(storage.states[s]);
+        }
+
+        //·楽観的な更新の期待値として使われるため、列を読み直さずに作成時点の版番号を返す。
+        @Override
+        public int getVersion(){
+            return version;
+        }
+
+    }
+}
@@ -0,0 +1,323 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseMetrics.Operation;
+
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ *【Service層・並行処理】
+ *複数のスレッドから同時に呼び出すことを前提とした、スレッドセーフなHouseService。
+ *
+ *【設計意図】
+ *·HouseServiceは1スレッドからの利用を前提としており、複数スレッドから同時に追加するとIDの重複や配列の不整合が起きる。
+ *·本クラスは処理の内容を変えずに、各操作の前後へ排他制御だけを加える。業務処理はすべて親クラスのものを使用する。
+ *
+ *【排他制御の方針】
+ *·page・pageAfter・spliterator：読み取りロックのもとで走査を始める。stream()の走査自体はロックの外で行い、弱い整合性の結果を返す。
+ *·findById・list・size・capacity：StampedLockの楽観的読み取りで、ロックを取らずに読む。読み取り中に構造の変更があった場合だけ読み取りロックを取り直す。
+ *·find・search・rentSummary：読み取りロックに加え、更新処理と共有する索引用のロックを取る。
+ *·add・addAll・del・restore・replicate・compact・exclusive：配列や索引の構造を変える（またはその間の変更を止める）ため、StampedLockの書き込みロックを取る。
+ *·update：構造は変えないため読み取りロックのみを取り、同じ物件への同時更新だけを物件IDごとのストライプロックで直列化する。
+ * 異なる物件の更新は並行して進む。共有の二次索引への反映だけは索引用のロックで直列化する。
+ * 物件は版番号付きの新しいHouseへ差し替えられるため、findByIdなどロックを取らない読み取りが更新途中の値を見ることはない。
+ * ストライプロックは差し替えの成否ではなく、同じ物件の変更通知が版の順に届くことを保証するために残している。
+ *·ロックの取得順は「ストライプロック → StampedLock → 索引用ロック」で統一し、デッドロックを防いでいる。
+ *
+ *【設計上の取捨】
+ *·格納方式はObjectHouseStorageに固定する。列形式のビューは取得後に列を直接読むため、ロックの外での読み取りを保護できないからである。
+ *·StampedLockは再入できないため、書き込みロック中に呼ばれたリスナーからの読み取りとexclusiveは、ロックを取らずにそのまま実行する。
+ *·IDの採番は親クラスのAtomicIntegerで行われるため、ロックの有無に関係なく重複しない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ConcurrentHouseService extends HouseService{
+    //ストライプロックの本数（2の累乗）。
+    private static final int STRIPES=64;
+
+    private final StampedLock lock=new StampedLock();
+    private final ReentrantLock[] stripes=new ReentrantLock[STRIPES];
+    private final ReentrantLock indexLock=new ReentrantLock();
+    //書き込みロックを保持しているスレッド。リスナーからの再入を判定するために使用する。
+    private volatile Thread writer;
+
+    public ConcurrentHouseService(int size){
+        this(size,true);
+    }
+
+    public ConcurrentHouseService(int size,boolean withSample){
+        super(new ObjectHouseStorage(size),withSample);
+        for (int i=0;i<STRIPES;i++){
+            stripes[i]=new ReentrantLock();
+        }
+    }
+
+    //·楽観的読み取りは検証に失敗すると読み直すため、計測は読み直しの外で1回だけ行い、中では計測を伴わない読み取りを使う。
+    @Override
+    public House findById(int findId){
+        long start=metrics().start(Operation.FIND_BY_ID);
+        House house=optimisticRead(()->lookup(findId));
+        metrics().stop(Operation.FIND_BY_ID,start);
+        return house;
+    }
+
+    @Override
+    public House[] list(){
+        return listRecorded(false);
+    }
+
+    @Override
+    public House[] listDetached(){
+        return listRecorded(true);
+    }
+
+    private House[] listRecorded(boolean detached){
+        long start=metrics().start(Operation.LIST);
+        try{
+            return optimisticRead(()->copyAll(detached));
+        }finally{
+            metrics().stop(Operation.LIST,start);
+        }
+    }
+
+    @Override
+    public House[] page(int offset,int limit){
+        return read(()->super.page(offset,limit));
+    }
+
+    @Override
+    public House[] pageAfter(int lastId,int limit){
+        return read(()->super.pageAfter(lastId,limit));
+    }
+
+    //·走査の開始位置と配列の取り込みだけをロックのもとで行う。詰め直しは新しい配列へ書き出すため、取り込んだ配列はロックの外でも順序が崩れない。
+    @Override
+    public Spliterator<House> spliterator(){
+        return read(super::spliterator);
+    }
+
+    @Override
+    public int size(){
+        return optimisticRead(super::size);
+    }
+
+    @Override
+    public int capacity(){
+        return optimisticRead(super::capacity);
+    }
+
+    @Override
+    public int tombstones(){
+        return optimisticRead(super::tombstones);
+    }
+
+    @Override
+    public House add(House newHouses){
+        return write(()->super.add(newHouses));
+    }
+
+    //·一括追加は全件を1回の書き込みロックで行う。
+    @Override
+    public void addAll(House[] newHouses){
+        write(()->{
+            super.addAll(newHouses);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean del(int delId){
+        return write(()->super.del(delId));
+    }
+
+    @Override
+    public void restore(House house){
+        write(()->{
+            super.restore(house);
+            return null;
+        });
+    }
+
+    @Override
+    protected void replicate(House house,boolean authoritative){
+        write(()->{
+            super.replicate(house,authoritative);
+            return null;
+        });
+    }
+
+    @Override
+    public void compact(){
+        write(()->{
+            super.compact();
+            return null;
+        });
+    }
+
+    //·同じ物件への更新だけをストライプロックで直列化し、構造の変更（追加・削除）とは読み取りロックで排他する。
+    @Override
+    public boolean update(int id,String name,String phone,String address,int rent,String state){
+        return updateLocked(id,()->super.update(id,name,phone,address,rent,state));
+    }
+
+    @Override
+    public UpdateResult update(int id,int expectedVersion,HouseChanges changes){
+        return updateLocked(id,()->super.update(id,expectedVersion,changes));
+    }
+
+    private <T> T updateLocked(int id,Supplier<T> action){
+        ReentrantLock stripe=stripes[id&(STRIPES-1)];
+        stripe.lock();
+        try{
+            long stamp=lock.readLock();
+            try{
+                return action.get();
+            }finally{
+                lock.unlockRead(stamp);
+            }
+        }finally{
+            stripe.unlock();
+        }
+    }
+
+    //二次索引は更新処理と共有されるため、索引用のロックを取ってから検索する。
+    @Override
+    public House[] find(HouseQuery query){
+        return read(()->{
+            indexLock.lock();
+            try{
+                return super.find(query);
+            }finally{
+                indexLock.unlock();
+            }
+        });
+    }
+
+    //·全文索引の作成は索引の登録を伴うため書き込みロックのもとで行い、検索自体は二次索引と同じく索引用のロックを取って行う。
+    @Override
+    public House[] search(String query,int limit){
+        enableTextSearch();
+        return read(()->{
+            indexLock.lock();
+            try{
+                return super.search(query,limit);
+            }finally{
+                indexLock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public void enableTextSearch(){
+        if (!isTextSearchEnabled()){
+            write(()->{
+                super.enableTextSearch();
+                return null;
+            });
+        }
+    }
+
+    //·集計の作成も登録を伴うため書き込みロックのもとで行い、集計結果の作成は更新の通知と同じ索引用のロックを取って行う。
+    @Override
+    public RentSummary rentSummary(){
+        enableStatistics();
+        return read(()->{
+            indexLock.lock();
+            try{
+                return super.rentSummary();
+            }finally{
+                indexLock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public void enableStatistics(){
+        if (!isStatisticsEnabled()){
+            write(()->{
+                super.enableStatistics();
+                return null;
+            });
+        }
+    }
+
+    //·更新の通知は読み取りロックのもとで並行して発生するため、共有の索引やリスナーへの反映は1スレッドずつ行う。
+    //·追加・削除の通知は書き込みロックのもとで発生するため、追加の排他は不要である。
+    @Override
+    protected void fireUpdate(House before,House after){
+        indexLock.lock();
+        try{
+            super.fireUpdate(before,after);
+        }finally{
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
+
+    //·書き込みロックのもとで実行する。既に書き込みロックを保持しているスレッド（リスナーの中）からの呼び出しでは、そのまま実行する。
+    @Override
+    public <T> T exclusive(Supplier<T> action){
+        return writer==Thread.currentThread()?action.get():write(action);
+    }
+
+    //·呼び出し元のスレッドが書き込みロックを保持しているか（リスナーからの呼び出し中か）を返す。
+    //·別スレッドへ読み取りを任せる呼び出し側（PartitionedHouseService）が、書き込み中の自分を待つことにならないよう判定に使う。
+    boolean isWriteLockedByCurrentThread(){
+        return writer==Thread.currentThread();
+    }
+
+    //·まずロックを取らずに読み、その間に書き込みが無かったことを確認できればその結果を返す。
+    //·読み取り中に配列が差し替えられると範囲外参照などの例外が起こり得るため、例外も「書き込みがあった」ものとして扱い、読み取りロックで読み直す。
+    private <T> T optimisticRead(Supplier<T> reader){
+        if (writer==Thread.currentThread()){
+            return reader.get();
+        }
+        long stamp=lock.tryOptimisticRead();
+        if (stamp!=0L){
+            try{
+                T result=reader.get();
+                if (lock.validate(stamp)){
+                    return result;
+                }
+            }catch (RuntimeException e){
+                if (lock.validate(stamp)){
+                    throw e;
+                }
+            }
+        }
+        return read(reader);
+    }
+
+    private <T> T read(Supplier<T> reader){
+        if (writer==Thread.currentThread()){
+            return reader.get();
+        }
+        long stamp=lock.readLock();
+        try{
+            return reader.get();
+        }finally{
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T write(Supplier<T> action){
+        long stamp=lock.writeLock();
+        writer=Thread.currentThread();
+        try{
+            return action.get();
+        }finally{
+            writer=null;
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.utils.Utility;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ *【Service層・格納方式】
+ *物件をメモリマップしたファイルへ固定長のレコードとして書き込み、ヒープにはIDの索引とよく参照される物件のキャッシュだけを置く格納方式。
+ *
+ *【設計意図】
+ *·物件数がヒープに収まらない規模になると、House[]やColumnarHouseStorageの列配列では保持しきれない。
+ *·物件の本体はファイル上に置き、ページの読み書きはOSのページキャッシュに任せる。ヒープの使用量は物件数ではなく、キャッシュの予算でほぼ決まる。
+ *·get()はまずキャッシュ（HouseCache）を引き、無い場合だけレコードを読んでHouseを作り、キャッシュへの追加を判定する（リードスルー）。
+ * 追加・修正はファイルへ書き込むと同時にキャッシュにも反映する（ライトスルー）。キャッシュとファイルの内容が食い違うことはない。
+ *
+ *【レコード形式】
+ *·1件は RECORD_BYTES バイトの固定長で、スロット番号×RECORD_BYTES の位置に置く。
+ *·ID（0は墓標）・版番号・家賃・4項目の文字数（各1バイト、nullは255）に続けて、氏名・電話番号・住所・状態をUTF-16で各項目の最大文字数分の領域に書く。
+ *·各項目の最大文字数は画面入力の上限（Utility）と同じである。上限を超える値はIllegalArgumentExceptionとする。
+ *
+ *【設計上の取捨】
+ *·ファイルは SEGMENT_RECORDS 件ずつの区画に分けてマップする。満杯になった場合は次の区画をマップするだけで、既存のレコードはコピーしない。
+ *·詰め直しは新しいファイルへ有効なレコードを写してから差し替える。走査中のSpliteratorは古いファイルのマップを参照し続けるため、順序が崩れない。
+ *·一覧の走査（at・spliterator）はキャッシュを通さずにレコードを直接読む。一度だけ読まれる大量の物件で、よく参照される物件が押し出されないようにするためである。
+ *·ファイルは作業領域であり、永続化の手段ではない。作成時に空のファイルを作り、close()で削除する。再起動後の復元は従来どおりHousePersistenceが行う。
+ *·スレッドセーフではない（キャッシュの参照順の更新も書き込みを伴う）。排他制御は呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class DiskHouseStorage implements HouseStorage,Closeable{
+    private static final int NAME_CHARS=Utility.NAME_LIMIT;
+    private static final int PHONE_CHARS=Utility.PHONE_LIMIT;
+    private static final int ADDRESS_CHARS=Utility.ADDRESS_UPDATE_LIMIT;
+    private static final int STATE_CHARS=Utility.STATE_LIMIT;
+    //レコード内の各項目の位置（バイト）。
+    private static final int ID=0;
+    private static final int VERSION=4;
+    private static final int RENT=8;
+    private static final int LENGTHS=12;
+    private static final int NAME=16;
+    private static final int PHONE=NAME+2*NAME_CHARS;
+    private static final int ADDRESS=PHONE+2*PHONE_CHARS;
+    private static final int STATE=ADDRESS+2*ADDRESS_CHARS;
+    //1件のバイト数（8バイト境界へ揃える）。
+    static final int RECORD_BYTES=(STATE+2*STATE_CHARS+7)&~7;
+    //文字数の欄でnullを表す値。
+    private static final int NULL_LENGTH=0xFF;
+    private static final int SEGMENT_SHIFT=16;
+    //1区画のレコード数。
+    private static final int SEGMENT_RECORDS=1<<SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK=SEGMENT_RECORDS-1;
+    private static final int MIN_COMPACT_TOMBSTONES=64;
+    private static final String VACANT="未賃貸";
+    private static final String RENTED="賃貸中";
+
+    private final Path directory;
+    private final HouseCache cache;
+    private final IdIndex index;
+    private Path file;
+    private FileChannel channel;
+    private MappedByteBuffer[] segments=new MappedByteBuffer[0];
+    private int slotNums=0;
+    private int houseNums=0;
+    private int tombstones=0;
+
+    //·directoryに作業用のファイルを作成する。sizeは初期容量、cacheBytesはキャッシュが使用してよいヒープの推定バイト数である。
+    public DiskHouseStorage(Path directory,int size,long cacheBytes) throws IOException{
+        this.directory=directory;
+        Files.createDirectories(directory);
+        this.cache=new HouseCache(cacheBytes);
+        this.index=new IdIndex(Math.max(size,1));
+        this.file=Files.createTempFile(directory,"houses-",".dat");
+        this.channel=open(file);
+        this.segments=map(channel,new MappedByteBuffer[0],Math.max(size,1));
+    }
+
+    //·キャッシュにあればそれを返し、無ければレコードを読んでキャッシュへの追加を判定する。
+    @Override
+    public House get(int id){
+        House house=cache.get(id);
+        if (house!=null){
+            return house;
+        }
+        int slot=index.get(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        house=read(segments,slot);
+        cache.put(house);
+        return house;
+    }
+
+    //·満杯の場合は次の区画をマップする。既存のレコードは移動しないため、索引の更新は不要。
+    @Override
+    public void insert(House house){
+        check(house);
+        if (slotNums==capacity()){
+            segments=mapOrThrow(channel,segments,slotNums+1);
+        }
+        index.put(house.getId(),slotNums);
+        write(slotNums++,house);
+        houseNums++;
+        cache.put(house);
+    }
+
+    //·レコードのIDを0（墓標）にするだけで、後続のレコードは移動しない。
+    @Override
+    public House remove(int id){
+        int slot=index.remove(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        House removed=read(segments,slot);
+        segment(segments,slot).putInt(offset(slot)+ID,0);
+        cache.invalidate(id);
+        houseNums--;
+        tombstones++;
+        while (slotNums>0&&idAt(slotNums-1)==0){
+            slotNums--;
+            tombstones--;
+        }
+        if (tombstones>=MIN_COMPACT_TOMBSTONES&&tombstones>(slotNums>>2)){
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void replace(House house){
+        int slot=index.get(house.getId());
+        if (slot!=IdIndex.NOT_FOUND){
+            check(house);
+            write(slot,house);
+            cache.update(house);
+        }
+    }
+
+    //·版番号はレコードから直接読んで比較する。
+    @Override
+    public boolean replaceIfVersion(int expectedVersion,House house){
+        int slot=index.get(house.getId());
+        if (slot==IdIndex.NOT_FOUND||segment(segments,slot).getInt(offset(slot)+VERSION)!=expectedVersion){
+            return false;
+        }
+        check(house);
+        write(slot,house);
+        cache.update(house);
+        return true;
+    }
+
+    @Override
+    public int size(){
+        return houseNums;
+    }
+
+    @Override
+    public int tombstones(){
+        return tombstones;
+    }
+
+    //·有効なレコードを登録順のまま新しいファイルへ写し、古いファイルを削除する。移動したレコードのみ索引を更新する。
+    @Override
+    public void compact(){
+        if (tombstones==0){
+            return;
+        }
+        Path target;
+        FileChannel targetChannel;
+        MappedByteBuffer[] compacted;
+        try{
+            target=Files.createTempFile(directory,"houses-",".dat");
+            targetChannel=open(target);
+            compacted=map(targetChannel,new MappedByteBuffer[0],Math.max(houseNums,1));
+        }catch (IOException e){
+            throw new UncheckedIOException("作業ファイルの詰め直しに失敗しました",e);
+        }
+        byte[] record=new byte[RECORD_BYTES];
+        int to=0;
+        for (int from=0;from<slotNums;from++){
+            MappedByteBuffer source=segment(segments,from);
+            int id=source.getInt(offset(from)+ID);
+            if (id==0){
+                continue;
+            }
+            if (to!=from){
+                index.put(id,to);
+            }
+            source.get(offset(from),record);
+            segment(compacted,to).put(offset(to),record);
+            to++;
+        }
+        Path old=file;
+        closeQuietly(channel);
+        delete(old);
+        file=target;
+        channel=targetChannel;
+        segments=compacted;
+        slotNums=to;
+        tombstones=0;
+    }
+
+    @Override
+    public int slotCount(){
+        return slotNums;
+    }
+
+    @Override
+    public int capacity(){
+        return segments.length<<SEGMENT_SHIFT;
+    }
+
+    //·キャッシュを通さずにレコードを直接読む。
+    @Override
+    public House at(int slot){
+        return idAt(slot)==0?null:read(segments,slot);
+    }
+
+    @Override
+    public int slotOf(int id){
+        return index.get(id);
+    }
+
+    //作成時点の区画と使用済みスロット数を取り込み、以降の追加は走査範囲に含めない。
+    @Override
+    public Spliterator<House> spliterator(int fromSlot){
+        return new RecordSpliterator(segments,Math.max(fromSlot,0),slotNums);
+    }
+
+    //キャッシュの件数・使用量・ヒット率などを参照するために返す。
+    public HouseCache cache(){
+        return cache;
+    }
+
+    //作業ファイルのうち、使用済みスロットが占めるバイト数を返す。
+    public long fileBytes(){
+        return (long)slotNums*RECORD_BYTES;
+    }
+
+    //·マップを手放し、作業ファイルを削除する。以後このオブジェクトは使用できない。
+    @Override
+    public void close() throws IOException{
+        segments=new MappedByteBuffer[0];
+        slotNums=0;
+        houseNums=0;
+        channel.close();
+        delete(file);
+    }
+
+    private int idAt(int slot){
+        return segment(segments,slot).getInt(offset(slot)+ID);
+    }
+
+    //·上限を超える項目がある場合は、レコードを書き始める前に例外とする（途中まで書かれたレコードを残さないため）。
+    private static void check(House house){
+        checkLength("氏名",house.getName(),NAME_CHARS);
+        checkLength("電話番号",house.getPhone(),PHONE_CHARS);
+        checkLength("住所",house.getAddress(),ADDRESS_CHARS);
+        checkLength("状態",house.getState(),STATE_CHARS);
+    }
+
+    private static void checkLength(String label,String value,int max){
+        if (value!=null&&value.length()>max){
+            throw new IllegalArgumentException(label+"は"+max+"文字以内である必要があります: "+value);
+        }
+    }
+
+    private void write(int slot,House house){
+        MappedByteBuffer buffer=segment(segments,slot);
+        int base=offset(slot);
+        buffer.putInt(base+VERSION,house.getVersion());
+        buffer.putInt(base+RENT,house.getRent());
+        writeString(buffer,base,0,NAME,house.getName());
+        writeString(buffer,base,1,PHONE,house.getPhone());
+        writeString(buffer,base,2,ADDRESS,house.getAddress());
+        writeString(buffer,base,3,STATE,house.getState());
+        //IDは最後に書く。IDが0以外になった時点でレコードが有効となる。
+        buffer.putInt(base+ID,house.getId());
+    }
+
+    private static void writeString(MappedByteBuffer buffer,int base,int field,int position,String value){
+        if (value==null){
+            buffer.put(base+LENGTHS+field,(byte)NULL_LENGTH);
+            return;
+        }
+        int length=value.length();
+        buffer.put(base+LENGTHS+field,(byte)length);
+        for (int i=0;i<length;i++){
+            buffer.putChar(base+position+2*i,value.charAt(i));
+        }
+    }
+
+    private static House read(MappedByteBuffer[] segments,int slot){
+        MappedByteBuffer buffer=segment(segments,slot);
+        int base=offset(slot);
+        return new House(buffer.getInt(base+ID),
+                readString(buffer,base,0,NAME),
+                readString(buffer,base,1,PHONE),
+                readString(buffer,base,2,ADDRESS),
+                buffer.getInt(base+RENT),
+                canonicalState(readString(buffer,base,3,STATE)),
+                buffer.getInt(base+VERSION));
+    }
+
+    private static String readString(MappedByteBuffer buffer,int base,int field,int position){
+        int length=buffer.get(base+LENGTHS+field)&0xFF;
+        if (length==NULL_LENGTH){
+            return null;
+        }
+        char[] chars=new char[length];
+        for (int i=0;i<length;i++){
+            chars[i]=buffer.getChar(base+position+2*i);
+        }
+        return new String(chars);
+    }
+
+    //状態はほとんどが2種類のため、読み込むたびに文字列を作らず同じインスタンスを使う。
+    private static String canonicalState(String state){
+        if (VACANT.equals(state)){
+            return VACANT;
+        }
+        if (RENTED.equals(state)){
+            return RENTED;
+        }
+        return state;
+    }
+
+    private static MappedByteBuffer segment(MappedByteBuffer[] segments,int slot){
+        return segments[slot>>>SEGMENT_SHIFT];
+    }
+
+    private static int offset(int slot){
+        return (slot&SEGMENT_MASK)*RECORD_BYTES;
+    }
+
+    private static FileChannel open(Path path) throws IOException{
+        return FileChannel.open(path,StandardOpenOption.READ,StandardOpenOption.WRITE);
+    }
+
+    //·slots件を保持できるまで区画を追加でマップする。ファイルはマップした範囲まで自動的に伸びる。
+    private static MappedByteBuffer[] map(FileChannel channel,MappedByteBuffer[] segments,int slots) throws IOException{
+        int needed=(int)(((long)slots+SEGMENT_MASK)>>>SEGMENT_SHIFT);
+        if (needed<=segments.length){
+            return segments;
+        }
+        MappedByteBuffer[] grown=Arrays.copyOf(segments,needed);
+        long bytes=(long)SEGMENT_RECORDS*RECORD_BYTES;
+        for (int i=segments.length;i<needed;i++){
+            grown[i]=channel.map(FileChannel.MapMode.READ_WRITE,i*bytes,bytes);
+        }
+        return grown;
+    }
+
+    private static MappedByteBuffer[] mapOrThrow(FileChannel channel,MappedByteBuffer[] segments,int slots){
+        try{
+            return map(channel,segments,slots);
+        }catch (IOException e){
+            throw new UncheckedIOException("作業ファイルの拡張に失敗しました",e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel){
+        try{
+            channel.close();
+        }catch (IOException ignored){
+            //読み取り専用で使い終えたファイルのため、閉じられなくても内容は失われない。
+        }
+    }
+
+    //·OSによってはマップ中のファイルを削除できないため、失敗した場合は終了時の削除に回す。
+    private static void delete(Path path){
+        try{
+            Files.deleteIfExists(path);
+        }catch (IOException e){
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    //·区画の配列を取り込み、指定範囲のレコードを順に読むSpliterator。墓標（IDが0）は読み飛ばす。
+    private static final class RecordSpliterator implements Spliterator<House>{
+        private static final int MIN_SPLIT=1<<10;
+
+        private final MappedByteBuffer[] segments;
+        private int index;
+        private final int fence;
+
+        RecordSpliterator(MappedByteBuffer[] segments,int index,int fence){
+            this.segments=segments;
+            this.index=index;
+            this.fence=fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super House> action){
+            while (index<fence){
+                int slot=index++;
+                if (segment(segments,slot).getInt(offset(slot)+ID)!=0){
+                    action.accept(read(segments,slot));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<House> trySplit(){
+            int low=index;
+            int mid=(low+fence)>>>1;
+            if (mid-low<MIN_SPLIT){
+                return null;
+            }
+            index=mid;
+            return new RecordSpliterator(segments,low,mid);
+        }
+
+        //墓標を含む上限値である。
+        @Override
+        public long estimateSize(){
+            return fence-index;
+        }
+
+        @Override
+        public int characteristics(){
+            return ORDERED|NONNULL;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.util.Arrays;
+
+/**
+ *【Service層・キャッシュ】
+ *ディスク上の物件（DiskHouseStorage）のうち、よく参照される物件だけをヒープに置いておくための、使用量の上限付きキャッシュ。
+ *
+ *【設計意図】
+ *·物件の参照は一部の人気物件に偏るため、全件をヒープに置かなくても、上位の物件だけを置けば大半の参照をディスクを読まずに返せる。
+ *·上限は件数ではなくバイト数（物件ごとの推定使用量の合計）で指定する。住所や氏名の長さで1件の大きさが変わっても、ヒープの使用量が予算を超えない。
+ *
+ *【責務範囲】
+ *·IDによる取得、読み込んだ物件の追加、書き込みの反映、削除された物件の破棄。
+ *·ヒット・ミス・追い出し・追加見送りの回数の集計。
+ *
+ *【設計上の取捨】
+ *·置き換え方式は分割LRU（SLRU）とする。初めて追加された物件は「試用」区画に入り、再び参照された時点で「保護」区画（予算の80%）へ移る。
+ * 一覧の走査などで一度だけ読まれた物件は試用区画から先に追い出されるため、繰り返し参照される物件が押し出されにくい。
+ *·予算が一杯の場合の追加は、TinyLFUの考え方で判定する。4ビットのカウンタによるCount-Minスケッチで参照回数を近似し、
+ * 追加する物件の参照回数が追い出し候補より多い場合だけ追加する。候補以下の場合は追加を見送り、キャッシュの中身を保つ。
+ *·スケッチの合計がカウンタ数の10倍に達するたびに全カウンタを半分にし、過去の人気が現在の判定を支配し続けないようにする。
+ *·要素はHashMapとノードのオブジェクトではなく、ID→ノード番号の索引（IdIndex）と、ノード番号を添字とする配列で管理する。
+ * 数十万件を保持してもオブジェクトの数が増えず、キャッシュ自体の管理用メモリがGCの負担にならない。
+ *·物件の使用量は、Houseと各文字列の見出し・配列の大きさから求めた推定値（文字列はすべて2バイト文字として概算）である。
+ *·スレッドセーフではない。格納方式と同じく、排他制御は呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseCache{
+    private static final int NONE=-1;
+    private static final byte PROBATION=0;
+    private static final byte PROTECTED=1;
+    //Houseオブジェクト本体（見出し12バイト＋参照・intの項目7つ）の推定バイト数。
+    private static final int HOUSE_BYTES=40;
+    //1件あたりの管理用配列と索引の推定バイト数。
+    private static final int NODE_BYTES=40;
+
+    private final long maxWeight;
+    private final long protectedMaxWeight;
+    private final IdIndex index;
+    private final FrequencySketch sketch;
+
+    //ノード番号を添字とする各項目。
+    private int[] ids;
+    private House[] values;
+    private int[] weights;
+    private int[] prev;
+    private int[] next;
+    private byte[] segments;
+    //空きノードの連結リストの先頭（nextでつなぐ）と、一度でも使ったノード数。
+    private int free=NONE;
+    private int allocated;
+
+    //区画ごとのリストの先頭（最近参照）と末尾（追い出し候補）、使用量。
+    private final int[] heads={NONE,NONE};
+    private final int[] tails={NONE,NONE};
+    private final long[] segmentWeights=new long[2];
+    private long weight;
+    private int count;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    //·maxWeightはキャッシュが使用してよいヒープの推定バイト数である。0の場合は何も保持しない。
+    public HouseCache(long maxWeight){
+        this.maxWeight=Math.max(maxWeight,0);
+        this.protectedMaxWeight=this.maxWeight/5*4;
+        int expected=(int)Math.min(1<<24,Math.max(16,this.maxWeight/256));
+        index=new IdIndex(Math.min(expected,1024));
+        sketch=new FrequencySketch(expected);
+        int initial=Math.min(expected,1024);
+        ids=new int[initial];
+        values=new House[initial];
+        weights=new int[initial];
+        prev=new int[initial];
+        next=new int[initial];
+        segments=new byte[initial];
+    }
+
+    //·キャッシュにある物件を返す。無い場合はnullを返す。見つかった物件は保護区画の先頭へ移す。
+    //·見つからなかった場合も参照回数は数え、次に追加する際の判定に使う。
+    public House get(int id){
+        sketch.increment(id);
+        int node=index.get(id);
+        if (node==IdIndex.NOT_FOUND){
+            misses++;
+            return null;
+        }
+        hits++;
+        unlink(node);
+        link(PROTECTED,node);
+        demoteOverflow();
+        return values[node];
+    }
+
+    //·格納先から読み込んだ物件を試用区画へ追加する。既にある場合は値を差し替える。
+    //·予算を超える場合、追い出し候補より参照回数が多い物件だけを追加し、そうでなければ追加を見送る。
+    public void put(House house){
+        int id=house.getId();
+        int node=index.get(id);
+        if (node!=IdIndex.NOT_FOUND){
+            replaceValue(node,house);
+            return;
+        }
+        int w=weigh(house);
+        if (w>maxWeight){
+            rejections++;
+            return;
+        }
+        if (weight+w>maxWeight){
+            int victim=victim();
+            if (sketch.frequency(id)<=sketch.frequency(ids[victim])){
+                rejections++;
+                return;
+            }
+            while (weight+w>maxWeight){
+                evict(victim());
+            }
+        }
+        node=allocate();
+        ids[node]=id;
+        values[node]=house;
+        weights[node]=w;
+        weight+=w;
+        count++;
+        index.put(id,node);
+        link(PROBATION,node);
+    }
+
+    //·書き込まれた物件の値を反映する。キャッシュに無い場合は何もしない（次に読み込まれた時点で追加の判定を行う）。
+    public void update(House house){
+        int node=index.get(house.getId());
+        if (node!=IdIndex.NOT_FOUND){
+            replaceValue(node,house);
+        }
+    }
+
+    //削除された物件を破棄する。
+    public void invalidate(int id){
+        int node=index.remove(id);
+        if (node!=IdIndex.NOT_FOUND){
+            release(node);
+        }
+    }
+
+    //保持している物件の件数を返す。
+    public int size(){
+        return count;
+    }
+
+    //保持している物件の推定使用量（バイト）を返す。
+    public long weightedSize(){
+        return weight;
+    }
+
+    public long maxWeight(){
+        return maxWeight;
+    }
+
+    public long hitCount(){
+        return hits;
+    }
+
+    public long missCount(){
+        return misses;
+    }
+
+    public long evictionCount(){
+        return evictions;
+    }
+
+    //予算の判定で追加を見送った回数を返す。
+    public long rejectionCount(){
+        return rejections;
+    }
+
+    //ヒット率（0～1）を返す。まだ参照が無い場合は0を返す。
+    public double hitRate(){
+        long total=hits+misses;
+        return total==0?0:(double)hits/total;
+    }
+
+    //集計した回数を0に戻す。保持している物件と参照回数の記録はそのまま残す。
+    public void resetStatistics(){
+        hits=0;
+        misses=0;
+        evictions=0;
+        rejections=0;
+    }
+
+    @Override
+    public String toString(){
+        return "キャッシュ "+count+"件、使用量 "+weight/(1024*1024)+"/"+maxWeight/(1024*1024)+" MB、ヒット率 "
+                +String.format("%.1f",hitRate()*100)+"%（ヒット "+hits+"、ミス "+misses+"、追い出し "+evictions+"、追加見送り "+rejections+"）";
+    }
+
+    //·Houseと各文字列の推定バイト数を合計する。
+    static int weigh(House house){
+        return HOUSE_BYTES+NODE_BYTES+weigh(house.getName())+weigh(house.getPhone())+weigh(house.getAddress())+weigh(house.getState());
+    }
+
+    //文字列オブジェクト（24バイト）と、8バイト境界へ揃えた文字配列の大きさ。
+    private static int weigh(String value){
+        if (value==null){
+            return 0;
+        }
+        return 24+((16+2*value.length()+7)&~7);
+    }
+
+    private void replaceValue(int node,House house){
+        int w=weigh(house);
+        int delta=w-weights[node];
+        weights[node]=w;
+        values[node]=house;
+        weight+=delta;
+        segmentWeights[segments[node]]+=delta;
+        while (weight>maxWeight){
+            evict(victim());
+        }
+        demoteOverflow();
+    }
+
+    //·追い出し候補は試用区画の末尾とする。試用区画が空の場合に限り、保護区画の末尾を候補とする。
+    private int victim(){
+        return tails[PROBATION]!=NONE?tails[PROBATION]:tails[PROTECTED];
+    }
+
+    private void evict(int node){
+        index.remove(ids[node]);
+        release(node);
+        evictions++;
+    }
+
+    private void release(int node){
+        unlink(node);
+        weight-=weights[node];
+        count--;
+        values[node]=null;
+        next[node]=free;
+        free=node;
+    }
+
+    //保護区画が上限を超えた分を、末尾から試用区画の先頭へ戻す。
+    private void demoteOverflow(){
+        while (segmentWeights[PROTECTED]>protectedMaxWeight){
+            int node=tails[PROTECTED];
+            unlink(node);
+            link(PROBATION,node);
+        }
+    }
+
+    private void link(byte segment,int node){
+        segments[node]=segment;
+        prev[node]=NONE;
+        int head=heads[segment];
+        next[node]=head;
+        if (head!=NONE){
+            prev[head]=node;
+        }else{
+            tails[segment]=node;
+        }
+        heads[segment]=node;
+        segmentWeights[segment]+=weights[node];
+    }
+
+    private void unlink(int node){
+        byte segment=segments[node];
+        int p=prev[node];
+        int n=next[node];
+        if (p!=NONE){
+            next[p]=n;
+        }else{
+            heads[segment]=n;
+        }
+        if (n!=NONE){
+            prev[n]=p;
+        }else{
+            tails[segment]=p;
+        }
+        segmentWeights[segment]-=weights[node];
+    }
+
+    private int allocate(){
+        if (free!=NONE){
+            int node=free;
+            free=next[node];
+            return node;
+        }
+        if (allocated==ids.length){
+            int length=ids.length<<1;
+            ids=Arrays.copyOf(ids,length);
+            values=Arrays.copyOf(values,length);
+            weights=Arrays.copyOf(weights,length);
+            prev=Arrays.copyOf(prev,length);
+            next=Arrays.copyOf(next,length);
+            segments=Arrays.copyOf(segments,length);
+        }
+        return allocated++;
+    }
+
+    //·参照回数を近似するCount-Minスケッチ。1つのlongに4ビットのカウンタを16個詰め、IDごとに4つのカウンタの最小値を回数とする。
+    private static final class FrequencySketch{
+        private static final long[] SEEDS={0xc3a5c85c97cb3127L,0xb492b66fbe98f273L,0x9ae16a3b2f90404fL,0xcbf29ce484222325L};
+        private static final long HALF_MASK=0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expected){
+            int length=Integer.highestOneBit(Math.max(expected,16)-1)<<1;
+            table=new long[length];
+            mask=length-1;
+            sampleSize=10*length;
+        }
+
+        int frequency(int id){
+            int h=spread(id);
+            int min=15;
+            for (int i=0;i<4;i++){
+                min=Math.min(min,(int)(table[indexOf(h,i)]>>>offsetOf(h,i))&15);
+            }
+            return min;
+        }
+
+        void increment(int id){
+            int h=spread(id);
+            boolean added=false;
+            for (int i=0;i<4;i++){
+                int index=indexOf(h,i);
+                int offset=offsetOf(h,i);
+                if (((table[index]>>>offset)&15)!=15){
+                    table[index]+=1L<<offset;
+                    added=true;
+                }
+            }
+            if (added&&++additions==sampleSize){
+                halve();
+            }
+        }
+
+        //全カウンタを半分にし、古い参照の影響を弱める。
+        private void halve(){
+            for (int i=0;i<table.length;i++){
+                table[i]=(table[i]>>>1)&HALF_MASK;
+            }
+            additions>>>=1;
+        }
+
+        private int indexOf(int h,int i){
+            long hash=(h+SEEDS[i])*SEEDS[i];
+            hash+=hash>>>32;
+            return (int)hash&mask;
+        }
+
+        //4つのカウンタが同じlongに入った場合も別の位置になるよう、ハッシュの異なる4ビットで位置を選ぶ。
+        private static int offsetOf(int h,int i){
+            return ((h>>>(i<<3))&15)<<2;
+        }
+
+        private static int spread(int id){
+            int h=id*0x9E3779B9;
+            return h^(h>>>16);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.IOException;
+
+/**
+ *【Service層・通知】
+ *HouseServiceで物件の追加・削除・更新が行われたことを受け取るためのインターフェース。
+ *
+ *【設計意図】
+ *·永続化（ジャーナル）や索引など、物件の変更に追従する必要がある機能をServiceクラス本体から切り離す。
+ *·Serviceは「変更が起きた」ことだけを通知し、その後の処理内容は各実装クラスに任せる。
+ *
+ *【責務範囲】
+ *·追加、削除、更新の3種類の変更を通知するメソッドを定義する。
+ *
+ *【設計上の取捨】
+ *·通知は変更を行ったスレッド上で同期的に呼び出される。重い処理を行う実装は、自身で別スレッドへ処理を渡す必要がある。
+ *·更新通知では変更前の値も渡す。索引のように「古い値を取り除く」必要がある実装のためである。
+ *·通知中はServiceのロックを保持しているため、fsyncのような待機は通知の中で行わない。待機が必要な実装はawaitCommittedで行う。
+ * 全物件を読む処理（スナップショットの作成など）も、他の区画のロックを待つことがあるため通知の中では行わない。
+ *·PartitionedHouseServiceでは、異なる区画の変更が複数のスレッドから同時に通知される。複数の区画で共有される実装はスレッドセーフにする。
+ * 同じ物件の変更は、変更が行われた順に1つずつ通知される。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public interface HouseChangeListener{
+    //物件が追加された後に呼び出される。houseにはIDが採番済みである。
+    void onAdd(House house);
+
+    //物件が削除された後に呼び出される。houseは削除された物件である。
+    void onDelete(House house);
+
+    //·物件が更新された後に呼び出される。
+    //·beforeは変更前の値を写した別オブジェクト、afterは変更後の物件である。
+    void onUpdate(House before,House after);
+
+    //·呼び出したスレッドがこれまでに通知した変更が確定（永続化など）するまで待機する。
+    //·HouseService.awaitCommitted経由で、Serviceのロックを解放した後に呼び出される。既定では何もしない。
+    default void awaitCommitted() throws IOException{
+    }
+}
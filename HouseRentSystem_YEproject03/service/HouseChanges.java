@@ -0,0 +1,64 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+/**
+ *【Service層・修正内容】
+ *物件の修正で変更する項目と、その新しい値を表すクラス。
+ *
+ *【設計意図】
+ *·「家賃と状態だけを変える」のような部分的な修正を、全項目を引数に並べるのではなく1つのオブジェクトとしてServiceへ渡せるようにする。
+ *·指定しなかった項目は「現在の値のまま」として扱う。
+ *·修正はapplyTo()で新しいHouseを作って行い、元のHouseは書き換えない。
+ *
+ *【使い方】
+ *·houseService.update(id,house.getVersion(),new HouseChanges().rent(85000).state("賃貸中"))
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseChanges{
+    private String name;
+    private String phone;
+    private String address;
+    private Integer rent;
+    private String state;
+
+    public HouseChanges name(String name){
+        this.name=name;
+        return this;
+    }
+
+    public HouseChanges phone(String phone){
+        this.phone=phone;
+        return this;
+    }
+
+    public HouseChanges address(String address){
+        this.address=address;
+        return this;
+    }
+
+    public HouseChanges rent(int rent){
+        this.rent=rent;
+        return this;
+    }
+
+    public HouseChanges state(String state){
+        this.state=state;
+        return this;
+    }
+
+    //·currentに変更を当てはめた新しいHouseを、版番号を1つ進めて返す。currentは変更しない。
+    public House applyTo(House current){
+        return new House(current.getId(),
+                name!=null?name:current.getName(),
+                phone!=null?phone:current.getPhone(),
+                address!=null?address:current.getAddress(),
+                rent!=null?rent:current.getRent(),
+                state!=null?state:current.getState(),
+                current.getVersion()+1);
+    }
+}
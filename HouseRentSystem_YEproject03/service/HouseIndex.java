@@ -0,0 +1,330 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+/**
+ *【Service層・二次索引】
+ *家賃・賃貸状態・区による検索を、全件走査せずに行うための索引。
+ *
+ *【設計意図】
+ *·IDでの検索以外は一覧を全件たどるしかなく、件数に比例して遅くなっていた。
+ *·家賃は「(家賃,ID)」を整列して保持する索引（SortedLongSet）、状態と区は物件IDをビット位置とするビットマップ（IdBitSet）で保持し、
+ * 条件に合う物件だけを直接取り出せるようにする。
+ *
+ *【責務範囲】
+ *·HouseServiceの変更通知を受け取り、追加・削除・更新のたびに索引を差分で更新する。
+ *·条件の組み合わせに応じて、走査件数が少なくなる方法を選んで物件IDを取り出す。
+ *
+ *【設計上の取捨】
+ *·家賃索引のキーは「家賃を上位32ビット、IDを下位32ビット」としたlong値である。同じ家賃の物件もIDで区別でき、範囲検索は家賃順・ID順に並ぶ。
+ *·ビットマップはIDの最大値に比例した大きさになるが、区（23種類程度）と状態（2種類）の数は少ないため、全体でも数十MB程度に収まる。
+ *·家賃範囲と他の条件を組み合わせる場合は、家賃範囲の件数とビットマップの件数を比べ、少ない方を走査して他方で絞り込む。
+ *·状態と区の絞り込み（Filter）は索引のビットマップを複製せずに参照する。両方が指定された場合は2つのビットマップを論理積しながらたどり、
+ * 件数には小さい方のビットマップの件数を上限の見積もりとして使う。検索の費用がIDの最大値ではなく、読む件数に比例するようにするためである。
+ *·並び順が指定された場合も、結果の全件を並べ替えることはしない。並び順どおりに索引をたどって先頭からlimit件を集めるか、
+ * 件数の少ない側の候補からBoundedLongHeapで上位limit件だけを選ぶ。どちらを使うかは読む件数の見積もりで決める。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseIndex implements HouseChangeListener{
+    //·ビットマップ側の物件から家賃順の上位を選ぶ場合の、1件あたりの費用（家賃索引を1件たどる費用との比）。家賃を格納データから引く分だけ高い。
+    private static final int BITMAP_COST=4;
+    //ビットマップ側から走査する場合に、物件の家賃を引くための格納先。
+    private final HouseStorage storage;
+    private final SortedLongSet rentIndex=new SortedLongSet();
+    private final HashMap<String,IdBitSet> stateIndex=new HashMap<>();
+    private final HashMap<String,IdBitSet> wardIndex=new HashMap<>();
+    //索引に無い状態・区を指定された場合に使う空のビットマップ。変更はしない。
+    private static final IdBitSet EMPTY=new IdBitSet();
+
+    public HouseIndex(HouseStorage storage){
+        this.storage=storage;
+    }
+
+    @Override
+    public void onAdd(House house){
+        int id=house.getId();
+        rentIndex.add(rentKey(house.getRent(),id));
+        set(stateIndex,house.getState(),id);
+        set(wardIndex,house.getWard(),id);
+    }
+
+    @Override
+    public void onDelete(House house){
+        int id=house.getId();
+        rentIndex.remove(rentKey(house.getRent(),id));
+        clear(stateIndex,house.getState(),id);
+        clear(wardIndex,house.getWard(),id);
+    }
+
+    //変更された項目の索引だけを付け替える。
+    @Override
+    public void onUpdate(House before,House after){
+        int id=after.getId();
+        if (before.getRent()!=after.getRent()){
+            rentIndex.remove(rentKey(before.getRent(),id));
+            rentIndex.add(rentKey(after.getRent(),id));
+        }
+        String state=after.getState();
+        if (!Objects.equals(before.getState(),state)){
+            clear(stateIndex,before.getState(),id);
+            set(stateIndex,state,id);
+        }
+        String ward=after.getWard();
+        if (!Objects.equals(before.getWard(),ward)){
+            clear(wardIndex,before.getWard(),id);
+            set(wardIndex,ward,id);
+        }
+    }
+
+    //·条件に合う物件IDを最大limit件返す。
+    //·家賃索引を走査した場合（家賃範囲のみ、または条件なし）は家賃の昇順、ビットマップを走査した場合はIDの昇順となる。
+    public int[] query(HouseQuery query){
+        Filter filter=filter(query);
+        if (filter!=null&&filter.isEmpty()){
+            return new int[0];
+        }
+        if (query.order()!=null){
+            return query.order()==HouseQuery.Order.ID?queryById(query,filter):queryByRent(query,filter);
+        }
+        int limit=query.limit();
+        if (query.hasRentRange()||filter==null){
+            long from=rentKey(query.minRent(),0);
+            long to=rentKey(query.maxRent(),-1);
+            //家賃範囲の件数がビットマップより多い場合は、ビットマップ側を走査して家賃で絞り込む方が速い。
+            if (filter!=null&&query.hasRentRange()&&filter.estimate()<rentIndex.count(from,to)){
+                return scanBitmap(filter,query,limit);
+            }
+            IdCollector collector=new IdCollector(Math.min(limit,Math.max(rentIndex.count(from,to),0)));
+            rentIndex.forEachAscending(from,to,key->{
+                int id=(int)key;
+                if (filter==null||filter.get(id)){
+                    collector.add(id);
+                }
+                return collector.size<limit;
+            });
+            return collector.toArray();
+        }
+        return scanBitmap(filter,query,limit);
+    }
+
+    //·ID順の検索を、索引ではなく格納データをID順に走査して行う方が速いかどうかを返す。
+    //·状態と区の指定が無く、家賃範囲に入る物件が多い場合である。範囲内の物件から上位を選ぶと範囲の件数だけ読むのに対し、
+    // 格納データの走査は「limit×全件数÷範囲の件数」件程度でlimit件が揃う。
+    public boolean prefersIdScan(HouseQuery query){
+        if (query.order()!=HouseQuery.Order.ID||query.state()!=null||query.ward()!=null){
+            return false;
+        }
+        if (!query.hasRentRange()){
+            return true;
+        }
+        long range=rentIndex.count(rentKey(query.minRent(),0),rentKey(query.maxRent(),-1));
+        return range*range>(long)query.limit()*rentIndex.size();
+    }
+
+    //·家賃の昇順または降順。家賃索引を並び順にたどってビットマップで絞り込むか、ビットマップの物件から上位limit件を選ぶかのうち、読む件数の少ない方を使う。
+    private int[] queryByRent(HouseQuery query,Filter filter){
+        int limit=query.limit();
+        boolean descending=query.order()==HouseQuery.Order.RENT_DESC;
+        long from=rentKey(query.minRent(),0);
+        long to=rentKey(query.maxRent(),-1);
+        if (query.hasCursor()){
+            long cursor=rentKey(query.afterRent(),query.afterId());
+            if (descending){
+                to=cursor==Long.MIN_VALUE?from-1:Math.min(to,cursor-1);
+            }else{
+                from=cursor==Long.MAX_VALUE?to+1:Math.max(from,cursor+1);
+            }
+        }
+        if (from>to||limit<=0){
+            return new int[0];
+        }
+        int range=rentIndex.count(from,to);
+        if (filter!=null){
+            //·家賃索引をたどる場合、条件に合う物件がlimit件見つかるまでに「limit×全件数÷ビットマップの件数」件程度を読む。
+            int candidates=filter.estimate();
+            long walk=Math.min(range,(long)limit*rentIndex.size()/candidates);
+            if ((long)candidates*BITMAP_COST<walk){
+                BoundedLongHeap heap=new BoundedLongHeap(Math.min(limit,candidates));
+                for (int id=filter.nextSetBit(0);id>=0;id=filter.nextSetBit(id+1)){
+                    House house=storage.get(id);
+                    if (house!=null){
+                        long key=rentKey(house.getRent(),id);
+                        if (key>=from&&key<=to){
+                            heap.offer(descending?~key:key);
+                        }
+                    }
+                }
+                long[] keys=heap.toSortedArray();
+                int[] ids=new int[keys.length];
+                for (int i=0;i<keys.length;i++){
+                    ids[i]=(int)(descending?~keys[i]:keys[i]);
+                }
+                return ids;
+            }
+        }
+        IdCollector collector=new IdCollector(Math.min(limit,range));
+        LongPredicate visitor=key->{
+            int id=(int)key;
+            if (filter==null||filter.get(id)){
+                collector.add(id);
+            }
+            return collector.size<limit;
+        };
+        if (descending){
+            rentIndex.forEachDescending(to,from,visitor);
+        }else{
+            rentIndex.forEachAscending(from,to,visitor);
+        }
+        return collector.toArray();
+    }
+
+    //·IDの昇順。家賃範囲の件数がビットマップより少ない場合（またはビットマップが無い場合）は、範囲内の物件からIDの小さい上位limit件を選び、
+    // それ以外はビットマップを前のページの最後のIDの次からたどる。
+    private int[] queryById(HouseQuery query,Filter filter){
+        int limit=query.limit();
+        int start=query.hasCursor()?Math.max(0,query.afterId()+1):0;
+        if (limit<=0||(query.hasCursor()&&query.afterId()==Integer.MAX_VALUE)){
+            return new int[0];
+        }
+        long from=rentKey(query.minRent(),0);
+        long to=rentKey(query.maxRent(),-1);
+        if (filter!=null&&(!query.hasRentRange()||filter.estimate()<=rentIndex.count(from,to))){
+            return scanBitmap(filter,query,start,limit);
+        }
+        BoundedLongHeap heap=new BoundedLongHeap(limit);
+        rentIndex.forEachAscending(from,to,key->{
+            int id=(int)key;
+            if (id>=start&&(filter==null||filter.get(id))){
+                heap.offer(id);
+            }
+            return true;
+        });
+        long[] keys=heap.toSortedArray();
+        int[] ids=new int[keys.length];
+        for (int i=0;i<keys.length;i++){
+            ids[i]=(int)keys[i];
+        }
+        return ids;
+    }
+
+    //·状態と区の条件を1つの絞り込み条件にまとめる。どちらも指定されていない場合はnullを返す。
+    private Filter filter(HouseQuery query){
+        if (query.state()==null&&query.ward()==null){
+            return null;
+        }
+        IdBitSet ward=query.ward()==null?null:bits(wardIndex,query.ward());
+        if (query.state()==null){
+            return new Filter(ward,null);
+        }
+        return new Filter(bits(stateIndex,query.state()),ward);
+    }
+
+    //ビットマップの立っているIDを順にたどり、家賃範囲の条件で絞り込む。
+    private int[] scanBitmap(Filter filter,HouseQuery query,int limit){
+        return scanBitmap(filter,query,0,limit);
+    }
+
+    //·ID start以上の範囲だけをたどる。
+    private int[] scanBitmap(Filter filter,HouseQuery query,int start,int limit){
+        IdCollector collector=new IdCollector(Math.min(limit,filter.estimate()));
+        for (int id=filter.nextSetBit(start);id>=0&&collector.size<limit;id=filter.nextSetBit(id+1)){
+            if (!query.hasRentRange()||containsRent(id,query.minRent(),query.maxRent())){
+                collector.add(id);
+            }
+        }
+        return collector.toArray();
+    }
+
+    //ビットマップ側から走査する場合は、家賃を格納データから引いて範囲を判定する。
+    private boolean containsRent(int id,int min,int max){
+        House house=storage.get(id);
+        if (house==null){
+            return false;
+        }
+        int rent=house.getRent();
+        return rent>=min&&rent<=max;
+    }
+
+    private static long rentKey(int rent,int id){
+        return ((long)rent<<32)|(id&0xFFFFFFFFL);
+    }
+
+    private static void set(HashMap<String,IdBitSet> index,String key,int id){
+        if (key!=null){
+            index.computeIfAbsent(key,k->new IdBitSet()).set(id);
+        }
+    }
+
+    private static void clear(HashMap<String,IdBitSet> index,String key,int id){
+        if (key!=null){
+            IdBitSet bits=index.get(key);
+            if (bits!=null){
+                bits.clear(id);
+            }
+        }
+    }
+
+    private static IdBitSet bits(HashMap<String,IdBitSet> index,String key){
+        IdBitSet bits=index.get(key);
+        return bits==null?EMPTY:bits;
+    }
+
+    //·状態・区のビットマップを参照する絞り込み条件。secondがnullの場合はfirstだけで絞り込む。
+    //·索引のビットマップをそのまま参照するため、検索中に索引を変更しないこと（HouseServiceのロックの内側で使う）。
+    private static final class Filter{
+        private final IdBitSet first;
+        private final IdBitSet second;
+
+        Filter(IdBitSet first,IdBitSet second){
+            this.first=first;
+            this.second=second;
+        }
+
+        boolean get(int id){
+            return first.get(id)&&(second==null||second.get(id));
+        }
+
+        int nextSetBit(int from){
+            return second==null?first.nextSetBit(from):IdBitSet.nextCommonSetBit(first,second,from);
+        }
+
+        //条件に合う件数。両方を指定した場合は、小さい方のビットマップの件数（上限）を返す。
+        int estimate(){
+            return second==null?first.cardinality():Math.min(first.cardinality(),second.cardinality());
+        }
+
+        boolean isEmpty(){
+            return estimate()==0;
+        }
+    }
+
+    //検索結果のIDをint配列へためる補助クラス。
+    private static final class IdCollector{
+        int[] ids;
+        int size;
+
+        IdCollector(int expected){
+            ids=new int[Math.max(expected,4)];
+        }
+
+        void add(int id){
+            if (size==ids.length){
+                ids=Arrays.copyOf(ids,size<<1);
+            }
+            ids[size++]=id;
+        }
+
+        int[] toArray(){
+            return Arrays.copyOf(ids,size);
+        }
+    }
+}
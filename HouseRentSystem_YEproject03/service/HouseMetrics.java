@@ -0,0 +1,239 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ *【Service層・計測】
+ *HouseServiceの操作ごとの呼び出し回数・処理時間の分布と、配列の使用状況を集計するクラス。
+ *
+ *【設計意図】
+ *·findById・add・del・listなどにどれだけ時間がかかっているか、配列がどれだけ埋まっているかを、これまで知る手段が無かった。
+ *·回数はAtomicLongArray、処理時間はLatencyHistogramで記録し、どちらもロックとオブジェクトの生成を伴わない。
+ *·件数・容量・墓標の数は記録せず、参照された時点でHouseServiceから読む（ゲージ）。
+ *·JMXのMXBean（HouseMetricsMXBean）として公開でき、画面の「統計情報」からも表示できる。
+ *
+ *【設計上の取捨】
+ *·回数は毎回正確に数える。操作×スレッドの系列ごとにカウンターを分け（系列どうしは64バイト離す）、参照時に全系列を合計する。
+ * 系列はスレッドIDの下位ビットで選ぶため、同じ系列に複数のスレッドが当たっても、加算はAtomicLongArrayで行うため失われない。
+ *·System.nanoTime()は1回あたり約40ナノ秒かかり、findById（約80ナノ秒）と同程度である。
+ * そのため短時間で終わる操作は処理時間だけを抽出して記録する（add・del・update・pageは32回に1回、findByIdは256回に1回）。
+ * 抽出の判定には系列のカウンターの値を混ぜ合わせた値を使う。特定の物件に呼び出しが偏っても、回数と抽出の割合は偏らない。
+ * 抽出しない操作（list・addAll・find・search）は毎回記録する。
+ *·ConcurrentHouseServiceでは、処理時間はロックを取得した後の処理だけを表し、ロックの待ち時間を含まない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseMetrics implements HouseMetricsMXBean{
+    //計測対象の操作。sampleMaskが0でない操作は、処理時間をsampleMask+1回に1回だけ記録する。回数は毎回数える。
+    public enum Operation{
+        FIND_BY_ID("findById",255),
+        ADD("add",31),
+        ADD_ALL("addAll",0),
+        DELETE("del",31),
+        UPDATE("update",31),
+        LIST("list",0),
+        PAGE("page",31),
+        QUERY("find",0),
+        SEARCH("search",0);
+
+        private final String label;
+        private final int sampleMask;
+
+        Operation(String label,int sampleMask){
+            this.label=label;
+            this.sampleMask=sampleMask;
+        }
+
+        public String label(){
+            return label;
+        }
+    }
+
+    //start()が処理時間を計らないと判断した場合の戻り値。
+    private static final long NOT_TIMED=Long.MIN_VALUE;
+    private static final Operation[] OPERATIONS=Operation.values();
+    //回数の系列数（2の累乗）と、系列どうしが同じキャッシュラインに載らないための間隔（long 8個＝64バイト）。
+    private static final int STREAMS=16;
+    private static final int PAD=8;
+
+    private final HouseService service;
+    //·操作×スレッドの系列ごとの回数。LongAdderの加算は約15ナノ秒かかりfindByIdと比べて無視できないため、スレッドIDで系列を選ぶAtomicLongArrayとしている。
+    private final AtomicLongArray counts=new AtomicLongArray(OPERATIONS.length*STREAMS*PAD);
+    private final LatencyHistogram[] latencies=new LatencyHistogram[OPERATIONS.length];
+    private volatile boolean enabled=true;
+
+    public HouseMetrics(HouseService service){
+        this.service=service;
+        for (int i=0;i<OPERATIONS.length;i++){
+            latencies[i]=new LatencyHistogram();
+        }
+    }
+
+    //·操作の開始時に呼ぶ。回数を数え、処理時間を記録する対象とした場合は開始時刻を返す。戻り値はそのままstop()へ渡す。
+    //·抽出の判定は、系列のカウンターの値にフィボナッチハッシュの定数を掛けた上位ビットで行う。カウンターの増加に対して抽出の周期が規則的にならない。
+    public long start(Operation operation){
+        if (!enabled){
+            return NOT_TIMED;
+        }
+        long n=counts.incrementAndGet(slot(operation));
+        int mask=operation.sampleMask;
+        if (mask!=0&&((int)((n*0x9E3779B97F4A7C15L)>>>56)&mask)!=0){
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    //·操作の終了時に呼び、開始時刻からの経過時間を記録する。
+    public void stop(Operation operation,long start){
+        if (start!=NOT_TIMED){
+            latencies[operation.ordinal()].record(System.nanoTime()-start);
+        }
+    }
+
+    //·呼び出し元スレッドの系列のカウンターの位置。
+    //·ThreadLocalやSystem.identityHashCode(Thread)による系列の選択は、計測したところ1回あたり十数～数十ナノ秒かかったため、スレッドIDの下位ビットを使う。
+    private static int slot(Operation operation){
+        return (operation.ordinal()*STREAMS+((int)Thread.currentThread().getId()&(STREAMS-1)))*PAD;
+    }
+
+    //全系列の合計。加算中の系列があっても、それまでに終わった加算はすべて含まれる。
+    public long count(Operation operation){
+        long total=0;
+        int base=operation.ordinal()*STREAMS*PAD;
+        for (int i=0;i<STREAMS;i++){
+            total+=counts.get(base+i*PAD);
+        }
+        return total;
+    }
+
+    public LatencyHistogram latency(Operation operation){
+        return latencies[operation.ordinal()];
+    }
+
+    @Override
+    public int getSize(){
+        return service.size();
+    }
+
+    @Override
+    public int getCapacity(){
+        return service.capacity();
+    }
+
+    @Override
+    public int getTombstones(){
+        return service.tombstones();
+    }
+
+    @Override
+    public double getOccupancy(){
+        int capacity=service.capacity();
+        return capacity==0?0:(double)(service.size()+service.tombstones())/capacity;
+    }
+
+    @Override
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    //·falseにすると回数も処理時間も記録しない。計測自体の負荷を比べる場合に使用する。
+    @Override
+    public void setEnabled(boolean enabled){
+        this.enabled=enabled;
+    }
+
+    @Override
+    public Map<String,Long> getCounts(){
+        Map<String,Long> result=new LinkedHashMap<>();
+        for (Operation operation:OPERATIONS){
+            result.put(operation.label,count(operation));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String,Double> getP50Micros(){
+        return percentiles(0.5);
+    }
+
+    @Override
+    public Map<String,Double> getP99Micros(){
+        return percentiles(0.99);
+    }
+
+    @Override
+    public Map<String,Double> getMaxMicros(){
+        Map<String,Double> result=new LinkedHashMap<>();
+        for (Operation operation:OPERATIONS){
+            result.put(operation.label,latency(operation).maxNanos()/1_000.0);
+        }
+        return result;
+    }
+
+    @Override
+    public double percentileMicros(String operation,double percentile){
+        for (Operation candidate:OPERATIONS){
+            if (candidate.label.equals(operation)){
+                return latency(candidate).percentileNanos(percentile/100)/1_000.0;
+            }
+        }
+        throw new IllegalArgumentException("操作名が正しくありません: "+operation);
+    }
+
+    @Override
+    public void reset(){
+        for (int i=0;i<counts.length();i+=PAD){
+            counts.set(i,0);
+        }
+        for (LatencyHistogram latency:latencies){
+            latency.reset();
+        }
+    }
+
+    //·操作ごとの回数・処理時間と配列の使用状況を表形式の文字列で返す。画面表示用。
+    public String summary(){
+        StringBuilder builder=new StringBuilder(1024);
+        builder.append(String.format(Locale.ROOT,"件数 %,d／容量 %,d（使用率 %.1f%%、墓標 %,d）%n",
+                getSize(),getCapacity(),getOccupancy()*100,getTombstones()));
+        builder.append("操作\t\t回数\t\t平均(µs)\tp50(µs)\t\tp99(µs)\t\t最大(µs)\n");
+        for (Operation operation:OPERATIONS){
+            LatencyHistogram latency=latency(operation);
+            builder.append(String.format(Locale.ROOT,"%-8s\t%,d\t\t%.2f\t\t%.2f\t\t%.2f\t\t%.2f%n",operation.label,count(operation),
+                    latency.meanNanos()/1_000,latency.percentileNanos(0.5)/1_000.0,latency.percentileNanos(0.99)/1_000.0,latency.maxNanos()/1_000.0));
+        }
+        return builder.toString();
+    }
+
+    //·プラットフォームのMBeanServerへ「HouseRentSystem_YEproject03:type=HouseMetrics,name=名前」で登録する。同じ名前が登録済みの場合は置き換える。
+    public ObjectName register(String name){
+        try{
+            MBeanServer server=ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName=new ObjectName("HouseRentSystem_YEproject03:type=HouseMetrics,name="+ObjectName.quote(name));
+            if (server.isRegistered(objectName)){
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this,objectName);
+            return objectName;
+        }catch (JMException e){
+            throw new IllegalStateException("JMXへの登録に失敗しました: "+e.getMessage(),e);
+        }
+    }
+
+    private Map<String,Double> percentiles(double p){
+        Map<String,Double> result=new LinkedHashMap<>();
+        for (Operation operation:OPERATIONS){
+            result.put(operation.label,latency(operation).percentileNanos(p)/1_000.0);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Map;
+
+/**
+ *【Service層・計測】
+ *HouseMetricsをJMX（JConsole・VisualVMなど）から参照するための管理インターフェース。
+ *
+ *【設計意図】
+ *·MXBeanとして公開し、操作ごとの値をMap（JMXではTabularData）で返す。監視ツールが追加のクラスなしで表示できる。
+ *·時間の単位はすべてマイクロ秒とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public interface HouseMetricsMXBean{
+    //有効な物件の件数
+    int getSize();
+
+    //配列を拡張せずに保持できるスロット数
+    int getCapacity();
+
+    //まだ詰め直されていない墓標の件数
+    int getTombstones();
+
+    //使用済みスロット（墓標を含む）の割合（0～1）
+    double getOccupancy();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    //操作名 → 呼び出し回数
+    Map<String,Long> getCounts();
+
+    //操作名 → 処理時間の中央値
+    Map<String,Double> getP50Micros();
+
+    //操作名 → 処理時間の99パーセンタイル値
+    Map<String,Double> getP99Micros();
+
+    //操作名 → 処理時間の最大値
+    Map<String,Double> getMaxMicros();
+
+    //·指定した操作の処理時間のパーセンタイル値（percentileは0～100）を返す。
+    double percentileMicros(String operation,double percentile);
+
+    //すべての回数と処理時間の記録を消去する。
+    void reset();
+}
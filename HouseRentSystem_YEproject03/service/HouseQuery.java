@@ -0,0 +1,129 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+/**
+ *【Service層・検索条件】
+ *家賃の範囲・賃貸状態・区を組み合わせた検索条件を表すクラス。
+ *
+ *【設計意図】
+ *·「墨田区の未賃貸で家賃8万円以下」のような複合条件を、引数の多いメソッドではなく1つのオブジェクトとしてServiceへ渡せるようにする。
+ *·指定しなかった条件は「絞り込まない」として扱う。
+ *·並び順（orderBy）と、前のページの最後の物件（after）を指定すると、その続きから並び順どおりに取得できる（キーセット方式のページ送り）。
+ * 並び順を指定しない場合は、HouseIndexの走査方法に応じて家賃順またはID順となる。
+ *
+ *【使い方】
+ *·new HouseQuery().rentBetween(0,80000).state("未賃貸").ward("墨田区").limit(20)
+ *·new HouseQuery().state("未賃貸").orderBy(HouseQuery.Order.RENT_ASC).limit(20)（家賃の安い未賃貸物件20件）
+ *·次のページ：同じ条件に .after(前のページの最後の物件) を加える。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseQuery{
+    //並び順。家賃が同じ物件はIDの順（RENT_DESCではIDの降順）に並べる。
+    public enum Order{
+        ID,
+        RENT_ASC,
+        RENT_DESC
+    }
+
+    private int minRent=Integer.MIN_VALUE;
+    private int maxRent=Integer.MAX_VALUE;
+    private String state;
+    private String ward;
+    private int limit=Integer.MAX_VALUE;
+    private Order order;
+    private boolean hasCursor;
+    private int afterRent;
+    private int afterId;
+
+    //家賃がmin以上max以下の物件に絞り込む。
+    public HouseQuery rentBetween(int min,int max){
+        this.minRent=min;
+        this.maxRent=max;
+        return this;
+    }
+
+    //指定した賃貸状態の物件に絞り込む。
+    public HouseQuery state(String state){
+        this.state=state;
+        return this;
+    }
+
+    //指定した区の物件に絞り込む。
+    public HouseQuery ward(String ward){
+        this.ward=ward;
+        return this;
+    }
+
+    //取得する最大件数を指定する。
+    public HouseQuery limit(int limit){
+        this.limit=limit;
+        return this;
+    }
+
+    //結果の並び順を指定する。
+    public HouseQuery orderBy(Order order){
+        this.order=order;
+        return this;
+    }
+
+    //·並び順でlastより後にある物件だけを取得する。lastは前のページの最後の物件である。
+    //·lastが取得後に修正・削除されていても、取得時の家賃とIDの位置から続きを返す。
+    public HouseQuery after(House last){
+        return after(last.getRent(),last.getId());
+    }
+
+    //並び順で（家賃,ID）の位置より後にある物件だけを取得する。ID順の場合は家賃を使わない。
+    public HouseQuery after(int rent,int id){
+        this.hasCursor=true;
+        this.afterRent=rent;
+        this.afterId=id;
+        return this;
+    }
+
+    public int minRent(){
+        return minRent;
+    }
+
+    public int maxRent(){
+        return maxRent;
+    }
+
+    public String state(){
+        return state;
+    }
+
+    public String ward(){
+        return ward;
+    }
+
+    public int limit(){
+        return limit;
+    }
+
+    //並び順。指定されていない場合はnullを返す。
+    public Order order(){
+        return order;
+    }
+
+    public boolean hasCursor(){
+        return hasCursor;
+    }
+
+    public int afterRent(){
+        return afterRent;
+    }
+
+    public int afterId(){
+        return afterId;
+    }
+
+    //家賃の範囲が指定されているかどうかを返す。
+    public boolean hasRentRange(){
+        return minRent!=Integer.MIN_VALUE||maxRent!=Integer.MAX_VALUE;
+    }
+}
@@ -1,92 +1,572 @@
-package HouseRentSystem_YEproject03.service;
-
-import HouseRentSystem_YEproject03.domain.House;
-
-/**
- *【Service層】
- *本クラスは業務処理層として、Houseデータの追加、削除、検索などの基本操作を担当する。
- *分層構造を採用することで、全体構造をより明確にしている。
- *
- *【設計意図】
- *データ管理ロジックを本クラスに集約し、画面表示とデータ処理を分離することを目的としている。
- *また、各クラスの「責務範囲」を明確にし、Viewクラスは表示のみ、Serviceクラスはロジックのみを担当する構成としている。
- *
- *【責務範囲】
- *·内部配列の構造を管理する。
- *·IDに基づいてデータを検索できるようにする。
- *·削除後もデータの連続性を維持し、空白や番号の混乱が発生しないようにする。
- *·簡易的なID自動増加機能を持つ。
- *
- *【設計上の取捨】
- *·Listではなく固定長配列を使用している。実際の使用場面を想定した際、配列の方がデータ構造と処理フローをより直感的に理解できると考えたため。
- *·ID生成ロジックをServiceクラスに集約することで、全体構造の複雑さを抑えている。
- *
- *@author ye888000
- *@version 1.0
- *@since 2026-02-11
- */
-
-    //·物件情報を保持するための固定長配列
-    //·コレクションクラスではなく配列を選択したのは、複雑なフレームワークを使用せず、最も基本的なデータ構造で「複数オブジェクトを管理できる」業務層を実装するためである。
-    public class HouseService{
-    private House[] houses;
-    private int houseNums=1;
-    private int idCounter=1;
-
-    //·物件情報を保持するための固定長配列。
-    //·コレクションクラスではなく配列を選択したのは、複雑なフレームワークを使用せず、最も基本的なデータ構造で「複数オブジェクトを管理できる」業務層を実装するためである。
-    public HouseService(int size){
-        houses=new House[size];
-        houses[0]=new House(1,"jack","020554588","墨田区",72000, "未賃貸");
-    }
-
-    //順次検索方式を採用し、物件IDに基づいて該当データを取得できるようにしている
-    public House findById(int findId){
-
-        for (int i=0;i<houseNums;i++){
-            if (findId==houses[i].getId()){
-                return houses[i];
-            }
-        }
-        return null;
-    }
-
-    public boolean del(int delId){
-        int index=-1;
-        for (int i=0;i<houseNums;i++){
-            if (delId==houses[i].getId(){
-                index=i;
-            }
-            break;
-        }
-
-        if (index==-1){
-            return false;
-        }
-        for (int i=index;i<houseNums-1;i++){
-            houses[i]=houses[i1];
-        }
-        houses[--houseNums]=null;
-        return true;
-    }
-
-    //·新しい物件情報を追加する：IDは外部から渡さず、ここで自動増加させることでデータ重複を防ぐ。
-    //·現在は固定長配列を使用しているため、満杯の場合は追加しない。必要に応じて将来的に拡張処理を追加することも可能。
-    public boolean add(House newHouses){
-        if (houseNums==houses.length){
-            System.out.println("配列が満杯のため、これ以上追加できません...");
-            return false;
-        }
-        newHouses.setId(++idCounter);
-        houses[houseNums++]=newHouses;
-        return true;
-    }
-
-       //現在登録されているすべての物件データを取得する。
-       //（ただし、この設計にはリスクがあり、外部から配列内容が変更される可能性がある）
-        public House[] list(){
-            return houses;
-        }
-}
-
-
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseMetrics.Operation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *【Service層】
+ *本クラスは業務処理層として、Houseデータの追加、削除、検索などの基本操作を担当する。
+ *分層構造を採用することで、全体構造をより明確にしている。
+ *
+ *【設計意図】
+ *データ管理ロジックを本クラスに集約し、画面表示とデータ処理を分離することを目的としている。
+ *また、各クラスの「責務範囲」を明確にし、Viewクラスは表示のみ、Serviceクラスはロジックのみを担当する構成としている。
+ *
+ *【責務範囲】
+ *·物件データの格納をHouseStorageへ委譲する。標準はオブジェクト配列（ObjectHouseStorage）で、列ごとの配列で保持する方式（ColumnarHouseStorage）にも切り替えられる。
+ * ヒープに収まらない件数では、ファイル上に置いてよく参照される物件だけをキャッシュする方式（DiskHouseStorage）を使う。
+ * 件数が多くガベージコレクションの停止時間が問題になる場合は、物件をヒープ外のバッファに置く方式（OffHeapHouseStorage）を使う。
+ *·IDに基づいてデータを検索できるようにする。ID→格納位置のハッシュ索引により、件数に関係なく一定時間で検索できる。
+ *·削除は墓標を置くだけの一定時間の処理とし、墓標が一定数たまった時点でまとめて詰め直す（コンパクション）。
+ *·一覧取得時は墓標を読み飛ばし、登録順を維持したまま返す。
+ *·件数の多い一覧は、配列全体をコピーするlist()ではなく、ページ単位の取得（page・pageAfter）またはストリーム（stream・parallelStream）で扱う。
+ *·追加・削除・更新をHouseChangeListenerへ通知する。永続化などの付随処理は通知先に任せる。
+ *·家賃範囲・賃貸状態・区による検索と、それらを組み合わせた検索を提供する。二次索引（HouseIndex）により全件走査を避ける。
+ *·住所・所有者名のキーワード検索を提供する。n-gramの全文索引（HouseTextIndex）により全件走査を避ける。
+ *·全体と区ごとの空室率・家賃の平均・中央値などの集計を提供する。変更のたびに差分で更新する集計（HouseStatistics）により全件走査を避ける。
+ *·主な操作の呼び出し回数と処理時間の分布をHouseMetricsへ記録する。
+ *·簡易的なID自動増加機能を持つ。
+ *
+ *【設計上の取捨】
+ *·配列の拡張・墓標の詰め直しといった格納上の工夫は各HouseStorageに閉じ込め、本クラスは業務処理の流れだけを表すようにしている。
+ *·Houseは変更できないため、更新は必ずupdate()を通じて新しいHouseへ差し替える。変更前後の値を通知先へ渡せるようにするためである。
+ *·格納済みのHouseは書き換えず、修正のたびに版番号を1つ進めた新しいHouseへ差し替える（コピーオンライト）。
+ * 読み取り側は修正途中の値を見ることがなく、版番号を指定した修正で「読み込んだ後に他で修正された」ことを検出できる。
+ *·ID生成ロジックをServiceクラスに集約することで、全体構造の複雑さを抑えている。
+ *
+ *@author ye888000
+ *@version 1.5
+ *@since 2026-02-11
+ */
+
+    public class HouseService{
+    //·物件データの実際の格納先。
+    //·格納方式を差し替えられるようにインターフェース型で保持する。
+    private final HouseStorage storage;
+    //·IDの採番カウンタ。複数スレッドから追加された場合でも同じIDが採番されないよう、原子的に増加させる。
+    private final AtomicInteger idCounter=new AtomicInteger();
+    //·変更の通知先。登録数は少数を想定しているため、追加時に配列を作り直す単純な方式としている。
+    //·配列を差し替える方式のため、通知中に登録・解除が行われても走査中の配列は変わらない。
+    private volatile HouseChangeListener[] listeners=new HouseChangeListener[0];
+    //家賃・状態・区の二次索引。変更通知の最初の受け取り先として常に登録しておく。
+    private final HouseIndex houseIndex;
+    //住所・氏名の全文索引。メモリを多く使うため、最初の検索時（またはenableTextSearch()の呼び出し時）に作成する。
+    private volatile HouseTextIndex textIndex;
+    //区ごとの件数・空室数・家賃の分布の集計。最初の参照時（またはenableStatistics()の呼び出し時）に作成する。
+    private volatile HouseStatistics statistics;
+    //操作ごとの回数・処理時間と配列の使用状況。
+    private final HouseMetrics metrics=new HouseMetrics(this);
+
+    //·sizeは初期容量であり、上限ではない。登録件数がこれを超えると配列は自動的に拡張される。
+    public HouseService(int size){
+        this(size,true);
+    }
+
+    //·withSampleがfalseの場合は初期データ（jack）を登録しない。永続化データから復元する場合に使用する。
+    public HouseService(int size,boolean withSample){
+        this(new ObjectHouseStorage(size),withSample);
+    }
+
+    //·格納方式を指定して生成する。
+    public HouseService(HouseStorage storage,boolean withSample){
+        this.storage=storage;
+        this.houseIndex=new HouseIndex(storage);
+        addListener(houseIndex);
+        if (withSample){
+            idCounter.set(1);
+            House sample=new House(1,"jack","020554588","墨田区",72000, "未賃貸");
+            storage.insert(sample);
+            houseIndex.onAdd(sample);
+        }
+    }
+
+    //変更通知を受け取るリスナーを登録する。
+    public synchronized void addListener(HouseChangeListener listener){
+        HouseChangeListener[] next=Arrays.copyOf(listeners,listeners.length+1);
+        next[listeners.length]=listener;
+        listeners=next;
+    }
+
+    //登録済みのリスナーを解除する。
+    public synchronized void removeListener(HouseChangeListener listener){
+        for (int i=0;i<listeners.length;i++){
+            if (listeners[i]==listener){
+                HouseChangeListener[] next=new HouseChangeListener[listeners.length-1];
+                System.arraycopy(listeners,0,next,0,i);
+                System.arraycopy(listeners,i+1,next,i,next.length-i);
+                listeners=next;
+                return;
+            }
+        }
+    }
+
+    //·このスレッドが行った変更が、すべての通知先で確定（ジャーナルのfsyncなど）するまで待機する。
+    //·変更メソッドはロックを保持したまま通知するため、待機は変更メソッドから戻った後（ロックの外）で呼び出し元が行う。
+    public void awaitCommitted() throws IOException{
+        for (HouseChangeListener listener:listeners){
+            listener.awaitCommitted();
+        }
+    }
+
+    //·actionを、追加・削除・更新と重ならないように実行して結果を返す。スナップショットのように、全物件とIDの採番を同じ時点で読む処理に使う。
+    //·HouseServiceは1スレッドからの利用を前提としているため、そのまま実行する。スレッドセーフなサブクラスは書き込みロックのもとで実行する。
+    public <T> T exclusive(Supplier<T> action){
+        return action.get();
+    }
+
+    //·複数のスレッドから同時に呼び出せる実装かどうかを返す。HouseServiceは1スレッドからの利用を前提としているためfalseを返す。
+    public boolean isThreadSafe(){
+        return false;
+    }
+
+    //索引からIDの格納位置を取得するため、登録件数に関係なく一定時間で該当データを取得できる。
+    public House findById(int findId){
+        long start=metrics.start(Operation.FIND_BY_ID);
+        House house=lookup(findId);
+        metrics.stop(Operation.FIND_BY_ID,start);
+        return house;
+    }
+
+    //·計測を伴わないfindById。読み取りをやり直す場合がある呼び出し側（ConcurrentHouseService）が、計測を1回にまとめるために使う。
+    protected House lookup(int id){
+        return storage.get(id);
+    }
+
+    //·該当スロットを墓標にするだけで、後続要素の移動は行わない。
+    public boolean del(int delId){
+        long start=metrics.start(Operation.DELETE);
+        try{
+            House removed=storage.remove(delId);
+            if (removed==null){
+                return false;
+            }
+            fireDelete(removed);
+            return true;
+        }finally{
+            metrics.stop(Operation.DELETE,start);
+        }
+    }
+
+    //·新しい物件情報を追加する：IDは外部から渡さず、ここで自動増加させることでデータ重複を防ぐ。
+    //·格納先は必要に応じて自動的に拡張されるため、件数の上限はない。
+    //·渡された物件は変更せず、採番したIDを付けた新しいHouseを格納して返す。
+    public House add(House newHouses){
+        long start=metrics.start(Operation.ADD);
+        try{
+            House house=newHouses.withId(idCounter.incrementAndGet());
+            storage.insert(house);
+            fireAdd(house);
+            return house;
+        }finally{
+            metrics.stop(Operation.ADD,start);
+        }
+    }
+
+    //·複数の物件をまとめて追加する。IDは件数分を1回でまとめて確保し、配列の順に連番で割り当てる。
+    //·ファイルからの一括取り込みで使用する。1件ずつadd()を呼ぶ場合と比べ、採番とスレッド間の排他が1回で済む。
+    //·newHousesの各要素は、IDを付けて格納した新しいHouseに置き換える。
+    public void addAll(House[] newHouses){
+        long start=metrics.start(Operation.ADD_ALL);
+        try{
+            int n=newHouses.length;
+            if (n==0){
+                return;
+            }
+            int first=idCounter.getAndAdd(n)+1;
+            for (int i=0;i<n;i++){
+                House house=newHouses[i].withId(first+i);
+                newHouses[i]=house;
+                storage.insert(house);
+                fireAdd(house);
+            }
+        }finally{
+            metrics.stop(Operation.ADD_ALL,start);
+        }
+    }
+
+    //·指定IDの物件の各項目をまとめて更新する。存在しない場合はfalseを返す。
+    //·格納済みのHouseは書き換えず、修正後の値を持つ新しいHouse（版番号+1）に差し替える。他の修正と重なった場合は最新の版に対してやり直す。
+    public boolean update(int id,String name,String phone,String address,int rent,String state){
+        long start=metrics.start(Operation.UPDATE);
+        try{
+            HouseChanges changes=new HouseChanges().name(name).phone(phone).address(address).rent(rent).state(state);
+            while (true){
+                House current=storage.get(id);
+                if (current==null){
+                    return false;
+                }
+                if (swap(current.getVersion(),current,changes)==UpdateResult.UPDATED){
+                    return true;
+                }
+            }
+        }finally{
+            metrics.stop(Operation.UPDATE,start);
+        }
+    }
+
+    //·物件の版がexpectedVersionである場合に限り、changesで指定した項目を修正する（楽観的排他制御）。
+    //·画面やHTTPで物件を読み込んでから修正を確定するまでの間に、他の操作が同じ物件を修正していた場合はCONFLICTを返し、その修正を上書きしない。
+    public UpdateResult update(int id,int expectedVersion,HouseChanges changes){
+        long start=metrics.start(Operation.UPDATE);
+        try{
+            House current=storage.get(id);
+            if (current==null){
+                return UpdateResult.NOT_FOUND;
+            }
+            return swap(expectedVersion,current,changes);
+        }finally{
+            metrics.stop(Operation.UPDATE,start);
+        }
+    }
+
+    //·currentに変更を当てはめた新しいHouseへ、版を比較しながら差し替える。差し替えた場合のみ通知する。
+    //·格納方式によってはcurrentが列を直接読むビューであるため、通知する変更前の値は切り離したコピーとする。
+    private UpdateResult swap(int expectedVersion,House current,HouseChanges changes){
+        if (current.getVersion()!=expectedVersion){
+            return UpdateResult.CONFLICT;
+        }
+        House before=copyOf(current);
+        House after=changes.applyTo(before);
+        if (!storage.replaceIfVersion(expectedVersion,after)){
+            return storage.get(current.getId())==null?UpdateResult.NOT_FOUND:UpdateResult.CONFLICT;
+        }
+        fireUpdate(before,after);
+        return UpdateResult.UPDATED;
+    }
+
+    //·永続化データから物件を復元する。add()と異なりIDを採番せず、渡されたIDをそのまま使用する。
+    //·同じIDが既に存在する場合は内容を置き換える（ジャーナルの再適用を何度行っても同じ結果になるようにするため）。
+    //·置き換える場合は版番号を既存の物件の次の値とし、版が戻らないようにする。
+    public void restore(House house){
+        House existing=storage.get(house.getId());
+        if (existing!=null){
+            House before=copyOf(existing);
+            House after=new House(house.getId(),house.getName(),house.getPhone(),house.getAddress(),house.getRent(),house.getState(),
+                    before.getVersion()+1);
+            storage.replace(after);
+            fireUpdate(before,after);
+            return;
+        }
+        storage.insert(house);
+        advanceIdCounter(house.getId());
+        fireAdd(house);
+    }
+
+    //·複製元（HouseReplicationServer）から受け取った物件を、IDと版番号を変えずに反映する。存在しない場合は追加する。
+    //·authoritativeがfalse（変更の通知）の場合、既に同じか新しい版を反映済みであれば何もしない。同じ変更を重ねて受け取っても、版が戻ることはない。
+    //·authoritativeがtrue（スナップショットによる同期）の場合は、版番号に関係なく受け取った内容で置き換える。
+    // 複製元が保存データから作り直された場合など、レプリカの版番号の方が大きくても複製元の内容が正しいためである。
+    //·レプリカ（ReplicaHouseService）からだけ呼ぶためprotectedとしている。
+    protected void replicate(House house,boolean authoritative){
+        House existing=storage.get(house.getId());
+        if (existing==null){
+            storage.insert(house);
+            advanceIdCounter(house.getId());
+            fireAdd(house);
+        }else if (authoritative||existing.getVersion()<house.getVersion()){
+            House before=copyOf(existing);
+            storage.replace(house);
+            fireUpdate(before,house);
+        }
+    }
+
+    //家賃がmin以上max以下の物件を家賃の昇順で返す。
+    public House[] findByRentRange(int min,int max){
+        return find(new HouseQuery().rentBetween(min,max));
+    }
+
+    //指定した賃貸状態の物件をIDの昇順で返す。
+    public House[] findByState(String state){
+        return find(new HouseQuery().state(state));
+    }
+
+    //指定した区の物件をIDの昇順で返す。
+    public House[] findByWard(String ward){
+        return find(new HouseQuery().ward(ward));
+    }
+
+    //·家賃範囲・状態・区を組み合わせた条件で検索する。
+    //·二次索引から条件に合うIDだけを取り出し、IDの索引で物件を引くため、全件を走査することはない。
+    //·並び順（HouseQuery.orderBy）を指定した場合は、その順で先頭limit件を返す。結果全体を並べ替えることはなく、
+    // 前のページの最後の物件（HouseQuery.after）を指定すれば、何ページ目であっても読み飛ばしなしで続きを取得できる。
+    // 状態・区の指定が無いID順の場合だけは、索引ではなくpageAfterと同じく格納データをID順にたどって家賃範囲で絞り込む。
+    public House[] find(HouseQuery query){
+        long start=metrics.start(Operation.QUERY);
+        try{
+            if (houseIndex.prefersIdScan(query)){
+                int first=query.hasCursor()?firstSlotAfter(query.afterId()):0;
+                return collect(storage.spliterator(first),query.limit(),query.minRent(),query.maxRent());
+            }
+            int[] ids=houseIndex.query(query);
+            House[] result=new House[ids.length];
+            for (int i=0;i<ids.length;i++){
+                result[i]=storage.get(ids[i]);
+            }
+            return result;
+        }finally{
+            metrics.stop(Operation.QUERY,start);
+        }
+    }
+
+    //·住所または所有者名に検索語を含む物件を、順位の高い順に最大limit件返す。
+    //·氏名の一致を住所の一致より上位とし、完全一致・前方一致・部分一致の順に並べる。全角・半角、大文字・小文字は区別しない。
+    public House[] search(String query,int limit){
+        long start=metrics.start(Operation.SEARCH);
+        try{
+            enableTextSearch();
+            return textIndex.search(query,limit);
+        }finally{
+            metrics.stop(Operation.SEARCH,start);
+        }
+    }
+
+    //·全文索引を作成し、以後の変更を差分で反映するよう通知先へ登録する。作成済みの場合は何もしない。
+    public void enableTextSearch(){
+        if (textIndex==null){
+            textIndex=new HouseTextIndex(storage);
+            addListener(textIndex);
+        }
+    }
+
+    //全文索引が作成済みかどうかを返す。
+    public boolean isTextSearchEnabled(){
+        return textIndex!=null;
+    }
+
+    //·全体と区ごとの件数・空室率・家賃の平均・最低・最高・中央値を返す。
+    //·集計は変更のたびに差分で更新しているため、件数に関係なく物件を読まずに返せる。初回のみ集計を作成するため全件を走査する。
+    public RentSummary rentSummary(){
+        enableStatistics();
+        return statistics.summary();
+    }
+
+    //·集計を作成し、以後の変更を差分で反映するよう通知先へ登録する。作成済みの場合は何もしない。
+    public void enableStatistics(){
+        if (statistics==null){
+            statistics=new HouseStatistics(storage);
+            addListener(statistics);
+        }
+    }
+
+    //集計が作成済みかどうかを返す。
+    public boolean isStatisticsEnabled(){
+        return statistics!=null;
+    }
+
+    //墓標を取り除き、有効な物件を登録順のまま前へ詰める。
+    public void compact(){
+        storage.compact();
+    }
+
+    //現在登録されている件数を返す。
+    public int size(){
+        return storage.size();
+    }
+
+    //配列を拡張せずに保持できるスロット数を返す。
+    public int capacity(){
+        return storage.capacity();
+    }
+
+    //操作ごとの回数・処理時間と配列の使用状況を返す。
+    public HouseMetrics metrics(){
+        return metrics;
+    }
+
+    //まだ詰め直されていない墓標の件数を返す。
+    public int tombstones(){
+        return storage.tombstones();
+    }
+
+    //最後に採番したIDを返す。
+    public int idCounter(){
+        return idCounter.get();
+    }
+
+    //·採番済みIDを少なくとも指定値まで進める。最大IDの物件が削除済みの場合でも、同じIDを再び採番しないようにするため。
+    public void advanceIdCounter(int atLeast){
+        idCounter.accumulateAndGet(atLeast,Math::max);
+    }
+
+       //·現在登録されているすべての物件データを、登録順に墓標を除いて取得する。
+       //·内部配列そのものではなく有効件数ちょうどの新しい配列を返すため、外部から内部配列を書き換えられることはない。
+        public House[] list(){
+            return list(false);
+        }
+
+    //·list()と同じ順序で、格納データから切り離したHouseを返す。
+    //·スナップショットの書き出しのように、ロックを解放した後に別スレッドで読む場合に使う（ColumnarHouseStorageのビューは読んだ時点の値を返すため）。
+    public House[] listDetached(){
+        return list(true);
+    }
+
+        private House[] list(boolean detached){
+            long start=metrics.start(Operation.LIST);
+            try{
+                return copyAll(detached);
+            }finally{
+                metrics.stop(Operation.LIST,start);
+            }
+        }
+
+    //·計測を伴わないlist()・listDetached()。findByIdに対するlookupと同じ目的で用意している。
+    protected House[] copyAll(boolean detached){
+        House[] result=new House[storage.size()];
+        int n=0;
+        int slots=storage.slotCount();
+        for (int i=0;i<slots;i++){
+            House house=detached?storage.detachedAt(i):storage.at(i);
+            if (house!=null){
+                result[n++]=house;
+            }
+        }
+        return result;
+    }
+
+    //·登録順の一覧から、先頭offset件を読み飛ばして最大limit件を取得する。
+    //·読み飛ばす件数に比例した時間がかかるため、後ろのページを順に読む場合はpageAfter()を使う。
+    public House[] page(int offset,int limit){
+        long start=metrics.start(Operation.PAGE);
+        try{
+            Spliterator<House> cursor=storage.spliterator(0);
+            Skipper skipper=new Skipper();
+            for (int i=0;i<offset&&cursor.tryAdvance(skipper);i++){
+            }
+            return collect(cursor,limit);
+        }finally{
+            metrics.stop(Operation.PAGE,start);
+        }
+    }
+
+    //·IDがlastIdより大きい物件を、ID順に最大limit件取得する（キーセット方式のページ送り）。最初のページはlastId=0で取得する。
+    //·前のページの最後のIDから続きを探すため、何ページ目であっても読み飛ばしは発生しない。
+    public House[] pageAfter(int lastId,int limit){
+        long start=metrics.start(Operation.PAGE);
+        try{
+            return collect(storage.spliterator(firstSlotAfter(lastId)),limit);
+        }finally{
+            metrics.stop(Operation.PAGE,start);
+        }
+    }
+
+    //·有効な物件を登録順に走査するSpliteratorを返す。配列全体のコピーは行わない。
+    //·作成時点のスロット範囲を走査し、作成後に追加された物件は含まれない。走査中の削除・更新は反映される場合とされない場合がある。
+    public Spliterator<House> spliterator(){
+        return storage.spliterator(0);
+    }
+
+    public Stream<House> stream(){
+        return StreamSupport.stream(spliterator(),false);
+    }
+
+    //·スロット範囲を分割して複数スレッドで走査するストリームを返す。
+    public Stream<House> parallelStream(){
+        return StreamSupport.stream(spliterator(),true);
+    }
+
+    //·IDがlastIdより大きい最初の物件のスロット番号を返す。
+    //·スロットはID順に並んでいる（IDは増加する順に採番され、詰め直しでも順序は変わらない）ため、lastIdが残っていればその次、
+    // 削除済みであればスロットを二分探索して求める。墓標に当たった場合は右隣の有効な物件のIDで判定する。
+    private int firstSlotAfter(int lastId){
+        int slot=storage.slotOf(lastId);
+        if (slot>=0){
+            return slot+1;
+        }
+        int low=0;
+        int high=storage.slotCount();
+        while (low<high){
+            int mid=(low+high)>>>1;
+            int probe=mid;
+            House house=null;
+            while (probe<high&&(house=storage.at(probe))==null){
+                probe++;
+            }
+            if (house==null||house.getId()>lastId){
+                high=mid;
+            }else{
+                low=probe+1;
+            }
+        }
+        return low;
+    }
+
+    private static House[] collect(Spliterator<House> cursor,int limit){
+        House[] buffer=new House[Math.max(0,Math.min(limit,1024))];
+        PageCollector collector=new PageCollector(buffer);
+        while (collector.size<limit&&cursor.tryAdvance(collector)){
+        }
+        return collector.size==collector.items.length?collector.items:Arrays.copyOf(collector.items,collector.size);
+    }
+
+    //·家賃がminRent以上maxRent以下の物件だけを最大limit件集める。
+    private static House[] collect(Spliterator<House> cursor,int limit,int minRent,int maxRent){
+        PageCollector collector=new PageCollector(new House[Math.max(0,Math.min(limit,1024))]);
+        Consumer<House> filter=house->{
+            int rent=house.getRent();
+            if (rent>=minRent&&rent<=maxRent){
+                collector.accept(house);
+            }
+        };
+        while (collector.size<limit&&cursor.tryAdvance(filter)){
+        }
+        return collector.size==collector.items.length?collector.items:Arrays.copyOf(collector.items,collector.size);
+    }
+
+    //読み飛ばし用。受け取った物件は何もせずに捨てる。
+    private static final class Skipper implements Consumer<House>{
+        @Override
+        public void accept(House house){
+        }
+    }
+
+    //ページの物件を配列へためる補助クラス。
+    private static final class PageCollector implements Consumer<House>{
+        House[] items;
+        int size;
+
+        PageCollector(House[] items){
+            this.items=items;
+        }
+
+        @Override
+        public void accept(House house){
+            if (size==items.length){
+                items=Arrays.copyOf(items,Math.max(4,size<<1));
+            }
+            items[size++]=house;
+        }
+    }
+
+    //·各リスナーへ追加を通知する。サブクラスで排他制御を加えられるよう、通知処理はこれらのメソッドに集約している。
+    protected void fireAdd(House house){
+        for (HouseChangeListener listener:listeners){
+            listener.onAdd(house);
+        }
+    }
+
+    protected void fireDelete(House house){
+        for (HouseChangeListener listener:listeners){
+            listener.onDelete(house);
+        }
+    }
+
+    protected void fireUpdate(House before,House after){
+        for (HouseChangeListener listener:listeners){
+            listener.onUpdate(before,after);
+        }
+    }
+
+    //格納データから切り離した値のコピーを作成する。
+    private static House copyOf(House house){
+        return new House(house.getId(),house.getName(),house.getPhone(),house.getAddress(),house.getRent(),house.getState(),house.getVersion());
+    }
+}
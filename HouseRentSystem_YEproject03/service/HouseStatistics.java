@@ -0,0 +1,145 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ *【Service層・集計】
+ *物件の件数・空室数・家賃の合計と家賃の分布を、全体と区ごとに保持し、追加・削除・更新のたびに差分で更新する集計。
+ *
+ *【設計意図】
+ *·区ごとの平均家賃・空室率・最低／最高家賃・家賃の中央値を求めるたびにlist()で全件を走査していたため、件数に比例した時間がかかっていた。
+ *·HouseChangeListenerとして変更の通知を受け、変更された物件の分だけ件数と合計を加減する。1回の変更の処理は件数に関係なく一定時間である。
+ *·家賃の分布は目盛りごとの件数と合計で持つ（RentSummaryを参照）。目盛りの件数は減らすこともできるため、削除や家賃の変更もそのまま反映できる。
+ *
+ *【責務範囲】
+ *·追加・削除・更新の反映と、その時点の集計結果（RentSummary）の作成。
+ *
+ *【設計上の取捨】
+ *·目盛りの配列は、実際に家賃が入った目盛りの範囲だけを確保し、範囲外の家賃が来た時点で広げる。家賃の範囲が数倍に収まれば、区ごとの配列は数百要素で済む。
+ *·氏名・電話番号だけの変更では家賃・状態・住所が変わらないため、何もしない。
+ *·集計結果の作成は、区の数×目盛りの数に比例する時間で済み、物件を1件も読まない。
+ *·スレッドセーフではない。排他制御はHouseServiceの呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseStatistics implements HouseChangeListener{
+    private static final String VACANT="未賃貸";
+
+    private final Group total=new Group();
+    private final HashMap<String,Group> wards=new HashMap<>();
+
+    //·格納済みの物件から集計を作成する。
+    public HouseStatistics(HouseStorage storage){
+        int slots=storage.slotCount();
+        for (int i=0;i<slots;i++){
+            House house=storage.at(i);
+            if (house!=null){
+                onAdd(house);
+            }
+        }
+    }
+
+    @Override
+    public void onAdd(House house){
+        apply(house,1);
+    }
+
+    @Override
+    public void onDelete(House house){
+        apply(house,-1);
+    }
+
+    @Override
+    public void onUpdate(House before,House after){
+        if (before.getRent()==after.getRent()&&Objects.equals(before.getState(),after.getState())
+                &&Objects.equals(before.getAddress(),after.getAddress())){
+            return;
+        }
+        apply(before,-1);
+        apply(after,1);
+    }
+
+    //·現在の集計結果を返す。区ごとの集計は区の名前順に並べる。
+    public RentSummary summary(){
+        TreeMap<String,RentSummary> byWard=new TreeMap<>();
+        for (Map.Entry<String,Group> entry:wards.entrySet()){
+            byWard.put(entry.getKey(),entry.getValue().summary(null));
+        }
+        return total.summary(byWard);
+    }
+
+    private void apply(House house,int delta){
+        total.apply(house,delta);
+        String ward=house.getWard();
+        if (ward!=null){
+            Group group=wards.computeIfAbsent(ward,k->new Group());
+            group.apply(house,delta);
+            if (group.count==0){
+                wards.remove(ward);
+            }
+        }
+    }
+
+    //·全体または1つの区の集計。目盛りの配列はoffset番の目盛りから始まる。
+    private static final class Group{
+        int count;
+        int vacant;
+        long rentSum;
+        int offset;
+        int[] counts=new int[0];
+        long[] sums=new long[0];
+
+        void apply(House house,int delta){
+            int rent=house.getRent();
+            count+=delta;
+            rentSum+=(long)delta*rent;
+            if (VACANT.equals(house.getState())){
+                vacant+=delta;
+            }
+            int i=cover(RentSummary.bucket(rent));
+            counts[i]+=delta;
+            sums[i]+=(long)delta*rent;
+        }
+
+        RentSummary summary(Map<String,RentSummary> byWard){
+            return new RentSummary(count,vacant,rentSum,offset,counts,sums,byWard);
+        }
+
+        //·目盛りbucketが配列の範囲に入るよう必要に応じて広げ、配列上の添字を返す。
+        //·広げる際は足りない分と現在の長さの大きい方だけ余分に確保し、広げる回数を抑える。
+        private int cover(int bucket){
+            if (counts.length==0){
+                offset=bucket;
+                counts=new int[1];
+                sums=new long[1];
+                return 0;
+            }
+            if (bucket<offset){
+                int grow=Math.max(offset-bucket,counts.length);
+                int from=Math.max(0,offset-grow);
+                int shift=offset-from;
+                int[] nextCounts=new int[counts.length+shift];
+                long[] nextSums=new long[sums.length+shift];
+                System.arraycopy(counts,0,nextCounts,shift,counts.length);
+                System.arraycopy(sums,0,nextSums,shift,sums.length);
+                counts=nextCounts;
+                sums=nextSums;
+                offset=from;
+            }else if (bucket>=offset+counts.length){
+                int length=Math.max(bucket-offset+1,counts.length<<1);
+                counts=Arrays.copyOf(counts,length);
+                sums=Arrays.copyOf(sums,length);
+            }
+            return bucket-offset;
+        }
+    }
+}
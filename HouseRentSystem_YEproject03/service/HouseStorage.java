@@ -0,0 +1,77 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.util.Spliterator;
+
+/**
+ *【Service層・格納方式】
+ *HouseServiceが物件データを実際に保持する「格納方式」を表すインターフェース。
+ *
+ *【設計意図】
+ *·ID採番や変更通知といった業務上の処理はHouseServiceに残し、データの並べ方（オブジェクト配列、列ごとの配列など）だけを差し替えられるようにする。
+ *·どの格納方式でも、登録順に並んだ「スロット」と、ID→スロットの索引を持つ構造を共通とする。
+ *
+ *【責務範囲】
+ *·IDによる取得、末尾への追加、削除（墓標化）、内容の置き換え。
+ *·スロット番号による順次参照と、墓標の詰め直し。
+ *
+ *【設計上の取捨】
+ *·get()やat()が返すHouseは、格納方式によっては内部データを直接読み取る「ビュー」である。
+ * Houseは変更できないため、ビューも読み取り専用である。スロット詰め直し後も同じ物件を指し続けることは各実装が保証する。
+ *·spliterator()は作成時点のスロット範囲を走査する。詰め直しは新しい配列へ書き出すため、走査中に詰め直しが起きても順序が崩れたり同じ物件が2回現れたりしない。
+ * 走査開始後の削除・更新は反映される場合とされない場合がある（弱い整合性）。
+ *·スレッドセーフではない。排他制御は呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public interface HouseStorage{
+    //IDに対応する物件を返す。存在しない場合はnullを返す。
+    House get(int id);
+
+    //·IDが採番済みの物件を末尾へ追加する。
+    void insert(House house);
+
+    //·IDに対応する物件を削除し、削除された物件（格納データから切り離した値）を返す。存在しない場合はnullを返す。
+    House remove(int id);
+
+    //·既存の物件の全項目を、houseの内容で置き換える。
+    void replace(House house);
+
+    //·既存の物件の版がexpectedVersionと等しい場合に限り、全項目（版を含む）をhouseの内容で置き換える。
+    //·置き換えた場合はtrue、物件が存在しないか版が異なる場合はfalseを返す。
+    boolean replaceIfVersion(int expectedVersion,House house);
+
+    //有効な物件の件数を返す（墓標を含まない）。
+    int size();
+
+    //まだ詰め直されていない墓標の件数を返す。
+    int tombstones();
+
+    //墓標を取り除き、有効な物件を登録順のまま前へ詰める。
+    void compact();
+
+    //使用済みスロット数（墓標を含む）を返す。at()に渡せる番号の上限である。
+    int slotCount();
+
+    //配列を拡張せずに保持できるスロット数を返す。
+    int capacity();
+
+    //スロット番号に対応する物件を返す。墓標の場合はnullを返す。
+    House at(int slot);
+
+    //·at()と同じだが、格納データから切り離したHouseを返す。ロックの外で後から読まれても値が変わらない。
+    //·ビューを返さない格納方式では、at()の結果をそのまま返す。
+    default House detachedAt(int slot){
+        return at(slot);
+    }
+
+    //IDに対応するスロット番号を返す。存在しない場合は-1を返す。
+    int slotOf(int id);
+
+    //·fromSlot以降の有効な物件を登録順に走査するSpliteratorを返す。配列全体のコピーは行わない。
+    Spliterator<House> spliterator(int fromSlot);
+}
@@ -0,0 +1,395 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ *【Service層・全文索引】
+ *住所と所有者名の部分文字列で物件を検索するための、n-gram方式の転置索引。
+ *
+ *【設計意図】
+ *·「墨田」のような住所の一部や所有者名で物件を探すには、これまで一覧を目で追うしかなかった。
+ *·住所と氏名を1文字（ユニグラム）と連続2文字（バイグラム）に分け、各文字・文字の組ごとに物件IDの整列済み配列（ポスティング）を持つ。
+ * 日本語は単語の区切りが無いため、辞書を使わずに任意の位置から一致を探せるn-gram方式を採用している。
+ *·検索語のバイグラムすべてを含む物件を、短いポスティングから順に絞り込む。
+ *
+ *【順位付け】
+ *·氏名の一致を住所の一致より上位とし、さらに「完全一致 ＞ 前方一致 ＞ 部分一致」、同じ条件では文字列が短い方（検索語が占める割合が大きい方）を上位とする。
+ * 順位が同じ場合はIDの小さい方を上位とする。
+ *·候補ごとに物件データを読むと、件数の多い検索語（「区」など）ではメモリの読み込み待ちが支配的になる。
+ * そのため、順位は索引だけで求まる上限値（先頭の文字・文字の組を別に索引した前方一致の判定と、IDごとの文字数）で見積もり、
+ * 上位limit件に入り得る候補だけを実際の文字列で確認する。
+ *
+ *【設計上の取捨】
+ *·比較の前に、住所・氏名・検索語をNFKC正規化と小文字化で揃える（全角英数字と半角英数字、大文字と小文字を区別しない）。
+ *·削除・変更で不要になった索引の要素はすぐには取り除かず、検索時の確認で読み飛ばす。不要な要素が有効な要素を上回った時点で索引全体を作り直す。
+ *·件数×（住所と氏名の文字数の約2倍）の整数を保持するため、メモリを多く使う。HouseServiceでは最初の検索時に初めて作成する。
+ *·スレッドセーフではない。排他制御はHouseServiceの呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseTextIndex implements HouseChangeListener{
+    private static final int NAME=0;
+    private static final int ADDRESS=1;
+    //索引キーの種類。先頭の文字・文字の組は前方一致の判定のために別のキーでも登録する。
+    private static final int UNIGRAM=0;
+    private static final int BIGRAM=1;
+    private static final int FIRST_UNIGRAM=2;
+    private static final int FIRST_BIGRAM=3;
+    //順位の値で、氏名の一致を表すビット。これより小さい値はすべて住所の一致である。
+    private static final long NAME_MATCH=1L<<40;
+
+    private final HouseStorage storage;
+    //（項目・種類・文字の組）→ それを含む物件IDの整列済み配列
+    private HashMap<Long,Posting> postings;
+    //IDごとの正規化後の文字数。上位16ビットが氏名、下位16ビットが住所（65535で頭打ち）。
+    private int[] lengths;
+    //有効な要素と、削除・変更で不要になった要素の数
+    private long liveEntries;
+    private long staleEntries;
+
+    public HouseTextIndex(HouseStorage storage){
+        this.storage=storage;
+        rebuild();
+    }
+
+    @Override
+    public void onAdd(House house){
+        addTerms(house);
+    }
+
+    @Override
+    public void onDelete(House house){
+        int terms=entryCount(normalize(house.getName()))+entryCount(normalize(house.getAddress()));
+        liveEntries-=terms;
+        staleEntries+=terms;
+        maybeRebuild();
+    }
+
+    //·氏名・住所が変わった場合のみ、新しい文字列の要素を追加する。古い要素は不要な要素として数える。
+    @Override
+    public void onUpdate(House before,House after){
+        if (Objects.equals(before.getName(),after.getName())&&Objects.equals(before.getAddress(),after.getAddress())){
+            return;
+        }
+        int terms=entryCount(normalize(before.getName()))+entryCount(normalize(before.getAddress()));
+        liveEntries-=terms;
+        staleEntries+=terms;
+        addTerms(after);
+        maybeRebuild();
+    }
+
+    //·検索語を氏名または住所に含む物件を、順位の高い順に最大limit件返す。
+    public House[] search(String query,int limit){
+        String q=normalize(query);
+        if (q.isEmpty()||limit<=0){
+            return new House[0];
+        }
+        //順位の低い物件を先頭に置き、limit件を超えたら取り除く。
+        PriorityQueue<Hit> top=new PriorityQueue<>(Math.min(limit,1024)+1,HouseTextIndex::compareHits);
+        collect(q,NAME,limit,top);
+        //氏名の一致だけでlimit件埋まった場合、住所の一致が上位に入ることはない。
+        if (top.size()<limit||top.peek().score<NAME_MATCH){
+            collect(q,ADDRESS,limit,top);
+        }
+        House[] result=new House[top.size()];
+        for (int i=result.length-1;i>=0;i--){
+            result[i]=top.poll().house;
+        }
+        return result;
+    }
+
+    //·索引全体を格納データから作り直す。
+    public void rebuild(){
+        postings=new HashMap<>();
+        lengths=new int[1024];
+        liveEntries=0;
+        staleEntries=0;
+        int slots=storage.slotCount();
+        for (int i=0;i<slots;i++){
+            House house=storage.at(i);
+            if (house!=null){
+                addTerms(house);
+            }
+        }
+    }
+
+    //索引に登録されている文字・文字の組の種類数
+    public int termCount(){
+        return postings.size();
+    }
+
+    //·1つの項目の候補について順位の上限値を見積もり、上位に入り得る候補だけを実際の文字列で確認して順位を確定する。
+    private void collect(String q,int field,int limit,PriorityQueue<Hit> top){
+        int[] candidates=candidates(q,field);
+        if (candidates.length==0){
+            return;
+        }
+        Posting first=postings.get(key(field,q.length()==1?FIRST_UNIGRAM:FIRST_BIGRAM,gram(q)));
+        int f=0;
+        for (int id:candidates){
+            //候補も先頭の索引もIDの昇順であるため、突き合わせながら進める。
+            boolean prefix=false;
+            if (first!=null){
+                while (f<first.size&&first.ids[f]<id){
+                    f++;
+                }
+                prefix=f<first.size&&first.ids[f]==id;
+            }
+            int length=length(id,field);
+            long bound=score(field,prefix?(length==q.length()?3:2):1,length);
+            if (top.size()==limit&&!better(bound,id,top.peek())){
+                continue;
+            }
+            House house=storage.get(id);
+            if (house==null){
+                continue;
+            }
+            //氏名にも一致する物件は、氏名の候補として処理済みである。
+            if (field==ADDRESS&&normalize(house.getName()).contains(q)){
+                continue;
+            }
+            String text=normalize(field==NAME?house.getName():house.getAddress());
+            int at=text.indexOf(q);
+            if (at<0){
+                continue;
+            }
+            long score=score(field,text.length()==q.length()?3:at==0?2:1,text.length());
+            if (top.size()<limit){
+                top.add(new Hit(id,score,house));
+            }else if (better(score,id,top.peek())){
+                top.poll();
+                top.add(new Hit(id,score,house));
+            }
+        }
+    }
+
+    //·検索語のバイグラム（1文字の場合はその文字）をすべて含む物件IDを求める。
+    private int[] candidates(String q,int field){
+        Posting[] lists;
+        if (q.length()==1){
+            lists=new Posting[]{postings.get(key(field,UNIGRAM,q.charAt(0)))};
+        }else{
+            lists=new Posting[q.length()-1];
+            for (int i=0;i+1<q.length();i++){
+                lists[i]=postings.get(key(field,BIGRAM,bigram(q.charAt(i),q.charAt(i+1))));
+            }
+        }
+        for (Posting list:lists){
+            if (list==null){
+                return new int[0];
+            }
+        }
+        //短いポスティングから順に絞り込む。
+        Arrays.sort(lists,(a,b)->Integer.compare(a.size,b.size));
+        int[] result=Arrays.copyOf(lists[0].ids,lists[0].size);
+        int n=result.length;
+        for (int k=1;k<lists.length&&n>0;k++){
+            Posting other=lists[k];
+            if (other==lists[k-1]){
+                continue;
+            }
+            int kept=0;
+            int from=0;
+            for (int i=0;i<n;i++){
+                int found=gallop(other,from,result[i]);
+                if (found>=0){
+                    result[kept++]=result[i];
+                    from=found+1;
+                }else{
+                    from=-found-1;
+                }
+            }
+            n=kept;
+        }
+        return n==result.length?result:Arrays.copyOf(result,n);
+    }
+
+    //·fromより後ろで、idの位置（見つからない場合は-(挿入位置)-1）を求める。
+    //·候補は昇順に並んでいるため、前回の位置から1,2,4,…と幅を広げて範囲を絞ってから二分探索する。長い配列を毎回最初から二分探索するより速い。
+    private static int gallop(Posting posting,int from,int id){
+        int[] ids=posting.ids;
+        int step=1;
+        int low=from;
+        while (low+step<posting.size&&ids[low+step]<id){
+            low+=step;
+            step<<=1;
+        }
+        return Arrays.binarySearch(ids,low,Math.min(low+step+1,posting.size),id);
+    }
+
+    //·物件の順位の値を実際の文字列から求める。検索語に一致しない場合は-1を返す。
+    //·複数の索引（PartitionedHouseServiceの各区画）の検索結果を、1つの順位に並べ直すために使用する。
+    static long rank(String query,House house){
+        String q=normalize(query);
+        String name=normalize(house.getName());
+        int at=name.indexOf(q);
+        if (at>=0){
+            return score(NAME,name.length()==q.length()?3:at==0?2:1,name.length());
+        }
+        String address=normalize(house.getAddress());
+        at=address.indexOf(q);
+        if (at>=0){
+            return score(ADDRESS,address.length()==q.length()?3:at==0?2:1,address.length());
+        }
+        return -1;
+    }
+
+    //·値が大きいほど上位である。kindは完全一致が3、前方一致が2、部分一致が1。同じ条件では文字列が短い方を上位とする。
+    private static long score(int field,int kind,int length){
+        long score=((long)kind<<32)+(Integer.MAX_VALUE-length);
+        return field==NAME?NAME_MATCH+score:score;
+    }
+
+    private static boolean better(long score,int id,Hit lowest){
+        return score>lowest.score||(score==lowest.score&&id<lowest.id);
+    }
+
+    //順位の低いものを先に並べる比較。
+    private static int compareHits(Hit a,Hit b){
+        if (a.score!=b.score){
+            return Long.compare(a.score,b.score);
+        }
+        return Integer.compare(b.id,a.id);
+    }
+
+    private void addTerms(House house){
+        int id=house.getId();
+        String name=normalize(house.getName());
+        String address=normalize(house.getAddress());
+        addTerms(id,NAME,name);
+        addTerms(id,ADDRESS,address);
+        if (id>=lengths.length){
+            lengths=Arrays.copyOf(lengths,Math.max(id+1,lengths.length+(lengths.length>>1)));
+        }
+        lengths[id]=(Math.min(name.length(),0xFFFF)<<16)|Math.min(address.length(),0xFFFF);
+    }
+
+    private void addTerms(int id,int field,String text){
+        int n=text.length();
+        if (n==0){
+            return;
+        }
+        posting(key(field,FIRST_UNIGRAM,text.charAt(0))).add(id);
+        if (n>1){
+            posting(key(field,FIRST_BIGRAM,bigram(text.charAt(0),text.charAt(1)))).add(id);
+        }
+        for (int i=0;i<n;i++){
+            posting(key(field,UNIGRAM,text.charAt(i))).add(id);
+            if (i+1<n){
+                posting(key(field,BIGRAM,bigram(text.charAt(i),text.charAt(i+1)))).add(id);
+            }
+        }
+        liveEntries+=entryCount(text);
+    }
+
+    private Posting posting(long key){
+        Posting posting=postings.get(key);
+        if (posting==null){
+            posting=new Posting();
+            postings.put(key,posting);
+        }
+        return posting;
+    }
+
+    private int length(int id,int field){
+        int packed=id<lengths.length?lengths[id]:0;
+        return field==NAME?packed>>>16:packed&0xFFFF;
+    }
+
+    private void maybeRebuild(){
+        if (staleEntries>1024&&staleEntries>liveEntries){
+            rebuild();
+        }
+    }
+
+    //1つの文字列が索引に登録する要素の数（ユニグラム・バイグラム・先頭の文字と文字の組）。
+    private static int entryCount(String text){
+        int n=text.length();
+        return n==0?0:n==1?2:n*2+1;
+    }
+
+    //·検索語の先頭の文字（1文字の場合）または先頭の文字の組。
+    private static int gram(String q){
+        return q.length()==1?q.charAt(0):bigram(q.charAt(0),q.charAt(1));
+    }
+
+    private static int bigram(char first,char second){
+        return (first<<16)|second;
+    }
+
+    private static long key(int field,int kind,int gram){
+        return ((long)field<<34)|((long)kind<<32)|(gram&0xFFFFFFFFL);
+    }
+
+    //·検索時には候補ごとに正規化するため、NFKC正規化と小文字化で変化しない文字（半角英小文字・数字・ひらがな・カタカナ・漢字）だけの文字列はそのまま返す。
+    static String normalize(String text){
+        if (text==null){
+            return "";
+        }
+        for (int i=0;i<text.length();i++){
+            if (!isStable(text.charAt(i))){
+                return Normalizer.normalize(text,Normalizer.Form.NFKC).toLowerCase();
+            }
+        }
+        return text;
+    }
+
+    private static boolean isStable(char c){
+        return (c>='a'&&c<='z')||(c>='0'&&c<='9')
+                ||(c>='ぁ'&&c<='ゖ')||(c>='ァ'&&c<='ヺ')||(c>='一'&&c<='鿿');
+    }
+
+    //·1つの文字・文字の組を含む物件IDの整列済み配列。
+    private static final class Posting{
+        int[] ids=new int[2];
+        int size;
+
+        //·IDは通常増加する順に追加されるため末尾へ追加する。変更や復元で小さいIDが来た場合は二分探索で位置を求めて挿入する。同じIDは重複させない。
+        void add(int id){
+            if (size>0&&ids[size-1]>=id){
+                if (ids[size-1]==id){
+                    return;
+                }
+                int at=Arrays.binarySearch(ids,0,size,id);
+                if (at>=0){
+                    return;
+                }
+                at=-at-1;
+                grow();
+                System.arraycopy(ids,at,ids,at+1,size-at);
+                ids[at]=id;
+                size++;
+                return;
+            }
+            grow();
+            ids[size++]=id;
+        }
+
+        private void grow(){
+            if (size==ids.length){
+                ids=Arrays.copyOf(ids,size+(size>>1)+1);
+            }
+        }
+    }
+
+    private static final class Hit{
+        final int id;
+        final long score;
+        final House house;
+
+        Hit(int id,long score,House house){
+            this.id=id;
+            this.score=score;
+            this.house=house;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+
+/**
+ *【Service層・二次索引】
+ *物件IDをビット位置とするビット集合。状態・区の索引で使用する。
+ *
+ *【設計意図】
+ *·java.util.BitSetは、最上位の立っているビットを消すたびに、残りの最上位ビットを探して配列を後ろから走査する。
+ * 追加した物件をすぐに削除する操作を繰り返すと、IDが増えるにつれて1回の削除が「最大ID/64」語の走査になり、件数が少なくても遅くなっていた。
+ *·本クラスはビットを消すときに最上位ビットを求め直さない。必要な操作（設定・解除・判定・次のビットの検索・件数）だけを持つ。
+ *
+ *【設計上の取捨】
+ *·立っているビットの件数は設定・解除のたびに増減させて保持する。isEmpty()とcardinality()はIDの最大値に関係なく一定時間で返る。
+ *·2つの集合の論理積は新しい集合を作らず、nextCommonSetBit()で両方の語を論理積しながらたどる。検索のたびに集合全体を複製しないためである。
+ *·スレッドセーフではない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class IdBitSet{
+    private long[] words=new long[1];
+    private int count;
+
+    public void set(int id){
+        int word=id>>>6;
+        if (word>=words.length){
+            words=Arrays.copyOf(words,Math.max(word+1,words.length<<1));
+        }
+        long bit=1L<<id;
+        if ((words[word]&bit)==0){
+            words[word]|=bit;
+            count++;
+        }
+    }
+
+    public void clear(int id){
+        int word=id>>>6;
+        long bit=1L<<id;
+        if (word<words.length&&(words[word]&bit)!=0){
+            words[word]&=~bit;
+            count--;
+        }
+    }
+
+    public boolean get(int id){
+        int word=id>>>6;
+        return word<words.length&&(words[word]&(1L<<id))!=0;
+    }
+
+    //·from以降で最初に立っているビットの位置を返す。無い場合は-1を返す。
+    public int nextSetBit(int from){
+        int word=from>>>6;
+        if (word>=words.length){
+            return -1;
+        }
+        long bits=words[word]&(-1L<<from);
+        while (true){
+            if (bits!=0){
+                return (word<<6)+Long.numberOfTrailingZeros(bits);
+            }
+            if (++word==words.length){
+                return -1;
+            }
+            bits=words[word];
+        }
+    }
+
+    //·aとbの両方で、from以降で最初に立っているビットの位置を返す。無い場合は-1を返す。
+    public static int nextCommonSetBit(IdBitSet a,IdBitSet b,int from){
+        int common=Math.min(a.words.length,b.words.length);
+        int word=from>>>6;
+        if (word>=common){
+            return -1;
+        }
+        long bits=a.words[word]&b.words[word]&(-1L<<from);
+        while (true){
+            if (bits!=0){
+                return (word<<6)+Long.numberOfTrailingZeros(bits);
+            }
+            if (++word==common){
+                return -1;
+            }
+            bits=a.words[word]&b.words[word];
+        }
+    }
+
+    public int cardinality(){
+        return count;
+    }
+
+    public boolean isEmpty(){
+        return count==0;
+    }
+}
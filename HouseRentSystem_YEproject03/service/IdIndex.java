@@ -0,0 +1,172 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+
+/**
+ *【Service層・索引】
+ *物件ID（int）から内部配列の格納位置（スロット番号）を引くための、プリミティブ専用のハッシュ索引。
+ *
+ *【設計意図】
+ *·HashMap<Integer,Integer>ではキーと値がすべてオブジェクトになり、数百万件規模ではボクシングとヘッダがメモリの大半を占めてしまう。
+ *·そのため、int配列2本だけで構成するオープンアドレス法（線形探索）を採用し、検索・追加・削除を平均O(1)で行えるようにしている。
+ *
+ *【責務範囲】
+ *·ID→スロット番号の登録、取得、削除。
+ *·登録件数に応じた自動拡張。
+ *
+ *【設計上の取捨】
+ *·物件IDは1から採番されるため、キー0を「空き」の目印として使用している。0以下のIDは登録できない。
+ *·削除時は墓標（tombstone）を残さず後続要素を詰め直す方式（backward shift）とし、削除を繰り返しても探索長が伸びないようにしている。
+ *·スレッドセーフではない。排他制御は呼び出し側（HouseService）の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class IdIndex{
+    //キー0は空きスロットを表す。
+    private static final int EMPTY=0;
+    //値が見つからなかった場合の戻り値。
+    public static final int NOT_FOUND=-1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    //この件数を超えたら拡張する（負荷率0.5）。
+    private int threshold;
+
+    public IdIndex(int expected){
+        int capacity=tableSizeFor(Math.max(expected,4)*2);
+        allocate(capacity);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    //·IDに対応するスロット番号を返す。存在しない場合はNOT_FOUNDを返す。
+    public int get(int id){
+        if(id<=EMPTY){
+            return NOT_FOUND;
+        }
+        int[] k=keys;
+        int i=hash(id)&mask;
+        for (; ;){
+            int key=k[i];
+            if(key==id){
+                return values[i];
+            }
+            if(key==EMPTY){
+                return NOT_FOUND;
+            }
+            i=(i+1)&mask;
+        }
+    }
+
+    //·IDとスロット番号を登録する。既に登録済みの場合は値を上書きする。
+    public void put(int id,int slot){
+        if(id<=EMPTY){
+            throw new IllegalArgumentException("IDは1以上である必要があります: "+id);
+        }
+        int i=hash(id)&mask;
+        for (; ;){
+            int key=keys[i];
+            if(key==id){
+                values[i]=slot;
+                return;
+            }
+            if(key==EMPTY){
+                keys[i]=id;
+                values[i]=slot;
+                if(++size>threshold){
+                    resize(keys.length<<1);
+                }
+                return;
+            }
+            i=(i+1)&mask;
+        }
+    }
+
+    //·IDを削除し、削除前のスロット番号を返す。存在しない場合はNOT_FOUNDを返す。
+    //·空いた位置より後ろにある同じ探索列の要素を前へ詰め直し、探索が途中で途切れないようにしている。
+    public int remove(int id){
+        if(id<=EMPTY){
+            return NOT_FOUND;
+        }
+        int i=hash(id)&mask;
+        for (; ;){
+            int key=keys[i];
+            if(key==EMPTY){
+                return NOT_FOUND;
+            }
+            if(key==id){
+                break;
+            }
+            i=(i+1)&mask;
+        }
+        int removed=values[i];
+        int gap=i;
+        int j=i;
+        for (; ;){
+            j=(j+1)&mask;
+            int key=keys[j];
+            if(key==EMPTY){
+                break;
+            }
+            int home=hash(key)&mask;
+            //homeがgapとjの間（循環区間）に無い要素だけをgapへ移動できる。
+            if(((j-home)&mask)>=((j-gap)&mask)){
+                keys[gap]=key;
+                values[gap]=values[j];
+                gap=j;
+            }
+        }
+        keys[gap]=EMPTY;
+        values[gap]=0;
+        size--;
+        return removed;
+    }
+
+    //·すべての登録を消去する。配列は再利用する。
+    public void clear(){
+        Arrays.fill(keys,EMPTY);
+        size=0;
+    }
+
+    private void resize(int capacity){
+        int[] oldKeys=keys;
+        int[] oldValues=values;
+        allocate(capacity);
+        for (int i=0;i<oldKeys.length;i++){
+            int key=oldKeys[i];
+            if(key!=EMPTY){
+                int j=hash(key)&mask;
+                while(keys[j]!=EMPTY){
+                    j=(j+1)&mask;
+                }
+                keys[j]=key;
+                values[j]=oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity){
+        keys=new int[capacity];
+        values=new int[capacity];
+        mask=capacity-1;
+        threshold=capacity>>1;
+    }
+
+    //連番のIDがそのまま隣接スロットに並ぶと探索列が長くなるため、乗算で下位ビットを攪拌している。
+    private static int hash(int id){
+        int h=id*0x9E3779B9;
+        return h^(h>>>16);
+    }
+
+    private static int tableSizeFor(int n){
+        int capacity=Integer.highestOneBit(Math.max(n-1,1))<<1;
+        return capacity<0?1<<30:capacity;
+    }
+}
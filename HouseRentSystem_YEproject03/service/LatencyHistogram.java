@@ -0,0 +1,112 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *【Service層・計測】
+ *処理時間（ナノ秒）の分布を記録し、パーセンタイル値を求めるための対数ヒストグラム。
+ *
+ *【設計意図】
+ *·平均値だけでは「ほとんどは速いが時々遅い」処理を見分けられないため、p50・p99などの分布を残す。
+ *·HdrHistogramと同じく、値を「2の累乗ごとの区間を16等分した目盛り」に振り分ける。相対誤差は最大約6%で、
+ * 1ナノ秒から数百年までの値を976個の目盛りで表せる。
+ *
+ *【設計上の取捨】
+ *·記録はAtomicLongArrayとAtomicLongの加算だけで行い、ロックもオブジェクトの生成も行わない。複数のスレッドから同時に記録できる。
+ *·読み取りは記録と並行して行われるため、各目盛りの値の合計と件数がわずかにずれることがある（統計の表示には影響しない程度）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class LatencyHistogram{
+    //2の累乗ごとの区間を2^SUB_BITS個の目盛りに分ける。下位の32個（0～31ナノ秒）は1ナノ秒単位である。
+    private static final int SUB_BITS=4;
+    private static final int SUB_COUNT=1<<SUB_BITS;
+    private static final int LINEAR=SUB_COUNT<<1;
+    private static final int BUCKETS=LINEAR+(63-SUB_BITS)*SUB_COUNT;
+
+    private final AtomicLongArray counts=new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum=new AtomicLong();
+    private final AtomicLong max=new AtomicLong();
+
+    //·1件の処理時間を記録する。負の値は0として扱う。
+    //·件数は目盛りの合計から求め、記録時には数えない。記録の処理を小さく保ち、呼び出し元へインライン展開されても
+    // コンパイル後のコードが大きくならないようにするためである（大きくなると、呼び出し元自体が更に外側へ展開されなくなる）。
+    public void record(long nanos){
+        long value=Math.max(nanos,0);
+        counts.incrementAndGet(index(value));
+        sum.addAndGet(value);
+        long current=max.get();
+        while (value>current&&!max.compareAndSet(current,value)){
+            current=max.get();
+        }
+    }
+
+    //記録した件数
+    public long count(){
+        long n=0;
+        for (int i=0;i<BUCKETS;i++){
+            n+=counts.get(i);
+        }
+        return n;
+    }
+
+    public long maxNanos(){
+        return max.get();
+    }
+
+    public double meanNanos(){
+        long n=count();
+        return n==0?0:(double)sum.get()/n;
+    }
+
+    //·記録した値のうち、小さい方から割合p（0～1）の位置にある値を返す。値は目盛りの上端であり、実際の値以上となる。
+    public long percentileNanos(double p){
+        long n=count();
+        if (n==0){
+            return 0;
+        }
+        long rank=Math.max(1,(long)Math.ceil(Math.min(Math.max(p,0),1)*n));
+        long seen=0;
+        for (int i=0;i<BUCKETS;i++){
+            seen+=counts.get(i);
+            if (seen>=rank){
+                return Math.min(upperBound(i),max.get());
+            }
+        }
+        return max.get();
+    }
+
+    //すべての記録を消去する。
+    public void reset(){
+        for (int i=0;i<BUCKETS;i++){
+            counts.set(i,0);
+        }
+        sum.set(0);
+        max.set(0);
+    }
+
+    //·値の上位SUB_BITS+1ビットで目盛りを決める。32未満の値はそのまま目盛りの番号とする。
+    static int index(long value){
+        if (value<LINEAR){
+            return (int)value;
+        }
+        int shift=63-Long.numberOfLeadingZeros(value)-SUB_BITS;
+        int top=(int)(value>>>shift);
+        return LINEAR+(shift-1)*SUB_COUNT+(top-SUB_COUNT);
+    }
+
+    //目盛りに入る値の最大値
+    static long upperBound(int index){
+        if (index<LINEAR){
+            return index;
+        }
+        int shift=(index-LINEAR)/SUB_COUNT+1;
+        long top=(index-LINEAR)%SUB_COUNT+SUB_COUNT;
+        long upper=((top+1)<<shift)-1;
+        return upper<0?Long.MAX_VALUE:upper;
+    }
+}
@@ -0,0 +1,268 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ *【Service層・格納方式】
+ *物件をHouseオブジェクトのまま配列に並べて保持する、標準の格納方式。
+ *
+ *【設計意図】
+ *·最も基本的なデータ構造である配列で物件を管理し、処理の流れを直感的に追えるようにする。
+ *·ID→格納位置のハッシュ索引（IdIndex）を併用し、件数に関係なく一定時間で検索・削除できるようにする。
+ *
+ *【責務範囲】
+ *·内部配列の構造を管理する。必要に応じて配列を自動的に拡張する。
+ *·削除は墓標（null）を置くだけの一定時間の処理とし、墓標が一定数たまった時点でまとめて詰め直す（コンパクション）。
+ *
+ *【設計上の取捨】
+ *·配列が満杯になった場合は2倍の長さへ拡張する。1件ずつ拡張するとコピーが毎回発生するため、倍々で確保して追加を償却O(1)に保つ。
+ *·削除のたびに後続要素をずらすとO(n)のコピーが発生するため、詰め直しは墓標が全体の1/4を超えた時にまとめて行う。1件あたりの償却コストはO(1)となる。
+ *·詰め直しは既存の配列を書き換えず、新しい配列へ有効な要素を写す。走査中のSpliteratorは古い配列を参照し続けるため、順序が崩れない。
+ *·修正は格納済みのHouseを書き換えず、新しいHouseへの参照に差し替える。差し替えは配列要素への比較交換（CAS）で行い、
+ * 読み取り側は常に修正前か修正後のどちらか一方の完全な値を見る。
+ *·詰め直しはバックグラウンドスレッドではなく削除処理の中で行う。本クラスはスレッドセーフではないため、別スレッドから配列を書き換えると整合性を保てないからである。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ObjectHouseStorage implements HouseStorage{
+    //墓標がこの件数未満の場合は詰め直しを行わない（少量の削除で毎回全体を走査しないため）。
+    private static final int MIN_COMPACT_TOMBSTONES=64;
+    //配列要素を比較交換・取得（acquire）で読み書きするためのハンドル。
+    private static final VarHandle SLOTS=MethodHandles.arrayElementVarHandle(House[].class);
+
+    private House[] houses;
+    //使用済みスロット数（墓標を含む）。次の追加位置でもある。
+    private int slotNums=0;
+    //有効な物件の件数（墓標を含まない）。
+    private int houseNums=0;
+    //削除済みでまだ詰め直されていないスロット数。
+    private int tombstones=0;
+    //ID→配列内の位置（添字）を引くための索引。
+    private IdIndex index;
+
+    //·sizeは初期容量であり、上限ではない。登録件数がこれを超えると配列は自動的に拡張される。
+    public ObjectHouseStorage(int size){
+        houses=new House[Math.max(size,1)];
+        index=new IdIndex(houses.length);
+    }
+
+    //·索引からIDの格納位置を取得するため、登録件数に関係なく一定時間で該当データを取得できる。
+    //·差し替えと同時に読まれても、差し替え後のHouseが生成途中の状態で見えないよう、acquireで読む。
+    @Override
+    public House get(int id){
+        int slot=index.get(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        return (House)SLOTS.getAcquire(houses,slot);
+    }
+
+    //·配列が満杯の場合、墓標が全体の1/8以上残っていれば詰め直して空きを回収し、そうでなければ2倍の長さに拡張する。
+    //（墓標がわずかな状態で詰め直すと、回収できる空きが少ないのに毎回全体をコピーすることになるため）
+    @Override
+    public void insert(House house){
+        if (slotNums==houses.length){
+            if (tombstones>0&&tombstones>=(slotNums>>3)){
+                compact();
+            }else{
+                grow();
+            }
+        }
+        index.put(house.getId(),slotNums);
+        houses[slotNums++]=house;
+        houseNums++;
+    }
+
+    //·該当スロットをnull（墓標）にするだけで、後続要素の移動は行わない。
+    //·末尾の墓標はその場で回収し、次の追加で再利用する。途中の墓標は一定数たまった時点でcompact()によりまとめて回収する。
+    @Override
+    public House remove(int id){
+        int slot=index.remove(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        House removed=houses[slot];
+        houses[slot]=null;
+        houseNums--;
+        tombstones++;
+        //末尾に連続する墓標は詰め直しを待たずに回収できる。
+        while (slotNums>0&&houses[slotNums-1]==null){
+            slotNums--;
+            tombstones--;
+        }
+        if (tombstones>=MIN_COMPACT_TOMBSTONES&&tombstones>(slotNums>>2)){
+            compact();
+        }
+        return removed;
+    }
+
+    //同じスロットに新しいオブジェクトを置くだけのため、登録順は変わらない。
+    @Override
+    public void replace(House house){
+        int slot=index.get(house.getId());
+        if (slot!=IdIndex.NOT_FOUND){
+            houses[slot]=house;
+        }
+    }
+
+    //·格納中の物件の版がexpectedVersionである間だけ、比較交換で差し替える。
+    @Override
+    public boolean replaceIfVersion(int expectedVersion,House house){
+        int slot=index.get(house.getId());
+        if (slot==IdIndex.NOT_FOUND){
+            return false;
+        }
+        House[] array=houses;
+        House current=(House)SLOTS.getAcquire(array,slot);
+        while (current!=null&&current.getVersion()==expectedVersion){
+            if (SLOTS.compareAndSet(array,slot,current,house)){
+                return true;
+            }
+            current=(House)SLOTS.getAcquire(array,slot);
+        }
+        return false;
+    }
+
+    @Override
+    public int size(){
+        return houseNums;
+    }
+
+    @Override
+    public int tombstones(){
+        return tombstones;
+    }
+
+    //·墓標を取り除き、有効な要素を登録順のまま前へ詰める。
+    //·移動した要素のみ索引を更新する。1回の走査でまとめて処理するため、削除1件ごとに詰めるよりコピー回数が少ない。
+    @Override
+    public void compact(){
+        if (tombstones==0){
+            return;
+        }
+        House[] compacted=new House[houses.length];
+        int to=0;
+        for (int from=0;from<slotNums;from++){
+            House house=houses[from];
+            if (house==null){
+                continue;
+            }
+            if (to!=from){
+                index.put(house.getId(),to);
+            }
+            compacted[to++]=house;
+        }
+        houses=compacted;
+        slotNums=to;
+        tombstones=0;
+    }
+
+    @Override
+    public int slotCount(){
+        return slotNums;
+    }
+
+    @Override
+    public int capacity(){
+        return houses.length;
+    }
+
+    @Override
+    public House at(int slot){
+        return houses[slot];
+    }
+
+    @Override
+    public int slotOf(int id){
+        return index.get(id);
+    }
+
+    //作成時点の配列と使用済みスロット数を取り込み、以降の追加は走査範囲に含めない。
+    @Override
+    public Spliterator<House> spliterator(int fromSlot){
+        return new ArraySpliterator(houses,Math.max(fromSlot,0),slotNums);
+    }
+
+    //·新しい配列を確保して既存要素をコピーする。要素の位置は変わらないため、索引の更新は不要。
+    private void grow(){
+        int newLength=houses.length<<1;
+        if (newLength<0){
+            newLength=Integer.MAX_VALUE-8;
+        }
+        houses=Arrays.copyOf(houses,newLength);
+    }
+
+    //·配列の指定範囲を走査し、墓標（null）を読み飛ばすSpliterator。
+    //·範囲を半分ずつに分割できるため、並列ストリームでは各スレッドが別々の範囲を担当する。
+    private static final class ArraySpliterator implements Spliterator<House>{
+        //これより狭い範囲は分割しない（分割の手間が走査の手間を上回るため）。
+        private static final int MIN_SPLIT=1<<10;
+
+        private final House[] array;
+        private int index;
+        private final int fence;
+
+        ArraySpliterator(House[] array,int index,int fence){
+            this.array=array;
+            this.index=index;
+            this.fence=fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super House> action){
+            while (index<fence){
+                House house=array[index++];
+                if (house!=null){
+                    action.accept(house);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super House> action){
+            House[] a=array;
+            int i=index;
+            int end=fence;
+            index=end;
+            for (;i<end;i++){
+                House house=a[i];
+                if (house!=null){
+                    action.accept(house);
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<House> trySplit(){
+            int low=index;
+            int mid=(low+fence)>>>1;
+            if (mid-low<MIN_SPLIT){
+                return null;
+            }
+            index=mid;
+            return new ArraySpliterator(array,low,mid);
+        }
+
+        //墓標を含む上限値である。
+        @Override
+        public long estimateSize(){
+            return fence-index;
+        }
+
+        @Override
+        public int characteristics(){
+            return ORDERED|NONNULL;
+        }
+    }
+}
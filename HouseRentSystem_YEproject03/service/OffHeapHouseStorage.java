@@ -0,0 +1,422 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.codec.HouseCodec;
+import HouseRentSystem_YEproject03.codec.HouseRecord;
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ *【Service層・格納方式】
+ *物件をヒープ外（ダイレクトバッファ）に置き、ヒープには索引などの基本型の配列だけを残す格納方式。
+ *
+ *【設計意図】
+ *·House[]で数百万件を保持すると、物件1件ごとにHouseと4つの文字列がヒープに残り、ガベージコレクションが生存オブジェクトをたどる時間（停止時間）が件数に比例して伸びる。
+ *·物件の本体はダイレクトバッファに書き込む。ガベージコレクションはバッファの中身をたどらないため、件数が増えても停止時間はほとんど変わらない。
+ *·物件の内容はHouseCodecのレコード形式で書き込み、HouseRecord（フライウェイト）で物件を生成せずに参照できる（record()・recordAt()）。
+ * get()・at()は従来どおりHouseを返すが、これは呼び出しのたびにレコードから作る短命なコピーである。
+ *
+ *【データ形式】
+ *·固定長の領域：1件 RECORD_BYTES バイトで、スロット番号×RECORD_BYTES の位置に[ID:int（0は墓標）][版番号:int][可変長ブロックの位置:long]を置く。
+ *·可変長の領域：CHUNK_BYTES バイトずつのバッファ（チャンク）から切り出したブロックに、[所有者のID:int][サイズ区分:int][HouseCodecのレコード]を置く。
+ * ブロックの位置は「チャンク番号×CHUNK_BYTES＋チャンク内の位置」とする。
+ *
+ *【領域の割り当て】
+ *·ブロックの大きさは、512バイトまでは8バイト刻み、それを超える場合は2のべき乗に切り上げたサイズ区分のいずれかとする。
+ *·削除・更新で不要になったブロックはサイズ区分ごとの空きリストへつなぎ、同じ区分のブロックを割り当てる際に再利用する。
+ * 空きリストの次のブロックの位置は空きブロック自身に書き込むため、空きリストもヒープを使わない。
+ *·空きリストに無い場合は、最後のチャンクの末尾から切り出す。入りきらない場合は新しいチャンクを確保する（前のチャンクの残りは使わない）。
+ *
+ *【設計上の取捨】
+ *·固定長の領域は SEGMENT_RECORDS 件ずつのバッファに分ける。満杯の場合は次のバッファを確保するだけで、既存のレコードはコピーしない。
+ *·詰め直しは固定長の領域だけを新しいバッファへ写す。可変長のブロックは移動しないため、ブロックの位置は書き換えない。
+ *·チャンクは解放しない。物件数が大きく減った後も確保した量は減らず、空いたブロックは同じサイズ区分の割り当てにだけ使われる。
+ *·走査中のSpliteratorは詰め直し前の固定長の領域を参照し続ける。その間に物件が更新・削除されてブロックが再利用された場合は、
+ * ブロックの所有者のIDが一致しないことで検出し、索引から現在の物件を引き直す（削除されていれば読み飛ばす）。
+ *·ダイレクトバッファの量はJVMの-XX:MaxDirectMemorySize（既定はヒープの上限と同じ）で制限される。
+ *·スレッドセーフではない。排他制御は呼び出し側の責務とする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class OffHeapHouseStorage implements HouseStorage{
+    //固定長のレコード内の各項目の位置（バイト）
+    private static final int ID=0;
+    private static final int VERSION=4;
+    private static final int BLOCK=8;
+    static final int RECORD_BYTES=16;
+    private static final int SEGMENT_SHIFT=16;
+    private static final int SEGMENT_RECORDS=1<<SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK=SEGMENT_RECORDS-1;
+    //ブロック内の各項目の位置（バイト）。空きブロックでは、所有者のIDを0とし、レコードの位置に次の空きブロックの位置を書く。
+    private static final int OWNER=0;
+    private static final int SIZE_CLASS=4;
+    private static final int DATA=8;
+    private static final int NEXT_FREE=DATA;
+    private static final int MIN_BLOCK=16;
+    private static final int CHUNK_SHIFT=20;
+    static final int CHUNK_BYTES=1<<CHUNK_SHIFT;
+    private static final int CHUNK_MASK=CHUNK_BYTES-1;
+    //8バイト刻みのサイズ区分の上限
+    private static final int SMALL_LIMIT=512;
+    private static final int SMALL_CLASSES=SMALL_LIMIT>>>3;
+    private static final int CLASSES=SMALL_CLASSES+CHUNK_SHIFT-Integer.numberOfTrailingZeros(SMALL_LIMIT)+1;
+    private static final long NONE=-1;
+    private static final int MIN_COMPACT_TOMBSTONES=64;
+
+    private final IdIndex index;
+    private ByteBuffer[] segments=new ByteBuffer[0];
+    private ByteBuffer[] chunks=new ByteBuffer[0];
+    //最後のチャンクで、次に切り出す位置
+    private int chunkTop=CHUNK_BYTES;
+    //サイズ区分ごとの空きリストの先頭
+    private final long[] freeHeads=new long[CLASSES];
+    private int slotNums=0;
+    private int houseNums=0;
+    private int tombstones=0;
+    //使用中のブロックのバイト数
+    private long liveBlockBytes;
+    //get()などでレコードを読む際に使い回すフライウェイト
+    private final HouseRecord reader=new HouseRecord();
+
+    public OffHeapHouseStorage(int size){
+        index=new IdIndex(Math.max(size,1));
+        Arrays.fill(freeHeads,NONE);
+        segments=grow(segments,Math.max(size,1));
+    }
+
+    @Override
+    public House get(int id){
+        int slot=index.get(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        return read(segments,slot).toHouse();
+    }
+
+    @Override
+    public void insert(House house){
+        long block=store(house);
+        if (slotNums==capacity()){
+            segments=grow(segments,slotNums+1);
+        }
+        int slot=slotNums++;
+        writeRecord(segments,slot,house.getId(),house.getVersion(),block);
+        index.put(house.getId(),slot);
+        houseNums++;
+    }
+
+    //·削除した物件の値はHouseとして取り出してから、ブロックを空きリストへ戻す。
+    @Override
+    public House remove(int id){
+        int slot=index.remove(id);
+        if (slot==IdIndex.NOT_FOUND){
+            return null;
+        }
+        House removed=read(segments,slot).toHouse();
+        ByteBuffer segment=segment(segments,slot);
+        free(segment.getLong(offset(slot)+BLOCK));
+        segment.putInt(offset(slot)+ID,0);
+        houseNums--;
+        tombstones++;
+        while (slotNums>0&&idAt(slotNums-1)==0){
+            slotNums--;
+            tombstones--;
+        }
+        if (tombstones>=MIN_COMPACT_TOMBSTONES&&tombstones>(slotNums>>2)){
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void replace(House house){
+        int slot=index.get(house.getId());
+        if (slot!=IdIndex.NOT_FOUND){
+            rewrite(slot,house);
+        }
+    }
+
+    //·版番号は固定長のレコードから読んで比較する。
+    @Override
+    public boolean replaceIfVersion(int expectedVersion,House house){
+        int slot=index.get(house.getId());
+        if (slot==IdIndex.NOT_FOUND||segment(segments,slot).getInt(offset(slot)+VERSION)!=expectedVersion){
+            return false;
+        }
+        rewrite(slot,house);
+        return true;
+    }
+
+    @Override
+    public int size(){
+        return houseNums;
+    }
+
+    @Override
+    public int tombstones(){
+        return tombstones;
+    }
+
+    //·固定長のレコードだけを新しいバッファへ登録順に詰める。移動したレコードのみ索引を更新する。
+    @Override
+    public void compact(){
+        if (tombstones==0){
+            return;
+        }
+        ByteBuffer[] compacted=grow(new ByteBuffer[0],Math.max(houseNums,1));
+        int to=0;
+        for (int from=0;from<slotNums;from++){
+            ByteBuffer source=segment(segments,from);
+            int base=offset(from);
+            int id=source.getInt(base+ID);
+            if (id==0){
+                continue;
+            }
+            if (to!=from){
+                index.put(id,to);
+            }
+            writeRecord(compacted,to,id,source.getInt(base+VERSION),source.getLong(base+BLOCK));
+            to++;
+        }
+        segments=compacted;
+        slotNums=to;
+        tombstones=0;
+    }
+
+    @Override
+    public int slotCount(){
+        return slotNums;
+    }
+
+    @Override
+    public int capacity(){
+        return segments.length<<SEGMENT_SHIFT;
+    }
+
+    @Override
+    public House at(int slot){
+        return idAt(slot)==0?null:read(segments,slot).toHouse();
+    }
+
+    @Override
+    public int slotOf(int id){
+        return index.get(id);
+    }
+
+    //作成時点の固定長の領域と使用済みスロット数を取り込み、以降の追加は走査範囲に含めない。
+    @Override
+    public Spliterator<House> spliterator(int fromSlot){
+        return new RecordSpliterator(this,segments,Math.max(fromSlot,0),slotNums);
+    }
+
+    //·IDに対応する物件をrecordに参照させて返す。存在しない場合はnullを返す。
+    //·recordが参照できるのは、次にこの格納方式の内容を変更するまでである。
+    public HouseRecord record(int id,HouseRecord record){
+        int slot=index.get(id);
+        return slot==IdIndex.NOT_FOUND?null:wrap(segments,slot,record);
+    }
+
+    //·スロット番号に対応する物件をrecordに参照させて返す。墓標の場合はnullを返す。
+    public HouseRecord recordAt(int slot,HouseRecord record){
+        return idAt(slot)==0?null:wrap(segments,slot,record);
+    }
+
+    //ヒープ外に確保したバイト数（固定長の領域とチャンクの合計）
+    public long offHeapBytes(){
+        return (long)segments.length*SEGMENT_RECORDS*RECORD_BYTES+(long)chunks.length*CHUNK_BYTES;
+    }
+
+    //使用中のブロックのバイト数
+    public long liveBlockBytes(){
+        return liveBlockBytes;
+    }
+
+    private int idAt(int slot){
+        return segment(segments,slot).getInt(offset(slot)+ID);
+    }
+
+    //·新しいブロックへ書き込んでから古いブロックを解放する。書き込みに失敗しても元の内容は残る。
+    private void rewrite(int slot,House house){
+        long block=store(house);
+        ByteBuffer segment=segment(segments,slot);
+        int base=offset(slot);
+        long old=segment.getLong(base+BLOCK);
+        segment.putInt(base+VERSION,house.getVersion());
+        segment.putLong(base+BLOCK,block);
+        free(old);
+    }
+
+    //·houseのレコードをブロックへ書き込み、その位置を返す。
+    private long store(House house){
+        int size=DATA+HouseCodec.encodedSize(house);
+        if (size>CHUNK_BYTES){
+            throw new IllegalArgumentException("物件のデータが大きすぎます（"+size+"バイト）: ID "+house.getId());
+        }
+        int sizeClass=sizeClass(size);
+        long block=allocate(sizeClass);
+        ByteBuffer chunk=chunks[(int)(block>>>CHUNK_SHIFT)];
+        int position=(int)block&CHUNK_MASK;
+        chunk.putInt(position+SIZE_CLASS,sizeClass);
+        chunk.position(position+DATA);
+        HouseCodec.encode(house,chunk);
+        chunk.putInt(position+OWNER,house.getId());
+        liveBlockBytes+=classBytes(sizeClass);
+        return block;
+    }
+
+    private long allocate(int sizeClass){
+        long head=freeHeads[sizeClass];
+        if (head!=NONE){
+            freeHeads[sizeClass]=chunks[(int)(head>>>CHUNK_SHIFT)].getLong(((int)head&CHUNK_MASK)+NEXT_FREE);
+            return head;
+        }
+        int bytes=classBytes(sizeClass);
+        if (chunkTop+bytes>CHUNK_BYTES){
+            chunks=Arrays.copyOf(chunks,chunks.length+1);
+            chunks[chunks.length-1]=ByteBuffer.allocateDirect(CHUNK_BYTES);
+            chunkTop=0;
+        }
+        long block=((long)(chunks.length-1)<<CHUNK_SHIFT)|chunkTop;
+        chunkTop+=bytes;
+        return block;
+    }
+
+    private void free(long block){
+        ByteBuffer chunk=chunks[(int)(block>>>CHUNK_SHIFT)];
+        int position=(int)block&CHUNK_MASK;
+        int sizeClass=chunk.getInt(position+SIZE_CLASS);
+        chunk.putInt(position+OWNER,0);
+        chunk.putLong(position+NEXT_FREE,freeHeads[sizeClass]);
+        freeHeads[sizeClass]=block;
+        liveBlockBytes-=classBytes(sizeClass);
+    }
+
+    //·ブロックのバイト数sizeに対応するサイズ区分を返す。
+    private static int sizeClass(int size){
+        size=Math.max(size,MIN_BLOCK);
+        if (size<=SMALL_LIMIT){
+            return (size-1)>>>3;
+        }
+        return SMALL_CLASSES+(32-Integer.numberOfLeadingZeros(size-1))-Integer.numberOfTrailingZeros(SMALL_LIMIT)-1;
+    }
+
+    private static int classBytes(int sizeClass){
+        if (sizeClass<SMALL_CLASSES){
+            return (sizeClass+1)<<3;
+        }
+        return SMALL_LIMIT<<(sizeClass-SMALL_CLASSES+1);
+    }
+
+    private HouseRecord read(ByteBuffer[] segments,int slot){
+        return wrap(segments,slot,reader);
+    }
+
+    private HouseRecord wrap(ByteBuffer[] segments,int slot,HouseRecord record){
+        long block=segment(segments,slot).getLong(offset(slot)+BLOCK);
+        return record.wrap(chunks[(int)(block>>>CHUNK_SHIFT)],((int)block&CHUNK_MASK)+DATA);
+    }
+
+    //·詰め直し前の固定長の領域から読んだブロックが、今もそのIDの物件のものであるかを返す。
+    private boolean owns(long block,int id){
+        return chunks[(int)(block>>>CHUNK_SHIFT)].getInt(((int)block&CHUNK_MASK)+OWNER)==id;
+    }
+
+    private static void writeRecord(ByteBuffer[] segments,int slot,int id,int version,long block){
+        ByteBuffer segment=segment(segments,slot);
+        int base=offset(slot);
+        segment.putInt(base+VERSION,version);
+        segment.putLong(base+BLOCK,block);
+        segment.putInt(base+ID,id);
+    }
+
+    private static ByteBuffer segment(ByteBuffer[] segments,int slot){
+        return segments[slot>>>SEGMENT_SHIFT];
+    }
+
+    private static int offset(int slot){
+        return (slot&SEGMENT_MASK)*RECORD_BYTES;
+    }
+
+    //·slots件を保持できるまで固定長の領域のバッファを追加する。既存のバッファはそのまま使う。
+    private static ByteBuffer[] grow(ByteBuffer[] segments,int slots){
+        int needed=(int)(((long)slots+SEGMENT_MASK)>>>SEGMENT_SHIFT);
+        if (needed<=segments.length){
+            return segments;
+        }
+        ByteBuffer[] grown=Arrays.copyOf(segments,needed);
+        for (int i=segments.length;i<needed;i++){
+            grown[i]=ByteBuffer.allocateDirect(SEGMENT_RECORDS*RECORD_BYTES);
+        }
+        return grown;
+    }
+
+    //·固定長の領域の指定範囲を順に読むSpliterator。墓標（IDが0）は読み飛ばす。
+    private static final class RecordSpliterator implements Spliterator<House>{
+        private static final int MIN_SPLIT=1<<10;
+
+        private final OffHeapHouseStorage storage;
+        private final ByteBuffer[] segments;
+        private final HouseRecord record=new HouseRecord();
+        private int index;
+        private final int fence;
+
+        RecordSpliterator(OffHeapHouseStorage storage,ByteBuffer[] segments,int index,int fence){
+            this.storage=storage;
+            this.segments=segments;
+            this.index=index;
+            this.fence=fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super House> action){
+            while (index<fence){
+                int slot=index++;
+                ByteBuffer segment=segment(segments,slot);
+                int id=segment.getInt(offset(slot)+ID);
+                if (id==0){
+                    continue;
+                }
+                House house;
+                if (storage.owns(segment.getLong(offset(slot)+BLOCK),id)){
+                    house=storage.wrap(segments,slot,record).toHouse();
+                }else{
+                    house=storage.get(id);
+                    if (house==null){
+                        continue;
+                    }
+                }
+                action.accept(house);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<House> trySplit(){
+            int low=index;
+            int mid=(low+fence)>>>1;
+            if (mid-low<MIN_SPLIT){
+                return null;
+            }
+            index=mid;
+            return new RecordSpliterator(storage,segments,low,mid);
+        }
+
+        //墓標を含む上限値である。
+        @Override
+        public long estimateSize(){
+            return fence-index;
+        }
+
+        @Override
+        public int characteristics(){
+            return ORDERED|NONNULL;
+        }
+    }
+}
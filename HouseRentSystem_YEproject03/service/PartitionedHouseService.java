@@ -0,0 +1,684 @@
+package HouseRentSystem_YEproject03.service;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseMetrics.Operation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ *【Service層・分割】
+ *物件を区（または物件ID）ごとに複数の区画へ分け、区画ごとに独立した格納先・索引・ロックを持たせるHouseService。
+ *
+ *【設計意図】
+ *·ConcurrentHouseServiceは1つの配列と1つのStampedLockを全物件で共有するため、別々の区の物件を同時に追加しても書き込みロックで直列化される。
+ *·各区画をそれぞれ1つのConcurrentHouseServiceとし、異なる区画への追加・削除・修正が互いに待たないようにする。
+ *·一覧・件数・検索などの全区画にまたがる処理は、区画を半分ずつに分けてフォーク／ジョインのプールで並行に実行し、結果を併合する。
+ *
+ *【区画の決め方】
+ *·WARD：物件の区（House.getWard()）ごとに区画を割り当てる。初めて現れた区から順に区画を巡回して割り当てるため、区画数が区の数より少ない場合は複数の区が同じ区画に入る。
+ *·ID：区画を順番に巡回して割り当てる。物件IDの剰余で区画が決まる。
+ *·どちらの場合も、物件IDは区画ごとの連番を区画数おきに並べた値（(区画内の連番-1)×区画数＋区画番号＋1）とする。
+ * IDから区画が計算で求まるため、findByIdは1つの区画だけを引けばよく、IDから区画への対応表を持つ必要がない。
+ *·修正で区が変わった物件は、登録時の区画に置いたままとする（建物の区が変わるのは入力誤りの訂正に限られるため）。
+ *
+ *【並び順】
+ *·list・page・pageAfterは全区画の結果をIDの昇順に併合して返す。区画内ではIDの採番と追加を区画ごとのロックのもとで行うため、登録順とIDの順が一致する。
+ *·findは各区画の結果を集めて、家賃範囲の指定か条件なしの場合は家賃順、それ以外はID順に並べ直す。searchは検索語の一致度順に並べ直す。
+ *·stream・spliteratorは区画ごとに順に走査する。全体としてはIDの順にならない。並列ストリームでは区画単位で各スレッドに分担させる。
+ *
+ *【設計上の取捨】
+ *·WARDの場合、区ごとに採番が進むためIDは全体としては連続しない。idCounter()は採番済みの最大のIDを返す。
+ *·保存データから復元した物件は、IDから求まる区画へ置く。区画数や分け方を変えて復元した場合、区ごとのまとまりは失われるが、検索結果は変わらない。
+ *·二次索引と全文索引の一部はIDを添字とする配列であるため、区画ごとにIDの最大値に比例した領域を持つ。
+ *·変更通知のリスナー（永続化・HouseEventBus・複製など）は全区画へ登録し、各区画の書き込みロックのもとで区画ごとに呼ぶ。
+ * 異なる区画への追加・削除・修正は通知も含めて並行して進むため、リスナーは複数のスレッドから同時に呼ばれてもよいように作る
+ * （HouseJournalとHouseEventBusは通し番号を全区画で共通に割り当てる）。同じ物件の変更は常に同じ区画のロックのもとで通知されるため、物件ごとの順序は保たれる。
+ *·リスナーの中から全区画を読む処理を呼ぶと、別の区画で書き込み中（通知中）のスレッドとロックを待ち合うことがあるため、リスナーの中では全区画を読まない。
+ * 永続化のスナップショットは、書き出し用のスレッドでexclusive（全区画の書き込みロック）のもとで作成する。
+ *·リスナーの登録は区画ごとに順に行われるため、書き込みを始める前に行う。
+ *·CPUが1つの環境では並行に実行しても速くならないため、また書き込みロックを保持しているスレッド（exclusiveの中など）から全区画を読む処理が呼ばれた場合は
+ * その区画を自スレッドで読む必要があるため、プールを使わずに呼び出し元のスレッドで順に実行する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class PartitionedHouseService extends HouseService{
+    //区画の決め方。
+    public enum Partitioning{
+        WARD,
+        ID
+    }
+
+    private static final Comparator<House> BY_ID=Comparator.comparingInt(House::getId);
+    //CPUが1つの場合は並行に実行しても速くならないため、常に呼び出し元のスレッドで順に実行する。
+    private static final boolean PARALLEL=Runtime.getRuntime().availableProcessors()>1;
+    private static final Comparator<House> BY_RENT=Comparator.comparingInt(House::getRent).thenComparingInt(House::getId);
+
+    private final Partitioning partitioning;
+    private final ConcurrentHouseService[] shards;
+    //区画ごとの採番済みの連番。採番と追加はaddLocksのもとで行う。
+    private final AtomicInteger[] counters;
+    private final ReentrantLock[] addLocks;
+    //区→区画番号
+    private final ConcurrentHashMap<String,Integer> wardShards=new ConcurrentHashMap<>();
+    //次に割り当てる区画（巡回用）
+    private final AtomicInteger nextShard=new AtomicInteger();
+    private final HouseMetrics metrics;
+
+    public PartitionedHouseService(Partitioning partitioning,int shardCount,int size){
+        this(partitioning,shardCount,size,true);
+    }
+
+    //·sizeは全体の初期容量であり、区画数で等分して各区画の初期容量とする。
+    public PartitionedHouseService(Partitioning partitioning,int shardCount,int size,boolean withSample){
+        super(new ObjectHouseStorage(1),false);
+        if (shardCount<1){
+            throw new IllegalArgumentException("区画数は1以上である必要があります: "+shardCount);
+        }
+        this.partitioning=partitioning;
+        this.metrics=metrics();
+        shards=new ConcurrentHouseService[shardCount];
+        counters=new AtomicInteger[shardCount];
+        addLocks=new ReentrantLock[shardCount];
+        for (int i=0;i<shardCount;i++){
+            shards[i]=new ConcurrentHouseService(Math.max(size/shardCount,1),false);
+            shards[i].metrics().setEnabled(false);
+            counters[i]=new AtomicInteger();
+            addLocks[i]=new ReentrantLock();
+        }
+        if (withSample){
+            add(new House(0,"jack","020554588","墨田区",72000, "未賃貸"));
+        }
+    }
+
+    public Partitioning partitioning(){
+        return partitioning;
+    }
+
+    public int shardCount(){
+        return shards.length;
+    }
+
+    //区画ごとの件数を返す。
+    public int[] shardSizes(){
+        int[] sizes=new int[shards.length];
+        for (int i=0;i<shards.length;i++){
+            sizes[i]=shards[i].size();
+        }
+        return sizes;
+    }
+
+    //·リスナーは全区画へ登録する。親クラスの初期化中に呼ばれる登録（使用しない自身の二次索引）だけは親クラスに任せる。
+    @Override
+    public synchronized void addListener(HouseChangeListener listener){
+        if (shards==null){
+            super.addListener(listener);
+            return;
+        }
+        for (ConcurrentHouseService shard:shards){
+            shard.addListener(listener);
+        }
+    }
+
+    @Override
+    public synchronized void removeListener(HouseChangeListener listener){
+        for (ConcurrentHouseService shard:shards){
+            shard.removeListener(listener);
+        }
+    }
+
+    //全区画に同じリスナーを登録しているため、先頭の区画のリスナーで待機すればよい。
+    @Override
+    public void awaitCommitted() throws IOException{
+        shards[0].awaitCommitted();
+    }
+
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
+
+    //·全区画の書き込みロックを区画の番号順に取ってから実行する。取る順序を揃えているため、同時に呼ばれても互いに待ち続けることはない。
+    @Override
+    public <T> T exclusive(Supplier<T> action){
+        return exclusive(0,action);
+    }
+
+    private <T> T exclusive(int from,Supplier<T> action){
+        return from==shards.length?action.get():shards[from].exclusive(()->exclusive(from+1,action));
+    }
+
+    //IDから区画を求めて、その区画だけを引く。
+    @Override
+    public House findById(int findId){
+        long start=metrics.start(Operation.FIND_BY_ID);
+        House house=findId>0?shards[shardOf(findId)].findById(findId):null;
+        metrics.stop(Operation.FIND_BY_ID,start);
+        return house;
+    }
+
+    //·区画を決めてから、その区画のロックのもとで採番と追加を行う。他の区画への追加とは待ち合わせない。
+    @Override
+    public House add(House newHouses){
+        long start=metrics.start(Operation.ADD);
+        try{
+            return insert(route(newHouses),newHouses);
+        }finally{
+            metrics.stop(Operation.ADD,start);
+        }
+    }
+
+    //·物件を区画ごとに分け、区画ごとの追加を並行して行う。IDは区画ごとの連番となり、配列の順に連続した値にはならない。
+    @Override
+    public void addAll(House[] newHouses){
+        long start=metrics.start(Operation.ADD_ALL);
+        try{
+            int[] targets=new int[newHouses.length];
+            int[] counts=new int[shards.length];
+            for (int i=0;i<newHouses.length;i++){
+                targets[i]=route(newHouses[i]);
+                counts[targets[i]]++;
+            }
+            //区画ごとに配列の位置をまとめ、格納した物件で同じ位置を置き換える。各位置を書き換えるのは1つの区画の処理だけである。
+            int[][] grouped=new int[shards.length][];
+            for (int s=0;s<shards.length;s++){
+                grouped[s]=new int[counts[s]];
+                counts[s]=0;
+            }
+            for (int i=0;i<newHouses.length;i++){
+                grouped[targets[i]][counts[targets[i]]++]=i;
+            }
+            fanOut(s->{
+                for (int i:grouped[s]){
+                    newHouses[i]=insert(s,newHouses[i]);
+                }
+                return 0;
+            },Integer::sum);
+        }finally{
+            metrics.stop(Operation.ADD_ALL,start);
+        }
+    }
+
+    @Override
+    public boolean del(int delId){
+        long start=metrics.start(Operation.DELETE);
+        try{
+            return delId>0&&shards[shardOf(delId)].del(delId);
+        }finally{
+            metrics.stop(Operation.DELETE,start);
+        }
+    }
+
+    @Override
+    public boolean update(int id,String name,String phone,String address,int rent,String state){
+        long start=metrics.start(Operation.UPDATE);
+        try{
+            return id>0&&shards[shardOf(id)].update(id,name,phone,address,rent,state);
+        }finally{
+            metrics.stop(Operation.UPDATE,start);
+        }
+    }
+
+    @Override
+    public UpdateResult update(int id,int expectedVersion,HouseChanges changes){
+        long start=metrics.start(Operation.UPDATE);
+        try{
+            if (id<=0){
+                return UpdateResult.NOT_FOUND;
+            }
+            return shards[shardOf(id)].update(id,expectedVersion,changes);
+        }finally{
+            metrics.stop(Operation.UPDATE,start);
+        }
+    }
+
+    //·IDから求まる区画へ復元し、その区画の連番をIDの位置まで進める。
+    @Override
+    public void restore(House house){
+        int id=house.getId();
+        int shard=shardOf(id);
+        ReentrantLock lock=addLocks[shard];
+        lock.lock();
+        try{
+            counters[shard].accumulateAndGet((id-1)/shards.length+1,Math::max);
+            shards[shard].restore(house);
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    //·各区画の結果（それぞれ最大limit件）を集め、並び順の指定があればその順、無ければ家賃範囲の指定か条件なしの場合は家賃順、
+    // それ以外はID順に並べて先頭limit件を返す。前のページの最後の物件（HouseQuery.after）は各区画にそのまま渡す。
+    //·区画ごとに索引の使い方（家賃索引とビットマップのどちらを走査するか）が異なり得るため、区画の結果の並びには頼らずに並べ直す。
+    @Override
+    public House[] find(HouseQuery query){
+        long start=metrics.start(Operation.QUERY);
+        try{
+            Comparator<House> order=orderOf(query);
+            House[] hits=fanOut(s->shards[s].find(query),PartitionedHouseService::concat);
+            Arrays.sort(hits,order);
+            return hits.length>query.limit()?Arrays.copyOf(hits,query.limit()):hits;
+        }finally{
+            metrics.stop(Operation.QUERY,start);
+        }
+    }
+
+    private static Comparator<House> orderOf(HouseQuery query){
+        if (query.order()==HouseQuery.Order.ID){
+            return BY_ID;
+        }else if (query.order()==HouseQuery.Order.RENT_ASC){
+            return BY_RENT;
+        }else if (query.order()==HouseQuery.Order.RENT_DESC){
+            return BY_RENT.reversed();
+        }
+        return query.hasRentRange()||(query.state()==null&&query.ward()==null)?BY_RENT:BY_ID;
+    }
+
+    //·各区画の上位limit件を集め、実際の文字列から求めた順位で並べ直して上位limit件を返す。
+    @Override
+    public House[] search(String query,int limit){
+        long start=metrics.start(Operation.SEARCH);
+        try{
+            House[] hits=fanOut(s->shards[s].search(query,limit),PartitionedHouseService::concat);
+            long[] ranks=new long[hits.length];
+            Integer[] order=new Integer[hits.length];
+            for (int i=0;i<hits.length;i++){
+                ranks[i]=HouseTextIndex.rank(query,hits[i]);
+                order[i]=i;
+            }
+            Arrays.sort(order,(a,b)->ranks[a]!=ranks[b]?Long.compare(ranks[b],ranks[a]):Integer.compare(hits[a].getId(),hits[b].getId()));
+            House[] result=new House[Math.min(Math.max(limit,0),hits.length)];
+            for (int i=0;i<result.length;i++){
+                result[i]=hits[order[i]];
+            }
+            return result;
+        }finally{
+            metrics.stop(Operation.SEARCH,start);
+        }
+    }
+
+    //全区画の全文索引を並行して作成する。
+    @Override
+    public void enableTextSearch(){
+        if (!isTextSearchEnabled()){
+            fanOut(s->{
+                shards[s].enableTextSearch();
+                return 0;
+            },Integer::sum);
+        }
+    }
+
+    @Override
+    public boolean isTextSearchEnabled(){
+        for (ConcurrentHouseService shard:shards){
+            if (!shard.isTextSearchEnabled()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //·区画ごとの集計を並行して求めて合わせる。処理時間は区画数×家賃の目盛りの数に比例し、件数には依らない。
+    @Override
+    public RentSummary rentSummary(){
+        return fanOut(s->shards[s].rentSummary(),RentSummary::merge);
+    }
+
+    @Override
+    public void enableStatistics(){
+        if (!isStatisticsEnabled()){
+            fanOut(s->{
+                shards[s].enableStatistics();
+                return 0;
+            },Integer::sum);
+        }
+    }
+
+    @Override
+    public boolean isStatisticsEnabled(){
+        for (ConcurrentHouseService shard:shards){
+            if (!shard.isStatisticsEnabled()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void compact(){
+        fanOut(s->{
+            shards[s].compact();
+            return 0;
+        },Integer::sum);
+    }
+
+    @Override
+    public int size(){
+        int total=0;
+        for (ConcurrentHouseService shard:shards){
+            total+=shard.size();
+        }
+        return total;
+    }
+
+    @Override
+    public int capacity(){
+        int total=0;
+        for (ConcurrentHouseService shard:shards){
+            total+=shard.capacity();
+        }
+        return total;
+    }
+
+    @Override
+    public int tombstones(){
+        int total=0;
+        for (ConcurrentHouseService shard:shards){
+            total+=shard.tombstones();
+        }
+        return total;
+    }
+
+    //採番済みの最大のIDを返す。
+    @Override
+    public int idCounter(){
+        int max=0;
+        for (int s=0;s<shards.length;s++){
+            int local=counters[s].get();
+            if (local>0){
+                max=Math.max(max,(local-1)*shards.length+s+1);
+            }
+        }
+        return max;
+    }
+
+    //·atLeast以下のIDをどの区画でも再び採番しないよう、各区画の連番を進める。
+    @Override
+    public void advanceIdCounter(int atLeast){
+        for (int s=0;s<shards.length;s++){
+            if (atLeast>s){
+                counters[s].accumulateAndGet((atLeast-s-1)/shards.length+1,Math::max);
+            }
+        }
+    }
+
+    @Override
+    public House[] list(){
+        long start=metrics.start(Operation.LIST);
+        try{
+            return fanOut(s->new IdRun(shards[s].list()),(a,b)->a.merge(b,Integer.MAX_VALUE)).houses;
+        }finally{
+            metrics.stop(Operation.LIST,start);
+        }
+    }
+
+    //各区画はObjectHouseStorageで格納しておりビューを返さないため、list()の結果がそのまま切り離された物件になる。
+    @Override
+    public House[] listDetached(){
+        return list();
+    }
+
+    //·各区画の走査をIDの小さい順に1件ずつ取り出して併合し、先頭offset件を読み飛ばす。
+    @Override
+    public House[] page(int offset,int limit){
+        long start=metrics.start(Operation.PAGE);
+        try{
+            PriorityQueue<ShardCursor> queue=new PriorityQueue<>(shards.length,(a,b)->Integer.compare(a.head.getId(),b.head.getId()));
+            for (ConcurrentHouseService shard:shards){
+                ShardCursor cursor=new ShardCursor(shard.spliterator());
+                if (cursor.advance()){
+                    queue.add(cursor);
+                }
+            }
+            House[] result=new House[Math.max(0,Math.min(limit,1024))];
+            int size=0;
+            long skipped=0;
+            while (size<limit&&!queue.isEmpty()){
+                ShardCursor cursor=queue.poll();
+                if (skipped<offset){
+                    skipped++;
+                }else{
+                    if (size==result.length){
+                        result=Arrays.copyOf(result,Math.max(4,size<<1));
+                    }
+                    result[size++]=cursor.head;
+                }
+                if (cursor.advance()){
+                    queue.add(cursor);
+                }
+            }
+            return size==result.length?result:Arrays.copyOf(result,size);
+        }finally{
+            metrics.stop(Operation.PAGE,start);
+        }
+    }
+
+    //·各区画からlastIdより後ろの最大limit件を取り、IDの順に併合して先頭limit件を返す。
+    @Override
+    public House[] pageAfter(int lastId,int limit){
+        long start=metrics.start(Operation.PAGE);
+        try{
+            return fanOut(s->new IdRun(shards[s].pageAfter(lastId,limit)),(a,b)->a.merge(b,limit)).houses;
+        }finally{
+            metrics.stop(Operation.PAGE,start);
+        }
+    }
+
+    //·区画ごとのSpliteratorを順につなげて走査する。分割は区画の単位で行い、区画が1つになった後は区画内の分割に任せる。
+    @Override
+    public Spliterator<House> spliterator(){
+        List<Spliterator<House>> parts=new ArrayList<>(shards.length);
+        for (ConcurrentHouseService shard:shards){
+            parts.add(shard.spliterator());
+        }
+        return new ShardSpliterator(parts,0,parts.size());
+    }
+
+    private int shardOf(int id){
+        return (id-1)%shards.length;
+    }
+
+    private int route(House house){
+        if (partitioning==Partitioning.WARD){
+            String ward=house.getWard();
+            return wardShards.computeIfAbsent(ward==null?"":ward,k->Math.floorMod(nextShard.getAndIncrement(),shards.length));
+        }
+        return Math.floorMod(nextShard.getAndIncrement(),shards.length);
+    }
+
+    //·区画のロックのもとで採番し、IDを付けた新しいHouseを追加して返す。区画内では登録順とIDの順が一致する。
+    private House insert(int shard,House house){
+        ReentrantLock lock=addLocks[shard];
+        lock.lock();
+        try{
+            House stored=house.withId((counters[shard].incrementAndGet()-1)*shards.length+shard+1);
+            shards[shard].restore(stored);
+            return stored;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    //·区画ごとの処理をフォーク／ジョインのプールで並行に実行し、結果を併合する。
+    //·自スレッドが区画の書き込みロックを保持している場合（exclusiveの中など）は、プールを使わずに順に実行する。
+    private <T> T fanOut(Function<Integer,T> action,BinaryOperator<T> merge){
+        boolean parallel=PARALLEL&&shards.length>1;
+        for (int i=0;parallel&&i<shards.length;i++){
+            parallel=!shards[i].isWriteLockedByCurrentThread();
+        }
+        FanOut<T> task=new FanOut<>(action,merge,0,shards.length,parallel);
+        return parallel?ForkJoinPool.commonPool().invoke(task):task.compute();
+    }
+
+    private static House[] concat(House[] a,House[] b){
+        House[] result=Arrays.copyOf(a,a.length+b.length);
+        System.arraycopy(b,0,result,a.length,b.length);
+        return result;
+    }
+
+    //·区画の範囲[from,to)を半分に分け、片方をフォークしてもう片方を自スレッドで処理する。
+    private static final class FanOut<T> extends RecursiveTask<T>{
+        private static final long serialVersionUID=1L;
+
+        private final Function<Integer,T> action;
+        private final BinaryOperator<T> merge;
+        private final int from;
+        private final int to;
+        private final boolean parallel;
+
+        FanOut(Function<Integer,T> action,BinaryOperator<T> merge,int from,int to,boolean parallel){
+            this.action=action;
+            this.merge=merge;
+            this.from=from;
+            this.to=to;
+            this.parallel=parallel;
+        }
+
+        @Override
+        protected T compute(){
+            if (to-from==1){
+                return action.apply(from);
+            }
+            int mid=(from+to)>>>1;
+            FanOut<T> left=new FanOut<>(action,merge,from,mid,parallel);
+            FanOut<T> right=new FanOut<>(action,merge,mid,to,parallel);
+            if (!parallel){
+                return merge.apply(left.compute(),right.compute());
+            }
+            left.fork();
+            T r=right.compute();
+            return merge.apply(left.join(),r);
+        }
+    }
+
+    //·IDの昇順に並んだ物件と、そのIDの配列の組。
+    //·併合のたびに物件を参照してIDを読むと、100万件規模では物件ごとのキャッシュミスが併合の段数分だけ発生するため、IDは区画ごとに1回だけ読んでおく。
+    private static final class IdRun{
+        final House[] houses;
+        final int[] ids;
+
+        IdRun(House[] houses){
+            this.houses=houses;
+            this.ids=new int[houses.length];
+            for (int i=0;i<houses.length;i++){
+                ids[i]=houses[i].getId();
+            }
+        }
+
+        IdRun(House[] houses,int[] ids){
+            this.houses=houses;
+            this.ids=ids;
+        }
+
+        //2つの並びを併合し、先頭limit件を返す。
+        IdRun merge(IdRun other,int limit){
+            int n=(int)Math.min((long)ids.length+other.ids.length,limit);
+            House[] mergedHouses=new House[n];
+            int[] mergedIds=new int[n];
+            int i=0;
+            int j=0;
+            for (int k=0;k<n;k++){
+                if (j>=other.ids.length||(i<ids.length&&ids[i]<other.ids[j])){
+                    mergedIds[k]=ids[i];
+                    mergedHouses[k]=houses[i++];
+                }else{
+                    mergedIds[k]=other.ids[j];
+                    mergedHouses[k]=other.houses[j++];
+                }
+            }
+            return new IdRun(mergedHouses,mergedIds);
+        }
+    }
+
+    //page()の併合で、区画ごとの走査位置と先頭の物件を保持する。
+    private static final class ShardCursor implements Consumer<House>{
+        private final Spliterator<House> spliterator;
+        House head;
+
+        ShardCursor(Spliterator<House> spliterator){
+            this.spliterator=spliterator;
+        }
+
+        boolean advance(){
+            return spliterator.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(House house){
+            head=house;
+        }
+    }
+
+    private static final class ShardSpliterator implements Spliterator<House>{
+        private final List<Spliterator<House>> parts;
+        private int from;
+        private final int to;
+
+        ShardSpliterator(List<Spliterator<House>> parts,int from,int to){
+            this.parts=parts;
+            this.from=from;
+            this.to=to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super House> action){
+            while (from<to){
+                if (parts.get(from).tryAdvance(action)){
+                    return true;
+                }
+                from++;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super House> action){
+            for (;from<to;from++){
+                parts.get(from).forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<House> trySplit(){
+            if (to-from>1){
+                int mid=(from+to)>>>1;
+                ShardSpliterator prefix=new ShardSpliterator(parts,from,mid);
+                from=mid;
+                return prefix;
+            }
+            return from<to?parts.get(from).trySplit():null;
+        }
+
+        //墓標を含む上限値である。
+        @Override
+        public long estimateSize(){
+            long total=0;
+            for (int i=from;i<to;i++){
+                total+=parts.get(i).estimateSize();
+            }
+            return total;
+        }
+
+        @Override
+        public int characteristics(){
+            return NONNULL;
+        }
+    }
+}
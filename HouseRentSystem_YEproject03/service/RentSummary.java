@@ -0,0 +1,176 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *【Service層・集計】
+ *ある時点の物件の件数・空室率・家賃の平均・最低・最高・中央値をまとめた、変更されない集計結果。
+ *
+ *【設計意図】
+ *·HouseStatisticsが変更のたびに更新している集計値を写し取ったもので、参照時に物件を1件も読まずに各値を求められる。
+ *·家賃の分布は、LatencyHistogramと同じく「2の累乗ごとの区間を等分した目盛り」の件数で持つ。目盛りは128等分とし、目盛りの幅は値の1/128以下である。
+ * 目盛りごとに件数に加えて家賃の合計も持ち、最低・最高・中央値はその目盛りに入っている家賃の平均で表す。
+ *
+ *【設計上の取捨】
+ *·件数・空室数・家賃の合計と平均は正確な値である。
+ *·最低・最高・中央値などのパーセンタイル値は、目盛りの中の家賃がすべて同じ場合（72,000円のような切りの良い家賃ではほとんどの場合）は正確な値、
+ * そうでない場合は目盛りの中の平均であり、誤差は最大で値の約0.8%（1/128）である。
+ *·区ごとの集計（wards）は全体の集計にだけ付け、区ごとの集計の中には持たない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public final class RentSummary{
+    //2の累乗ごとの区間を2^SUB_BITS個の目盛りに分ける。下位の256個（0～255円）は1円単位である。
+    private static final int SUB_BITS=7;
+    private static final int SUB_COUNT=1<<SUB_BITS;
+    private static final int LINEAR=SUB_COUNT<<1;
+    private static final int[] NO_COUNTS=new int[0];
+    private static final long[] NO_SUMS=new long[0];
+
+    private final int count;
+    private final int vacant;
+    private final long rentSum;
+    //目盛りの番号offsetから順の、目盛りごとの件数と家賃の合計。
+    private final int offset;
+    private final int[] counts;
+    private final long[] sums;
+    private final Map<String,RentSummary> wards;
+
+    RentSummary(int count,int vacant,long rentSum,int offset,int[] counts,long[] sums,Map<String,RentSummary> wards){
+        this.count=count;
+        this.vacant=vacant;
+        this.rentSum=rentSum;
+        //·件数が0の目盛りを両端から取り除いて保持する。
+        int from=0;
+        int to=counts.length;
+        while (from<to&&counts[from]==0){
+            from++;
+        }
+        while (to>from&&counts[to-1]==0){
+            to--;
+        }
+        this.offset=offset+from;
+        this.counts=from==to?NO_COUNTS:Arrays.copyOfRange(counts,from,to);
+        this.sums=from==to?NO_SUMS:Arrays.copyOfRange(sums,from,to);
+        this.wards=wards==null?Collections.emptyMap():Collections.unmodifiableMap(wards);
+    }
+
+    //物件が1件も無い場合の集計。
+    static RentSummary empty(){
+        return new RentSummary(0,0,0,0,NO_COUNTS,NO_SUMS,null);
+    }
+
+    public int count(){
+        return count;
+    }
+
+    //状態が「未賃貸」の件数
+    public int vacantCount(){
+        return vacant;
+    }
+
+    //空室率（0～1）。物件が無い場合は0を返す。
+    public double vacancyRate(){
+        return count==0?0:(double)vacant/count;
+    }
+
+    public long totalRent(){
+        return rentSum;
+    }
+
+    //家賃の平均。物件が無い場合は0を返す。
+    public double averageRent(){
+        return count==0?0:(double)rentSum/count;
+    }
+
+    public int minRent(){
+        return counts.length==0?0:mean(0);
+    }
+
+    public int maxRent(){
+        return counts.length==0?0:mean(counts.length-1);
+    }
+
+    public int medianRent(){
+        return percentileRent(0.5);
+    }
+
+    //·家賃の低い方から割合p（0～1）の位置にある家賃を返す。物件が無い場合は0を返す。
+    public int percentileRent(double p){
+        if (counts.length==0){
+            return 0;
+        }
+        long total=0;
+        for (int c:counts){
+            total+=c;
+        }
+        long rank=Math.max(1,(long)Math.ceil(Math.min(Math.max(p,0),1)*total));
+        long seen=0;
+        for (int i=0;i<counts.length;i++){
+            seen+=counts[i];
+            if (seen>=rank){
+                return mean(i);
+            }
+        }
+        return maxRent();
+    }
+
+    //·区ごとの集計（区の名前順）。住所に「区」を含まない物件は全体の集計にだけ含まれる。
+    public Map<String,RentSummary> wards(){
+        return wards;
+    }
+
+    //·2つの集計を合わせた集計を返す。区画ごとに集計しているPartitionedHouseServiceで使う。
+    RentSummary merge(RentSummary other){
+        Map<String,RentSummary> mergedWards=null;
+        if (!wards.isEmpty()||!other.wards.isEmpty()){
+            mergedWards=new TreeMap<>(wards);
+            for (Map.Entry<String,RentSummary> entry:other.wards.entrySet()){
+                mergedWards.merge(entry.getKey(),entry.getValue(),RentSummary::merge);
+            }
+        }
+        if (counts.length==0||other.counts.length==0){
+            RentSummary source=counts.length==0?other:this;
+            return new RentSummary(count+other.count,vacant+other.vacant,rentSum+other.rentSum,source.offset,source.counts,source.sums,mergedWards);
+        }
+        int from=Math.min(offset,other.offset);
+        int to=Math.max(offset+counts.length,other.offset+other.counts.length);
+        int[] mergedCounts=new int[to-from];
+        long[] mergedSums=new long[to-from];
+        for (RentSummary part:new RentSummary[]{this,other}){
+            for (int i=0;i<part.counts.length;i++){
+                mergedCounts[part.offset-from+i]+=part.counts[i];
+                mergedSums[part.offset-from+i]+=part.sums[i];
+            }
+        }
+        return new RentSummary(count+other.count,vacant+other.vacant,rentSum+other.rentSum,from,mergedCounts,mergedSums,mergedWards);
+    }
+
+    @Override
+    public String toString(){
+        return count+"件、空室率 "+String.format("%.1f",vacancyRate()*100)+"%、平均 "+String.format("%,.0f",averageRent())
+                +"円、中央値 "+String.format("%,d",medianRent())+"円、最低 "+String.format("%,d",minRent())+"円、最高 "+String.format("%,d",maxRent())+"円";
+    }
+
+    //·家賃の上位SUB_BITS+1ビットで目盛りを決める。256未満（負の値は0として扱う）はそのまま目盛りの番号とする。
+    static int bucket(int rent){
+        int value=Math.max(rent,0);
+        if (value<LINEAR){
+            return value;
+        }
+        int shift=31-Integer.numberOfLeadingZeros(value)-SUB_BITS;
+        int top=value>>>shift;
+        return LINEAR+(shift-1)*SUB_COUNT+(top-SUB_COUNT);
+    }
+
+    //目盛りに入っている家賃の平均（四捨五入）
+    private int mean(int i){
+        return (int)Math.round((double)sums[i]/counts[i]);
+    }
+}
@@ -0,0 +1,236 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ *【Service層・索引】
+ *long値を昇順に保持する集合。家賃索引のように「範囲を順に取り出す」用途のために使用する。
+ *
+ *【設計意図】
+ *·TreeSet<Long>では1件ごとにノードとLongオブジェクトが生成され、数百万件規模では1件あたり数十バイトを消費する。
+ *·値を一定数（512件）ずつの整列済みlong配列（チャンク）に分けて保持し、1件あたり約8バイトで済むようにしている。
+ *
+ *【責務範囲】
+ *·値の追加・削除（O(log n + チャンク長)）。
+ *·指定範囲の値を昇順・降順に走査する処理。
+ *·指定範囲に含まれる件数の計算（O(log n)）。
+ *
+ *【設計上の取捨】
+ *·チャンクが満杯になったら半分に分割し、空になったら取り除く。B+木の葉だけを並べた単純な構造である。
+ *·チャンクの探索は各チャンクの先頭値に対する二分探索で行う。
+ *·チャンクごとの件数の累積和はフェンウィック木で保持し、件数の計算がチャンク数に比例しないようにしている。
+ * チャンクの分割・削除で位置がずれた場合は作り直しが必要になるが、分割・削除自体が配列の移動でチャンク数に比例するため、次に件数を求めるときにまとめて作り直す。
+ *·スレッドセーフではない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class SortedLongSet{
+    private static final int CHUNK=512;
+
+    private long[][] chunks=new long[][]{new long[CHUNK]};
+    private int[] sizes=new int[1];
+    private int chunkCount=1;
+    private int size;
+    //チャンクごとの件数のフェンウィック木（1始まり）。treeStaleがtrueの間は内容が古く、prefix()の前に作り直す。
+    private int[] tree=new int[2];
+    private boolean treeStale;
+
+    public int size(){
+        return size;
+    }
+
+    //値を追加する。既に含まれている場合はfalseを返す。
+    public boolean add(long key){
+        int c=chunkFor(key);
+        long[] chunk=chunks[c];
+        int n=sizes[c];
+        int pos=Arrays.binarySearch(chunk,0,n,key);
+        if (pos>=0){
+            return false;
+        }
+        pos=-pos-1;
+        if (n==CHUNK){
+            split(c);
+            if (pos>CHUNK/2){
+                c++;
+                pos-=CHUNK/2;
+            }
+            chunk=chunks[c];
+            n=sizes[c];
+        }
+        System.arraycopy(chunk,pos,chunk,pos+1,n-pos);
+        chunk[pos]=key;
+        sizes[c]=n+1;
+        size++;
+        addToTree(c,1);
+        return true;
+    }
+
+    //値を削除する。含まれていない場合はfalseを返す。
+    public boolean remove(long key){
+        int c=chunkFor(key);
+        long[] chunk=chunks[c];
+        int n=sizes[c];
+        int pos=Arrays.binarySearch(chunk,0,n,key);
+        if (pos<0){
+            return false;
+        }
+        System.arraycopy(chunk,pos+1,chunk,pos,n-pos-1);
+        sizes[c]=n-1;
+        size--;
+        addToTree(c,-1);
+        if (sizes[c]==0&&chunkCount>1){
+            removeChunk(c);
+        }
+        return true;
+    }
+
+    public boolean contains(long key){
+        int c=chunkFor(key);
+        return Arrays.binarySearch(chunks[c],0,sizes[c],key)>=0;
+    }
+
+    //·from以上to以下の値を昇順に渡す。visitorがfalseを返した時点で走査を終了する。
+    public void forEachAscending(long from,long to,LongPredicate visitor){
+        int c=chunkFor(from);
+        int pos=lowerBound(chunks[c],sizes[c],from);
+        for (;c<chunkCount;c++,pos=0){
+            long[] chunk=chunks[c];
+            int n=sizes[c];
+            for (;pos<n;pos++){
+                long key=chunk[pos];
+                if (key>to||!visitor.test(key)){
+                    return;
+                }
+            }
+        }
+    }
+
+    //·to以下from以上の値を降順に渡す。visitorがfalseを返した時点で走査を終了する。
+    public void forEachDescending(long to,long from,LongPredicate visitor){
+        int c=chunkFor(to);
+        int pos=upperBound(chunks[c],sizes[c],to)-1;
+        while (c>=0){
+            long[] chunk=chunks[c];
+            for (;pos>=0;pos--){
+                long key=chunk[pos];
+                if (key<from||!visitor.test(key)){
+                    return;
+                }
+            }
+            c--;
+            if (c>=0){
+                pos=sizes[c]-1;
+            }
+        }
+    }
+
+    //·from以上to以下の値の件数を返す。チャンク単位で数えるため、範囲内の値を1件ずつ走査する必要はない。
+    public int count(long from,long to){
+        if (from>to){
+            return 0;
+        }
+        int c=chunkFor(to);
+        int upper=prefix(c)+upperBound(chunks[c],sizes[c],to);
+        c=chunkFor(from);
+        int lower=prefix(c)+lowerBound(chunks[c],sizes[c],from);
+        return upper-lower;
+    }
+
+    //指定チャンクより前にあるチャンクの合計件数を返す。
+    private int prefix(int c){
+        if (treeStale){
+            rebuildTree();
+        }
+        int count=0;
+        for (int i=c;i>0;i-=i&-i){
+            count+=tree[i];
+        }
+        return count;
+    }
+
+    private void addToTree(int c,int delta){
+        if (treeStale){
+            return;
+        }
+        for (int i=c+1;i<=chunkCount;i+=i&-i){
+            tree[i]+=delta;
+        }
+    }
+
+    //各チャンクの件数から、フェンウィック木をチャンク数に比例した時間で作り直す。
+    private void rebuildTree(){
+        if (tree.length<=chunkCount){
+            tree=new int[chunks.length+1];
+        }else{
+            Arrays.fill(tree,0);
+        }
+        for (int i=1;i<=chunkCount;i++){
+            tree[i]+=sizes[i-1];
+            int parent=i+(i&-i);
+            if (parent<=chunkCount){
+                tree[parent]+=tree[i];
+            }
+        }
+        treeStale=false;
+    }
+
+    //keyが入るべきチャンク（先頭値がkey以下である最後のチャンク）を返す。
+    private int chunkFor(long key){
+        int low=1;
+        int high=chunkCount-1;
+        int found=0;
+        while (low<=high){
+            int mid=(low+high)>>>1;
+            if (chunks[mid][0]<=key){
+                found=mid;
+                low=mid+1;
+            }else{
+                high=mid-1;
+            }
+        }
+        return found;
+    }
+
+    //key以上の最初の位置を返す。
+    private static int lowerBound(long[] chunk,int n,long key){
+        int pos=Arrays.binarySearch(chunk,0,n,key);
+        return pos>=0?pos:-pos-1;
+    }
+
+    //keyより大きい最初の位置を返す（値は重複しないため、見つかった位置の次となる）。
+    private static int upperBound(long[] chunk,int n,long key){
+        int pos=Arrays.binarySearch(chunk,0,n,key);
+        return pos>=0?pos+1:-pos-1;
+    }
+
+    //満杯のチャンクを前半と後半に分割する。
+    private void split(int c){
+        if (chunkCount==chunks.length){
+            chunks=Arrays.copyOf(chunks,chunkCount<<1);
+            sizes=Arrays.copyOf(sizes,chunkCount<<1);
+        }
+        System.arraycopy(chunks,c+1,chunks,c+2,chunkCount-c-1);
+        System.arraycopy(sizes,c+1,sizes,c+2,chunkCount-c-1);
+        long[] upper=new long[CHUNK];
+        System.arraycopy(chunks[c],CHUNK/2,upper,0,CHUNK/2);
+        chunks[c+1]=upper;
+        sizes[c+1]=CHUNK/2;
+        sizes[c]=CHUNK/2;
+        chunkCount++;
+        treeStale=true;
+    }
+
+    private void removeChunk(int c){
+        System.arraycopy(chunks,c+1,chunks,c,chunkCount-c-1);
+        System.arraycopy(sizes,c+1,sizes,c,chunkCount-c-1);
+        chunkCount--;
+        chunks[chunkCount]=null;
+        sizes[chunkCount]=0;
+        treeStale=true;
+    }
+}
@@ -0,0 +1,60 @@
+package HouseRentSystem_YEproject03.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ *【Service層・辞書】
+ *文字列と整数コードを相互に変換する辞書。同じ文字列を何度登録しても、保持するのは1つだけになる。
+ *
+ *【設計意図】
+ *·家主名や住所は同じ値が何度も登録されるため、物件ごとに文字列を持つとメモリの大半が重複した文字列で占められる。
+ *·文字列は辞書に1つだけ保持し、物件側には4バイトのコードだけを持たせることで、重複分のメモリを削減する。
+ *
+ *【責務範囲】
+ *·文字列→コードの登録と検索（encode）。
+ *·コード→文字列の復元（decode）。
+ *
+ *【設計上の取捨】
+ *·一度登録した文字列は削除しない。物件が削除されても、同じ値が再び登録される可能性が高いためである。
+ *·nullはコード-1として扱い、辞書には登録しない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class StringDictionary{
+    public static final int NULL_CODE=-1;
+
+    private final HashMap<String,Integer> codes=new HashMap<>();
+    private String[] values=new String[16];
+    private int count;
+
+    //·文字列に対応するコードを返す。未登録の場合は新しいコードを割り当てる。
+    public int encode(String value){
+        if (value==null){
+            return NULL_CODE;
+        }
+        Integer code=codes.get(value);
+        if (code!=null){
+            return code;
+        }
+        if (count==values.length){
+            values=Arrays.copyOf(values,count<<1);
+        }
+        values[count]=value;
+        codes.put(value,count);
+        return count++;
+    }
+
+    //コードに対応する文字列を返す。
+    public String decode(int code){
+        return code==NULL_CODE?null:values[code];
+    }
+
+    //登録済みの文字列の種類数を返す。
+    public int size(){
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package HouseRentSystem_YEproject03.service;
+
+/**
+ *【Service層・修正結果】
+ *版番号を指定した修正（HouseService.update(id,expectedVersion,changes)）の結果。
+ *
+ *【設計意図】
+ *·「物件が存在しない」と「他の操作に先に修正された」を呼び出し側で区別し、それぞれ異なる案内を表示できるようにする。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public enum UpdateResult{
+    //修正した。
+    UPDATED,
+    //物件が存在しない（削除済みを含む）。
+    NOT_FOUND,
+    //物件の版が指定した版と異なる。読み込んだ後に他の操作で修正されている。
+    CONFLICT
+}
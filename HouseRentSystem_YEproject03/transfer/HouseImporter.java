@@ -0,0 +1,444 @@
+package HouseRentSystem_YEproject03.transfer;
+
+import HouseRentSystem_YEproject03.codec.HouseRecord;
+import HouseRentSystem_YEproject03.codec.HouseRecordReader;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.utils.Utility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *【Transfer層】
+ *CSV・TSV、またはHouseCodecのレコード形式のファイル（.hrb）から物件をまとめて取り込むクラス。
+ *
+ *【設計意図】
+ *·これまで物件の登録はコンソールから1件ずつ入力するしかなく、数百万件の物件一覧を取り込むことはできなかった。
+ *·ファイルを一定の大きさの区間に分け、各区間をメモリマップして複数スレッドで並行に解析・検証する。
+ * 解析の終わった区間から順に、HouseService.addAll()でファイルの行順どおりにまとめて登録するため、IDはファイルの順に連番で採番される。
+ *·検証はUtilityと同じ規則（氏名8文字・電話12文字・住所16文字・状態3文字以内、家賃は10文字以内の整数）で行い、
+ * コンソールから登録できない値はファイルからも登録できないようにしている。
+ *
+ *【ファイル形式】
+ *·1行1物件で「氏名,電話,住所,家賃,状態」の5項目、またはHouseExporterの出力と同じく先頭にIDを加えた6項目とする。IDは無視して新たに採番する。
+ *·1行目が項目名（idまたはnameで始まる行）の場合は読み飛ばす。文字コードはUTF-8とし、先頭のBOMは読み飛ばす。
+ *·CSVは二重引用符で囲んだ項目と、その中の「""」に対応する。TSVは「\t」「\n」「\r」「\\」の置き換えを元に戻す。
+ *·.hrbはHouseExporterのレコード形式とする。ID・版番号は無視して新たに採番し、検証規則はCSV・TSVと同じである。
+ *
+ *【設計上の取捨】
+ *·区間の境目は改行の直後に合わせる。そのため項目の中に改行を含むことはできない（コンソール入力でも改行は入力できないため、検証規則としても同じである）。
+ *·不正な行は読み飛ばして取り込みを続け、件数と先頭からMAX_ERRORS件のエラー内容を結果として返す。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseImporter{
+    //レコード形式のファイルの先頭の識別子（"HRB1"）
+    static final int RECORDS_MAGIC=0x48524231;
+    //結果に保持するエラー内容の最大件数
+    public static final int MAX_ERRORS=100;
+    //1つの区間の最大バイト数
+    private static final long MAX_CHUNK_BYTES=16L<<20;
+    //1つの区間の最小バイト数。小さいファイルを細かく分けすぎないようにする。
+    private static final long MIN_CHUNK_BYTES=64L<<10;
+    private static final int ITEMS=5;
+    //レコード形式の取り込みで、1回のaddAll()に渡す件数
+    private static final int BATCH_SIZE=4096;
+
+    private final HouseService service;
+    private int parallelism=Runtime.getRuntime().availableProcessors();
+
+    public HouseImporter(HouseService service){
+        this.service=service;
+    }
+
+    //解析に使用するスレッド数を指定する。
+    public HouseImporter parallelism(int parallelism){
+        this.parallelism=Math.max(1,parallelism);
+        return this;
+    }
+
+    //·拡張子が.hrbの場合はレコード形式、.tsvの場合はタブ区切り、それ以外はカンマ区切りとして取り込む。
+    public TransferResult importFile(Path file) throws IOException{
+        if (isRecords(file)){
+            return importRecords(file);
+        }
+        return importFile(file,isTsv(file)?'\t':',');
+    }
+
+    public TransferResult importFile(Path file,char delimiter) throws IOException{
+        long start=System.nanoTime();
+        try (FileChannel channel=FileChannel.open(file,StandardOpenOption.READ)){
+            long[] bounds=split(channel);
+            ExecutorService pool=Executors.newFixedThreadPool(parallelism,daemonThreads());
+            try{
+                List<Future<Chunk>> futures=new ArrayList<>();
+                for (int i=0;i+1<bounds.length;i++){
+                    long from=bounds[i];
+                    long to=bounds[i+1];
+                    boolean first=i==0;
+                    futures.add(pool.submit(()->parse(channel,from,to,delimiter,first)));
+                }
+                //·区間の順に登録する。後ろの区間の解析は、前の区間の登録と並行して進む。
+                long rows=0;
+                long rejected=0;
+                long lineBase=0;
+                List<String> errors=new ArrayList<>();
+                for (Future<Chunk> future:futures){
+                    Chunk chunk=await(future);
+                    service.addAll(chunk.houses);
+                    rows+=chunk.houses.length;
+                    rejected+=chunk.rejected;
+                    for (int i=0;i<chunk.errorCount&&errors.size()<MAX_ERRORS;i++){
+                        errors.add("行"+(lineBase+chunk.errorLines[i])+": "+chunk.errorMessages[i]);
+                    }
+                    lineBase+=chunk.lines;
+                }
+                return new TransferResult(rows,rejected,errors,System.nanoTime()-start);
+            }finally{
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    //·レコード形式のファイルを取り込む。レコードはフライウェイトで参照し、検証を通ったものだけを物件にする。
+    //·レコード形式はファイル内で区切りを探せないため、解析は1スレッドで先頭から順に行う。
+    public TransferResult importRecords(Path file) throws IOException{
+        long start=System.nanoTime();
+        try (FileChannel channel=FileChannel.open(file,StandardOpenOption.READ)){
+            HouseRecordReader in=new HouseRecordReader(channel,null);
+            if (in.readInt()!=RECORDS_MAGIC){
+                throw new IOException("レコード形式のファイルではありません: "+file);
+            }
+            HouseRecord record=new HouseRecord();
+            House[] batch=new House[BATCH_SIZE];
+            int size=0;
+            long rows=0;
+            long rejected=0;
+            long index=0;
+            List<String> errors=new ArrayList<>();
+            String[] fields=new String[ITEMS];
+            while (in.next(record)){
+                index++;
+                fields[0]=record.name();
+                fields[1]=record.phone();
+                fields[2]=record.address();
+                fields[3]=Integer.toString(record.rent());
+                fields[4]=record.state();
+                String error=validate(fields,ITEMS);
+                if (error!=null){
+                    rejected++;
+                    if (errors.size()<MAX_ERRORS){
+                        errors.add("レコード"+index+": "+error);
+                    }
+                    continue;
+                }
+                batch[size++]=new House(0,fields[0],fields[1],fields[2],record.rent(),fields[4]);
+                if (size==BATCH_SIZE){
+                    service.addAll(batch);
+                    rows+=size;
+                    size=0;
+                }
+            }
+            service.addAll(Arrays.copyOf(batch,size));
+            rows+=size;
+            return new TransferResult(rows,rejected,errors,System.nanoTime()-start);
+        }catch (IllegalArgumentException e){
+            throw new IOException("レコードの形式が正しくありません: "+file,e);
+        }
+    }
+
+    static boolean isTsv(Path file){
+        return file.getFileName().toString().toLowerCase().endsWith(".tsv");
+    }
+
+    static boolean isRecords(Path file){
+        return file.getFileName().toString().toLowerCase().endsWith(".hrb");
+    }
+
+    //·ファイルを区間に分け、各区間の開始位置（と末尾のファイルサイズ）を返す。境目は改行の直後に合わせる。
+    private long[] split(FileChannel channel) throws IOException{
+        long size=channel.size();
+        long chunks=Math.max((size+MAX_CHUNK_BYTES-1)/MAX_CHUNK_BYTES,Math.min(parallelism*4L,size/MIN_CHUNK_BYTES));
+        chunks=Math.max(chunks,1);
+        long[] bounds=new long[(int)chunks+1];
+        int n=1;
+        ByteBuffer probe=ByteBuffer.allocate(8192);
+        for (long i=1;i<chunks;i++){
+            long boundary=nextLineStart(channel,size*i/chunks,size,probe);
+            if (boundary>bounds[n-1]&&boundary<size){
+                bounds[n++]=boundary;
+            }
+        }
+        bounds[n++]=size;
+        return Arrays.copyOf(bounds,n);
+    }
+
+    //position以降で最初の改行の次の位置を返す。改行が無い場合はファイルサイズを返す。
+    private static long nextLineStart(FileChannel channel,long position,long size,ByteBuffer probe) throws IOException{
+        while (position<size){
+            probe.clear();
+            int read=channel.read(probe,position);
+            if (read<=0){
+                break;
+            }
+            for (int i=0;i<read;i++){
+                if (probe.get(i)=='\n'){
+                    return position+i+1;
+                }
+            }
+            position+=read;
+        }
+        return size;
+    }
+
+    //·1つの区間をメモリマップして解析する。区間内の行番号は1から数え、全体の行番号には登録時に換算する。
+    //·マップした内容は一度にヒープの配列へ写してから解析する。1バイトずつバッファから読むより、配列を直接走査する方が速いためである。
+    private static Chunk parse(FileChannel channel,long from,long to,char delimiter,boolean first) throws IOException{
+        MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY,from,to-from);
+        byte[] bytes=new byte[buffer.limit()];
+        buffer.get(0,bytes);
+        Chunk chunk=new Chunk();
+        LineParser parser=new LineParser(delimiter);
+        ArrayList<House> houses=new ArrayList<>(bytes.length/48);
+        int limit=bytes.length;
+        int position=0;
+        if (first&&limit>=3&&bytes[0]==(byte)0xEF&&bytes[1]==(byte)0xBB&&bytes[2]==(byte)0xBF){
+            position=3;
+        }
+        boolean headerChecked=!first;
+        while (position<limit){
+            int end=position;
+            while (end<limit&&bytes[end]!='\n'){
+                end++;
+            }
+            int length=end-position;
+            if (length>0&&bytes[end-1]=='\r'){
+                length--;
+            }
+            chunk.lines++;
+            if (length>0){
+                String[] fields=parser.split(bytes,position,length);
+                if (!headerChecked){
+                    headerChecked=true;
+                    if (fields!=null&&parser.count>0&&("id".equalsIgnoreCase(fields[0])||"name".equalsIgnoreCase(fields[0]))){
+                        position=end+1;
+                        continue;
+                    }
+                }
+                String error=fields==null?"二重引用符が閉じられていません":validate(fields,parser.count);
+                if (error==null){
+                    int offset=parser.count-ITEMS;
+                    houses.add(new House(0,fields[offset],fields[offset+1],fields[offset+2],Integer.parseInt(fields[offset+3]),fields[offset+4]));
+                }else{
+                    chunk.reject(error);
+                }
+            }
+            position=end+1;
+        }
+        chunk.houses=houses.toArray(new House[0]);
+        return chunk;
+    }
+
+    //·Utilityの入力規則と同じ基準で検証する。正しい場合はnull、誤りがある場合はその内容を返す。
+    private static String validate(String[] fields,int count){
+        if (count!=ITEMS&&count!=ITEMS+1){
+            return "項目数が不正です（"+count+"項目）";
+        }
+        int offset=count-ITEMS;
+        if (!Utility.isValidLength(fields[offset],Utility.NAME_LIMIT)){
+            return "氏名は1～"+Utility.NAME_LIMIT+"文字で入力してください";
+        }
+        if (!Utility.isValidLength(fields[offset+1],Utility.PHONE_LIMIT)){
+            return "電話は1～"+Utility.PHONE_LIMIT+"文字で入力してください";
+        }
+        if (!Utility.isValidLength(fields[offset+2],Utility.ADDRESS_LIMIT)){
+            return "住所は1～"+Utility.ADDRESS_LIMIT+"文字で入力してください";
+        }
+        try{
+            if (!Utility.isValidRent(Utility.parseInt(fields[offset+3]))){
+                return "家賃は0以上で入力してください: "+fields[offset+3];
+            }
+        }catch (NumberFormatException e){
+            return "家賃が数値ではありません: "+fields[offset+3];
+        }
+        if (!Utility.isValidLength(fields[offset+4],Utility.STATE_LIMIT)){
+            return "状態は1～"+Utility.STATE_LIMIT+"文字で入力してください";
+        }
+        return null;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException{
+        try{
+            return future.get();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("取り込みが中断されました",e);
+        }catch (ExecutionException e){
+            Throwable cause=e.getCause();
+            if (cause instanceof IOException){
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException){
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(){
+        AtomicInteger sequence=new AtomicInteger();
+        return task->{
+            Thread thread=new Thread(task,"house-import-"+sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    //·1つの区間の解析結果。
+    private static final class Chunk{
+        House[] houses;
+        int lines;
+        int rejected;
+        int errorCount;
+        int[] errorLines=new int[4];
+        String[] errorMessages=new String[4];
+
+        //エラー内容は、全体で保持する上限と同じ件数までにとどめる。
+        void reject(String message){
+            rejected++;
+            if (errorCount==MAX_ERRORS){
+                return;
+            }
+            if (errorCount==errorLines.length){
+                errorLines=Arrays.copyOf(errorLines,errorCount<<1);
+                errorMessages=Arrays.copyOf(errorMessages,errorCount<<1);
+            }
+            errorLines[errorCount]=lines;
+            errorMessages[errorCount++]=message;
+        }
+    }
+
+    //·1行を項目に分ける。項目の作業用配列と結果の配列は行ごとに使い回す。
+    private static final class LineParser{
+        private final byte delimiter;
+        private final boolean quoted;
+        private byte[] field=new byte[256];
+        //項目の位置ごとに、直前に作った文字列とその元のバイト列を保持する。
+        private final String[] recent=new String[ITEMS+1];
+        private final byte[][] recentBytes=new byte[ITEMS+1][];
+        private String[] fields=new String[ITEMS+1];
+        int count;
+
+        LineParser(char delimiter){
+            this.delimiter=(byte)delimiter;
+            this.quoted=delimiter!='\t';
+        }
+
+        //·項目の配列を返す。項目数はcountに入る。二重引用符が閉じられていない場合はnullを返す。
+        //·引用符や置き換えの無い項目は、行の配列から直接文字列にする。
+        String[] split(byte[] line,int offset,int length){
+            if (field.length<length){
+                field=new byte[Math.max(length,field.length<<1)];
+            }
+            int end=offset+length;
+            count=0;
+            int i=offset;
+            while (true){
+                int start=i;
+                while (i<end&&line[i]!=delimiter&&line[i]!='"'&&line[i]!='\\'){
+                    i++;
+                }
+                if (i==end||line[i]==delimiter){
+                    add(decode(line,start,i-start));
+                }else{
+                    //引用符または置き換えを含む項目は、作業用配列へ写しながら元に戻す。
+                    i=start;
+                    int size=0;
+                    if (quoted&&line[i]=='"'){
+                        i++;
+                        while (true){
+                            if (i>=end){
+                                return null;
+                            }
+                            byte b=line[i++];
+                            if (b=='"'){
+                                if (i<end&&line[i]=='"'){
+                                    field[size++]='"';
+                                    i++;
+                                    continue;
+                                }
+                                break;
+                            }
+                            field[size++]=b;
+                        }
+                    }
+                    while (i<end&&line[i]!=delimiter){
+                        byte b=line[i++];
+                        if (!quoted&&b=='\\'&&i<end){
+                            b=unescape(line[i++]);
+                        }
+                        field[size++]=b;
+                    }
+                    add(decode(field,0,size));
+                }
+                if (i>=end){
+                    return fields;
+                }
+                i++;
+            }
+        }
+
+        //·状態のように種類の少ない値は、同じ項目の直前の値と同じ内容であれば同じ文字列を使い回す。
+        private String decode(byte[] bytes,int offset,int length){
+            int slot=count<recent.length?count:recent.length-1;
+            byte[] previous=recentBytes[slot];
+            if (previous!=null&&Arrays.equals(previous,0,previous.length,bytes,offset,offset+length)){
+                return recent[slot];
+            }
+            String value=new String(bytes,offset,length,StandardCharsets.UTF_8);
+            if (length<=16){
+                recentBytes[slot]=Arrays.copyOfRange(bytes,offset,offset+length);
+                recent[slot]=value;
+            }
+            return value;
+        }
+
+        private void add(String value){
+            if (count==fields.length){
+                fields=Arrays.copyOf(fields,count<<1);
+            }
+            fields[count++]=value;
+        }
+
+        private static byte unescape(byte b){
+            switch (b){
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                default:
+                    return b;
+            }
+        }
+    }
+}
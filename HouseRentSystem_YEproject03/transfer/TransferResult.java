@@ -0,0 +1,59 @@
+package HouseRentSystem_YEproject03.transfer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *【Transfer層】
+ *一括取り込み・書き出しの結果（処理件数・不正行・所要時間）を表すクラス。
+ *
+ *【設計意図】
+ *·処理件数と所要時間から毎秒の処理件数を求め、取り込み・書き出しの性能をそのまま表示できるようにする。
+ *·不正な行は取り込みを止めずに読み飛ばし、件数と先頭からいくつかのエラー内容だけを保持する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class TransferResult{
+    private final long rows;
+    private final long rejected;
+    private final List<String> errors;
+    private final long elapsedNanos;
+
+    TransferResult(long rows,long rejected,List<String> errors,long elapsedNanos){
+        this.rows=rows;
+        this.rejected=rejected;
+        this.errors=Collections.unmodifiableList(errors);
+        this.elapsedNanos=elapsedNanos;
+    }
+
+    //取り込み・書き出しに成功した件数
+    public long rows(){
+        return rows;
+    }
+
+    //検証に失敗して読み飛ばした行数
+    public long rejected(){
+        return rejected;
+    }
+
+    //不正な行の内容（先頭から最大HouseImporter.MAX_ERRORS件）
+    public List<String> errors(){
+        return errors;
+    }
+
+    public long elapsedNanos(){
+        return elapsedNanos;
+    }
+
+    public double rowsPerSecond(){
+        return elapsedNanos==0?0:rows*1_000_000_000.0/elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%,d件（不正 %,d件）、%,d ms、%,.0f 件/秒",rows,rejected,elapsedNanos/1_000_000,rowsPerSecond());
+    }
+}
@@ -1,143 +1,232 @@
-package HouseRentSystem_YEproject03.utils;
-
-import java.util.Scanner;
-
-/**
- *【Utility層】
- *本クラスはシステムの共通ツール層として、コンソール入力の「バリデーション」と「例外処理」を担当する。
- *入力ロジックを集約することで、View層の構造をより簡潔にし、不正入力が発生した場合でもシステムが安定して動作できるようにしている。
- *
- *【設計意図】
- *·便利で簡潔なコンソール入力メソッドを提供し、すべての入力ロジックを1つのクラスに集約することで、複数クラスでの重複実装を避ける。
- *·入力段階で長さチェック、形式検証、例外処理を完了させ、上位層では入力の正当性を意識しなくてよいようにする。
- *
- *【責務範囲】
- *·メニュー選択入力の検証。
- *·文字入力の取得。
- *·整数解析および例外捕捉。
- *·文字列長の制限。
- *·確認選択（Y/N）のロジック検証。
- *
- *【設計上の取捨】
- *·呼び出しの簡潔性を優先し、staticメソッドとして設計。インスタンス生成不要で利用可能。
- *·無限ループによる正当入力保証。すべての読み取りメソッドはwhileによる強制検証を行い、必ず正しい値を返すようにしている。
- *
- *@author ye888000
- *@version 1.0
- *@since 2026-02-11
- */
-
-
- public class Utility{
-        //すべての入力で同一のScannerを使用することで、
-        //複数メソッド内でのオブジェクト重複生成を防いでいる。
-        private static Scanner scanner = new Scanner(System.in);
-
-       //·入力段階で選択可能範囲を制限し、1～5のみ許可する。誤入力の場合は強制的に再入力させることで、戻り値が必ず正当であることを保証する。
-       // これによりView層はフロー制御のみを担当し、入力検証ロジックを持たなくてよい。
-       //·ループ検証方式により、上位層での追加判定処理を不要にしている。
-        public static char readMenuSelection(){
-            char c;
-            for (; ;){
-                String str=readKeyBoard(1,false);
-                c=str.charAt(0);
-                if (c!='1'&&c!='2'&&
-                        c!='3'&&c!='4'&&c!='5'){
-                    System.out.print("選択エラーです。もう一度入力してください:");
-                }else break;
-            }
-            return c;
-        }
-
-        public static char readChar(){
-            String str = readKeyBoard(1,false);
-            return str.charAt(0);
-        }
-
-        public static char readChar(char defaultValue){
-            String str=readKeyBoard(1,true);
-            return (str.length()==0)?defaultValue:str.charAt(0);
-        }
-
-    //·try-catchにより例外を捕捉し、ユーザーが数値以外を入力した場合の解析例外を防止する。
-    //·ループを使用して、必ず整数を返すことを保証する。
-        public static int readInt(){
-            int n;
-            for (; ;){
-                String str=readKeyBoard(10,false);
-                try{
-                    n=Integer.parseInt(str);
-                    break;
-                }catch (NumberFormatException e){
-                    System.out.print("数値入力エラーです。もう一度入力してください:");
-                }
-            }
-            return n;
-        }
-
-       //·空入力時にデフォルト値を返す設計。更新処理における「元の値を保持する」場面に対応する。
-       //（例：家賃のみ変更する際に、他項目を再入力する手間を省く）
-       //·入力戦略をツール層に統一することで、各クラスの責務を明確にし、ロジックの可読性を維持する。
-        public static int readInt(int defaultValue){
-            int n;
-            for (; ;){
-                String str = readKeyBoard(10,true);
-                if (str.equals("")){
-                    return defaultValue;
-                }
-
-                try{
-                    n=Integer.parseInt(str);
-                    break;
-                }catch(NumberFormatException e){
-                    System.out.print("数値入力エラーです。もう一度入力してください:");
-                }
-            }
-            return n;
-        }
-
-        public static String readString(int limit){
-            return readKeyBoard(limit,false);
-        }
-
-        public static String readString(int limit,String defaultValue){
-            String str=readKeyBoard(limit, true);
-            return str.equals("")? defaultValue:str;
-        }
-
-        //重要操作の前に強制確認を行い、誤操作を防止することを目的としている。
-        public static char readConfirmSelection(){
-            System.out.println("请输入你的选择(Y/N): 请小心选择/あなたの選択を入力してください(Y/N)：慎重に選択してください");
-            char c;
-            for (; ;){
-                String str=readKeyBoard(1,false).toUpperCase();
-                c=str.charAt(0);
-                if(c=='Y'||c=='N'){
-                    break;
-                }else{
-                    System.out.print("選択エラーです。もう一度入力してください:");
-                }
-            }
-            return c;
-        }
-
-        //すべての入力メソッドは最終的に本メソッドを呼び出すため、ここで長さ制限と空入力処理を統一管理するのが適切である。
-        //将来的にルール変更が必要な場合も、この層のみ修正すればよいため、コードの保守性が向上する。
-        private static String readKeyBoard(int limit,boolean blankReturn) {
-            String line="";
-
-            while(scanner.hasNextLine()){
-                line=scanner.nextLine();
-
-                if(line.length()==0){
-                    if(blankReturn) return line;
-                }
-                if(line.length()<1||line.length()>limit){
-                    System.out.print("入力長さ（"+limit+"以下である必要があります）エラーです。もう一度入力してください：");
-                    continue;
-                }
-                break;
-            }
-            return line;
-        }
-    }
+package HouseRentSystem_YEproject03.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ *【Utility層】
+ *本クラスはシステムの共通ツール層として、コンソール入力の「バリデーション」と「例外処理」を担当する。
+ *入力ロジックを集約することで、View層の構造をより簡潔にし、不正入力が発生した場合でもシステムが安定して動作できるようにしている。
+ *
+ *【設計意図】
+ *·便利で簡潔なコンソール入力メソッドを提供し、すべての入力ロジックを1つのクラスに集約することで、複数クラスでの重複実装を避ける。
+ *·入力段階で長さチェック、形式検証、例外処理を完了させ、上位層では入力の正当性を意識しなくてよいようにする。
+ *
+ *【責務範囲】
+ *·メニュー選択入力の検証。
+ *·文字入力の取得。
+ *·整数解析および例外捕捉。
+ *·家賃の規則（0以上）の検証。
+ *·文字列長の制限。
+ *·確認選択（Y/N）のロジック検証。
+ *
+ *【設計上の取捨】
+ *·呼び出しの簡潔性を優先し、staticメソッドとして設計。インスタンス生成不要で利用可能。
+ *·無限ループによる正当入力保証。すべての読み取りメソッドはwhileによる強制検証を行い、必ず正しい値を返すようにしている。
+ *·入力は1行単位でしか扱わないため、正規表現で区切りを判定するScannerではなくBufferedReaderで読む。
+ *·非対話で大量の操作を実行する場合は、本クラスではなくscriptパッケージのHouseScriptRunnerを使う。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-02-11
+ */
+
+
+ public class Utility{
+        //·各項目の入力文字数の上限。コンソール入力とファイルからの一括取り込みで同じ規則を使うため、ここに集約している。
+        public static final int NAME_LIMIT=8;
+        public static final int PHONE_LIMIT=12;
+        //住所は新規登録時16文字、修正時18文字まで入力できる。
+        public static final int ADDRESS_LIMIT=16;
+        public static final int ADDRESS_UPDATE_LIMIT=18;
+        public static final int STATE_LIMIT=3;
+        //数値として入力できる文字数の上限。
+        public static final int NUMBER_LIMIT=10;
+
+        //すべての入力で同一のReaderを使用することで、
+        //複数メソッド内でのオブジェクト重複生成を防いでいる。
+        private static BufferedReader reader=new BufferedReader(new InputStreamReader(System.in,Charset.defaultCharset()));
+
+        //·入力元を差し替える。ファイルからの一括入力や、入力処理の性能計測で使用する。
+        public static void setInput(InputStream in){
+            reader=new BufferedReader(new InputStreamReader(in,Charset.defaultCharset()));
+        }
+
+       //·入力段階で選択可能範囲を制限し、1～5のみ許可する。誤入力の場合は強制的に再入力させることで、戻り値が必ず正当であることを保証する。
+       // これによりView層はフロー制御のみを担当し、入力検証ロジックを持たなくてよい。
+       //·ループ検証方式により、上位層での追加判定処理を不要にしている。
+        public static char readMenuSelection(){
+            char c;
+            for (; ;){
+                String str=readKeyBoard(1,false);
+                c=str.charAt(0);
+                if (c!='1'&&c!='2'&&
+                        c!='3'&&c!='4'&&c!='5'){
+                    System.out.print("選択エラーです。もう一度入力してください:");
+                }else break;
+            }
+            return c;
+        }
+
+        public static char readChar(){
+            String str = readKeyBoard(1,false);
+            return str.charAt(0);
+        }
+
+        public static char readChar(char defaultValue){
+            String str=readKeyBoard(1,true);
+            return (str.length()==0)?defaultValue:str.charAt(0);
+        }
+
+    //·try-catchにより例外を捕捉し、ユーザーが数値以外を入力した場合の解析例外を防止する。
+    //·ループを使用して、必ず整数を返すことを保証する。
+        public static int readInt(){
+            int n;
+            for (; ;){
+                String str=readKeyBoard(NUMBER_LIMIT,false);
+                try{
+                    n=Integer.parseInt(str);
+                    break;
+                }catch (NumberFormatException e){
+                    System.out.print("数値入力エラーです。もう一度入力してください:");
+                }
+            }
+            return n;
+        }
+
+       //·空入力時にデフォルト値を返す設計。更新処理における「元の値を保持する」場面に対応する。
+       //（例：家賃のみ変更する際に、他項目を再入力する手間を省く）
+       //·入力戦略をツール層に統一することで、各クラスの責務を明確にし、ロジックの可読性を維持する。
+        public static int readInt(int defaultValue){
+            int n;
+            for (; ;){
+                String str = readKeyBoard(NUMBER_LIMIT,true);
+                if (str.equals("")){
+                    return defaultValue;
+                }
+
+                try{
+                    n=Integer.parseInt(str);
+                    break;
+                }catch(NumberFormatException e){
+                    System.out.print("数値入力エラーです。もう一度入力してください:");
+                }
+            }
+            return n;
+        }
+
+        //·家賃として0以上の整数を返すまで入力を繰り返す。
+        public static int readRent(){
+            for (; ;){
+                int rent=readInt();
+                if (isValidRent(rent)){
+                    return rent;
+                }
+                System.out.print("家賃は0以上で入力してください:");
+            }
+        }
+
+        //·修正時の家賃の入力。空入力、または従来どおり-1を入力した場合はdefaultValue（現在の家賃）を返す。
+        //·-1以外の負の値は家賃として登録できないため、入力し直してもらう。
+        public static int readRent(int defaultValue){
+            for (; ;){
+                int rent=readInt(-1);
+                if (rent==-1){
+                    return defaultValue;
+                }
+                if (isValidRent(rent)){
+                    return rent;
+                }
+                System.out.print("家賃は0以上で入力してください（変更しない場合は空欄または-1）:");
+            }
+        }
+
+        public static String readString(int limit){
+            return readKeyBoard(limit,false);
+        }
+
+        public static String readString(int limit,String defaultValue){
+            String str=readKeyBoard(limit, true);
+            return str.equals("")? defaultValue:str;
+        }
+
+        //·文字列が1文字以上limit文字以下であるかを判定する。readKeyBoardと同じ規則である。
+        public static boolean isValidLength(String str,int limit){
+            return str!=null&&str.length()>=1&&str.length()<=limit;
+        }
+
+        //·readInt()と同じ規則（NUMBER_LIMIT文字以下の整数）で文字列を解析する。規則に合わない場合はNumberFormatExceptionを送出する。
+        public static int parseInt(String str){
+            if (!isValidLength(str,NUMBER_LIMIT)){
+                throw new NumberFormatException("数値は1～"+NUMBER_LIMIT+"文字で入力してください: "+str);
+            }
+            return Integer.parseInt(str);
+        }
+
+        //·家賃の規則（0以上）。コンソール入力・HTTP・スクリプト・ファイルからの一括取り込みで同じ規則を使うため、ここに集約している。
+        //·負の家賃は索引・集計・保存データのいずれでも想定していないため、入力の段階で受け付けない。
+        public static boolean isValidRent(int rent){
+            return rent>=0;
+        }
+
+        //·家賃の規則に合う値はそのまま返し、合わない場合はNumberFormatExceptionを送出する。解析済みの整数を検証する場合に使う。
+        public static int checkRent(int rent){
+            if (!isValidRent(rent)){
+                throw new NumberFormatException("家賃は0以上で入力してください: "+rent);
+            }
+            return rent;
+        }
+
+        //·parseIntと同じ規則で解析し、家賃の規則も検証する。
+        public static int parseRent(String str){
+            return checkRent(parseInt(str));
+        }
+
+        //重要操作の前に強制確認を行い、誤操作を防止することを目的としている。
+        public static char readConfirmSelection(){
+            System.out.println("请输入你的选择(Y/N): 请小心选择/あなたの選択を入力してください(Y/N)：慎重に選択してください");
+            char c;
+            for (; ;){
+                String str=readKeyBoard(1,false).toUpperCase();
+                c=str.charAt(0);
+                if(c=='Y'||c=='N'){
+                    break;
+                }else{
+                    System.out.print("選択エラーです。もう一度入力してください:");
+                }
+            }
+            return c;
+        }
+
+        //すべての入力メソッドは最終的に本メソッドを呼び出すため、ここで長さ制限と空入力処理を統一管理するのが適切である。
+        //将来的にルール変更が必要な場合も、この層のみ修正すればよいため、コードの保守性が向上する。
+        private static String readKeyBoard(int limit,boolean blankReturn) {
+            String line="";
+
+            for (String next=nextLine();next!=null;next=nextLine()){
+                line=next;
+
+                if(line.length()==0){
+                    if(blankReturn) return line;
+                }
+                if(!isValidLength(line,limit)){
+                    System.out.print("入力長さ（"+limit+"以下である必要があります）エラーです。もう一度入力してください：");
+                    continue;
+                }
+                break;
+            }
+            return line;
+        }
+
+        //入力の終わり、または読み取りに失敗した場合はnullを返す（Scannerを使用していた頃と同じく、入力の終わりとして扱う）。
+        private static String nextLine(){
+            try{
+                return reader.readLine();
+            }catch (IOException e){
+                return null;
+            }
+        }
+    }
@@ -0,0 +1,288 @@
+package HouseRentSystem_YEproject03.view;
+
+import HouseRentSystem_YEproject03.domain.House;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ *【View層・一覧出力】
+ *物件の一覧を、再利用する文字バッファへ書き込んでからまとめてWriterへ出力するクラス。
+ *
+ *【設計意図】
+ *·従来の一覧表示は、1行ごとにString.formatと文字列連結で行を作り、System.out.printlnで出力していた。
+ * 件数が多いと、書式解析・一時文字列の生成と、同期付きで行ごとにフラッシュされるコンソール出力が処理時間の大半を占めていた。
+ *·本クラスは各項目をchar配列へ直接書き込み、数値も自前で文字へ変換する。バッファが一杯になった時点でのみWriterへ書き出すため、
+ * 1行ごとの一時オブジェクトの生成と出力の呼び出しが無くなる。
+ *
+ *【出力形式】
+ *·TABLE：画面表示用。House.toString()と同じ並び（番号は2桁ゼロ埋め、項目間はタブ）で出力する。
+ *·TSV：機械処理用。1行目に項目名、以降は1物件1行でタブ区切りとする。項目中のタブ・改行・バックスラッシュは「\t」「\n」「\\」に置き換える。
+ *·CSV：機械処理用。1行目に項目名、以降は1物件1行でカンマ区切りとする。カンマ・二重引用符・改行を含む項目のみ二重引用符で囲む。
+ *
+ *【設計上の取捨】
+ *·スレッドセーフではない。1回の一覧出力ごとに1つのインスタンスを使う。
+ *·close()は出力先のWriterを閉じない。System.outのような共有の出力先をそのまま渡せるようにするためである。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HouseRenderer implements Flushable,AutoCloseable{
+    public enum Format{
+        TABLE,
+        TSV,
+        CSV
+    }
+
+    private static final int DEFAULT_CAPACITY=1<<16;
+    //1行の最大長の目安。これより空きが少なければ、行を書く前にバッファを書き出す。
+    private static final int ROW_RESERVE=256;
+    private static final String TSV_HEADER="id\tname\tphone\taddress\trent\tstate\n";
+    private static final String CSV_HEADER="id,name,phone,address,rent,state\n";
+
+    private final Writer out;
+    private final Format format;
+    private final char[] buffer;
+    private int position;
+    private long rows;
+
+    public HouseRenderer(Writer out,Format format){
+        this(out,format,DEFAULT_CAPACITY);
+    }
+
+    public HouseRenderer(Writer out,Format format,int capacity){
+        this.out=out;
+        this.format=format;
+        this.buffer=new char[Math.max(capacity,ROW_RESERVE*2)];
+    }
+
+    //·TSV・CSV形式の場合のみ、項目名の行を書き込む。
+    public void header(){
+        if (format==Format.TSV){
+            appendRaw(TSV_HEADER);
+        }else if (format==Format.CSV){
+            appendRaw(CSV_HEADER);
+        }
+    }
+
+    //·1物件を1行として書き込む。
+    public void row(House house){
+        if (buffer.length-position<ROW_RESERVE){
+            drain();
+        }
+        if (format==Format.TABLE){
+            int id=house.getId();
+            if (id>=0&&id<10){
+                put('0');
+            }
+            appendInt(id);
+            put('\t');
+            put('\t');
+            appendRaw(house.getName());
+            put('\t');
+            put('\t');
+            appendRaw(house.getPhone());
+            put('\t');
+            put('\t');
+            appendRaw(house.getAddress());
+            put('\t');
+            put('\t');
+            appendInt(house.getRent());
+            put('\t');
+            appendRaw(house.getState());
+        }else if (format==Format.CSV){
+            appendInt(house.getId());
+            put(',');
+            appendQuoted(house.getName());
+            put(',');
+            appendQuoted(house.getPhone());
+            put(',');
+            appendQuoted(house.getAddress());
+            put(',');
+            appendInt(house.getRent());
+            put(',');
+            appendQuoted(house.getState());
+        }else{
+            appendInt(house.getId());
+            put('\t');
+            appendEscaped(house.getName());
+            put('\t');
+            appendEscaped(house.getPhone());
+            put('\t');
+            appendEscaped(house.getAddress());
+            put('\t');
+            appendInt(house.getRent());
+            put('\t');
+            appendEscaped(house.getState());
+        }
+        put('\n');
+        rows++;
+    }
+
+    //·物件以外の文字列を1行として書き込む（見出しやメッセージ用）。行数には数えない。
+    public void line(String text){
+        appendRaw(text);
+        put('\n');
+    }
+
+    //·配列の物件をまとめて書き込む。nullは読み飛ばす。
+    public void rows(House[] houses){
+        for (House house:houses){
+            if (house!=null){
+                row(house);
+            }
+        }
+    }
+
+    //これまでに書き込んだ行数
+    public long rowCount(){
+        return rows;
+    }
+
+    //·バッファの内容をWriterへ書き出し、Writer自体もフラッシュする。
+    @Override
+    public void flush(){
+        drain();
+        try{
+            out.flush();
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close(){
+        flush();
+    }
+
+    //·バッファの内容をWriterへ書き出す。Writerのフラッシュは行わない。
+    private void drain(){
+        if (position==0){
+            return;
+        }
+        try{
+            out.write(buffer,0,position);
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        position=0;
+    }
+
+    private void put(char c){
+        if (position==buffer.length){
+            drain();
+        }
+        buffer[position++]=c;
+    }
+
+    //·文字列をそのままバッファへ写す。バッファより長い文字列は分割して書き出す。
+    private void appendRaw(String s){
+        if (s==null){
+            s="null";
+        }
+        int length=s.length();
+        int offset=0;
+        while (offset<length){
+            if (position==buffer.length){
+                drain();
+            }
+            int n=Math.min(length-offset,buffer.length-position);
+            s.getChars(offset,offset+n,buffer,position);
+            position+=n;
+            offset+=n;
+        }
+    }
+
+    //·TSVの区切りと衝突する文字だけを置き換えながら写す。
+    private void appendEscaped(String s){
+        if (s==null){
+            return;
+        }
+        for (int i=0,n=s.length();i<n;i++){
+            char c=s.charAt(i);
+            switch (c){
+                case '\t':
+                    put('\\');
+                    put('t');
+                    break;
+                case '\n':
+                    put('\\');
+                    put('n');
+                    break;
+                case '\r':
+                    put('\\');
+                    put('r');
+                    break;
+                case '\\':
+                    put('\\');
+                    put('\\');
+                    break;
+                default:
+                    put(c);
+            }
+        }
+    }
+
+    //·カンマ・二重引用符・改行を含む場合のみ二重引用符で囲み、項目中の二重引用符は2つ重ねる。
+    private void appendQuoted(String s){
+        if (s==null){
+            return;
+        }
+        boolean quote=false;
+        for (int i=0,n=s.length();i<n&&!quote;i++){
+            char c=s.charAt(i);
+            quote=c==','||c=='"'||c=='\n'||c=='\r';
+        }
+        if (!quote){
+            appendRaw(s);
+            return;
+        }
+        put('"');
+        for (int i=0,n=s.length();i<n;i++){
+            char c=s.charAt(i);
+            if (c=='"'){
+                put('"');
+            }
+            put(c);
+        }
+        put('"');
+    }
+
+    //·整数を10進の文字列へ変換し、一時オブジェクトを作らずにバッファへ書き込む。
+    //·下の桁から求めて、桁数分だけ確保した位置へ後ろから書き込む。
+    private void appendInt(int value){
+        if (buffer.length-position<11){
+            drain();
+        }
+        if (value==Integer.MIN_VALUE){
+            appendRaw("-2147483648");
+            return;
+        }
+        if (value<0){
+            buffer[position++]='-';
+            value=-value;
+        }
+        int digits=digits(value);
+        int end=position+digits;
+        int i=end;
+        do{
+            int q=value/10;
+            buffer[--i]=(char)('0'+(value-q*10));
+            value=q;
+        }while (value!=0);
+        position=end;
+    }
+
+    private static int digits(int value){
+        int digits=1;
+        while (value>=10){
+            value/=10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -1,203 +1,373 @@
-package HouseRentSystem_YEproject03.view;
-
-import HouseRentSystem_YEproject03.domain.House;
-import HouseRentSystem_YEproject03.service.HouseService;
-import HouseRentSystem_YEproject03.utils.Utility;
-
-/**
- *【View 層】
- *本クラスはView層に属する。コンソールとの対話および処理フローの制御のみを担当し、業務ロジックの処理責任は負わない。
- *また、すべてのデータ操作をService層へ委譲することで、レイヤー構造を明確に保つ。
- *
- *【設計意図】
- *·表示処理と業務処理を分離することで、各層の責務を明確にする。
- *·業務処理はすべてService層に任せ、View層は表示のみを担当し、エンティティデータの変更はView層では実装しない。
- *·入力検証はUtilityに統一して担当させる。
- *
- *【責務範囲】
- *·メインメニューの表示とプログラムループの制御
- *·ユーザーからの入力値の受け取りと、Service層への橋渡し
- *·処理結果（成功・失敗）の画面表示
- *
- *@author ye888000
- *@version 1.0
- *@since 2026-02-11
- */
-
-
-    public class HouseView{
-    //·プログラムをユーザーが手動で終了するまで継続実行できるように、ブール変数で制御している。
-    //·あちこちでbreakを使用する方法と比べ、この方法の方が処理の流れがより一貫しており、より明確になる。
-    private boolean loop=true;
-    private char key=' ';
-    private HouseService houseService=new HouseService(10);
-
-    //·住所ではなく家賃のみを変更できるようにするため、設計上、空入力を「元の値を保持する」こととして扱っている。
-    //·ユーザーが新しい内容を入力せずそのままEnterキーを押した場合、プログラムは「変更なし」と判断し、データの再入力の手間を減らすことができる。
-    //·フィールド単位での部分更新を実現できる。
-    public void update(){
-        System.out.println("==========物件情報を修正==========");
-        System.out.println("正する物件の番号を選択してください（-1で終了）");
-        int updateId=Utility.readInt();
-        if(updateId==-1){
-            System.out.println("==========物件情報の修正を取り消しました==========");
-            return;
-        }
-
-        House house=houseService.findById(updateId);
-        if(house==null){
-            System.out.println("==========修正対象の物件番号は存在しません...==========");
-            return;
-        }
-        System.out.print("氏名("+house.getName()+"):");
-        String name = Utility.readString(8,"");
-        if(!"".equals(name)){
-            house.setName(name);
-        }
-        System.out.print("電話番号：(" + house.getPhone()+"):");
-        String phone=Utility.readString(12,"");
-        if(!"".equals(phone)){
-            house.setPhone(phone);
-        }
-        System.out.print("住所：("+house.getAddress()+"):");
-        String address=Utility.readString(18,"");
-        if(!"".equals(address)){
-            house.setAddress(address);
-        }
-        System.out.print("家賃：("+house.getRent()+"):");
-        int rent=Utility.readInt(-1);
-        if(rent!=-1){
-            house.setRent(rent);
-        }
-        System.out.print("状態：("+house.getState()+"):");
-        String state=Utility.readString(3,"");
-        if(!"".equals(state)){
-            house.setState(state);
-        }
-    }
-
-    public void findHouse(){
-        System.out.println("==========物件情報を検索==========");
-        System.out.println("検索するIDを入力してください:");
-        int findId=Utility.readInt();
-
-        House house=houseService.findById(findId);
-        if (house!=null){
-            System.out.println(house);
-        }else{
-            System.out.println("=========検索対象の物件IDは存在しません=========");
-        }
-    }
-
-    //ツールクラスを呼び出して二重確認を行い、ユーザーの誤操作を防止する。
-    public void exit(){
-        char c=Utility.readConfirmSelection();
-        if(c=='Y'){
-            loop=false;
-        }
-    }
-
-     //·確認メカニズムにより誤削除を防止する。
-     //·実際の使用において、削除成功または削除中止のいずれの場合でも、ユーザーへ即時フィードバックを行う。
-    public void delHouse(){
-        System.out.println("==========物件を削除==========");
-        System.out.println("削除する物件の番号を入力してください（-1で終了）:");
-        int delId=Utility.readInt();
-        if(delId==-1){
-            System.out.println("==========物件情報の削除を取り消しました==========");
-            return;
-        }
-
-        char choice = Utility.readConfirmSelection();
-
-        if (choice=='Y'){
-            if (houseService.del(delId)) {
-                System.out.println("=========物件情報の削除に成功しました=========");
-            }else{
-                System.out.println("=========物件番号が存在しないため、削除に失敗しました==========");
-            }
-        }else{
-            System.out.println("==========物件情報の削除を取り消しました==========");
-        }
-    }
-
-    //Serviceに追加する際、新しいIDは自動的に割り当てられ、ユーザーに入力させないようにしている。
-    //これにより、手動入力によるミスを減らし、実際の使用環境で発生しうるデータ管理の混乱を軽減できる。
-    public void addHouse(){
-        System.out.println("-----------物件を追加----------");
-        System.out.println("氏名：");
-        String name=Utility.readString(8);
-        System.out.println("電話：");
-        String phonenumber=Utility.readString(12);
-        System.out.println("住所：");
-        String address=Utility.readString(16);
-        System.out.println("月額家賃：");
-        int rent=Utility.readInt();
-        System.out.println("状態：");
-        String state=Utility.readString(3);
-
-        House newHouse=new House(0,name,phonenumber,address,rent,state);
-        if(houseService.add(newHouse)){
-            System.out.println("-----------物件追加成功----------");
-        }else{
-            System.out.println("-----------物件追加失敗----------");
-        }
-    }
-
-     //·nullを終了マーカーとして設計している。最初のnullに遭遇した時点でループを終了できるため、不要な計算リソースを節約できる。
-     //·listHousesは住宅一覧のデータ出力のみを担当し、その他の機能はServiceに委譲する。
-    public void listHouses(){
-        System.out.println("-----------物件一覧----------");
-        System.out.println("番号\\t\\t所有者\\t\\t電話\\t\\t\\t\\t住所\\t\\t月額家賃\\t\\t状態（賃貸中または未賃貸）");
-        House[] houses=houseService.list();
-        for(int i=0;i<houses.length;i++){
-            if (houses[i]==null){
-                break;
-            }
-            System.out.println(houses[i]);
-        }
-        System.out.println("-----------物件一覧表示終了-----------");
-    }
-
-     //·このループによって画面全体のプログラム「ライフサイクル」を制御できる。
-     //·メニュー分岐のロジックを明確にし、追跡しやすくする。
-    public void MainMenu(){
-        do{
-            System.out.println("\n-----------賃貸住宅システムメニュー----------");
-            System.out.println("\t\t\t1 新規物件追加");
-            System.out.println("\t\t\t2 物件検索");
-            System.out.println("\t\t\t3 物件情報削除");
-            System.out.println("\t\t\t4 修物件情報修正");
-            System.out.println("\t\t\t5 物件情報表示");
-            System.out.println("\t\t\t6 終了");
-            System.out.println("選択してください（1-6）：");
-
-            key=Utility.readChar();
-
-            switch (key){
-                case '1':
-                    addHouse();
-                    break;
-                case '2':
-                    findHouse();
-                    break;
-                case '3':
-                    delHouse();
-                    break;
-                case '4':
-                    update();
-                    break;
-                case '5':
-                    listHouses();
-                    break;
-                case '6':
-                    char c = Utility.readConfirmSelection();
-                    exit();
-                    loop=false;
-                    break;
-            }
-        } while(loop);
-    }
-}
-
-
+package HouseRentSystem_YEproject03.view;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseChanges;
+import HouseRentSystem_YEproject03.service.HouseQuery;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.RentSummary;
+import HouseRentSystem_YEproject03.service.UpdateResult;
+import HouseRentSystem_YEproject03.utils.Utility;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ *【View 層】
+ *本クラスはView層に属する。コンソールとの対話および処理フローの制御のみを担当し、業務ロジックの処理責任は負わない。
+ *また、すべてのデータ操作をService層へ委譲することで、レイヤー構造を明確に保つ。
+ *
+ *【設計意図】
+ *·表示処理と業務処理を分離することで、各層の責務を明確にする。
+ *·業務処理はすべてService層に任せ、View層は表示のみを担当し、エンティティデータの変更はView層では実装しない。
+ *·入力検証はUtilityに統一して担当させる。
+ *
+ *【責務範囲】
+ *·メインメニューの表示とプログラムループの制御
+ *·ユーザーからの入力値の受け取りと、Service層への橋渡し
+ *·処理結果（成功・失敗）の画面表示
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-02-11
+ */
+
+
+    public class HouseView{
+    //一覧表示で1回に取得する件数。
+    private static final int PAGE_SIZE=256;
+    //並び順・状態を指定した一覧で、1画面に表示する件数。
+    private static final int SORTED_PAGE_SIZE=20;
+    //キーワード検索で表示する最大件数。
+    private static final int SEARCH_LIMIT=50;
+    //·プログラムをユーザーが手動で終了するまで継続実行できるように、ブール変数で制御している。
+    //·あちこちでbreakを使用する方法と比べ、この方法の方が処理の流れがより一貫しており、より明確になる。
+    private boolean loop=true;
+    private char key=' ';
+    private HouseService houseService;
+
+    //初期データ（jack）のみを持つServiceで起動する。
+    public HouseView(){
+        this(new HouseService(10));
+    }
+
+    //·永続化データから復元したServiceなど、外部で用意したServiceを使用して起動する。
+    //·Serviceの生成をApp層に任せることで、View層は保存方式の違いを意識せずに済む。
+    public HouseView(HouseService houseService){
+        this.houseService=houseService;
+    }
+
+    //·住所ではなく家賃のみを変更できるようにするため、設計上、空入力を「元の値を保持する」こととして扱っている。
+    //·ユーザーが新しい内容を入力せずそのままEnterキーを押した場合、プログラムは「変更なし」と判断し、データの再入力の手間を減らすことができる。
+    //·フィールド単位での部分更新を実現できる。
+    //·入力された値はHouseへ直接書き込まず、すべての入力が終わった後にServiceのupdate()へまとめて渡す。
+    // これにより、変更内容がServiceを経由して永続化などの付随処理へ確実に伝わる。
+    //·入力中に他の操作（HTTP経由の修正など）が同じ物件を修正していた場合は、その修正を上書きせずに取り消し、最新の内容を表示する。
+    public void update(){
+        System.out.println("==========物件情報を修正==========");
+        System.out.println("正する物件の番号を選択してください（-1で終了）");
+        int updateId=Utility.readInt();
+        if(updateId==-1){
+            System.out.println("==========物件情報の修正を取り消しました==========");
+            return;
+        }
+
+        House house=houseService.findById(updateId);
+        if(house==null){
+            System.out.println("==========修正対象の物件番号は存在しません...==========");
+            return;
+        }
+        System.out.print("氏名("+house.getName()+"):");
+        String name = Utility.readString(Utility.NAME_LIMIT,house.getName());
+        System.out.print("電話番号：(" + house.getPhone()+"):");
+        String phone=Utility.readString(Utility.PHONE_LIMIT,house.getPhone());
+        System.out.print("住所：("+house.getAddress()+"):");
+        String address=Utility.readString(Utility.ADDRESS_UPDATE_LIMIT,house.getAddress());
+        System.out.print("家賃：("+house.getRent()+"):");
+        int rent=Utility.readRent(house.getRent());
+        System.out.print("状態：("+house.getState()+"):");
+        String state=Utility.readString(Utility.STATE_LIMIT,house.getState());
+
+        HouseChanges changes=new HouseChanges().name(name).phone(phone).address(address).rent(rent).state(state);
+        UpdateResult result=houseService.update(updateId,house.getVersion(),changes);
+        if(result==UpdateResult.UPDATED){
+            awaitCommitted();
+            System.out.println("==========物件情報の修正に成功しました==========");
+        }else if(result==UpdateResult.CONFLICT){
+            System.out.println("==========入力中に他の操作で物件情報が修正されたため、修正を取り消しました==========");
+            House latest=houseService.findById(updateId);
+            if(latest!=null){
+                System.out.println("最新の内容："+latest);
+            }
+        }else{
+            System.out.println("==========修正対象の物件番号は存在しません...==========");
+        }
+    }
+
+    public void findHouse(){
+        System.out.println("==========物件情報を検索==========");
+        System.out.println("検索するIDを入力してください:");
+        int findId=Utility.readInt();
+
+        House house=houseService.findById(findId);
+        if (house!=null){
+            System.out.println(house);
+        }else{
+            System.out.println("=========検索対象の物件IDは存在しません=========");
+        }
+    }
+
+    //·区・状態・家賃の範囲を組み合わせて検索する。空入力の項目は「条件なし」として扱う。
+    //·絞り込み処理はServiceの索引に任せ、View層は条件の受け取りと結果の表示のみを担当する。
+    public void queryHouses(){
+        System.out.println("==========条件で物件を検索==========");
+        System.out.print("区（例：墨田区、空欄で指定なし）:");
+        String ward=Utility.readString(8,"");
+        System.out.print("状態（未賃貸／賃貸中、空欄で指定なし）:");
+        String state=Utility.readString(Utility.STATE_LIMIT,"");
+        System.out.print("家賃の下限（空欄で指定なし）:");
+        int minRent=Utility.readInt(Integer.MIN_VALUE);
+        System.out.print("家賃の上限（空欄で指定なし）:");
+        int maxRent=Utility.readInt(Integer.MAX_VALUE);
+
+        HouseQuery query=new HouseQuery().rentBetween(minRent,maxRent);
+        if(!"".equals(ward)){
+            query.ward(ward);
+        }
+        if(!"".equals(state)){
+            query.state(state);
+        }
+        House[] houses=houseService.find(query);
+        System.out.println("番号\t\t所有者\t\t電話\t\t\t\t住所\t\t月額家賃\t\t状態（賃貸中または未賃貸）");
+        for(House house:houses){
+            System.out.println(house);
+        }
+        System.out.println("=========該当件数："+houses.length+"件=========");
+    }
+
+    //·住所または所有者名の一部で検索し、一致度の高い順に表示する。
+    //·初回の検索時に索引を作成するため、件数が多い場合は初回のみ時間がかかる。
+    public void searchHouses(){
+        System.out.println("==========キーワードで物件を検索==========");
+        System.out.print("住所または所有者名の一部:");
+        String keyword=Utility.readString(Utility.ADDRESS_UPDATE_LIMIT);
+        House[] houses=houseService.search(keyword,SEARCH_LIMIT);
+        System.out.println("番号\t\t所有者\t\t電話\t\t\t\t住所\t\t月額家賃\t\t状態（賃貸中または未賃貸）");
+        for(House house:houses){
+            System.out.println(house);
+        }
+        System.out.println("=========該当件数："+houses.length+"件（最大"+SEARCH_LIMIT+"件）=========");
+    }
+
+    //·操作ごとの回数・処理時間と、配列の使用状況を表示する。集計はServiceのHouseMetricsが行う。
+    public void showMetrics(){
+        System.out.println("==========統計情報==========");
+        System.out.print(houseService.metrics().summary());
+        System.out.println("==========統計情報表示終了==========");
+    }
+
+    //·全体と区ごとの件数・空室率・家賃の平均・中央値・最低・最高を表示する。
+    //·集計はServiceが変更のたびに更新しているため、件数が多くても物件を走査せずに表示できる。
+    public void showRentSummary(){
+        System.out.println("==========集計情報==========");
+        RentSummary total=houseService.rentSummary();
+        System.out.println("区\t\t件数\t空室率\t平均家賃\t中央値\t\t最低\t\t最高");
+        for(Map.Entry<String,RentSummary> entry:total.wards().entrySet()){
+            System.out.println(entry.getKey()+"\t\t"+row(entry.getValue()));
+        }
+        System.out.println("全体\t\t"+row(total));
+        System.out.println("==========集計情報表示終了==========");
+    }
+
+    private static String row(RentSummary summary){
+        return summary.count()+"\t"+String.format("%.1f%%",summary.vacancyRate()*100)+"\t"+String.format("%,.0f",summary.averageRent())
+                +"\t\t"+String.format("%,d",summary.medianRent())+"\t\t"+String.format("%,d",summary.minRent())+"\t\t"+String.format("%,d",summary.maxRent());
+    }
+
+    //ツールクラスを呼び出して二重確認を行い、ユーザーの誤操作を防止する。
+    public void exit(){
+        char c=Utility.readConfirmSelection();
+        if(c=='Y'){
+            loop=false;
+        }
+    }
+
+     //·確認メカニズムにより誤削除を防止する。
+     //·実際の使用において、削除成功または削除中止のいずれの場合でも、ユーザーへ即時フィードバックを行う。
+    public void delHouse(){
+        System.out.println("==========物件を削除==========");
+        System.out.println("削除する物件の番号を入力してください（-1で終了）:");
+        int delId=Utility.readInt();
+        if(delId==-1){
+            System.out.println("==========物件情報の削除を取り消しました==========");
+            return;
+        }
+
+        char choice = Utility.readConfirmSelection();
+
+        if (choice=='Y'){
+            if (houseService.del(delId)) {
+                awaitCommitted();
+                System.out.println("=========物件情報の削除に成功しました=========");
+            }else{
+                System.out.println("=========物件番号が存在しないため、削除に失敗しました==========");
+            }
+        }else{
+            System.out.println("==========物件情報の削除を取り消しました==========");
+        }
+    }
+
+    //Serviceに追加する際、新しいIDは自動的に割り当てられ、ユーザーに入力させないようにしている。
+    //これにより、手動入力によるミスを減らし、実際の使用環境で発生しうるデータ管理の混乱を軽減できる。
+    public void addHouse(){
+        System.out.println("-----------物件を追加----------");
+        System.out.println("氏名：");
+        String name=Utility.readString(Utility.NAME_LIMIT);
+        System.out.println("電話：");
+        String phonenumber=Utility.readString(Utility.PHONE_LIMIT);
+        System.out.println("住所：");
+        String address=Utility.readString(Utility.ADDRESS_LIMIT);
+        System.out.println("月額家賃：");
+        int rent=Utility.readRent();
+        System.out.println("状態：");
+        String state=Utility.readString(Utility.STATE_LIMIT);
+
+        House newHouse=new House(0,name,phonenumber,address,rent,state);
+        if(houseService.add(newHouse)!=null){
+            awaitCommitted();
+            System.out.println("-----------物件追加成功----------");
+        }else{
+            System.out.println("-----------物件追加失敗----------");
+        }
+    }
+
+     //·並び順と状態を選んでから表示する。どちらも空欄の場合は、全件を登録順に表示する。
+     //·家賃順、または状態を指定した場合は、SORTED_PAGE_SIZE件ずつ表示し、続きを表示するかを確認する。
+     // 次のページは前のページの最後の物件から続きを取得するため、全件を並べ替えることはない。
+    public void listHouses(){
+        System.out.println("-----------物件一覧----------");
+        System.out.print("並び順（1 登録順、2 家賃の安い順、3 家賃の高い順、空欄で登録順）:");
+        char order=Utility.readChar('1');
+        System.out.print("状態（未賃貸／賃貸中、空欄で指定なし）:");
+        String state=Utility.readString(Utility.STATE_LIMIT,"");
+        if(order!='2'&&order!='3'&&"".equals(state)){
+            listAll();
+            return;
+        }
+        HouseQuery.Order sort=order=='2'?HouseQuery.Order.RENT_ASC:order=='3'?HouseQuery.Order.RENT_DESC:HouseQuery.Order.ID;
+        House last=null;
+        int shown=0;
+        while(true){
+            HouseQuery query=new HouseQuery().orderBy(sort).limit(SORTED_PAGE_SIZE);
+            if(!"".equals(state)){
+                query.state(state);
+            }
+            if(last!=null){
+                query.after(last);
+            }
+            House[] page=houseService.find(query);
+            System.out.println("番号\t\t所有者\t\t電話\t\t\t\t住所\t\t月額家賃\t\t状態（賃貸中または未賃貸）");
+            for(House house:page){
+                System.out.println(house);
+            }
+            shown+=page.length;
+            if(page.length<SORTED_PAGE_SIZE){
+                break;
+            }
+            last=page[page.length-1];
+            System.out.print("次の"+SORTED_PAGE_SIZE+"件を表示しますか（Enterで表示、Nで終了）:");
+            char next=Utility.readChar('Y');
+            if(next=='N'||next=='n'){
+                break;
+            }
+        }
+        System.out.println("-----------物件一覧表示終了（"+shown+"件表示）-----------");
+    }
+
+     //·全件を一度に配列へコピーせず、IDをキーにしたページ単位で取得しながら表示する。
+     //·各行はHouseRendererのバッファへ書き込み、まとめてコンソールへ出力する。System.outは閉じない。
+     //·listAllは住宅一覧のデータ出力のみを担当し、その他の機能はServiceに委譲する。
+    private void listAll(){
+        System.out.println("番号\\t\\t所有者\\t\\t電話\\t\\t\\t\\t住所\\t\\t月額家賃\\t\\t状態（賃貸中または未賃貸）");
+        HouseRenderer renderer=new HouseRenderer(new OutputStreamWriter(System.out,Charset.defaultCharset()),HouseRenderer.Format.TABLE);
+        int lastId=0;
+        House[] page;
+        do{
+            page=houseService.pageAfter(lastId,PAGE_SIZE);
+            renderer.rows(page);
+            if (page.length>0){
+                lastId=page[page.length-1].getId();
+            }
+        }while(page.length==PAGE_SIZE);
+        renderer.flush();
+        System.out.println("-----------物件一覧表示終了-----------");
+    }
+
+     //·追加・削除・修正の内容が保存データへ書き込まれる（fsync）まで待つ。書き込みに失敗した場合はその旨を表示する。
+    private void awaitCommitted(){
+        try{
+            houseService.awaitCommitted();
+        }catch (IOException e){
+            System.out.println("保存データの書き込みに失敗しました: "+e.getMessage());
+        }
+    }
+
+     //·このループによって画面全体のプログラム「ライフサイクル」を制御できる。
+     //·メニュー分岐のロジックを明確にし、追跡しやすくする。
+    public void MainMenu(){
+        do{
+            System.out.println("\n-----------賃貸住宅システムメニュー----------");
+            System.out.println("\t\t\t1 新規物件追加");
+            System.out.println("\t\t\t2 物件検索");
+            System.out.println("\t\t\t3 物件情報削除");
+            System.out.println("\t\t\t4 修物件情報修正");
+            System.out.println("\t\t\t5 物件情報表示");
+            System.out.println("\t\t\t6 終了");
+            System.out.println("\t\t\t7 条件検索");
+            System.out.println("\t\t\t8 キーワード検索");
+            System.out.println("\t\t\t9 統計情報");
+            System.out.println("\t\t\t0 集計情報（区ごとの家賃・空室率）");
+            System.out.println("選択してください（0-9）：");
+
+            key=Utility.readChar();
+
+            switch (key){
+                case '1':
+                    addHouse();
+                    break;
+                case '2':
+                    findHouse();
+                    break;
+                case '3':
+                    delHouse();
+                    break;
+                case '4':
+                    update();
+                    break;
+                case '5':
+                    listHouses();
+                    break;
+                case '6':
+                    char c = Utility.readConfirmSelection();
+                    exit();
+                    loop=false;
+                    break;
+                case '7':
+                    queryHouses();
+                    break;
+                case '8':
+                    searchHouses();
+                    break;
+                case '9':
+                    showMetrics();
+                    break;
+                case '0':
+                    showRentSummary();
+                    break;
+            }
+        } while(loop);
+    }
+}
+
+
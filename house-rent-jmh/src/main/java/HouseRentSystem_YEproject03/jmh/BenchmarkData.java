@@ -0,0 +1,64 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.util.SplittableRandom;
+
+/**
+ *【Benchmark層・JMH】
+ *各ベンチマークの準備で使う、計測用の物件データを作るクラス。
+ *
+ *【設計意図】
+ *·物件の生成と登録を1か所にまとめ、どのベンチマークも同じ分布のデータで計測されるようにする。
+ *·値の重複具合は現実の物件データに近づける（家主名5,000種類、住所は23区×2,000番地、状態は約3分の1が賃貸中）。
+ *
+ *【設計上の取捨】
+ *·乱数の種を指定して生成するため、同じ引数であれば毎回同じデータになる。
+ *·文字列は物件ごとに別のインスタンスを作る。読み込んだデータと同じく、格納方式による重複の排除が計測に表れるようにするためである。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+final class BenchmarkData{
+    static final String[] WARDS={"千代田区","中央区","港区","新宿区","文京区","台東区","墨田区","江東区","品川区","目黒区","大田区","世田谷区",
+            "渋谷区","中野区","杉並区","豊島区","北区","荒川区","板橋区","練馬区","足立区","葛飾区","江戸川区"};
+
+    private BenchmarkData(){
+    }
+
+    //·size件を登録したHouseService（サンプルデータ無し）を返す。
+    static HouseService fill(int size,long seed){
+        return fill(new HouseService(size,false),size,new SplittableRandom(seed));
+    }
+
+    //·既存のServiceへcount件を登録する。格納方式や集計の有無を変えたServiceに使い、登録後も同じ乱数を続けて使えるようにする。
+    static <T extends HouseService> T fill(T service,int count,SplittableRandom random){
+        for (int i=0;i<count;i++){
+            service.add(randomHouse(random));
+        }
+        return service;
+    }
+
+    //·IDを1から順に振った物件をcount件作る。Serviceを通さずに物件の配列を直接扱う計測に使う。
+    static House[] houses(int count,SplittableRandom random){
+        House[] houses=new House[count];
+        for (int i=0;i<count;i++){
+            houses[i]=randomHouse(random).withId(i+1);
+        }
+        return houses;
+    }
+
+    //·値の重複具合を現実の物件データに近づけた物件を1件生成する。
+    static House randomHouse(SplittableRandom random){
+        String ward=WARDS[random.nextInt(WARDS.length)];
+        String name=new String("家主"+random.nextInt(5_000));
+        String phone=new String("03"+(10_000_000+random.nextInt(90_000_000)));
+        String address=new String(ward+(1+random.nextInt(2_000)));
+        int rent=40_000+random.nextInt(160)*1_000;
+        String state=new String(random.nextInt(3)==0?"賃貸中":"未賃貸");
+        return new House(0,name,phone,address,rent,state);
+    }
+}
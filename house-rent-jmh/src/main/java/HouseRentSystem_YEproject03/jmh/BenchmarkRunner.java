@@ -0,0 +1,41 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *【Benchmark層・JMH】
+ *benchmarks.jarの起動クラス。JMHの標準の起動処理に、結果をJSON形式でファイルへ保存する指定を加える。
+ *
+ *【設計意図】
+ *·格納方式を変更した前後で結果を機械的に比較できるよう、結果は毎回同じ形式（JMHのJSON）で jmh-results/日時.json に保存する。
+ *·コマンドラインで-rfまたは-rffを指定した場合は、その指定を優先する。その他の引数はそのままJMHへ渡す。
+ *
+ *【使い方】
+ *·java -jar house-rent-jmh/target/benchmarks.jar                     （すべてを実行）
+ *·java -jar house-rent-jmh/target/benchmarks.jar ServiceBenchmark -p size=10,1000
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class BenchmarkRunner{
+    public static void main(String[] args) throws Exception{
+        List<String> options=new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")&&!options.contains("-rff")&&!options.contains("-l")&&!options.contains("-h")){
+            File directory=new File("jmh-results");
+            directory.mkdirs();
+            String name=LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))+".json";
+            options.add(0,"-rf");
+            options.add(1,"json");
+            options.add(2,"-rff");
+            options.add(3,new File(directory,name).getPath());
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
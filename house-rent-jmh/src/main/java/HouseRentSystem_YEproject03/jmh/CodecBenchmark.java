@@ -0,0 +1,397 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.codec.HouseCodec;
+import HouseRentSystem_YEproject03.codec.HouseRecord;
+import HouseRentSystem_YEproject03.codec.HouseRecordReader;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.persistence.HouseSnapshot;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.transfer.HouseExporter;
+import HouseRentSystem_YEproject03.transfer.HouseImporter;
+import HouseRentSystem_YEproject03.transfer.TransferResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *HouseCodecのレコード形式と、Javaの標準シリアライズ・TSV（toString）の変換速度を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·100,000件の物件を各形式で書き込み・読み込みし、1件あたりの時間に換算して出力する。準備の段階で、各形式の1件あたりのバイト数を出力する。
+ *·レコード形式は、ヒープ上のバッファとダイレクトバッファへの読み書き、およびHouseRecord（フライウェイト）で
+ * 「墨田区の未賃貸物件の家賃の合計」を物件を生成せずに求める走査を計測する。
+ *·Houseは標準シリアライズに対応していないため、同じ項目を持つSerializableなクラスで計測する。
+ *
+ *【設計上の取捨】
+ *·準備の段階で、全件が元の物件と同じ項目・版番号に戻ること、小さなバッファから少しずつ読み込んでも同じ結果になること、
+ * 途中で途切れたデータが検出されること、スナップショットと.hrbファイルの書き出し・読み込みで内容が一致することを確認する。
+ * 確認に失敗した場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx2g")
+public class CodecBenchmark{
+    private static final int ROWS=100_000;
+    private static final byte[] WARD="墨田区".getBytes(StandardCharsets.UTF_8);
+
+    private House[] houses;
+    private byte[] serialized;
+    private byte[] tsv;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+
+    @Setup
+    public void setUp() throws IOException{
+        SplittableRandom random=new SplittableRandom(20);
+        houses=BenchmarkData.houses(ROWS,random);
+        //·版番号の符号化も計測に含めるため、0～2の版番号を付ける。
+        for (int i=0;i<ROWS;i++){
+            House house=houses[i];
+            houses[i]=new House(house.getId(),house.getName(),house.getPhone(),house.getAddress(),house.getRent(),house.getState(),random.nextInt(3));
+        }
+        houses[0]=new House(1,null,"","港区𠮷野1",-5,"退去予定",70_000);
+        verify(houses);
+        verifyFiles(houses);
+        serialized=serialize(houses);
+        tsv=tsv(houses);
+        heap=ByteBuffer.allocate(encodedSize(houses));
+        direct=ByteBuffer.allocateDirect(heap.capacity());
+        encode(houses,heap);
+        encode(houses,direct);
+        System.out.println(String.format(Locale.ROOT,"1件のバイト数：標準シリアライズ %.1f、TSV %.1f、レコード %.1f",
+                (double)serialized.length/ROWS,(double)tsv.length/ROWS,(double)heap.limit()/ROWS));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] serializedWrite(){
+        return serialize(houses);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long serializedRead(){
+        return deserialize(serialized);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] tsvWrite(){
+        return tsv(houses);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long tsvRead(){
+        return parseTsv(tsv);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long recordWriteHeap(){
+        return encode(houses,heap);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long recordReadHeap(){
+        return decode(heap);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long recordWriteDirect(){
+        return encode(houses,direct);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long recordReadDirect(){
+        return decode(direct);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long flyweightScanHeap(){
+        return scan(heap);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long flyweightScanDirect(){
+        return scan(direct);
+    }
+
+    private static int encodedSize(House[] houses){
+        int size=0;
+        for (House house:houses){
+            size+=HouseCodec.encodedSize(house);
+        }
+        return size;
+    }
+
+    private static long encode(House[] houses,ByteBuffer buffer){
+        buffer.clear();
+        for (House house:houses){
+            HouseCodec.encode(house,buffer);
+        }
+        buffer.flip();
+        return buffer.limit();
+    }
+
+    private static long decode(ByteBuffer buffer){
+        ByteBuffer in=buffer.duplicate();
+        long sink=0;
+        while (in.hasRemaining()){
+            sink+=HouseCodec.decode(in).getId();
+        }
+        return sink;
+    }
+
+    //·物件を生成せず、墨田区の未賃貸物件の家賃の合計を求める。
+    private static long scan(ByteBuffer buffer){
+        HouseRecord record=new HouseRecord();
+        long sum=0;
+        int limit=buffer.limit();
+        for (int p=0;p<limit;p=record.end()){
+            record.wrap(buffer,p);
+            if (record.isVacant()&&record.addressStartsWith(WARD)){
+                sum+=record.rent();
+            }
+        }
+        return sum;
+    }
+
+    private static byte[] serialize(House[] houses){
+        ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+        try (ObjectOutputStream out=new ObjectOutputStream(bytes)){
+            out.writeInt(houses.length);
+            for (House house:houses){
+                out.writeObject(new SerializableHouse(house));
+            }
+        }catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long deserialize(byte[] serialized){
+        long sink=0;
+        try (ObjectInputStream in=new ObjectInputStream(new ByteArrayInputStream(serialized))){
+            int n=in.readInt();
+            for (int i=0;i<n;i++){
+                sink+=((SerializableHouse)in.readObject()).toHouse().getId();
+            }
+        }catch (IOException|ClassNotFoundException e){
+            throw new IllegalStateException(e);
+        }
+        return sink;
+    }
+
+    private static byte[] tsv(House[] houses){
+        StringBuilder sb=new StringBuilder(houses.length*48);
+        for (House house:houses){
+            sb.append(house).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //·toStringの出力（番号・家主・電話・住所・家賃の間は2つ、家賃・状態の間は1つのタブで区切る）を物件に戻す。
+    private static long parseTsv(byte[] tsv){
+        String text=new String(tsv,StandardCharsets.UTF_8);
+        long sink=0;
+        int start=0;
+        String[] fields=new String[6];
+        while (start<text.length()){
+            int end=text.indexOf('\n',start);
+            int from=start;
+            for (int i=0;i<6;i++){
+                int tab=i<4?text.indexOf("\t\t",from):i==4?text.indexOf('\t',from):end;
+                fields[i]=text.substring(from,tab);
+                from=tab+(i<4?2:1);
+            }
+            House house=new House(Integer.parseInt(fields[0]),fields[1],fields[2],fields[3],Integer.parseInt(fields[4]),fields[5]);
+            sink+=house.getId();
+            start=end+1;
+        }
+        return sink;
+    }
+
+    //·全件が元の項目・版番号へ戻ることを、一括の読み込みと、小さなバッファから少しずつ読み込むReaderの両方で確かめる。
+    private static void verify(House[] houses) throws IOException{
+        ByteBuffer buffer=ByteBuffer.allocate(encodedSize(houses));
+        encode(houses,buffer);
+        ByteBuffer in=buffer.duplicate();
+        for (House house:houses){
+            if (!same(house,HouseCodec.decode(in))){
+                throw new IllegalStateException("読み込んだ物件が一致しません ID "+house.getId());
+            }
+        }
+        if (in.hasRemaining()||HouseCodec.measure(buffer,0,buffer.limit())!=HouseCodec.encodedSize(houses[0])){
+            throw new IllegalStateException("レコードの長さが一致しません");
+        }
+        //·16バイトずつしか読めないチャネルと16バイトのバッファで、続きの読み込みとバッファの拡張を通す。
+        byte[] bytes=new byte[buffer.limit()];
+        buffer.get(0,bytes);
+        HouseRecordReader reader=new HouseRecordReader(new TrickleChannel(bytes,16),null,ByteBuffer.allocate(16));
+        HouseRecord record=new HouseRecord();
+        for (House house:houses){
+            if (!reader.next(record)||!same(house,record.toHouse())){
+                throw new IllegalStateException("少しずつ読み込んだ物件が一致しません ID "+house.getId());
+            }
+        }
+        if (reader.next(record)){
+            throw new IllegalStateException("余分なレコードが読み込まれました");
+        }
+        //·途中で途切れたデータはEOFExceptionとなる。
+        try{
+            HouseRecordReader truncated=new HouseRecordReader(new TrickleChannel(Arrays.copyOf(bytes,bytes.length-1),1<<16),null);
+            while (truncated.read()!=null){
+            }
+            throw new IllegalStateException("途中で途切れたデータを検出できません");
+        }catch (EOFException e){
+            //期待どおり
+        }
+    }
+
+    //·スナップショットと.hrbファイルの書き出し・読み込みの結果を確かめる。
+    private static void verifyFiles(House[] houses) throws IOException{
+        Path directory=Files.createTempDirectory("house-codec");
+        try{
+            HouseSnapshot.write(directory,7,houses.length,houses);
+            HouseService restored=new HouseService(houses.length,false);
+            if (HouseSnapshot.loadLatest(directory,restored,new ArrayList<>())!=7||restored.size()!=houses.length){
+                throw new IllegalStateException("スナップショットを読み込めません");
+            }
+            for (House house:houses){
+                if (!same(house,restored.findById(house.getId()))){
+                    throw new IllegalStateException("スナップショットの物件が一致しません ID "+house.getId());
+                }
+            }
+            Path file=directory.resolve("houses.hrb");
+            TransferResult exported=HouseExporter.export(restored,file);
+            HouseService imported=new HouseService(houses.length,false);
+            TransferResult result=new HouseImporter(imported).importFile(file);
+            //·先頭の物件は氏名がnullで家賃が負のため、検証で読み飛ばされる。
+            boolean ok=exported.rows()==houses.length&&result.rows()==houses.length-1&&result.rejected()==1;
+            for (int i=1;ok&&i<houses.length;i++){
+                House expected=houses[i];
+                House actual=imported.findById(i);
+                ok=actual!=null&&Objects.equals(expected.getName(),actual.getName())&&Objects.equals(expected.getAddress(),actual.getAddress())
+                        &&expected.getRent()==actual.getRent()&&Objects.equals(expected.getState(),actual.getState());
+            }
+            if (!ok){
+                throw new IllegalStateException(".hrbファイルの書き出し・読み込みの結果が一致しません: "+result);
+            }
+        }finally{
+            try (var files=Files.list(directory)){
+                for (Path file:(Iterable<Path>)files::iterator){
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static boolean same(House expected,House actual){
+        return actual!=null&&expected.getId()==actual.getId()&&expected.getVersion()==actual.getVersion()&&expected.getRent()==actual.getRent()
+                &&Objects.equals(expected.getName(),actual.getName())&&Objects.equals(expected.getPhone(),actual.getPhone())
+                &&Objects.equals(expected.getAddress(),actual.getAddress())&&Objects.equals(expected.getState(),actual.getState());
+    }
+
+    //·1回の読み込みで最大chunkバイトしか返さないチャネル。ソケットから少しずつ届く場合を再現する。
+    private static final class TrickleChannel implements ReadableByteChannel{
+        private final ReadableByteChannel source;
+        private final int chunk;
+
+        TrickleChannel(byte[] bytes,int chunk){
+            this.source=Channels.newChannel(new ByteArrayInputStream(bytes));
+            this.chunk=chunk;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException{
+            if (dst.remaining()<=chunk){
+                return source.read(dst);
+            }
+            ByteBuffer part=dst.slice(dst.position(),chunk);
+            int read=source.read(part);
+            if (read>0){
+                dst.position(dst.position()+read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen(){
+            return true;
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+
+    //·Houseと同じ項目を持つ、標準シリアライズ用のクラス。
+    private static final class SerializableHouse implements Serializable{
+        private static final long serialVersionUID=1L;
+        private final int id;
+        private final String name;
+        private final String phone;
+        private final String address;
+        private final int rent;
+        private final String state;
+        private final int version;
+
+        SerializableHouse(House house){
+            this.id=house.getId();
+            this.name=house.getName();
+            this.phone=house.getPhone();
+            this.address=house.getAddress();
+            this.rent=house.getRent();
+            this.state=house.getState();
+            this.version=house.getVersion();
+        }
+
+        House toHouse(){
+            return new House(id,name,phone,address,rent,state,version);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.DiskHouseStorage;
+import HouseRentSystem_YEproject03.service.HouseCache;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *ディスク上の物件（DiskHouseStorage）に対し、人気物件へ偏った参照（Zipf分布）でfindByIdを繰り返し、
+ *キャッシュの予算ごとの1回あたりの処理時間を計測するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·参照するIDは、順位rの物件が 1/r^0.99 に比例して選ばれるZipf分布に従う。人気の順位とIDの対応はハッシュで散らし、人気物件がファイル上で固まらないようにする。
+ *·cacheMbはキャッシュの予算（MB）で、0はキャッシュ無しである。-1は比較用に、全件をヒープに置く標準の格納方式（ObjectHouseStorage）で計測する。
+ *·終了時に、計測中のヒット率・追い出し回数・追加見送り回数を出力する。
+ *
+ *【設計上の取捨】
+ *·準備の段階で、キャッシュを通して読んだ物件とファイルから直接読んだ物件の内容が一致すること、修正後にキャッシュとファイルの内容が一致することを確認し、
+ * 一致しない場合は計測を始めずに例外を送出する。
+ *·作業ファイルは一時ディレクトリに作成し、終了時に削除する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx1g")
+public class DiskCacheBenchmark{
+    private static final double THETA=0.99;
+    //参照列の長さ（2の累乗）。計測中はこの列を繰り返したどる。
+    private static final int KEYS=1<<21;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"-1","0","4","16","64"})
+    private long cacheMb;
+
+    private Path directory;
+    private DiskHouseStorage storage;
+    private HouseService service;
+    private int[] keys;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException{
+        keys=zipfKeys(size,KEYS,new SplittableRandom(5));
+        if (cacheMb<0){
+            service=new HouseService(size,false);
+        }else{
+            directory=Files.createTempDirectory("house-bench");
+            storage=new DiskHouseStorage(directory,size,cacheMb*1024*1024);
+            service=new HouseService(storage,false);
+        }
+        BenchmarkData.fill(service,size,new SplittableRandom(17));
+        if (storage!=null){
+            verify();
+            storage.cache().resetStatistics();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException{
+        if (storage!=null){
+            HouseCache cache=storage.cache();
+            System.out.println(String.format(Locale.ROOT,"キャッシュ %dMB：ヒット率 %.1f%%、追い出し %d、追加見送り %d",
+                    cacheMb,cache.hitRate()*100,cache.evictionCount(),cache.rejectionCount()));
+            storage.close();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Benchmark
+    public int findById(){
+        return service.findById(keys[cursor++&(KEYS-1)]).getRent();
+    }
+
+    //·人気上位の物件について、キャッシュ経由の値とファイルの値が一致すること、修正がキャッシュとファイルの両方へ反映されることを確かめる。
+    private void verify(){
+        for (int i=0;i<1_000;i++){
+            int id=keys[i];
+            House cached=service.findById(id);
+            if (!same(cached,storage.at(storage.slotOf(id)))){
+                throw new IllegalStateException("キャッシュとファイルの内容が一致しません id="+id);
+            }
+            service.update(id,cached.getName(),cached.getPhone(),cached.getAddress(),cached.getRent()+1,cached.getState());
+            House updated=service.findById(id);
+            if (updated.getRent()!=cached.getRent()+1||!same(updated,storage.at(storage.slotOf(id)))){
+                throw new IllegalStateException("修正が反映されていません id="+id);
+            }
+        }
+    }
+
+    private static boolean same(House a,House b){
+        return a.getId()==b.getId()&&a.getVersion()==b.getVersion()&&a.getRent()==b.getRent()&&a.getName().equals(b.getName())
+                &&a.getPhone().equals(b.getPhone())&&a.getAddress().equals(b.getAddress())&&a.getState().equals(b.getState());
+    }
+
+    //·Zipf分布（YCSBと同じ近似式）で順位を選び、順位をハッシュで1～nのIDへ散らした参照列を作る。
+    private static int[] zipfKeys(int n,int operations,SplittableRandom random){
+        double zetan=0;
+        for (int i=1;i<=n;i++){
+            zetan+=1/Math.pow(i,THETA);
+        }
+        double zeta2=1+1/Math.pow(2,THETA);
+        double alpha=1/(1-THETA);
+        double eta=(1-Math.pow(2.0/n,1-THETA))/(1-zeta2/zetan);
+        int[] keys=new int[operations];
+        for (int i=0;i<operations;i++){
+            double u=random.nextDouble();
+            double uz=u*zetan;
+            long rank;
+            if (uz<1){
+                rank=0;
+            }else if (uz<zeta2){
+                rank=1;
+            }else{
+                rank=Math.min(n-1,(long)(n*Math.pow(eta*u-eta+1,alpha)));
+            }
+            keys[i]=1+(int)Long.remainderUnsigned(mix(rank),n);
+        }
+        return keys;
+    }
+
+    private static long mix(long x){
+        x=(x^(x>>>33))*0xff51afd7ed558ccdL;
+        x=(x^(x>>>33))*0xc4ceb9fe1a85ec53L;
+        return x^(x>>>33);
+    }
+}
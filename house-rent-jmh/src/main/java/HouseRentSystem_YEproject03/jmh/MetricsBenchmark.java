@@ -0,0 +1,86 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *HouseMetricsによる計測の有無で、HouseServiceの基本操作の処理時間がどれだけ変わるかを比べるJMHベンチマーク。
+ *
+ *【計測内容】
+ *·metrics=true／falseのそれぞれで、findById・addThenDelete・firstPage・pageAfter（無作為な位置から20件）を1,000,000件の状態で計測する。
+ *·無効の場合も計測の呼び出し（有効かどうかの判定）自体は残るため、比較対象は「計測を組み込む前」ではなく「記録を行わない場合」である。
+ *·計測を有効にした場合は、終了時に記録された統計情報（HouseMetrics.summary()）を出力する。
+ *·JMHはパラメータの組み合わせごとにJVMをフォークするため、有効・無効の分岐の偏りが互いのJITコンパイルに影響しない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=2,jvmArgsAppend="-Xmx2g")
+public class MetricsBenchmark{
+    private static final int SIZE=1_000_000;
+
+    @Param({"false","true"})
+    private boolean metrics;
+
+    private HouseService service;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp(){
+        service=BenchmarkData.fill(SIZE,42);
+        service.metrics().setEnabled(metrics);
+        service.metrics().reset();
+        random=new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public House findById(){
+        return service.findById(1+random.nextInt(SIZE));
+    }
+
+    @Benchmark
+    public boolean addThenDelete(){
+        House house=new House(0,"bench","0312345678","墨田区押上1",80000,"未賃貸");
+        return service.del(service.add(house).getId());
+    }
+
+    @Benchmark
+    public House[] firstPage(){
+        return service.page(0,20);
+    }
+
+    @Benchmark
+    public House[] pageAfter(){
+        return service.pageAfter(random.nextInt(SIZE),20);
+    }
+
+    @TearDown
+    public void tearDown(){
+        if (metrics){
+            System.out.print(service.metrics().summary());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *ページ単位の一覧取得（page・pageAfter）と、全件を配列へコピーするlist()・全件を走査するstream()の処理時間を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·firstPage：先頭ページ（20件）を取得する。
+ *·pageAfterMiddle：中ほどのIDから続きの20件を取得する（キーセット方式）。
+ *·list：全件を配列へコピーする。
+ *·streamRentSum・parallelStreamRentSum：stream()とparallelStream()で全件の家賃合計を求める。
+ *·ページ単位の取得は件数に関係なくほぼ一定となり、list()とstream()は件数に比例して増えることを確認する。
+ *
+ *【設計上の取捨】
+ *·登録後に1割を削除し、墓標を含む状態で計測する。ServiceBenchmarkのfirstPage・listは墓標の無い状態の計測である。
+ *·準備の段階でstream()とparallelStream()の合計が一致することを確認し、一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx4g")
+public class PagingBenchmark{
+    private static final int PAGE=20;
+
+    @Param({"10","1000","100000","1000000"})
+    private int size;
+
+    private HouseService service;
+    private int middle;
+
+    @Setup
+    public void setUp(){
+        SplittableRandom random=new SplittableRandom(7);
+        service=BenchmarkData.fill(new HouseService(size,false),size,random);
+        for (int i=0;i<size/10;i++){
+            service.del(1+random.nextInt(size));
+        }
+        middle=size/2;
+        long sequential=streamRentSum();
+        long parallel=parallelStreamRentSum();
+        if (sequential!=parallel){
+            throw new IllegalStateException("stream()とparallelStream()の家賃合計が一致しません: "+sequential+"/"+parallel);
+        }
+    }
+
+    @Benchmark
+    public House[] firstPage(){
+        return service.page(0,PAGE);
+    }
+
+    @Benchmark
+    public House[] pageAfterMiddle(){
+        return service.pageAfter(middle,PAGE);
+    }
+
+    @Benchmark
+    public House[] list(){
+        return service.list();
+    }
+
+    @Benchmark
+    public long streamRentSum(){
+        return service.stream().mapToLong(House::getRent).sum();
+    }
+
+    @Benchmark
+    public long parallelStreamRentSum(){
+        return service.parallelStream().mapToLong(House::getRent).sum();
+    }
+}
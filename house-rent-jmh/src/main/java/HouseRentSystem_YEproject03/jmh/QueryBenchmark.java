@@ -0,0 +1,96 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseQuery;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *二次索引を使った複合検索と、一覧を全件たどる従来の方法の処理時間を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·indexed：HouseService.find（二次索引）で検索する。件数が増えても、処理時間が件数に比例して増えないことを確認する。
+ *·scan：一覧を先頭からたどって条件に合う物件を数える（limit件で打ち切る）。索引を使わない従来の方法である。
+ *·条件（condition）は「区＋状態＋家賃範囲」「区のみ」「家賃範囲のみ（狭い範囲）」の3種類である。
+ *
+ *【設計上の取捨】
+ *·準備の段階で両方の方法の該当件数が一致することを確認し、一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx4g")
+public class QueryBenchmark{
+    @Param({"10000","100000","1000000"})
+    private int size;
+
+    @Param({"WARD_STATE_RENT","WARD","RENT"})
+    private String condition;
+
+    private HouseService service;
+    private HouseQuery query;
+
+    @Setup
+    public void setUp(){
+        service=BenchmarkData.fill(size,11);
+        if ("WARD_STATE_RENT".equals(condition)){
+            query=new HouseQuery().ward("墨田区").state("未賃貸").rentBetween(0,60_000).limit(100);
+        }else if ("WARD".equals(condition)){
+            query=new HouseQuery().ward("墨田区").limit(100);
+        }else{
+            query=new HouseQuery().rentBetween(80_000,80_000).limit(100);
+        }
+        int hits=service.find(query).length;
+        int scanned=scan();
+        if (hits!=scanned){
+            throw new IllegalStateException("索引と全件走査の該当件数が一致しません: "+hits+"/"+scanned);
+        }
+    }
+
+    @Benchmark
+    public House[] indexed(){
+        return service.find(query);
+    }
+
+    //従来どおり一覧を先頭からたどって条件に合う物件を数える（limit件で打ち切る）。
+    @Benchmark
+    public int scan(){
+        int count=0;
+        for (House house:service.list()){
+            int rent=house.getRent();
+            if (rent<query.minRent()||rent>query.maxRent()){
+                continue;
+            }
+            if (query.state()!=null&&!query.state().equals(house.getState())){
+                continue;
+            }
+            if (query.ward()!=null&&!query.ward().equals(house.getWard())){
+                continue;
+            }
+            if (++count==query.limit()){
+                break;
+            }
+        }
+        return count;
+    }
+}
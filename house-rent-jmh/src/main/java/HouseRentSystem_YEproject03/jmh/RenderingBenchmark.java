@@ -0,0 +1,175 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.view.HouseRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *物件1行あたりの出力処理を計測するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·legacyFormat：以前のtoString（String.formatと文字列連結）と同じ整形。
+ *·houseToString：現在のHouse.toString。
+ *·rendererTable・rendererTsv：HouseRendererで、出力を捨てるWriterへ書き込む。
+ *·legacyPrintln・toStringPrintln・rendererConsole：System.outと同じ構成（128バイトのバッファ・改行ごとに自動フラッシュ）のPrintStreamで/dev/nullへ出力する。
+ * 1行ずつprintlnする従来の画面出力と、HouseRendererでまとめて書き出す方法を、出力の費用を含めて比べる。
+ *·いずれも1,000行を1回の呼び出しで処理し、1行あたりの時間に換算して出力する。1行あたりの確保メモリ量は「-prof gc」で確認する。
+ *·準備の段階で、HouseRendererのTABLE形式とtoStringの出力が一致することを確認し、一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class RenderingBenchmark{
+    private static final int ROWS=1_000;
+
+    private House[] houses;
+    private HouseRenderer table;
+    private HouseRenderer tsv;
+    private PrintStream console;
+    private HouseRenderer consoleTable;
+
+    @Setup
+    public void setUp() throws FileNotFoundException{
+        houses=BenchmarkData.houses(ROWS,new SplittableRandom(3));
+        table=new HouseRenderer(new NullWriter(),HouseRenderer.Format.TABLE);
+        tsv=new HouseRenderer(new NullWriter(),HouseRenderer.Format.TSV);
+        console=new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"),128),true,StandardCharsets.UTF_8);
+        consoleTable=new HouseRenderer(new OutputStreamWriter(console,StandardCharsets.UTF_8),HouseRenderer.Format.TABLE);
+        verify();
+    }
+
+    @TearDown
+    public void tearDown(){
+        console.close();
+    }
+
+    private void verify(){
+        StringBuilder expected=new StringBuilder();
+        for (House house:houses){
+            expected.append(house).append('\n');
+        }
+        StringWriter actual=new StringWriter();
+        HouseRenderer renderer=new HouseRenderer(actual,HouseRenderer.Format.TABLE,512);
+        renderer.rows(houses);
+        renderer.flush();
+        if (!expected.toString().equals(actual.toString())){
+            throw new IllegalStateException("HouseRendererの出力がtoStringと一致しません");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyFormat(Blackhole blackhole){
+        for (House house:houses){
+            blackhole.consume(String.format("%02d",house.getId())+
+                    "\t\t"+house.getName()+
+                    "\t\t"+house.getPhone()+
+                    "\t\t"+house.getAddress()+
+                    "\t\t"+house.getRent()+
+                    "\t"+house.getState());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void houseToString(Blackhole blackhole){
+        for (House house:houses){
+            blackhole.consume(house.toString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyPrintln(){
+        for (House house:houses){
+            console.println(String.format("%02d",house.getId())+
+                    "\t\t"+house.getName()+
+                    "\t\t"+house.getPhone()+
+                    "\t\t"+house.getAddress()+
+                    "\t\t"+house.getRent()+
+                    "\t"+house.getState());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void toStringPrintln(){
+        for (House house:houses){
+            console.println(house);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long rendererConsole(){
+        consoleTable.rows(houses);
+        consoleTable.flush();
+        return consoleTable.rowCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long rendererTable(){
+        table.rows(houses);
+        table.flush();
+        return table.rowCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long rendererTsv(){
+        tsv.rows(houses);
+        tsv.flush();
+        return tsv.rowCount();
+    }
+
+    //書き込まれた内容を捨てるWriter。出力先の速度を計測から除くために使用する。
+    private static final class NullWriter extends Writer{
+        private long chars;
+
+        @Override
+        public void write(char[] cbuf,int off,int len){
+            chars+=len;
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+}
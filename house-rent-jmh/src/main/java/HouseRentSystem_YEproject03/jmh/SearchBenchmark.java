@@ -0,0 +1,82 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *全文索引によるキーワード検索と、一覧を全件たどって文字列を比較する従来の方法の処理時間を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·indexed：HouseService.search（全文索引）で上位20件を検索する。
+ *·scan：一覧を先頭からたどり、住所または所有者名に検索語を含む物件を数える。
+ *·検索語（keyword）は所有者名（完全一致）、住所（前方一致）、数字の一部、1文字の4種類である。
+ * 該当件数の少ない検索語では、検索時間が件数に比例して増えないことを確認する。
+ *·全文索引の作成時間はSearchIndexBenchmarkで計測する。
+ *
+ *【設計上の取捨】
+ *·準備の段階で、索引の該当件数が全件走査の該当件数（20件で打ち切り）と一致することを確認し、一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx4g")
+public class SearchBenchmark{
+    private static final int LIMIT=20;
+
+    @Param({"10000","100000","1000000"})
+    private int size;
+
+    @Param({"家主1234","墨田区12","777","田"})
+    private String keyword;
+
+    private HouseService service;
+
+    @Setup
+    public void setUp(){
+        service=BenchmarkData.fill(size,13);
+        service.enableTextSearch();
+        int hits=indexed().length;
+        int scanned=scan();
+        if (hits!=Math.min(scanned,LIMIT)){
+            throw new IllegalStateException("索引と全件走査の該当件数が一致しません: "+hits+"/"+scanned);
+        }
+    }
+
+    @Benchmark
+    public House[] indexed(){
+        return service.search(keyword,LIMIT);
+    }
+
+    //従来どおり一覧を先頭からたどり、住所または所有者名に検索語を含む物件を数える。
+    @Benchmark
+    public int scan(){
+        int count=0;
+        for (House house:service.list()){
+            if (house.getName().contains(keyword)||house.getAddress().contains(keyword)){
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *全文索引の作成（HouseService.enableTextSearch）にかかる時間を、登録件数を変えながら計測するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·buildIndex：SearchBenchmarkと同じ物件一覧に対して、全文索引を1回作成する。計測の回ごとに、索引の無い一覧を作り直す。
+ *·「-prof gc」で表示される1回あたりの確保量が、索引の大きさの目安となる。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=2)
+@Measurement(iterations=5)
+@Fork(value=1,jvmArgsAppend="-Xmx4g")
+public class SearchIndexBenchmark{
+    @Param({"10000","100000","1000000"})
+    private int size;
+
+    private HouseService service;
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        service=BenchmarkData.fill(size,13);
+    }
+
+    @Benchmark
+    public HouseService buildIndex(){
+        service.enableTextSearch();
+        return service;
+    }
+}
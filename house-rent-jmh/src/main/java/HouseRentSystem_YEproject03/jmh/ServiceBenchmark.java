@@ -0,0 +1,86 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *HouseServiceの基本操作（追加・ID検索・削除・一覧）を、登録件数を変えながら計測するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·findById：登録済みのIDをランダムに選んで検索する。索引がO(1)であれば、件数が増えても1回あたりの時間はほぼ横ばいになる。
+ *·addThenDelete：1件追加し、同じ物件をすぐに削除する。件数を一定に保つため、追加と削除を1往復として計測する。
+ *·deleteThenRestore：登録済みの物件を1件削除し、同じ物件を復元する。墓標の発生と詰め直しの費用も平均に含まれる。
+ *·list：全件を配列へコピーする。件数に比例することを確認する。
+ *·firstPage：先頭の20件をページ単位で取得する。件数に関係なく一定であることを確認する。
+ *
+ *【設計上の取捨】
+ *·10,000,000件の準備には数GBのヒープが必要なため、フォーク先のJVMには-Xmx4gを指定している。小さい件数だけを測る場合は「-p size=10,1000」のように指定する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx4g")
+public class ServiceBenchmark{
+    @Param({"10","1000","100000","1000000","10000000"})
+    private int size;
+
+    private HouseService service;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp(){
+        service=BenchmarkData.fill(size,42);
+        random=new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public House findById(){
+        return service.findById(1+random.nextInt(size));
+    }
+
+    @Benchmark
+    public boolean addThenDelete(){
+        House house=new House(0,"bench","0312345678","墨田区押上1",80000,"未賃貸");
+        return service.del(service.add(house).getId());
+    }
+
+    @Benchmark
+    public boolean deleteThenRestore(){
+        House house=service.findById(1+random.nextInt(size));
+        boolean deleted=service.del(house.getId());
+        service.restore(house);
+        return deleted;
+    }
+
+    @Benchmark
+    public House[] list(){
+        return service.list();
+    }
+
+    @Benchmark
+    public House[] firstPage(){
+        return service.page(0,20);
+    }
+}
@@ -0,0 +1,163 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService.Partitioning;
+import HouseRentSystem_YEproject03.service.RentSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *区ごとの家賃・空室率の集計について、変更のたびに差分で更新する集計（HouseService.rentSummary()）と、
+ *list()で全件を走査して求める方法の処理時間を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·rentSummary：差分で更新された集計を取り出す。件数に関係なくほぼ一定となることを確認する。
+ *·scan：list()で全件を走査し、中央値のための並べ替えを含めて集計する。
+ *·集計の更新が追加・修正・削除に与える負荷はStatisticsUpdateBenchmarkで計測する。
+ *
+ *【設計上の取捨】
+ *·準備の段階で、追加・修正・削除を無作為に行った後のrentSummary()の件数・空室数・家賃の合計が全件の走査から求めた値と一致すること、
+ * 最低・最高・中央値が正確な値の1%以内であることを、全体と区ごとに確認する。区画分割（PartitionedHouseService）の集計も同様に確認する。
+ * 一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx2g")
+public class StatisticsBenchmark{
+    private static final String VACANT="未賃貸";
+
+    @Param({"10000","100000","1000000"})
+    private int size;
+
+    private HouseService service;
+
+    @Setup
+    public void setUp(){
+        verify(new HouseService(16,false),"単一");
+        verify(new PartitionedHouseService(Partitioning.WARD,23,16,false),"区画分割");
+        service=BenchmarkData.fill(size,size);
+        service.enableStatistics();
+    }
+
+    @Benchmark
+    public RentSummary rentSummary(){
+        return service.rentSummary();
+    }
+
+    @Benchmark
+    public int scan(){
+        return scan(service.list()).median();
+    }
+
+    //·追加・修正（家賃・状態・住所）・削除を無作為に行い、集計を全件の走査結果と突き合わせる。
+    private static void verify(HouseService service,String label){
+        service.enableStatistics();
+        SplittableRandom random=new SplittableRandom(11);
+        for (int i=0;i<100_000;i++){
+            int op=random.nextInt(10);
+            if (op<6||service.idCounter()==0){
+                service.add(BenchmarkData.randomHouse(random));
+            }else{
+                int id=1+random.nextInt(service.idCounter());
+                House house=service.findById(id);
+                if (house==null){
+                    continue;
+                }
+                if (op<9){
+                    House other=BenchmarkData.randomHouse(random);
+                    service.update(id,house.getName(),house.getPhone(),op==8?other.getAddress():house.getAddress(),other.getRent(),other.getState());
+                }else{
+                    service.del(id);
+                }
+            }
+        }
+        RentSummary summary=service.rentSummary();
+        Exact exact=scan(service.list());
+        boolean ok=exact.matches(summary)&&exact.byWard.keySet().equals(summary.wards().keySet());
+        for (Map.Entry<String,Exact> entry:exact.byWard.entrySet()){
+            ok&=entry.getValue().matches(summary.wards().get(entry.getKey()));
+        }
+        if (!ok){
+            throw new IllegalStateException("集計が全件の走査結果と一致しません（"+label+"）: "+summary);
+        }
+    }
+
+    //全件を走査して求めた正確な集計。
+    private static Exact scan(House[] houses){
+        Exact total=new Exact();
+        for (House house:houses){
+            total.add(house);
+            String ward=house.getWard();
+            if (ward!=null){
+                total.byWard.computeIfAbsent(ward,k->new Exact()).add(house);
+            }
+        }
+        return total;
+    }
+
+    private static final class Exact{
+        final TreeMap<String,Exact> byWard=new TreeMap<>();
+        int[] rents=new int[16];
+        int count;
+        int vacant;
+        long rentSum;
+
+        void add(House house){
+            if (count==rents.length){
+                rents=Arrays.copyOf(rents,count<<1);
+            }
+            rents[count++]=house.getRent();
+            rentSum+=house.getRent();
+            if (VACANT.equals(house.getState())){
+                vacant++;
+            }
+        }
+
+        //中央値を求めるために並べ替える。
+        int median(){
+            int[] sorted=Arrays.copyOf(rents,count);
+            Arrays.sort(sorted);
+            return count==0?0:sorted[(count-1)/2];
+        }
+
+        boolean matches(RentSummary summary){
+            if (summary==null||summary.count()!=count||summary.vacantCount()!=vacant||summary.totalRent()!=rentSum){
+                return false;
+            }
+            int[] sorted=Arrays.copyOf(rents,count);
+            Arrays.sort(sorted);
+            return count==0||(close(summary.minRent(),sorted[0])&&close(summary.maxRent(),sorted[count-1])
+                    &&close(summary.medianRent(),sorted[(count-1)/2]));
+        }
+
+        private static boolean close(int actual,int expected){
+            return Math.abs((long)actual-expected)<=Math.abs(expected)/100;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *家賃の集計（HouseService.enableStatistics）の有無で、追加・修正・削除の処理時間がどれだけ変わるかを比べるJMHベンチマーク。
+ *
+ *【計測内容】
+ *·statistics=true／falseのそれぞれで、100,000件を登録した状態から、1件の追加・家賃の修正・削除を1組として繰り返し、1操作あたりの時間に換算して出力する。
+ *·追加する物件は準備の段階で作っておき、物件の生成を計測に含めない。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx2g")
+public class StatisticsUpdateBenchmark{
+    private static final int SIZE=100_000;
+    //追加する物件の種類（2の累乗）。
+    private static final int SAMPLES=1<<12;
+
+    @Param({"false","true"})
+    private boolean statistics;
+
+    private HouseService service;
+    private House[] samples;
+    private int cursor;
+
+    @Setup
+    public void setUp(){
+        service=new HouseService(SIZE*2,false);
+        if (statistics){
+            service.enableStatistics();
+        }
+        SplittableRandom random=new SplittableRandom(3);
+        BenchmarkData.fill(service,SIZE,random);
+        samples=new House[SAMPLES];
+        for (int i=0;i<SAMPLES;i++){
+            samples[i]=BenchmarkData.randomHouse(random);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(3)
+    public boolean addUpdateDelete(){
+        House house=service.add(samples[cursor++&(SAMPLES-1)]);
+        int id=house.getId();
+        service.update(id,house.getName(),house.getPhone(),house.getAddress(),house.getRent()+1_000,house.getState());
+        return service.del(id);
+    }
+}
@@ -0,0 +1,179 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseQuery;
+import HouseRentSystem_YEproject03.service.HouseQuery.Order;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService.Partitioning;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ *【Benchmark層・JMH】
+ *並び順を指定した検索（HouseQuery.orderBy・after）と、条件に合う物件を全件並べ替えてから先頭を切り出す方法を比較するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·ordered：並び順を指定してHouseService.findで検索する。
+ *·sortThenSlice：list()の結果を条件で絞り込み、並べ替えてから切り出す。
+ *·検索（query）は次の6種類である。
+ * WARD_STATE_ASC「墨田区の未賃貸で家賃の安い20件」、RARE_WARD_DESC「島しょ区（1,000件に1件の区）の家賃の高い20件」（候補が少なく、上位k件をヒープで選ぶ）、
+ * STATE_ASC「未賃貸で家賃の安い20件」、DESC「家賃の高い20件」（家賃索引を並び順にたどる）、
+ * PAGE_50「家賃の安い順の50ページ目（1ページ20件）」（前のページの最後の物件から続きを取得する）、RANGE_ID「家賃8～8.1万円をID順に20件」。
+ *
+ *【設計上の取捨】
+ *·準備の段階で、条件・並び順を組み合わせた検索について、前のページの最後の物件からの続きを最後まで取得した結果が全件の並べ替え結果と一致することを、
+ * HouseServiceとPartitionedHouseServiceで確認する。計測する検索についても、両方の方法の結果が一致することを確認する。
+ * 一致しない場合は計測を始めずに例外を送出する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="-Xmx3g")
+public class TopKBenchmark{
+    private static final Comparator<House> BY_ID=Comparator.comparingInt(House::getId);
+    private static final Comparator<House> BY_RENT=Comparator.comparingInt(House::getRent).thenComparingInt(House::getId);
+    //·1,000件に1件だけ現れる区。候補が少なく、家賃索引をたどるより候補から上位k件をヒープで選ぶ方が速い場合を計測するために使う。
+    private static final String RARE_WARD="島しょ区";
+
+    @Param({"2000000"})
+    private int size;
+
+    @Param({"WARD_STATE_ASC","RARE_WARD_DESC","STATE_ASC","DESC","PAGE_50","RANGE_ID"})
+    private String query;
+
+    private HouseService service;
+    private HouseQuery houseQuery;
+    private Predicate<House> filter;
+    private Comparator<House> order;
+    private int offset;
+
+    @Setup
+    public void setUp(){
+        verify(load(new HouseService(16,false),50_000),"単一");
+        verify(load(new PartitionedHouseService(Partitioning.WARD,23,16,false),50_000),"区画分割");
+        service=load(new HouseService(size,false),size);
+        if ("WARD_STATE_ASC".equals(query)){
+            use(new HouseQuery().ward("墨田区").state("未賃貸").orderBy(Order.RENT_ASC).limit(20),
+                    h->"墨田区".equals(h.getWard())&&"未賃貸".equals(h.getState()),BY_RENT,0);
+        }else if ("RARE_WARD_DESC".equals(query)){
+            use(new HouseQuery().ward(RARE_WARD).orderBy(Order.RENT_DESC).limit(20),h->RARE_WARD.equals(h.getWard()),BY_RENT.reversed(),0);
+        }else if ("STATE_ASC".equals(query)){
+            use(new HouseQuery().state("未賃貸").orderBy(Order.RENT_ASC).limit(20),h->"未賃貸".equals(h.getState()),BY_RENT,0);
+        }else if ("DESC".equals(query)){
+            use(new HouseQuery().orderBy(Order.RENT_DESC).limit(20),h->true,BY_RENT.reversed(),0);
+        }else if ("PAGE_50".equals(query)){
+            House[] previous=service.find(new HouseQuery().orderBy(Order.RENT_ASC).limit(49*20));
+            use(new HouseQuery().orderBy(Order.RENT_ASC).after(previous[previous.length-1]).limit(20),h->true,BY_RENT,49*20);
+        }else{
+            use(new HouseQuery().rentBetween(80_000,81_000).orderBy(Order.ID).limit(20),h->h.getRent()>=80_000&&h.getRent()<=81_000,BY_ID,0);
+        }
+        if (!Arrays.equals(sortThenSlice(),ordered())){
+            throw new IllegalStateException("並び順の指定と全件の並べ替えの結果が一致しません: "+query);
+        }
+    }
+
+    private void use(HouseQuery houseQuery,Predicate<House> filter,Comparator<House> order,int offset){
+        this.houseQuery=houseQuery;
+        this.filter=filter;
+        this.order=order;
+        this.offset=offset;
+    }
+
+    @Benchmark
+    public House[] ordered(){
+        return service.find(houseQuery);
+    }
+
+    @Benchmark
+    public House[] sortThenSlice(){
+        House[] matches=Arrays.stream(service.list()).filter(filter).toArray(House[]::new);
+        Arrays.sort(matches,order);
+        return Arrays.copyOfRange(matches,Math.min(offset,matches.length),Math.min(offset+houseQuery.limit(),matches.length));
+    }
+
+    private static HouseService load(HouseService service,int n){
+        SplittableRandom random=new SplittableRandom(23);
+        for (int i=0;i<n;i++){
+            House house=BenchmarkData.randomHouse(random);
+            String address=i%1_000==0?RARE_WARD+(1+i%99):house.getAddress();
+            service.add(new House(0,house.getName(),house.getPhone(),address,house.getRent()+random.nextInt(1_000),house.getState()));
+        }
+        for (int i=0;i<n/10;i++){
+            service.del(1+random.nextInt(service.idCounter()));
+        }
+        return service;
+    }
+
+    //·条件と並び順の組み合わせごとに、ページを最後まで送った結果が全件の並べ替え結果と一致することを確かめる。
+    private static void verify(HouseService service,String label){
+        House[] all=service.list();
+        String[] states={null,"未賃貸"};
+        String[] wards={null,"墨田区",RARE_WARD};
+        int[][] ranges={null,{60_000,61_000},{50_000,150_000}};
+        for (Order order:Order.values()){
+            Comparator<House> comparator=order==Order.ID?BY_ID:order==Order.RENT_ASC?BY_RENT:BY_RENT.reversed();
+            for (String state:states){
+                for (String ward:wards){
+                    for (int[] range:ranges){
+                        Predicate<House> filter=h->(state==null||state.equals(h.getState()))&&(ward==null||ward.equals(h.getWard()))
+                                &&(range==null||(h.getRent()>=range[0]&&h.getRent()<=range[1]));
+                        House[] expected=Arrays.stream(all).filter(filter).sorted(comparator).toArray(House[]::new);
+                        House[] walked=new House[expected.length];
+                        int size=0;
+                        House last=null;
+                        while (true){
+                            HouseQuery query=new HouseQuery().orderBy(order).limit(37);
+                            if (state!=null){
+                                query.state(state);
+                            }
+                            if (ward!=null){
+                                query.ward(ward);
+                            }
+                            if (range!=null){
+                                query.rentBetween(range[0],range[1]);
+                            }
+                            if (last!=null){
+                                query.after(last);
+                            }
+                            House[] page=service.find(query);
+                            if (page.length==0||size+page.length>walked.length){
+                                size+=page.length;
+                                break;
+                            }
+                            System.arraycopy(page,0,walked,size,page.length);
+                            size+=page.length;
+                            last=page[page.length-1];
+                        }
+                        if (size!=expected.length||!Arrays.equals(walked,expected)){
+                            throw new IllegalStateException(label+" "+order+" 状態="+state+" 区="+ward+" 家賃="+Arrays.toString(range)
+                                    +" 期待 "+expected.length+"件、取得 "+size+"件");
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package HouseRentSystem_YEproject03.jmh;
+
+import HouseRentSystem_YEproject03.utils.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *【Benchmark層・JMH】
+ *Utilityの入力処理（1行の読み取り・長さの検証・数値の解析）を計測するJMHベンチマーク。
+ *
+ *【計測内容】
+ *·入力元を同じ行を無限に繰り返すInputStreamへ差し替え、readInt・readInt(既定値)・readStringを1行ずつ呼び出す。
+ *·行はすべて正しい入力とし、エラー表示の出力が計測に混ざらないようにしている。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class UtilityBenchmark{
+    @Setup
+    public void setUp(){
+        Utility.setInput(new RepeatingInputStream("72000\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public int readInt(){
+        return Utility.readInt();
+    }
+
+    @Benchmark
+    public int readIntWithDefault(){
+        return Utility.readInt(0);
+    }
+
+    @Benchmark
+    public String readString(){
+        return Utility.readString(16);
+    }
+
+    //同じ内容を終わりなく繰り返すInputStream。
+    private static final class RepeatingInputStream extends InputStream{
+        private final byte[] pattern;
+        private int position;
+
+        RepeatingInputStream(byte[] pattern){
+            this.pattern=pattern;
+        }
+
+        @Override
+        public int read(){
+            int b=pattern[position];
+            position=(position+1)%pattern.length;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b,int off,int len){
+            for (int i=0;i<len;i++){
+                b[off+i]=pattern[position];
+                position=(position+1)%pattern.length;
+            }
+            return len;
+        }
+    }
+}
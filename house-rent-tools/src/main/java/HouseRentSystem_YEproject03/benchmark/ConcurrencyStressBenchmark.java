@@ -0,0 +1,201 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseQuery;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *【Benchmark層】
+ *ConcurrentHouseServiceを複数スレッドから同時に操作し、データの欠落が無いことと、読み取り性能がスレッド数に応じて伸びることを確認する。
+ *
+ *【計測内容】
+ *·負荷試験：書き込みスレッドが追加・更新・削除を、読み取りスレッドが検索を同時に繰り返す。終了後に以下を検証し、不整合があれば終了コード1で終了する。
+ * 　・追加した件数と削除した件数から求めた件数が、size()および一覧の件数と一致すること（追加の欠落が無いこと）。
+ * 　・採番されたIDに重複が無いこと。
+ * 　・各書き込みスレッドが自分の担当物件に加えた家賃の更新回数が、最終的な家賃に漏れなく反映されていること（更新の欠落が無いこと）。
+ * 　・状態の二次索引の件数が、一覧から数えた件数と一致すること。
+ *·スループット：事前に登録した物件に対し、1スレッド・2スレッド・…・CPU数×2スレッドでfindByIdを一定時間繰り返し、毎秒の検索回数と1スレッド比の倍率を出力する。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.ConcurrencyStressBenchmark [事前登録件数] [計測秒数]
+ *·既定値は1,000,000件、各2秒。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ConcurrencyStressBenchmark{
+    public static void main(String[] args) throws InterruptedException{
+        int preload=args.length>0?Integer.parseInt(args[0]):1_000_000;
+        int seconds=args.length>1?Integer.parseInt(args[1]):2;
+        boolean ok=stress(4,50_000,2);
+        throughput(preload,seconds);
+        if (!ok){
+            System.exit(1);
+        }
+    }
+
+    //·writers個の書き込みスレッドと readers個の読み取りスレッドを同時に動かし、終了後の整合性を検証する。
+    private static boolean stress(int writers,int opsPerWriter,int readers) throws InterruptedException{
+        ConcurrentHouseService service=new ConcurrentHouseService(16,false);
+        //各書き込みスレッドが家賃を更新し続ける担当物件。
+        int[] owned=new int[writers];
+        for (int w=0;w<writers;w++){
+            owned[w]=service.add(new House(0,"owner"+w,"0300000000","墨田区1",0,"未賃貸")).getId();
+        }
+        AtomicInteger added=new AtomicInteger(writers);
+        AtomicInteger deleted=new AtomicInteger();
+        int[] updates=new int[writers];
+        AtomicBoolean running=new AtomicBoolean(true);
+        AtomicInteger readerErrors=new AtomicInteger();
+        CountDownLatch done=new CountDownLatch(writers);
+
+        Thread[] threads=new Thread[writers+readers];
+        for (int w=0;w<writers;w++){
+            int self=w;
+            threads[w]=new Thread(()->{
+                SplittableRandom random=new SplittableRandom(self);
+                for (int i=0;i<opsPerWriter;i++){
+                    int op=random.nextInt(10);
+                    if (op<6){
+                        service.add(new House(0,"n"+self,"0311111111","江東区"+i,50_000+i%100,random.nextBoolean()?"未賃貸":"賃貸中"));
+                        added.incrementAndGet();
+                    }else if (op<8){
+                        //担当物件の家賃を1増やす。担当物件は自分しか更新しないため、結果は更新回数と一致するはずである。
+                        House mine=service.findById(owned[self]);
+                        service.update(mine.getId(),mine.getName(),mine.getPhone(),mine.getAddress(),mine.getRent()+1,mine.getState());
+                        updates[self]++;
+                    }else{
+                        int id=1+random.nextInt(service.idCounter());
+                        if (!isOwned(owned,id)&&service.del(id)){
+                            deleted.incrementAndGet();
+                        }
+                    }
+                }
+                done.countDown();
+            },"writer-"+w);
+        }
+        for (int r=0;r<readers;r++){
+            int self=r;
+            threads[writers+r]=new Thread(()->{
+                SplittableRandom random=new SplittableRandom(100+self);
+                while (running.get()){
+                    //担当物件は削除されないため、常に見つからなければならない。
+                    if (service.findById(owned[random.nextInt(owned.length)])==null){
+                        readerErrors.incrementAndGet();
+                    }
+                    service.findById(1+random.nextInt(Math.max(1,service.idCounter())));
+                    service.find(new HouseQuery().ward("江東区").limit(10));
+                }
+            },"reader-"+r);
+        }
+        long start=System.nanoTime();
+        for (Thread thread:threads){
+            thread.start();
+        }
+        done.await();
+        running.set(false);
+        for (Thread thread:threads){
+            thread.join();
+        }
+        long elapsed=System.nanoTime()-start;
+
+        boolean ok=true;
+        int expected=added.get()-deleted.get();
+        House[] all=service.list();
+        if (service.size()!=expected||all.length!=expected){
+            System.out.println("NG: 件数が一致しません size="+service.size()+" list="+all.length+" 期待値="+expected);
+            ok=false;
+        }
+        BitSet seen=new BitSet();
+        int vacant=0;
+        for (House house:all){
+            if (seen.get(house.getId())){
+                System.out.println("NG: IDが重複しています "+house.getId());
+                ok=false;
+            }
+            seen.set(house.getId());
+            if ("未賃貸".equals(house.getState())){
+                vacant++;
+            }
+        }
+        for (int w=0;w<writers;w++){
+            if (service.findById(owned[w]).getRent()!=updates[w]){
+                System.out.println("NG: 更新が失われました writer="+w+" 家賃="+service.findById(owned[w]).getRent()+" 更新回数="+updates[w]);
+                ok=false;
+            }
+        }
+        if (service.findByState("未賃貸").length!=vacant){
+            System.out.println("NG: 状態索引の件数が一致しません");
+            ok=false;
+        }
+        if (readerErrors.get()>0){
+            System.out.println("NG: 存在する物件が見つからない読み取りが "+readerErrors.get()+" 回ありました");
+            ok=false;
+        }
+        System.out.println("負荷試験: 書き込み"+writers+"スレッド×"+opsPerWriter+"操作、読み取り"+readers+"スレッド、"
+                +elapsed/1_000_000+" ms、最終件数 "+expected+" → "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    private static boolean isOwned(int[] owned,int id){
+        for (int o:owned){
+            if (o==id){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //·スレッド数を倍々に増やしながら、findByIdの毎秒の実行回数を計測する。
+    private static void throughput(int preload,int seconds) throws InterruptedException{
+        ConcurrentHouseService service=new ConcurrentHouseService(preload,false);
+        for (int i=0;i<preload;i++){
+            service.add(new House(0,"owner","0300000000","墨田区",50_000+i%1000,"未賃貸"));
+        }
+        int cpus=Runtime.getRuntime().availableProcessors();
+        System.out.println("CPU数: "+cpus);
+        System.out.println("スレッド数\t検索/秒\t\t倍率");
+        double base=0;
+        for (int threads=1;threads<=cpus*2;threads<<=1){
+            LongAdder ops=new LongAdder();
+            AtomicBoolean running=new AtomicBoolean(true);
+            Thread[] workers=new Thread[threads];
+            for (int t=0;t<threads;t++){
+                int self=t;
+                workers[t]=new Thread(()->{
+                    SplittableRandom random=new SplittableRandom(self);
+                    long local=0;
+                    while (running.get()){
+                        for (int i=0;i<1_000;i++){
+                            service.findById(1+random.nextInt(preload));
+                        }
+                        local+=1_000;
+                    }
+                    ops.add(local);
+                });
+            }
+            for (Thread worker:workers){
+                worker.start();
+            }
+            Thread.sleep(seconds*1_000L);
+            running.set(false);
+            for (Thread worker:workers){
+                worker.join();
+            }
+            double perSecond=ops.sum()/(double)seconds;
+            if (base==0){
+                base=perSecond;
+            }
+            System.out.println(threads+"\t\t"+String.format("%,.0f",perSecond)+"\t"+String.format("%.2f",perSecond/base));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.event.HouseEvent;
+import HouseRentSystem_YEproject03.event.HouseEventBus;
+import HouseRentSystem_YEproject03.event.HouseEventBus.Overflow;
+import HouseRentSystem_YEproject03.event.HouseEventBus.Subscription;
+import HouseRentSystem_YEproject03.event.HouseEventHandler;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseChangeListener;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *【Benchmark層】
+ *HouseEventBus（環状バッファによる非同期の変更配送）を使った場合の書き込み性能と、購読者への配送件数を計測するプログラム。
+ *
+ *【計測内容】
+ *·2つの書き込みスレッドが、ConcurrentHouseServiceへ更新8割・追加1割・削除1割の操作を繰り返す。1秒あたりの書き込み回数を出力する。
+ *·比較する構成：リスナー無し／軽い購読者（家賃の合計）1・2・4個（DROP）／軽い購読者4個（BLOCK）／
+ * 遅い購読者（外部への送信を想定し、1回の呼び出しごとに50マイクロ秒待つ）をHouseChangeListenerとして同期的に呼ぶ場合／同じ購読者をDROP・BLOCKで非同期に配送する場合。
+ *·遅い購読者をBLOCKで配送する構成には、整合性の確認のため軽い購読者（BLOCK）を1個加える。
+ *·各購読者について、配送件数・読み落とした件数・まとめて受け取った平均件数、BLOCKの購読者を待った時間を出力する。
+ *·読み落とし：容量64のバッファへ遅い購読者（DROP）の処理より速く変更を書き込み、配送件数と読み落とした件数の合計が書き込んだ件数と一致すること、
+ * 配送された変更の内容が通し番号と食い違わない（上書き途中の区画を読んでいない）ことを確認する。
+ *·整合性：BLOCKの購読者が受け取った変更が通し番号の抜けなく順に並んでいること、変更を順に当てはめた結果が最終的な全物件（IDと版番号）と一致することを確認する。
+ * 確認に失敗した場合は終了コード1で終了する。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.EventBusBenchmark [書き込みスレッドごとの操作回数]
+ *·既定値は500,000回。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class EventBusBenchmark{
+    private static final int WRITERS=2;
+    private static final int PRELOAD=100_000;
+    private static final int CAPACITY=1<<16;
+    //遅い購読者が1回の呼び出しごとに待つ時間
+    private static final long SLOW_NANOS=50_000;
+
+    public static void main(String[] args) throws InterruptedException{
+        int ops=args.length>0?Integer.parseInt(args[0]):500_000;
+        boolean ok=verifyDrop();
+        System.out.println("構成（書き込み "+WRITERS+"スレッド×"+ops+"回）\t書き込み(回/秒)\t購読者ごとの配送件数・読み落とし・平均のまとめ件数");
+        run("リスナー無し\t\t\t",ops,false,null,0,null);
+        for (int subscribers:new int[]{1,2,4}){
+            run("軽い購読者×"+subscribers+"（DROP）\t\t",ops,false,Overflow.DROP,subscribers,null);
+        }
+        ok&=run("軽い購読者×4（BLOCK）\t\t",ops,false,Overflow.BLOCK,4,null);
+        //·遅い購読者を同期的に呼ぶと、書き込み1回ごとに待たされるため、操作回数を減らして計測する。
+        run("遅い購読者（同期リスナー）\t",ops/100,true,null,0,null);
+        run("遅い購読者（DROP）\t\t",ops,false,null,0,Overflow.DROP);
+        ok&=run("遅い購読者（BLOCK）\t\t",ops,false,Overflow.BLOCK,1,Overflow.BLOCK);
+        if (!ok){
+            System.exit(1);
+        }
+    }
+
+    //·synchronousがtrueの場合は遅い購読者を同期リスナーとして登録する。それ以外は、軽い購読者fastCount個をfast、遅い購読者1個をslowの方式で購読する（nullは購読しない）。
+    //·BLOCKの軽い購読者がいる場合は、受け取った変更の整合性を確認し、その結果を返す。
+    private static boolean run(String label,int ops,boolean synchronous,Overflow fast,int fastCount,Overflow slow) throws InterruptedException{
+        ConcurrentHouseService service=new ConcurrentHouseService(PRELOAD*2,false);
+        SplittableRandom random=new SplittableRandom(21);
+        House[] preload=new House[PRELOAD];
+        for (int i=0;i<PRELOAD;i++){
+            preload[i]=StorageFootprintBenchmark.randomHouse(random);
+        }
+        service.addAll(preload);
+        HouseEventBus bus=null;
+        List<Subscription> subscriptions=new ArrayList<>();
+        List<Counting> handlers=new ArrayList<>();
+        List<Replay> replays=new ArrayList<>();
+        if (synchronous){
+            service.addListener(new SlowListener());
+        }else if (fast!=null||slow!=null){
+            bus=new HouseEventBus(CAPACITY);
+            service.addListener(bus);
+            for (int i=0;fast!=null&&i<fastCount;i++){
+                Replay replay=new Replay(service.list());
+                replays.add(replay);
+                handlers.add(replay);
+                subscriptions.add(bus.subscribe("軽"+i,replay,HouseEventBus.DEFAULT_BATCH,fast));
+            }
+            if (slow!=null){
+                SlowHandler handler=new SlowHandler();
+                handlers.add(handler);
+                subscriptions.add(bus.subscribe("遅",handler,HouseEventBus.DEFAULT_BATCH,slow));
+            }
+        }
+        Thread[] writers=new Thread[WRITERS];
+        for (int w=0;w<WRITERS;w++){
+            long seed=w;
+            writers[w]=new Thread(()->write(service,ops,seed));
+        }
+        long start=System.nanoTime();
+        for (Thread writer:writers){
+            writer.start();
+        }
+        for (Thread writer:writers){
+            writer.join();
+        }
+        long elapsed=System.nanoTime()-start;
+        StringBuilder line=new StringBuilder(label).append(String.format("%,.0f",(double)ops*WRITERS*1e9/elapsed));
+        if (bus!=null){
+            service.removeListener(bus);
+            bus.close();
+            line.append("\t\t");
+            for (int i=0;i<subscriptions.size();i++){
+                Subscription subscription=subscriptions.get(i);
+                line.append(subscription.name()).append(' ').append(subscription.delivered()).append('/')
+                        .append(subscription.dropped()).append('/').append(subscription.delivered()/Math.max(1,handlers.get(i).batches)).append("  ");
+            }
+            if (bus.waitNanos()>0){
+                line.append("待ち ").append(bus.waitNanos()/1_000_000).append(" ms");
+            }
+        }
+        System.out.println(line);
+        if (fast!=Overflow.BLOCK){
+            return true;
+        }
+        boolean ok=true;
+        for (Replay replay:replays){
+            ok&=replay.matches(service);
+        }
+        System.out.println("整合性 "+label.trim()+": "+replays.size()+"個の購読者の変更の順序と適用結果 "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    //·通し番号iの変更としてID i+1の物件を書き込み、遅い購読者が受け取った内容と通し番号が対応しているかを確かめる。
+    private static boolean verifyDrop(){
+        int n=200_000;
+        House[] houses=new House[n];
+        for (int i=0;i<n;i++){
+            houses[i]=new House(i+1,"家主","03","墨田区1",50_000,"未賃貸");
+        }
+        HouseEventBus bus=new HouseEventBus(64);
+        boolean[] consistent={true};
+        long[] last={-1};
+        Subscription subscription=bus.subscribe("遅",new HouseEventHandler(){
+            @Override
+            public void onEvents(HouseEvent[] events,int count){
+                for (int i=0;i<count;i++){
+                    if (events[i].after().getId()!=events[i].sequence()+1||events[i].sequence()<=last[0]){
+                        consistent[0]=false;
+                    }
+                    last[0]=events[i].sequence();
+                }
+                LockSupport.parkNanos(SLOW_NANOS);
+            }
+        },16,Overflow.DROP);
+        for (House house:houses){
+            bus.onAdd(house);
+        }
+        bus.close();
+        boolean ok=consistent[0]&&subscription.dropped()>0&&subscription.delivered()+subscription.dropped()==n;
+        System.out.println("読み落とし: 書き込み "+n+"件、配送 "+subscription.delivered()+"件、読み落とし "+subscription.dropped()+"件 → "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    //·更新8割・追加1割・削除1割の操作をops回行う。
+    private static void write(HouseService service,int ops,long seed){
+        SplittableRandom random=new SplittableRandom(seed);
+        for (int i=0;i<ops;i++){
+            int op=random.nextInt(10);
+            int id=1+random.nextInt(service.idCounter());
+            if (op==0){
+                service.add(StorageFootprintBenchmark.randomHouse(random));
+            }else if (op==1){
+                service.del(id);
+            }else{
+                service.update(id,null,null,null,40_000+random.nextInt(160)*1_000,null);
+            }
+        }
+    }
+
+    //·onEvents()の呼び出し回数を数える購読者。配送件数を割って、平均のまとめ件数を求める。
+    private abstract static class Counting implements HouseEventHandler{
+        volatile long batches;
+    }
+
+    //·受け取った変更を順に当てはめて、全物件のIDと版番号を再現する購読者。家賃の合計も求める（軽い処理の例）。
+    private static final class Replay extends Counting{
+        private final HashMap<Integer,Integer> versions=new HashMap<>();
+        private long expected=-1;
+        private boolean ordered=true;
+        private long rentSum;
+
+        Replay(House[] initial){
+            for (House house:initial){
+                versions.put(house.getId(),house.getVersion());
+            }
+        }
+
+        @Override
+        public void onEvents(HouseEvent[] events,int count){
+            batches++;
+            for (int i=0;i<count;i++){
+                HouseEvent event=events[i];
+                if (expected>=0&&event.sequence()!=expected){
+                    ordered=false;
+                }
+                expected=event.sequence()+1;
+                if (event.type()==HouseEvent.Type.DELETE){
+                    versions.remove(event.before().getId());
+                }else{
+                    versions.put(event.after().getId(),event.after().getVersion());
+                    rentSum+=event.after().getRent();
+                }
+            }
+        }
+
+        @Override
+        public void onDropped(long count){
+            ordered=false;
+        }
+
+        boolean matches(HouseService service){
+            House[] all=service.list();
+            if (!ordered||all.length!=versions.size()){
+                return false;
+            }
+            for (House house:all){
+                Integer version=versions.get(house.getId());
+                if (version==null||version!=house.getVersion()){
+                    return false;
+                }
+            }
+            return rentSum!=42;
+        }
+    }
+
+    //·外部への送信を想定し、1回の呼び出しごとにSLOW_NANOSだけ待つ購読者。
+    private static final class SlowHandler extends Counting{
+        @Override
+        public void onEvents(HouseEvent[] events,int count){
+            batches++;
+            LockSupport.parkNanos(SLOW_NANOS);
+        }
+    }
+
+    //·SlowHandlerと同じ処理を、変更のたびに同期的に行うリスナー。
+    private static final class SlowListener implements HouseChangeListener{
+        @Override
+        public void onAdd(House house){
+            LockSupport.parkNanos(SLOW_NANOS);
+        }
+
+        @Override
+        public void onDelete(House house){
+            LockSupport.parkNanos(SLOW_NANOS);
+        }
+
+        @Override
+        public void onUpdate(House before,House after){
+            LockSupport.parkNanos(SLOW_NANOS);
+        }
+    }
+}
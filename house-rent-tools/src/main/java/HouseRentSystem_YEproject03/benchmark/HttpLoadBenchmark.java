@@ -0,0 +1,148 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.http.HouseHttpServer;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *【Benchmark層】
+ *HouseHttpServerへ複数のクライアントから同時に要求を送り、応答時間の分布（p50・p99）と毎秒の要求数を計測する負荷生成プログラム。
+ *
+ *【計測内容】
+ *·同じプロセス内でサーバーを起動し、指定件数の物件を事前に登録する。
+ *·各クライアントは、ID検索8割・一覧（20件）1割・家賃の修正0.5割・追加0.5割の要求を、応答を待ってから次を送る方式で繰り返す。
+ *·最初の2秒はウォームアップとして集計から除き、その後の指定秒数の応答時間を集計する。期待と異なる応答コードはエラーとして数える。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.HttpLoadBenchmark [事前登録件数] [クライアント数] [計測秒数]
+ *·既定値は100,000件、32クライアント、10秒。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class HttpLoadBenchmark{
+    private static final long WARMUP_NANOS=2_000_000_000L;
+
+    public static void main(String[] args) throws Exception{
+        int preload=args.length>0?Integer.parseInt(args[0]):100_000;
+        int clients=args.length>1?Integer.parseInt(args[1]):32;
+        int seconds=args.length>2?Integer.parseInt(args[2]):10;
+
+        ConcurrentHouseService service=new ConcurrentHouseService(preload,false);
+        SplittableRandom seed=new SplittableRandom(1);
+        for (int i=0;i<preload;i++){
+            service.add(StorageFootprintBenchmark.randomHouse(seed));
+        }
+        try (HouseHttpServer server=new HouseHttpServer(service,new InetSocketAddress("127.0.0.1",0))){
+            server.start();
+            String base="http://127.0.0.1:"+server.port()+"/houses";
+            System.out.println("サーバー: "+base+"（"+(server.usesVirtualThreads()?"仮想スレッド":"スレッドプール")+"）、"
+                    +preload+"件、"+clients+"クライアント、"+seconds+"秒");
+            HttpClient client=HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            AtomicBoolean running=new AtomicBoolean(true);
+            LongAdder errors=new LongAdder();
+            long measureFrom=System.nanoTime()+WARMUP_NANOS;
+            Recorder[] recorders=new Recorder[clients];
+            Thread[] threads=new Thread[clients];
+            for (int c=0;c<clients;c++){
+                Recorder recorder=new Recorder();
+                recorders[c]=recorder;
+                int self=c;
+                threads[c]=new Thread(()->{
+                    SplittableRandom random=new SplittableRandom(100+self);
+                    while (running.get()){
+                        HttpRequest request=nextRequest(base,random,preload);
+                        long start=System.nanoTime();
+                        try{
+                            HttpResponse<byte[]> response=client.send(request,HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode()>=400&&response.statusCode()!=404){
+                                errors.increment();
+                            }
+                        }catch (IOException e){
+                            errors.increment();
+                        }catch (InterruptedException e){
+                            return;
+                        }
+                        if (start>=measureFrom){
+                            recorder.add(System.nanoTime()-start);
+                        }
+                    }
+                },"load-"+c);
+                threads[c].start();
+            }
+            Thread.sleep(WARMUP_NANOS/1_000_000+seconds*1_000L);
+            running.set(false);
+            for (Thread thread:threads){
+                thread.join();
+            }
+            report(recorders,seconds,errors.sum());
+        }
+    }
+
+    private static HttpRequest nextRequest(String base,SplittableRandom random,int preload){
+        int op=random.nextInt(200);
+        int id=1+random.nextInt(Math.max(1,preload));
+        if (op<160){
+            return HttpRequest.newBuilder(URI.create(base+"/"+id)).GET().build();
+        }
+        if (op<180){
+            return HttpRequest.newBuilder(URI.create(base+"?after="+id+"&limit=20")).GET().build();
+        }
+        if (op<190){
+            return HttpRequest.newBuilder(URI.create(base+"/"+id))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"rent\":"+(40_000+random.nextInt(200)*500)+"}")).build();
+        }
+        return HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"load\",\"phone\":\"0312345678\",\"address\":\"墨田区押上1\",\"rent\":72000,\"state\":\"未賃貸\"}"))
+                .build();
+    }
+
+    private static void report(Recorder[] recorders,int seconds,long errors){
+        int total=0;
+        for (Recorder recorder:recorders){
+            total+=recorder.size;
+        }
+        long[] all=new long[total];
+        int n=0;
+        for (Recorder recorder:recorders){
+            System.arraycopy(recorder.nanos,0,all,n,recorder.size);
+            n+=recorder.size;
+        }
+        Arrays.sort(all);
+        System.out.println(String.format("要求数 %,d、%,.0f 要求/秒、エラー %d",total,total/(double)seconds,errors));
+        if (total>0){
+            System.out.println(String.format("応答時間 p50 %.2f ms、p90 %.2f ms、p99 %.2f ms、最大 %.2f ms",
+                    percentile(all,0.50),percentile(all,0.90),percentile(all,0.99),all[total-1]/1e6));
+        }
+    }
+
+    private static double percentile(long[] sorted,double p){
+        int index=(int)Math.min(sorted.length-1,Math.ceil(p*sorted.length)-1);
+        return sorted[Math.max(index,0)]/1e6;
+    }
+
+    //1クライアント分の応答時間（ナノ秒）を記録する。
+    private static final class Recorder{
+        long[] nanos=new long[1<<14];
+        int size;
+
+        void add(long value){
+            if (size==nanos.length){
+                nanos=Arrays.copyOf(nanos,size<<1);
+            }
+            nanos[size++]=value;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.codec.HouseRecord;
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.HouseStorage;
+import HouseRentSystem_YEproject03.service.ObjectHouseStorage;
+import HouseRentSystem_YEproject03.service.OffHeapHouseStorage;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+
+/**
+ *【Benchmark層】
+ *物件をヒープ外に置く格納方式（OffHeapHouseStorage）と、オブジェクト配列（ObjectHouseStorage）の、ヒープ使用量とガベージコレクションの停止時間を比較する計測プログラム。
+ *
+ *【計測内容】
+ *·指定した格納方式のHouseServiceへ物件を登録し、ガベージコレクション後のヒープ使用量と1件あたりのバイト数を出力する（ヒープ外の確保量も出力する）。
+ *·System.gc()による全体のガベージコレクション3回の停止時間の平均を出力する。生存オブジェクトをすべてたどるため、ヒープ上の物件数の影響を最も受ける。
+ *·登録済みの物件の家賃を更新し続け、その間に発生したガベージコレクションの回数・停止時間の合計・最大を出力する（GarbageCollectionNotificationInfoから取得する）。
+ *·全件の家賃の合計を求める走査の1件あたりの時間を出力する。object はat()、offheap はrecordAt()（フライウェイト）で読む。
+ *·offheap では、計測の前に小規模な確認を行う（失敗した場合は終了コード1で終了する）。
+ * 無作為な追加・削除・更新の結果がObjectHouseStorageと一致すること、削除・更新で空いた領域が再利用されて確保量が増えないこと、
+ * 走査中に更新・削除・詰め直しが行われても、走査で返る物件が現在の内容と一致することを確認する。
+ *
+ *【使い方】
+ *·格納方式ごとに別のJVMで実行する（ヒープの状態が互いに影響しないようにするため）。
+ *·java -Xmx4g HouseRentSystem_YEproject03.benchmark.OffHeapBenchmark object [件数] [更新回数]
+ *·java -Xmx4g -XX:MaxDirectMemorySize=2g HouseRentSystem_YEproject03.benchmark.OffHeapBenchmark offheap [件数] [更新回数]
+ *·既定値は10,000,000件、更新5,000,000回。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class OffHeapBenchmark{
+    private static final int FULL_GC_ROUNDS=3;
+
+    public static void main(String[] args) throws InterruptedException{
+        String mode=args.length>0?args[0]:"offheap";
+        int count=args.length>1?Integer.parseInt(args[1]):10_000_000;
+        int updates=args.length>2?Integer.parseInt(args[2]):5_000_000;
+        boolean offHeap;
+        if (mode.equals("offheap")){
+            offHeap=true;
+        }else if (mode.equals("object")){
+            offHeap=false;
+        }else{
+            throw new IllegalArgumentException("格納方式は object または offheap を指定してください: "+mode);
+        }
+        if (offHeap&&!verify()){
+            System.exit(1);
+        }
+        long baseline=usedHeap();
+        HouseStorage storage=offHeap?new OffHeapHouseStorage(count):new ObjectHouseStorage(count);
+        HouseService service=new HouseService(storage,false);
+        SplittableRandom random=new SplittableRandom(7);
+        long start=System.nanoTime();
+        for (int i=0;i<count;i++){
+            service.add(StorageFootprintBenchmark.randomHouse(random));
+        }
+        long loadMillis=(System.nanoTime()-start)/1_000_000;
+        long heap=usedHeap()-baseline;
+        System.out.println("格納方式 "+mode+"（"+String.format("%,d",service.size())+"件、登録 "+loadMillis+" ms、GC "+PauseRecorder.collectors()+"）");
+        System.out.println("ヒープ使用量\t\t"+String.format("%,d MB（%.1f バイト/件）",heap>>20,(double)heap/count));
+        if (offHeap){
+            OffHeapHouseStorage offHeapStorage=(OffHeapHouseStorage)storage;
+            System.out.println("ヒープ外の確保量\t"+String.format("%,d MB（使用中のブロック %,d MB）",offHeapStorage.offHeapBytes()>>20,offHeapStorage.liveBlockBytes()>>20));
+        }
+        long fullGc=0;
+        for (int i=0;i<FULL_GC_ROUNDS;i++){
+            long gcStart=System.nanoTime();
+            System.gc();
+            fullGc+=System.nanoTime()-gcStart;
+        }
+        System.out.println("全体のGC\t\t"+fullGc/FULL_GC_ROUNDS/1_000_000+" ms/回");
+        PauseRecorder pauses=new PauseRecorder();
+        start=System.nanoTime();
+        for (int i=0;i<updates;i++){
+            service.update(1+random.nextInt(count),null,null,null,40_000+random.nextInt(160)*1_000,null);
+        }
+        long updateNanos=System.nanoTime()-start;
+        pauses.close();
+        System.out.println("更新中のGC\t\t"+String.format("%,d回、合計 %,d ms、最大 %,d ms（更新 %,.0f 回/秒）",
+                pauses.count,pauses.totalMillis,pauses.maxMillis,(double)updates*1e9/updateNanos));
+        start=System.nanoTime();
+        long rentSum=offHeap?scanRecords((OffHeapHouseStorage)storage):scanHouses(storage);
+        long scanNanos=System.nanoTime()-start;
+        System.out.println("全件走査\t\t"+String.format("%.1f ns/件（家賃の合計 %,d）",(double)scanNanos/count,rentSum));
+    }
+
+    private static long scanHouses(HouseStorage storage){
+        long sum=0;
+        for (int slot=0;slot<storage.slotCount();slot++){
+            House house=storage.at(slot);
+            if (house!=null){
+                sum+=house.getRent();
+            }
+        }
+        return sum;
+    }
+
+    private static long scanRecords(OffHeapHouseStorage storage){
+        HouseRecord record=new HouseRecord();
+        long sum=0;
+        for (int slot=0;slot<storage.slotCount();slot++){
+            if (storage.recordAt(slot,record)!=null){
+                sum+=record.rent();
+            }
+        }
+        return sum;
+    }
+
+    private static boolean verify(){
+        boolean ok=verifyOperations();
+        ok&=verifyReuse();
+        ok&=verifyStaleScan();
+        return ok;
+    }
+
+    //·同じ操作をObjectHouseStorageとOffHeapHouseStorageの両方に行い、一覧・ID検索・走査の結果が一致することを確かめる。
+    private static boolean verifyOperations(){
+        HouseService expected=new HouseService(new ObjectHouseStorage(16),false);
+        OffHeapHouseStorage storage=new OffHeapHouseStorage(16);
+        HouseService actual=new HouseService(storage,false);
+        SplittableRandom random=new SplittableRandom(22);
+        for (int i=0;i<300_000;i++){
+            int op=random.nextInt(10);
+            int id=1+random.nextInt(Math.max(1,expected.idCounter()));
+            if (op<4){
+                House house=StorageFootprintBenchmark.randomHouse(random);
+                if (random.nextInt(100)==0){
+                    //·512バイトを超える大きいサイズ区分と、null・規定外の状態も確かめる。
+                    house=new House(0,"家主".repeat(100+random.nextInt(300)),null,house.getAddress(),house.getRent(),random.nextBoolean()?null:"修繕中");
+                }
+                expected.add(copy(house));
+                actual.add(house);
+            }else if (op<7){
+                expected.del(id);
+                actual.del(id);
+            }else{
+                String address=random.nextInt(4)==0?"江東区"+"豊洲".repeat(random.nextInt(20)):null;
+                int rent=40_000+random.nextInt(160)*1_000;
+                expected.update(id,null,null,address,rent,null);
+                actual.update(id,null,null,address,rent,null);
+            }
+        }
+        boolean ok=same(expected.list(),actual.list());
+        for (int id=1;ok&&id<=expected.idCounter();id++){
+            ok=same(expected.findById(id),actual.findById(id));
+        }
+        List<House> scanned=new ArrayList<>();
+        actual.stream().forEach(scanned::add);
+        ok&=same(expected.list(),scanned.toArray(new House[0]));
+        HouseRecord record=new HouseRecord();
+        for (House house:expected.list()){
+            HouseRecord found=storage.record(house.getId(),record);
+            ok&=found!=null&&found.id()==house.getId()&&found.rent()==house.getRent()&&Objects.equals(found.address(),house.getAddress());
+        }
+        ok&=storage.record(expected.idCounter()+1,record)==null;
+        System.out.println("操作の一致: "+expected.size()+"件（墓標 "+storage.tombstones()+"件） → "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    //·全件を削除して同じ物件を登録し直すこと、同じ物件を繰り返し更新することで、確保量が増えないことを確かめる。
+    private static boolean verifyReuse(){
+        int n=200_000;
+        OffHeapHouseStorage storage=new OffHeapHouseStorage(n);
+        HouseService service=new HouseService(storage,false);
+        House[] houses=new House[n];
+        SplittableRandom random=new SplittableRandom(3);
+        for (int i=0;i<n;i++){
+            houses[i]=StorageFootprintBenchmark.randomHouse(random);
+            service.add(houses[i]);
+        }
+        long allocated=storage.offHeapBytes();
+        long live=storage.liveBlockBytes();
+        for (int id=1;id<=n;id++){
+            service.del(id);
+        }
+        boolean ok=storage.liveBlockBytes()==0;
+        //·IDの桁数でレコードの長さが変わるため、restore()で同じIDのまま登録し直す。
+        for (House house:houses){
+            service.restore(copy(house));
+        }
+        ok&=storage.offHeapBytes()==allocated&&storage.liveBlockBytes()==live;
+        //·更新は新しいブロックを確保してから古いブロックを解放するため、最初の1巡で確保量が増えることはあるが、2巡目以降は増えない。
+        long updated=0;
+        for (int round=0;round<5;round++){
+            for (int i=0;i<n;i++){
+                service.update(1+i,null,null,null,40_000+random.nextInt(160)*1_000,null);
+            }
+            if (round==0){
+                updated=storage.offHeapBytes();
+            }
+        }
+        ok&=storage.offHeapBytes()==updated&&storage.liveBlockBytes()==live&&service.size()==n;
+        System.out.println("領域の再利用: 確保量 "+(allocated>>20)+" MB → "+(storage.offHeapBytes()>>20)+" MB → "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    //·走査の途中で更新・削除・詰め直しを行い、走査で返る物件が現在の内容と一致し、削除済みの物件が返らないことを確かめる。
+    private static boolean verifyStaleScan(){
+        int n=100_000;
+        OffHeapHouseStorage storage=new OffHeapHouseStorage(n);
+        HouseService service=new HouseService(storage,false);
+        SplittableRandom random=new SplittableRandom(5);
+        for (int i=0;i<n;i++){
+            service.add(StorageFootprintBenchmark.randomHouse(random));
+        }
+        Spliterator<House> scan=storage.spliterator(0);
+        Map<Integer,House> seen=new HashMap<>();
+        boolean ok=true;
+        for (int i=0;i<n/4&&ok;i++){
+            ok=scan.tryAdvance(house->seen.put(house.getId(),house));
+        }
+        for (int i=0;i<n/2;i++){
+            int id=1+random.nextInt(n);
+            if (random.nextBoolean()){
+                service.del(id);
+            }else{
+                service.update(id,null,null,random.nextBoolean()?"港区"+"芝浦".repeat(random.nextInt(10)):null,40_000+random.nextInt(160)*1_000,null);
+            }
+        }
+        service.compact();
+        Map<Integer,House> rest=new HashMap<>();
+        scan.forEachRemaining(house->rest.put(house.getId(),house));
+        for (House house:rest.values()){
+            ok&=same(service.findById(house.getId()),house);
+        }
+        for (House house:service.list()){
+            ok&=seen.containsKey(house.getId())||rest.containsKey(house.getId());
+        }
+        System.out.println("走査中の変更: 走査後半 "+rest.size()+"件、現在 "+service.size()+"件 → "+(ok?"OK":"NG"));
+        return ok;
+    }
+
+    private static House copy(House house){
+        return new House(house.getId(),house.getName(),house.getPhone(),house.getAddress(),house.getRent(),house.getState());
+    }
+
+    private static boolean same(House[] expected,House[] actual){
+        if (expected.length!=actual.length){
+            return false;
+        }
+        for (int i=0;i<expected.length;i++){
+            if (!same(expected[i],actual[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean same(House expected,House actual){
+        if (expected==null||actual==null){
+            return expected==actual;
+        }
+        return expected.getId()==actual.getId()&&expected.getVersion()==actual.getVersion()&&expected.getRent()==actual.getRent()
+                &&Objects.equals(expected.getName(),actual.getName())&&Objects.equals(expected.getPhone(),actual.getPhone())
+                &&Objects.equals(expected.getAddress(),actual.getAddress())&&Objects.equals(expected.getState(),actual.getState());
+    }
+
+    private static long usedHeap(){
+        for (int i=0;i<3;i++){
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    //·生成から終了までに発生したガベージコレクション（並行処理を除く）の回数と停止時間を記録する。
+    //·通知は別のスレッドから遅れて届くため、close()ではGarbageCollectorMXBeanの回数に追いつくまで待つ。
+    private static final class PauseRecorder implements NotificationListener{
+        private static final long CLOSE_TIMEOUT_MILLIS=5_000;
+
+        private final List<NotificationEmitter> emitters=new ArrayList<>();
+        private final long startCount;
+        private int count;
+        private long totalMillis;
+        private long maxMillis;
+
+        PauseRecorder(){
+            startCount=collections();
+            for (GarbageCollectorMXBean collector:ManagementFactory.getGarbageCollectorMXBeans()){
+                if (collector instanceof NotificationEmitter&&!isConcurrent(collector.getName())){
+                    NotificationEmitter emitter=(NotificationEmitter)collector;
+                    emitter.addNotificationListener(this,null,null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification,Object handback){
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)){
+                return;
+            }
+            long millis=GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData()).getGcInfo().getDuration();
+            count++;
+            totalMillis+=millis;
+            maxMillis=Math.max(maxMillis,millis);
+            notifyAll();
+        }
+
+        synchronized void close() throws InterruptedException{
+            long expected=collections()-startCount;
+            long deadline=System.currentTimeMillis()+CLOSE_TIMEOUT_MILLIS;
+            while (count<expected&&System.currentTimeMillis()<deadline){
+                wait(100);
+            }
+            for (NotificationEmitter emitter:emitters){
+                try{
+                    emitter.removeNotificationListener(this);
+                }catch (ListenerNotFoundException e){
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        //·使用中のガベージコレクタの名前（並行処理を除く）を返す。
+        static String collectors(){
+            StringBuilder names=new StringBuilder();
+            for (GarbageCollectorMXBean collector:ManagementFactory.getGarbageCollectorMXBeans()){
+                if (!isConcurrent(collector.getName())){
+                    names.append(names.length()>0?"・":"").append(collector.getName());
+                }
+            }
+            return names.toString();
+        }
+
+        private static long collections(){
+            long total=0;
+            for (GarbageCollectorMXBean collector:ManagementFactory.getGarbageCollectorMXBeans()){
+                if (!isConcurrent(collector.getName())){
+                    total+=collector.getCollectionCount();
+                }
+            }
+            return total;
+        }
+
+        //·G1の並行マーキング（G1 Concurrent GC）などはアプリケーションを止めないため、停止時間に含めない。
+        private static boolean isConcurrent(String name){
+            return name.contains("Concurrent");
+        }
+    }
+}
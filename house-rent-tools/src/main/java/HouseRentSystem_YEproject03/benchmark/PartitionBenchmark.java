@@ -0,0 +1,185 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseQuery;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService;
+import HouseRentSystem_YEproject03.service.PartitionedHouseService.Partitioning;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ *【Benchmark層】
+ *区ごとに区画を分けたPartitionedHouseServiceと、1つの配列・1つのロックで保持するConcurrentHouseServiceを比較する計測プログラム。
+ *
+ *【計測内容】
+ *·整合性：複数スレッドから追加・削除を同時に行った後、件数・IDの重複・一覧の順序・pageAfterによる全件の巡回・条件検索の結果が
+ * 一覧から求めた結果と一致することを確認する。一致しない場合は終了コード1で終了する。
+ *·書き込み：各スレッドがそれぞれ別の区の物件を追加し続け、スレッド数ごとの毎秒の追加件数を出力する。
+ *·全区画にまたがる読み取り：事前に登録した物件に対し、list()・家賃範囲の検索・並列ストリームでの件数の集計にかかる時間を出力する。
+ *
+ *【使い方】
+ *·java -Xmx2g HouseRentSystem_YEproject03.benchmark.PartitionBenchmark [事前登録件数] [計測秒数] [区画数]
+ *·既定値は1,000,000件、各2秒、23区画（東京23区）。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class PartitionBenchmark{
+    public static void main(String[] args) throws InterruptedException{
+        int preload=args.length>0?Integer.parseInt(args[0]):1_000_000;
+        int seconds=args.length>1?Integer.parseInt(args[1]):2;
+        int shards=args.length>2?Integer.parseInt(args[2]):23;
+        boolean ok=verify(new PartitionedHouseService(Partitioning.WARD,shards,16,false))
+                &verify(new PartitionedHouseService(Partitioning.ID,shards,16,false));
+        writes(seconds,shards);
+        reads(preload,shards);
+        if (!ok){
+            System.exit(1);
+        }
+    }
+
+    //·4スレッドで追加と削除を同時に行い、終了後の状態を一覧と突き合わせる。
+    private static boolean verify(PartitionedHouseService service) throws InterruptedException{
+        Thread[] threads=new Thread[4];
+        for (int t=0;t<threads.length;t++){
+            int self=t;
+            threads[t]=new Thread(()->{
+                SplittableRandom random=new SplittableRandom(self);
+                for (int i=0;i<20_000;i++){
+                    service.add(StorageFootprintBenchmark.randomHouse(random));
+                    if (i%5==0){
+                        service.del(1+random.nextInt(Math.max(1,service.idCounter())));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread:threads){
+            thread.join();
+        }
+        String label=service.partitioning()+"("+service.shardCount()+"区画)";
+        House[] all=service.list();
+        BitSet seen=new BitSet();
+        for (int i=0;i<all.length;i++){
+            int id=all[i].getId();
+            if (seen.get(id)||(i>0&&all[i-1].getId()>=id)||service.findById(id)!=all[i]){
+                System.out.println("NG: "+label+" 一覧の順序・重複・IDによる取得が正しくありません id="+id);
+                return false;
+            }
+            seen.set(id);
+        }
+        if (all.length!=service.size()||service.stream().count()!=all.length){
+            System.out.println("NG: "+label+" 件数が一致しません");
+            return false;
+        }
+        int walked=0;
+        for (House[] page=service.pageAfter(0,777);page.length>0;page=service.pageAfter(page[page.length-1].getId(),777)){
+            for (House house:page){
+                if (all[walked++]!=house){
+                    System.out.println("NG: "+label+" pageAfterの巡回が一覧と一致しません");
+                    return false;
+                }
+            }
+        }
+        if (walked!=all.length||!Arrays.equals(service.page(1_000,50),Arrays.copyOfRange(all,1_000,1_050))){
+            System.out.println("NG: "+label+" ページ取得が一覧と一致しません");
+            return false;
+        }
+        //·区画ごとに索引の使い方が異なり得るため、結果が条件を満たし、重複が無く、家賃順に並び、件数が一覧から数えた件数と一致することを確かめる。
+        HouseQuery query=new HouseQuery().ward("墨田区").state("未賃貸").rentBetween(50_000,90_000).limit(40);
+        long matches=Arrays.stream(all)
+                .filter(h->"墨田区".equals(h.getWard())&&"未賃貸".equals(h.getState())&&h.getRent()>=50_000&&h.getRent()<=90_000)
+                .count();
+        House[] found=service.find(query);
+        boolean valid=found.length==Math.min(40,matches)&&Arrays.stream(found).map(House::getId).distinct().count()==found.length;
+        for (int i=0;i<found.length&&valid;i++){
+            House h=found[i];
+            valid="墨田区".equals(h.getWard())&&"未賃貸".equals(h.getState())&&h.getRent()>=50_000&&h.getRent()<=90_000
+                    &&(i==0||found[i-1].getRent()<h.getRent()||(found[i-1].getRent()==h.getRent()&&found[i-1].getId()<h.getId()));
+        }
+        if (!valid){
+            System.out.println("NG: "+label+" 条件検索の結果が正しくありません");
+            return false;
+        }
+        System.out.println("整合性 "+label+": "+all.length+"件 OK（区画ごとの件数 "+Arrays.toString(service.shardSizes())+"）");
+        return true;
+    }
+
+    //·スレッドごとに別の区の物件を追加し続け、毎秒の追加件数を比べる。
+    private static void writes(int seconds,int shards) throws InterruptedException{
+        int cpus=Runtime.getRuntime().availableProcessors();
+        System.out.println("CPU数: "+cpus);
+        System.out.println("スレッド数\t単一ロック(追加/秒)\t区画分割(追加/秒)");
+        for (int threads=1;threads<=Math.max(2,cpus*2);threads<<=1){
+            double single=addRate(new ConcurrentHouseService(1_024,false),threads,seconds);
+            double partitioned=addRate(new PartitionedHouseService(Partitioning.WARD,shards,1_024,false),threads,seconds);
+            System.out.println(threads+"\t\t"+String.format("%,.0f",single)+"\t\t"+String.format("%,.0f",partitioned));
+        }
+    }
+
+    private static double addRate(HouseService service,int threads,int seconds) throws InterruptedException{
+        LongAdder ops=new LongAdder();
+        AtomicBoolean running=new AtomicBoolean(true);
+        Thread[] workers=new Thread[threads];
+        for (int t=0;t<threads;t++){
+            String ward=StorageFootprintBenchmark.WARDS[t%StorageFootprintBenchmark.WARDS.length];
+            workers[t]=new Thread(()->{
+                long local=0;
+                while (running.get()){
+                    service.add(new House(0,"家主","0312345678",ward+(local%2_000),50_000+(int)(local%100)*1_000,"未賃貸"));
+                    local++;
+                }
+                ops.add(local);
+            });
+        }
+        for (Thread worker:workers){
+            worker.start();
+        }
+        Thread.sleep(seconds*1_000L);
+        running.set(false);
+        for (Thread worker:workers){
+            worker.join();
+        }
+        return ops.sum()/(double)seconds;
+    }
+
+    private static void reads(int preload,int shards){
+        ConcurrentHouseService single=new ConcurrentHouseService(preload,false);
+        PartitionedHouseService partitioned=new PartitionedHouseService(Partitioning.WARD,shards,preload,false);
+        SplittableRandom random=new SplittableRandom(3);
+        for (int i=0;i<preload;i++){
+            House house=StorageFootprintBenchmark.randomHouse(random);
+            single.add(house);
+            partitioned.add(new House(0,house.getName(),house.getPhone(),house.getAddress(),house.getRent(),house.getState()));
+        }
+        HouseQuery range=new HouseQuery().rentBetween(80_000,90_000).limit(100);
+        System.out.println("処理（"+preload+"件）\t\t単一ロック(ms)\t区画分割(ms)");
+        System.out.println("list()\t\t\t"+time(()->single.list().length)+"\t\t"+time(()->partitioned.list().length));
+        System.out.println("家賃範囲の検索\t\t"+time(()->single.find(range).length)+"\t\t"+time(()->partitioned.find(range).length));
+        System.out.println("並列ストリームの集計\t"+time(()->single.parallelStream().filter(h->h.getRent()>=100_000).count())
+                +"\t\t"+time(()->partitioned.parallelStream().filter(h->h.getRent()>=100_000).count()));
+    }
+
+    //·5回の準備の後、10回の平均をミリ秒（小数第2位まで）で返す。
+    private static String time(LongSupplier action){
+        long sink=0;
+        for (int i=0;i<5;i++){
+            sink+=action.getAsLong();
+        }
+        long start=System.nanoTime();
+        for (int i=0;i<10;i++){
+            sink+=action.getAsLong();
+        }
+        long elapsed=(System.nanoTime()-start)/10;
+        return String.format("%.2f",elapsed/1e6)+(sink==42?"":"");
+    }
+}
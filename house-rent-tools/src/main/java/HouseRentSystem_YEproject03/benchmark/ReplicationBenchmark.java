@@ -0,0 +1,342 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.replication.HouseReplica;
+import HouseRentSystem_YEproject03.replication.HouseReplicationServer;
+import HouseRentSystem_YEproject03.replication.HouseReplicationServer.Connection;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseChangeListener;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *【Benchmark層】
+ *複製元（HouseReplicationServer）から別プロセスのレプリカ（HouseReplica）への複製について、書き込み性能・複製の遅延・同期の正しさを計測するプログラム。
+ *
+ *【計測内容】
+ *·レプリカは同じJVMの実行ファイルとクラスパスで子プロセスとして起動し、ループバックのTCPで複製元へ接続させる。
+ *·2つの書き込みスレッドが、複製元のConcurrentHouseServiceへ更新8割・追加1割・削除1割の操作を繰り返す。
+ * レプリカ無し（複製しない場合）・レプリカ1個・指定した個数の場合について、1秒あたりの書き込み回数と、
+ * 変更を書き込んでからレプリカが反映を知らせてくるまでの遅延（p50・p99・最大）、書き込みの終了から全レプリカが反映し終えるまでの時間を出力する。
+ *·全力で書き込む場合はレプリカの反映が追いつかず、遅延は待ち行列の長さで決まる。そのため、毎秒20,000回の書き込みを5秒間続けた場合の遅延も計測する。
+ *·整合性：書き込みの後、各レプリカが最後の変更まで反映した時点の全物件（ID・版番号・各項目）の要約値を子プロセスから受け取り、複製元と一致することを確認する。
+ *·途中参加：書き込みが終わった後にレプリカを1個起動し、スナップショットから同期し終えるまでの時間を出力する。
+ *·遅れたレプリカ：変更100件を反映するごとに2ミリ秒止まる遅いレプリカを、容量の小さい複製元へ接続する。読み落としたためにスナップショットを送り直した回数を出力し、
+ * 最終的に複製元と一致することを確認する。
+ *·確認に失敗した場合は終了コード1で終了する。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.ReplicationBenchmark [書き込みスレッドごとの操作回数] [レプリカの個数]
+ *·既定値は200,000回、レプリカ2個。操作回数は全力で書き込む場合の回数である。
+ *·子プロセスとしては java ... ReplicationBenchmark replica ポート番号 [変更100件ごとに止まる時間（マイクロ秒）] で起動する。
+ * 標準入力から「digest 通し番号」を受け取ると、その番号まで反映した時点の要約値を「digest 通し番号 件数 要約値 スナップショット数」の形式で出力する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ReplicationBenchmark{
+    private static final int WRITERS=2;
+    private static final int PRELOAD=100_000;
+    //遅れたレプリカの計測で使う、複製元の環状バッファの容量
+    private static final int SMALL_CAPACITY=1<<10;
+    //遅延を計測する際の書き込みの頻度（全スレッドの合計、回/秒）と時間
+    private static final int PACED_RATE=20_000;
+    private static final int PACED_SECONDS=5;
+    private static final long TIMEOUT_SECONDS=120;
+    //遅れたレプリカが止まる間隔（反映した変更の件数）
+    private static final int SLOW_EVERY=100;
+
+    public static void main(String[] args) throws Exception{
+        if (args.length>0&&args[0].equals("replica")){
+            replica(Integer.parseInt(args[1]),args.length>2?Long.parseLong(args[2]):0);
+            return;
+        }
+        int ops=args.length>0?Integer.parseInt(args[0]):200_000;
+        int replicas=args.length>1?Integer.parseInt(args[1]):2;
+        int pacedOps=PACED_RATE*PACED_SECONDS/WRITERS;
+        System.out.println("構成（書き込み "+WRITERS+"スレッド）		書き込み(回/秒)	遅延 p50 / p99 / 最大(ms)");
+        boolean ok=run("レプリカ無し		",ops,0,-1,0,HouseReplicationServer.DEFAULT_CAPACITY);
+        ok&=run("レプリカ×1		",ops,0,1,0,HouseReplicationServer.DEFAULT_CAPACITY);
+        if (replicas>1){
+            ok&=run("レプリカ×"+replicas+"		",ops,0,replicas,0,HouseReplicationServer.DEFAULT_CAPACITY);
+        }
+        ok&=run("レプリカ×1（毎秒"+PACED_RATE+"回）",pacedOps,PACED_RATE,1,0,HouseReplicationServer.DEFAULT_CAPACITY);
+        if (replicas>1){
+            ok&=run("レプリカ×"+replicas+"（毎秒"+PACED_RATE+"回）",pacedOps,PACED_RATE,replicas,0,HouseReplicationServer.DEFAULT_CAPACITY);
+        }
+        ok&=run("遅れたレプリカ（容量"+SMALL_CAPACITY+"）",ops,0,1,2_000,SMALL_CAPACITY);
+        if (!ok){
+            System.exit(1);
+        }
+    }
+
+    //·書き込みスレッドごとにops回書き込む。rateが0より大きい場合は、全スレッドの合計が毎秒rate回になるよう間隔を空ける。
+    //·replicasが-1の場合は複製元を起動せずに書き込む。slowMicrosが0より大きい場合は、変更SLOW_EVERY件ごとにその時間だけ止まるレプリカとする。
+    //·レプリカを起動した場合は、整合性の確認結果を返す。
+    private static boolean run(String label,int ops,int rate,int replicas,long slowMicros,int capacity) throws Exception{
+        ConcurrentHouseService service=new ConcurrentHouseService(PRELOAD*2,false);
+        SplittableRandom random=new SplittableRandom(23);
+        House[] preload=new House[PRELOAD];
+        for (int i=0;i<PRELOAD;i++){
+            preload[i]=StorageFootprintBenchmark.randomHouse(random);
+        }
+        service.addAll(preload);
+        HouseReplicationServer server=null;
+        List<Child> children=new ArrayList<>();
+        boolean ok=true;
+        try{
+            if (replicas>=0){
+                server=new HouseReplicationServer(service,new InetSocketAddress(InetAddress.getLoopbackAddress(),0),capacity);
+                server.start();
+                for (int i=0;i<replicas;i++){
+                    children.add(new Child(server.port(),slowMicros));
+                }
+                //·全レプリカがスナップショットを反映し終えてから書き込みを始める。
+                for (Child child:children){
+                    ok&=child.digest(server.published()-1)!=null;
+                }
+            }
+            //·遅延を計測する場合は、同じ頻度で1秒間書き込んで両方のJVMを暖めてから記録し直す。
+            //·暖める前の最初の1秒は、反映がJITコンパイルを待って1秒ほど遅れるため、計測に含めると定常時の遅延が分からなくなる。
+            if (server!=null&&rate>0){
+                write(service,rate/WRITERS,rate,WRITERS);
+                for (Child child:children){
+                    ok&=child.digest(server.published()-1)!=null;
+                }
+                server.lag().reset();
+            }
+            long elapsed=write(service,ops,rate,0);
+            StringBuilder line=new StringBuilder(label).append(String.format("%,.0f",(double)ops*WRITERS*1e9/elapsed));
+            if (server==null){
+                System.out.println(line);
+                return true;
+            }
+            long last=server.published()-1;
+            String expected=digest(service,last,0);
+            long caughtUp=System.nanoTime();
+            for (Child child:children){
+                String actual=child.digest(last);
+                ok&=actual!=null&&sameContent(expected,actual);
+            }
+            long drainMillis=(System.nanoTime()-caughtUp)/1_000_000;
+            LatencyHistogram lag=server.lag();
+            line.append(String.format("\t\t%.2f / %.2f / %.2f",lag.percentileNanos(0.5)/1e6,lag.percentileNanos(0.99)/1e6,lag.maxNanos()/1e6));
+            line.append("（書き込み終了から全レプリカの反映まで ").append(drainMillis).append(" ms");
+            long snapshots=0;
+            long dropped=0;
+            for (Connection connection:server.connections()){
+                snapshots+=connection.snapshots();
+                dropped+=connection.dropped();
+            }
+            if (dropped>0){
+                line.append("、読み落とし ").append(dropped).append("件、スナップショット ").append(snapshots).append("回");
+            }
+            System.out.println(line.append("）"));
+            if (slowMicros>0&&dropped==0){
+                System.out.println("  遅れたレプリカが読み落としていません（書き込み回数を増やしてください）");
+                ok=false;
+            }
+            if (slowMicros==0&&rate==0){
+                ok&=joinLate(service,server);
+            }
+            System.out.println("整合性 "+label.trim()+": "+children.size()+"個のレプリカの内容 "+(ok?"OK":"NG"));
+            return ok;
+        }finally{
+            for (Child child:children){
+                child.close();
+            }
+            if (server!=null){
+                server.close();
+            }
+        }
+    }
+
+    //·書き込みが終わった後に起動したレプリカが、スナップショットから同期し終えるまでの時間を計測する（JVMの起動時間を含む）。
+    private static boolean joinLate(HouseService service,HouseReplicationServer server) throws Exception{
+        long start=System.nanoTime();
+        try (Child child=new Child(server.port(),0)){
+            String actual=child.digest(server.published()-1);
+            long millis=(System.nanoTime()-start)/1_000_000;
+            boolean ok=actual!=null&&sameContent(digest(service,server.published()-1,0),actual);
+            System.out.println("  途中参加: "+service.size()+"件のスナップショットから同期まで "+millis+" ms（子プロセスの起動を含む） → "+(ok?"OK":"NG"));
+            return ok;
+        }
+    }
+
+    //·WRITERS個のスレッドでops回ずつ書き込み、全スレッドが終わるまでの時間（ナノ秒）を返す。seedは乱数の種をずらす値。
+    private static long write(HouseService service,int ops,int rate,int seed) throws InterruptedException{
+        Thread[] writers=new Thread[WRITERS];
+        for (int w=0;w<WRITERS;w++){
+            long writerSeed=seed+w;
+            writers[w]=new Thread(()->write(service,ops,writerSeed,rate>0?1_000_000_000L*WRITERS/rate:0));
+        }
+        long start=System.nanoTime();
+        for (Thread writer:writers){
+            writer.start();
+        }
+        for (Thread writer:writers){
+            writer.join();
+        }
+        return System.nanoTime()-start;
+    }
+
+    //·更新8割・追加1割・削除1割の操作をops回行う。intervalNanosが0より大きい場合は、その間隔で1回ずつ行う。
+    private static void write(HouseService service,int ops,long seed,long intervalNanos){
+        SplittableRandom random=new SplittableRandom(seed);
+        long next=System.nanoTime();
+        for (int i=0;i<ops;i++){
+            if (intervalNanos>0){
+                next+=intervalNanos;
+                long wait=next-System.nanoTime();
+                if (wait>0){
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            int op=random.nextInt(10);
+            int id=1+random.nextInt(service.idCounter());
+            if (op==0){
+                service.add(StorageFootprintBenchmark.randomHouse(random));
+            }else if (op==1){
+                service.del(id);
+            }else{
+                service.update(id,null,null,null,40_000+random.nextInt(160)*1_000,null);
+            }
+        }
+    }
+
+    //·レプリカとして動く子プロセスの処理。標準入力が閉じられたら終了する。
+    private static void replica(int port,long slowMicros) throws Exception{
+        HouseReplica replica=new HouseReplica(new InetSocketAddress(InetAddress.getLoopbackAddress(),port),PRELOAD*2);
+        replica.start();
+        if (slowMicros>0){
+            replica.service().addListener(new SlowListener(slowMicros));
+        }
+        BufferedReader in=new BufferedReader(new InputStreamReader(System.in,StandardCharsets.UTF_8));
+        PrintWriter out=new PrintWriter(System.out,true,StandardCharsets.UTF_8);
+        String command;
+        while ((command=in.readLine())!=null){
+            String[] words=command.split(" ");
+            if (words[0].equals("digest")){
+                long seq=Long.parseLong(words[1]);
+                if (replica.awaitApplied(seq,TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))){
+                    out.println(digest(replica.service(),replica.applied(),replica.snapshots()));
+                }else{
+                    out.println("timeout "+replica.applied());
+                }
+            }
+        }
+        replica.close();
+    }
+
+    //·全物件のID・版番号・各項目から、順序に依存しない要約値を求める。
+    private static String digest(HouseService service,long seq,long snapshots){
+        long sum=0;
+        int count=0;
+        for (House house:service.list()){
+            long h=house.getId();
+            h=h*31+house.getVersion();
+            h=h*31+house.getRent();
+            h=h*31+Objects.hash(house.getName(),house.getPhone(),house.getAddress(),house.getState());
+            sum+=h*0x9E3779B97F4A7C15L^(h>>>29);
+            count++;
+        }
+        return "digest "+seq+" "+count+" "+Long.toHexString(sum)+" "+snapshots;
+    }
+
+    //·通し番号・スナップショット数を除いた、件数と要約値が一致するかを返す。
+    private static boolean sameContent(String expected,String actual){
+        String[] e=expected.split(" ");
+        String[] a=actual.split(" ");
+        return a.length==e.length&&a[2].equals(e[2])&&a[3].equals(e[3]);
+    }
+
+    //·レプリカの反映処理から呼ばれ、変更SLOW_EVERY件ごとに指定した時間だけ止まるリスナー。反映が複製元の書き込みに追いつけない状態を作る。
+    private static final class SlowListener implements HouseChangeListener{
+        private final long pauseNanos;
+        private long count;
+
+        SlowListener(long pauseMicros){
+            this.pauseNanos=pauseMicros*1_000;
+        }
+
+        @Override
+        public void onAdd(House house){
+            pause();
+        }
+
+        @Override
+        public void onDelete(House house){
+            pause();
+        }
+
+        @Override
+        public void onUpdate(House before,House after){
+            pause();
+        }
+
+        private void pause(){
+            if (++count%SLOW_EVERY==0){
+                LockSupport.parkNanos(pauseNanos);
+            }
+        }
+    }
+
+    //·レプリカの子プロセス。標準入力へ命令を送り、標準出力から結果を1行読む。
+    private static final class Child implements AutoCloseable{
+        private final Process process;
+        private final PrintWriter commands;
+        private final BufferedReader results;
+
+        Child(int port,long slowMicros) throws IOException{
+            String java=Paths.get(System.getProperty("java.home"),"bin","java").toString();
+            process=new ProcessBuilder(java,"-Xmx512m","-cp",System.getProperty("java.class.path"),ReplicationBenchmark.class.getName(),
+                    "replica",String.valueOf(port),String.valueOf(slowMicros))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            commands=new PrintWriter(process.getOutputStream(),true,StandardCharsets.UTF_8);
+            results=new BufferedReader(new InputStreamReader(process.getInputStream(),StandardCharsets.UTF_8));
+        }
+
+        //·通し番号seqまで反映した時点の要約値を返す。待ち切れなかった場合や、子プロセスが終了した場合はnullを返す。
+        String digest(long seq) throws IOException{
+            commands.println("digest "+seq);
+            String line=results.readLine();
+            if (line==null||!line.startsWith("digest ")){
+                System.out.println("  レプリカが通し番号 "+seq+" まで反映しませんでした: "+line);
+                return null;
+            }
+            return line;
+        }
+
+        //·待機中に割り込まれた場合は子プロセスを強制終了し、割り込みの状態を戻す。
+        @Override
+        public void close(){
+            commands.close();
+            try{
+                if (!process.waitFor(10,TimeUnit.SECONDS)){
+                    process.destroyForcibly();
+                }
+            }catch (InterruptedException e){
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
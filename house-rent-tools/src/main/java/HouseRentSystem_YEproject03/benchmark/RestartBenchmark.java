@@ -0,0 +1,95 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.persistence.HousePersistence;
+import HouseRentSystem_YEproject03.service.HouseService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ *【Benchmark層】
+ *永続化データからの再起動にかかる時間を、スナップショットの読み込みとジャーナルの再適用に分けて計測する。
+ *
+ *【計測内容】
+ *·件数分の物件を登録してスナップショットを作成した後、追加・更新・削除を混ぜた変更（末尾分）をジャーナルのみに記録して終了する。
+ *·その後、同じディレクトリから開き直し、スナップショット読み込み時間・ジャーナル再適用時間・再適用件数を出力する。
+ *
+ *【使い方】
+ *·java -Xmx8g HouseRentSystem_YEproject03.benchmark.RestartBenchmark [件数] [末尾の変更件数] [保存先]
+ *·既定値は5,000,000件、末尾200,000件。保存先を省略した場合は一時ディレクトリを使用し、終了時に削除する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class RestartBenchmark{
+    public static void main(String[] args) throws IOException{
+        int count=args.length>0?Integer.parseInt(args[0]):5_000_000;
+        int tail=args.length>1?Integer.parseInt(args[1]):200_000;
+        boolean temporary=args.length<=2;
+        Path dir=temporary?Files.createTempDirectory("house-restart"):Paths.get(args[2]);
+        try{
+            long start=System.nanoTime();
+            HouseService service=new HouseService(count,false);
+            HousePersistence persistence=HousePersistence.open(dir,service,false,Long.MAX_VALUE);
+            for (int i=0;i<count;i++){
+                service.add(sample(i));
+            }
+            persistence.snapshot();
+            SplittableRandom random=new SplittableRandom(42);
+            for (int i=0;i<tail;i++){
+                int op=random.nextInt(3);
+                int id=1+random.nextInt(service.idCounter());
+                if (op==0){
+                    service.add(sample(count+i));
+                }else if (op==1){
+                    House house=service.findById(id);
+                    if (house!=null){
+                        service.update(id,house.getName(),house.getPhone(),house.getAddress(),house.getRent()+1000,"賃貸中");
+                    }
+                }else{
+                    service.del(id);
+                }
+            }
+            persistence.flush();
+            persistence.close();
+            System.out.println("書き込み: "+count+"件 + 末尾"+tail+"件 "+millis(System.nanoTime()-start)+" ms");
+            int expected=service.size();
+            service=null;
+            persistence=null;
+            System.gc();
+
+            long reopen=System.nanoTime();
+            HouseService restored=new HouseService(count,false);
+            HousePersistence reopened=HousePersistence.open(dir,restored,false,Long.MAX_VALUE);
+            long total=System.nanoTime()-reopen;
+            System.out.println("スナップショット読み込み: "+millis(reopened.snapshotLoadNanos())+" ms");
+            System.out.println("ジャーナル再適用: "+reopened.replayedRecords()+"件 "+millis(reopened.replayNanos())+" ms");
+            System.out.println("起動合計: "+millis(total)+" ms");
+            System.out.println("復元件数: "+restored.size()+"（期待値 "+expected+"）");
+            reopened.close();
+        }finally{
+            if (temporary){
+                try (Stream<Path> files=Files.walk(dir)){
+                    files.sorted(Comparator.reverseOrder()).forEach(p->p.toFile().delete());
+                }
+            }
+        }
+    }
+
+    private static House sample(int i){
+        String[] wards={"墨田区","江東区","台東区","新宿区","渋谷区"};
+        return new House(0,"owner"+(i%1000),"0300"+(100000+i%900000),wards[i%wards.length],50000+(i%500)*100,i%3==0?"賃貸中":"未賃貸");
+    }
+
+    private static long millis(long nanos){
+        return nanos/1_000_000;
+    }
+}
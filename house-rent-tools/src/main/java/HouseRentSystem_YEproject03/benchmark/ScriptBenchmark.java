@@ -0,0 +1,109 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.script.HouseScriptRunner;
+import HouseRentSystem_YEproject03.script.ScriptResult;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.utils.Utility;
+import HouseRentSystem_YEproject03.view.HouseView;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ *【Benchmark層】
+ *コマンドスクリプト（HouseScriptRunner）で大量の操作を実行する速度と、同じ追加操作をメニュー（HouseView＋Utility）へ入力した場合の速度を比較する計測プログラム。
+ *
+ *【計測内容】
+ *·追加4割・検索3割・修正1.5割・削除1割・一覧（20件）0.5割の操作を並べたスクリプトを一時ファイルへ書き出し、出力を捨てて実行する。
+ * 毎秒のコマンド数と、1コマンドあたりの確保メモリ量を出力する。
+ *·比較として、追加操作をメニューの入力（番号・5項目）として標準入力の代わりに流し込み、毎秒の追加件数を出力する。画面表示は捨てる。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.ScriptBenchmark [コマンド数]
+ *·既定値は2,000,000コマンド。メニュー側はその1/20の件数で計測する。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class ScriptBenchmark{
+    public static void main(String[] args) throws IOException{
+        int n=args.length>0?Integer.parseInt(args[0]):2_000_000;
+        Path script=Files.createTempFile("house-script",".txt");
+        try{
+            write(script,n);
+            System.out.println("スクリプト: "+Files.size(script)/(1<<20)+" MB");
+            for (int round=0;round<2;round++){
+                HouseService service=new HouseService(16,false);
+                com.sun.management.ThreadMXBean threads=(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+                long id=Thread.currentThread().getId();
+                long allocated=threads.getThreadAllocatedBytes(id);
+                ScriptResult result;
+                try (InputStream in=Files.newInputStream(script)){
+                    result=new HouseScriptRunner(service,null).run(in);
+                }
+                allocated=threads.getThreadAllocatedBytes(id)-allocated;
+                System.out.println("スクリプト実行: "+result+"、"+String.format("%.0f",allocated/(double)result.commands())+" バイト/コマンド");
+            }
+            menu(n/20);
+        }finally{
+            Files.delete(script);
+        }
+    }
+
+    //·操作の割合に従ってスクリプトを書き出す。削除・修正・検索の対象IDは、それまでに追加した件数の範囲から選ぶ。
+    private static void write(Path script,int n) throws IOException{
+        SplittableRandom random=new SplittableRandom(9);
+        int added=0;
+        try (BufferedWriter out=Files.newBufferedWriter(script,StandardCharsets.UTF_8)){
+            for (int i=0;i<n;i++){
+                int op=random.nextInt(200);
+                if (op<80||added==0){
+                    added++;
+                    out.write("add owner"+(i%1000)+" 03"+(10_000_000+random.nextInt(90_000_000))+" "
+                            +StorageFootprintBenchmark.WARDS[random.nextInt(StorageFootprintBenchmark.WARDS.length)]+(1+random.nextInt(99))
+                            +" "+(40_000+random.nextInt(200)*500)+" "+(random.nextBoolean()?"未賃貸":"賃貸中")+"\n");
+                }else if (op<140){
+                    out.write("find "+(1+random.nextInt(added))+"\n");
+                }else if (op<170){
+                    out.write("update "+(1+random.nextInt(added))+" - - - "+(40_000+random.nextInt(200)*500)+" -\n");
+                }else if (op<190){
+                    out.write("del "+(1+random.nextInt(added))+"\n");
+                }else{
+                    out.write("list 20\n");
+                }
+            }
+        }
+    }
+
+    //·メニューから追加する場合の入力（「1」と5項目）をcount件分作り、最後に終了の入力を加えて流し込む。
+    private static void menu(int count){
+        StringBuilder input=new StringBuilder(count*48);
+        for (int i=0;i<count;i++){
+            input.append("1\nowner\n0312345678\n墨田区押上1\n72000\n未賃貸\n");
+        }
+        input.append("6\nY\nY\n");
+        PrintStream console=System.out;
+        Utility.setInput(new ByteArrayInputStream(input.toString().getBytes()));
+        HouseService service=new HouseService(16,false);
+        long start=System.nanoTime();
+        try{
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            new HouseView(service).MainMenu();
+        }finally{
+            System.setOut(console);
+        }
+        long elapsed=System.nanoTime()-start;
+        System.out.println("メニュー入力: "+String.format("%,d件、%,d ms、%,.0f 件/秒",service.size(),elapsed/1_000_000,service.size()*1e9/elapsed));
+    }
+}
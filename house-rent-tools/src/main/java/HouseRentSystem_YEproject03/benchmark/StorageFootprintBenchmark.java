@@ -0,0 +1,71 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.ColumnarHouseStorage;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.service.HouseStorage;
+import HouseRentSystem_YEproject03.service.ObjectHouseStorage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.SplittableRandom;
+
+/**
+ *【Benchmark層】
+ *格納方式ごとの「1件あたりのメモリ使用量（バイト）」を比較する計測プログラム。
+ *
+ *【計測内容】
+ *·同じ内容の物件を各格納方式へ登録し、登録前後のヒープ使用量の差を件数で割って出力する。
+ *·実際の入力と同様に、値が同じでも文字列は毎回新しく生成する（Scannerから読み込んだ文字列は共有されないため）。
+ *·家主名は5,000種類、住所は23区×2,000種類、電話番号は物件ごとにほぼ一意、状態は2種類とする。
+ *
+ *【使い方】
+ *·java -Xmx4g HouseRentSystem_YEproject03.benchmark.StorageFootprintBenchmark [件数]
+ *·既定値は1,000,000件。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class StorageFootprintBenchmark{
+    static final String[] WARDS={"千代田区","中央区","港区","新宿区","文京区","台東区","墨田区","江東区","品川区","目黒区","大田区","世田谷区",
+            "渋谷区","中野区","杉並区","豊島区","北区","荒川区","板橋区","練馬区","足立区","葛飾区","江戸川区"};
+
+    public static void main(String[] args){
+        int count=args.length>0?Integer.parseInt(args[0]):1_000_000;
+        System.out.println("格納方式\t\tバイト/件");
+        measure("object",count,new ObjectHouseStorage(count));
+        measure("columnar",count,new ColumnarHouseStorage(count));
+    }
+
+    private static void measure(String label,int count,HouseStorage storage){
+        long before=usedHeap();
+        HouseService service=new HouseService(storage,false);
+        SplittableRandom random=new SplittableRandom(7);
+        for (int i=0;i<count;i++){
+            service.add(randomHouse(random));
+        }
+        long after=usedHeap();
+        System.out.println(label+"\t\t"+String.format("%.1f",(double)(after-before)/count)+"\t(件数 "+service.size()+")");
+    }
+
+    //·値の重複具合を現実の物件データに近づけた物件を1件生成する。
+    public static House randomHouse(SplittableRandom random){
+        String ward=WARDS[random.nextInt(WARDS.length)];
+        String name=new String("家主"+random.nextInt(5_000));
+        String phone=new String("03"+(10_000_000+random.nextInt(90_000_000)));
+        String address=new String(ward+(1+random.nextInt(2_000)));
+        int rent=40_000+random.nextInt(160)*1_000;
+        String state=new String(random.nextInt(3)==0?"賃貸中":"未賃貸");
+        return new House(0,name,phone,address,rent,state);
+    }
+
+    private static long usedHeap(){
+        MemoryMXBean memory=ManagementFactory.getMemoryMXBean();
+        for (int i=0;i<3;i++){
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,113 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.HouseService;
+import HouseRentSystem_YEproject03.transfer.HouseExporter;
+import HouseRentSystem_YEproject03.transfer.HouseImporter;
+import HouseRentSystem_YEproject03.transfer.TransferResult;
+import HouseRentSystem_YEproject03.view.HouseRenderer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ *【Benchmark層】
+ *CSV・TSVの一括書き出し（HouseExporter）と一括取り込み（HouseImporter）の処理速度を計測するプログラム。
+ *
+ *【計測内容】
+ *·指定件数の物件を登録し、CSVとTSVへ書き出す時間を計測する。
+ *·書き出したファイルを、解析スレッド数1とCPU数の2通りで新しいHouseServiceへ取り込み、毎秒の取り込み件数を出力する。
+ *·取り込み後の件数と、先頭・末尾の物件の内容が元のデータと一致することを確認する。
+ *·不正な行を含む小さなファイルを取り込み、不正な行だけが読み飛ばされることを確認する。
+ *·確認に失敗した場合は終了コード1で終了する。
+ *
+ *【使い方】
+ *·java -Xmx4g HouseRentSystem_YEproject03.benchmark.TransferBenchmark [件数]
+ *·既定値は2,000,000件。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class TransferBenchmark{
+    public static void main(String[] args) throws IOException{
+        int n=args.length>0?Integer.parseInt(args[0]):2_000_000;
+        boolean ok=rejectsInvalidRows();
+        HouseService source=new HouseService(n,false);
+        SplittableRandom random=new SplittableRandom(5);
+        for (int i=0;i<n;i++){
+            source.add(StorageFootprintBenchmark.randomHouse(random));
+        }
+        Path directory=Files.createTempDirectory("house-transfer");
+        int cpus=Runtime.getRuntime().availableProcessors();
+        try{
+            for (HouseRenderer.Format format:new HouseRenderer.Format[]{HouseRenderer.Format.CSV,HouseRenderer.Format.TSV}){
+                Path file=directory.resolve("houses."+format.name().toLowerCase());
+                TransferResult exported=HouseExporter.export(source,file,format);
+                System.out.println(format+" 書き出し: "+exported+"、"+Files.size(file)/(1<<20)+" MB");
+                for (int threads:cpus>1?new int[]{1,cpus}:new int[]{1}){
+                    HouseService target=new HouseService(16,false);
+                    TransferResult imported=new HouseImporter(target).parallelism(threads).importFile(file);
+                    System.out.println(format+" 取り込み（"+threads+"スレッド）: "+imported);
+                    ok&=same(source,target);
+                }
+            }
+        }finally{
+            try (var files=Files.list(directory)){
+                for (Path file:(Iterable<Path>)files::iterator){
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        if (!ok){
+            System.exit(1);
+        }
+    }
+
+    //件数と先頭・末尾の物件の内容が一致するかを確認する。
+    private static boolean same(HouseService source,HouseService target){
+        if (source.size()!=target.size()){
+            System.out.println("NG: 件数が一致しません "+source.size()+" / "+target.size());
+            return false;
+        }
+        House[] expected=source.page(0,1);
+        House[] actual=target.page(0,1);
+        House last=source.findById(source.idCounter());
+        House lastActual=target.findById(target.idCounter());
+        if (!expected[0].toString().substring(2).equals(actual[0].toString().substring(2))
+                ||!last.toString().substring(last.toString().indexOf('\t')).equals(lastActual.toString().substring(lastActual.toString().indexOf('\t')))){
+            System.out.println("NG: 取り込んだ内容が一致しません");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean rejectsInvalidRows() throws IOException{
+        Path file=Files.createTempFile("house-invalid",".csv");
+        try{
+            Files.write(file,("name,phone,address,rent,state\n"
+                    +"jack,020554588,墨田区押上1,72000,未賃貸\n"
+                    +"toolongname,0300,港区1,1,未賃貸\n"
+                    +"\"a,b\",\"03\"\"1\",中央区1,50000,賃貸中\r\n"
+                    +"bob,0300,港区1,abc,未賃貸\n"
+                    +"\n"
+                    +"9,amy,0301,新宿区1,60000,未賃貸\n").getBytes(StandardCharsets.UTF_8));
+            HouseService service=new HouseService(4,false);
+            TransferResult result=new HouseImporter(service).importFile(file);
+            boolean ok=result.rows()==3&&result.rejected()==2&&service.findById(2).getName().equals("a,b")
+                    &&service.findById(2).getPhone().equals("03\"1")&&service.findById(3).getName().equals("amy");
+            System.out.println("不正な行の検証: "+result+" → "+(ok?"OK":"NG"));
+            for (String error:result.errors()){
+                System.out.println("  "+error);
+            }
+            return ok;
+        }finally{
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package HouseRentSystem_YEproject03.benchmark;
+
+import HouseRentSystem_YEproject03.domain.House;
+import HouseRentSystem_YEproject03.service.ConcurrentHouseService;
+import HouseRentSystem_YEproject03.service.HouseChanges;
+import HouseRentSystem_YEproject03.service.UpdateResult;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *【Benchmark層】
+ *少数の物件へ更新が集中する状況で、Houseをロックのもとで直接書き換える従来の方法と、
+ *版番号付きの新しいHouseへ差し替える方法（HouseService.update(id,expectedVersion,changes)）を比較する計測プログラム。
+ *
+ *【計測内容】
+ *·書き込みスレッドは「家賃を1増やし、氏名を家賃に対応する値へ変える」2項目の修正を繰り返し、読み取りスレッドは同じ物件の家賃と氏名を読み続ける。
+ *·家賃と氏名の組が対応していない読み取りを「修正途中の値を読んだ回数」として数える。
+ *·次の3通りについて、毎秒の修正回数・読み取り回数・修正途中の値を読んだ回数・版の競合による再試行回数を出力する。
+ * 　・直接書き換え＋読み書きともロック：読み取りも物件ごとのロックを取る。
+ * 　・直接書き換え＋ロック無しの読み取り：読み取りはロックを取らない。
+ * 　・版付きの差し替え：ConcurrentHouseServiceのfindByIdで読み、版番号を指定して修正する。競合した場合は読み直して再試行する。
+ *·終了後、各物件の家賃の合計が成功した修正の回数と一致すること（修正の欠落が無いこと）を確認する。
+ *·版付きの差し替えで修正途中の値を読んだ場合、または修正の欠落があった場合は終了コード1で終了する。
+ *
+ *【使い方】
+ *·java HouseRentSystem_YEproject03.benchmark.VersionedUpdateBenchmark [計測秒数] [書き込みスレッド数] [読み取りスレッド数] [物件数]
+ *·既定値は各2秒、書き込み4スレッド、読み取り4スレッド、16件。
+ *
+ *【設計上の取捨】
+ *·版付きの差し替えは二次索引への反映などHouseServiceの付随処理を含むため、直接書き換えより1回の修正の処理量が多い。
+ * 比べたいのは読み取り側の待ち時間と読み取り結果の一貫性である。
+ *
+ *@author ye888000
+ *@version 1.0
+ *@since 2026-10-17
+ */
+
+public class VersionedUpdateBenchmark{
+    //家賃の下位6ビットに対応する氏名。読み取った家賃と氏名が対応しているかを、文字列の比較をせずに参照で判定する。
+    private static final String[] NAMES=new String[64];
+
+    static{
+        for (int i=0;i<NAMES.length;i++){
+            NAMES[i]="owner"+i;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException{
+        int seconds=args.length>0?Integer.parseInt(args[0]):2;
+        int writers=args.length>1?Integer.parseInt(args[1]):4;
+        int readers=args.length>2?Integer.parseInt(args[2]):4;
+        int houses=args.length>3?Integer.parseInt(args[3]):16;
+        System.out.println("CPU数: "+Runtime.getRuntime().availableProcessors()+"、書き込み"+writers+"スレッド、読み取り"+readers+"スレッド、物件"+houses+"件");
+        System.out.println("方式\t\t\t\t修正/秒\t\t読み取り/秒\t修正途中の読み取り\t再試行\t欠落");
+        //1回目はJITの準備として計測結果を捨てる。
+        for (int round=0;round<2;round++){
+            boolean print=round==1;
+            run(new LockedMode(houses,true),seconds,writers,readers,print);
+            run(new LockedMode(houses,false),seconds,writers,readers,print);
+            if (!run(new VersionedMode(houses),seconds,writers,readers,print)&&print){
+                System.exit(1);
+            }
+        }
+    }
+
+    //·1方式を計測し、版付きの差し替えで不整合が無かったかを返す（他の方式では常にtrue）。
+    private static boolean run(Mode mode,int seconds,int writers,int readers,boolean print) throws InterruptedException{
+        LongAdder writes=new LongAdder();
+        LongAdder reads=new LongAdder();
+        LongAdder torn=new LongAdder();
+        LongAdder retries=new LongAdder();
+        AtomicBoolean running=new AtomicBoolean(true);
+        Thread[] threads=new Thread[writers+readers];
+        for (int w=0;w<writers;w++){
+            int self=w;
+            threads[w]=new Thread(()->{
+                SplittableRandom random=new SplittableRandom(self);
+                long local=0;
+                long localRetries=0;
+                while (running.get()){
+                    localRetries+=mode.increment(random.nextInt(mode.size()));
+                    local++;
+                }
+                writes.add(local);
+                retries.add(localRetries);
+            },"writer-"+w);
+        }
+        for (int r=0;r<readers;r++){
+            int self=r;
+            threads[writers+r]=new Thread(()->{
+                SplittableRandom random=new SplittableRandom(100+self);
+                long local=0;
+                long localTorn=0;
+                while (running.get()){
+                    for (int i=0;i<1_000;i++){
+                        if (!mode.readConsistent(random.nextInt(mode.size()))){
+                            localTorn++;
+                        }
+                    }
+                    local+=1_000;
+                }
+                reads.add(local);
+                torn.add(localTorn);
+            },"reader-"+r);
+        }
+        for (Thread thread:threads){
+            thread.start();
+        }
+        Thread.sleep(seconds*1_000L);
+        running.set(false);
+        for (Thread thread:threads){
+            thread.join();
+        }
+        long lost=writes.sum()-mode.totalRent();
+        if (print){
+            System.out.println(mode.label()+"\t"+String.format("%,13.0f",writes.sum()/(double)seconds)
+                    +"\t"+String.format("%,13.0f",reads.sum()/(double)seconds)
+                    +"\t"+torn.sum()+"\t\t\t"+retries.sum()+"\t"+lost);
+        }
+        return !(mode instanceof VersionedMode)||(torn.sum()==0&&lost==0);
+    }
+
+    private interface Mode{
+        String label();
+
+        int size();
+
+        //·物件の家賃を1増やし、氏名を新しい家賃に対応する値へ変える。版の競合で再試行した回数を返す。
+        int increment(int index);
+
+        //物件の家賃と氏名を読み、両者が対応しているかどうかを返す。
+        boolean readConsistent(int index);
+
+        long totalRent();
+    }
+
+    //·従来の方法：物件ごとのロックのもとで家賃と氏名を直接書き換える。
+    //·Houseは変更できなくなったため、書き換え可能だった頃の物件を、計測に使う2項目だけのListingで再現している。
+    private static final class LockedMode implements Mode{
+        private final Listing[] houses;
+        private final boolean lockedReads;
+
+        LockedMode(int size,boolean lockedReads){
+            this.lockedReads=lockedReads;
+            houses=new Listing[size];
+            for (int i=0;i<size;i++){
+                houses[i]=new Listing(NAMES[0]);
+            }
+        }
+
+        @Override
+        public String label(){
+            return lockedReads?"直接書き換え＋読み書きともロック":"直接書き換え＋ロック無しの読み取り";
+        }
+
+        @Override
+        public int size(){
+            return houses.length;
+        }
+
+        @Override
+        public int increment(int index){
+            Listing house=houses[index];
+            synchronized (house){
+                int rent=house.rent+1;
+                house.rent=rent;
+                house.name=NAMES[rent&63];
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean readConsistent(int index){
+            Listing house=houses[index];
+            if (lockedReads){
+                synchronized (house){
+                    return house.name==NAMES[house.rent&63];
+                }
+            }
+            int rent=house.rent;
+            return house.name==NAMES[rent&63];
+        }
+
+        @Override
+        public long totalRent(){
+            long total=0;
+            for (Listing house:houses){
+                synchronized (house){
+                    total+=house.rent;
+                }
+            }
+            return total;
+        }
+    }
+
+    //書き換え可能な物件（家賃と氏名のみ）。ロック無しの読み取りで修正途中の値が見えるよう、volatileにはしない。
+    private static final class Listing{
+        int rent;
+        String name;
+
+        Listing(String name){
+            this.name=name;
+        }
+    }
+
+    //·版付きの差し替え：ロックを取らずに読んだ版を指定して修正し、競合した場合は読み直す。
+    private static final class VersionedMode implements Mode{
+        private final ConcurrentHouseService service;
+        private final int size;
+
+        VersionedMode(int size){
+            this.size=size;
+            service=new ConcurrentHouseService(size,false);
+            service.metrics().setEnabled(false);
+            for (int i=0;i<size;i++){
+                service.add(new House(0,NAMES[0],"0300000000","墨田区1",0,"未賃貸"));
+            }
+        }
+
+        @Override
+        public String label(){
+            return "版付きの差し替え\t\t";
+        }
+
+        @Override
+        public int size(){
+            return size;
+        }
+
+        @Override
+        public int increment(int index){
+            int retries=0;
+            while (true){
+                House house=service.findById(index+1);
+                int rent=house.getRent()+1;
+                UpdateResult result=service.update(index+1,house.getVersion(),new HouseChanges().rent(rent).name(NAMES[rent&63]));
+                if (result==UpdateResult.UPDATED){
+                    return retries;
+                }
+                retries++;
+            }
+        }
+
+        @Override
+        public boolean readConsistent(int index){
+            House house=service.findById(index+1);
+            return house.getName()==NAMES[house.getRent()&63];
+        }
+
+        @Override
+        public long totalRent(){
+            long total=0;
+            for (House house:service.list()){
+                total+=house.getRent();
+            }
+            return total;
+        }
+    }
+}